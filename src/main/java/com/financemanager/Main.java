@@ -1,11 +1,22 @@
 package com.financemanager;
 
+import com.financemanager.api.FinanceApiServer;
 import com.financemanager.model.*;
+import com.financemanager.service.CategoryRule;
 import com.financemanager.service.FinanceService;
+import com.financemanager.service.StandingOrder;
+import com.financemanager.service.StandingOrderScheduler;
+import com.financemanager.service.StatementIngestDaemon;
 import com.financemanager.service.TransactionService;
 import com.financemanager.view.FinanceManagerGUI;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
 
 /**
  * Main application class for Personal Finance Manager
@@ -21,11 +32,88 @@ public class Main {
         
         // Create sample data for demonstration
         createSampleData(financeService, transactionService);
+        // Changes made from here on can be undone; the sample data is the starting point
+        financeService.enableUndo(100);
+        
+        // A sample monthly savings transfer posts itself when started with --standing-orders
+        startStandingOrders(financeService, args);
+        
+        // Other services reach the same ledger over HTTP when started with --api-port <port>
+        FinanceApiServer apiServer = startApiServer(financeService, args);
+        
+        // Bank exports dropped into the folder given with --inbox <dir> are posted automatically
+        StatementIngestDaemon statementInbox = startStatementInbox(financeService, args);
         
         // Launch GUI
         FinanceManagerGUI.launch(financeService);
         
         System.out.println("Personal Finance Manager started successfully!");
+        if (apiServer != null) {
+            apiServer.close();
+        }
+        if (statementInbox != null) {
+            statementInbox.close();
+        }
+    }
+    
+    /**
+     * Schedules the sample standing order only when asked for; it moves real money between
+     * the sample accounts every month, so a plain launch must not set it up
+     */
+    private static void startStandingOrders(FinanceService financeService, String[] args) {
+        if (!List.of(args).contains("--standing-orders")) {
+            return;
+        }
+        // Standing orders post themselves when due; the ticker is a daemon thread
+        StandingOrderScheduler standingOrders = new StandingOrderScheduler(financeService);
+        standingOrders.schedule(StandingOrder.transfer("SO_SAVINGS", "ACC_001", "ACC_002", new BigDecimal("200.00"),
+            "Monthly savings", LocalDate.now().withDayOfMonth(1).plusMonths(1).atStartOfDay(), Period.ofMonths(1)));
+        standingOrders.start();
+        System.out.println("Monthly savings standing order scheduled");
+    }
+    
+    private static FinanceApiServer startApiServer(FinanceService financeService, String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--api-port")) {
+                configureHttpServer();
+                try {
+                    FinanceApiServer server = new FinanceApiServer(financeService, Integer.parseInt(args[i + 1]));
+                    server.start();
+                    System.out.println("HTTP API listening on port " + server.getPort());
+                    return server;
+                } catch (IOException | NumberFormatException e) {
+                    System.err.println("Could not start the HTTP API: " + e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Tunes the JDK HTTP server unless the same -D flags were given; it reads them once, when its
+     * classes load. It closes keep-alive connections beyond 200 idle ones by default, and without
+     * TCP_NODELAY the separate writes of headers and chunks wait on delayed ACKs, ~40ms per response.
+     */
+    private static void configureHttpServer() {
+        System.setProperty("sun.net.httpserver.maxIdleConnections",
+            System.getProperty("sun.net.httpserver.maxIdleConnections", "16384"));
+        System.setProperty("sun.net.httpserver.nodelay", System.getProperty("sun.net.httpserver.nodelay", "true"));
+    }
+    
+    private static StatementIngestDaemon startStatementInbox(FinanceService financeService, String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--inbox")) {
+                try {
+                    StatementIngestDaemon daemon = new StatementIngestDaemon(financeService, Path.of(args[i + 1]));
+                    daemon.start();
+                    System.out.println("Watching " + args[i + 1] + " for statement files");
+                    return daemon;
+                } catch (IOException | InvalidPathException e) {
+                    System.err.println("Could not watch the statement inbox: " + e.getMessage());
+                }
+            }
+        }
+        return null;
     }
     
     /**
@@ -41,6 +129,21 @@ public class Main {
         financeService.addAccount(savingsAccount);
         financeService.addAccount(creditCard);
         
+        // Keyword rules fill in the category of transactions that arrive without one
+        financeService.setCategorizationRules(List.of(
+            new CategoryRule("netflix", Category.ENTERTAINMENT),
+            new CategoryRule("spotify", Category.ENTERTAINMENT),
+            new CategoryRule("grocery", Category.FOOD),
+            new CategoryRule("restaurant", Category.FOOD),
+            new CategoryRule("gas station", Category.TRANSPORTATION),
+            new CategoryRule("uber", Category.TRANSPORTATION),
+            new CategoryRule("pharmacy", Category.HEALTHCARE),
+            new CategoryRule("rent", Category.HOUSING),
+            new CategoryRule("rental car", Category.TRAVEL, 1),
+            new CategoryRule("electric", Category.UTILITIES),
+            new CategoryRule("payroll", Category.SALARY),
+            new CategoryRule("dividend", Category.INVESTMENT)));
+
         // Create sample transactions
         try {
             // Income transactions
@@ -0,0 +1,335 @@
+package com.financemanager.api;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Closed-loop throughput benchmark for FinanceApiServer
+ * Opens a fixed number of keep-alive connections and keeps one request in flight on each: as
+ * soon as a response is complete the connection sends the next one, until the duration is up.
+ * Connections are driven by a few non-blocking selector loops rather than a thread each, so a
+ * single client process can hold ten thousand of them open. Timing starts once every
+ * connection is established. Reports requests per second, errors and latency percentiles.
+ * Usage:
+ * <pre>
+ *   java com.financemanager.api.FinanceApiBenchmark http://localhost:8080/api/reports/balance [connections] [seconds]
+ * </pre>
+ */
+public final class FinanceApiBenchmark {
+    private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final byte[] LINE_END = {'\r', '\n'};
+
+    private FinanceApiBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: FinanceApiBenchmark <url> [connections] [seconds]");
+            System.exit(2);
+        }
+        URI target = URI.create(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        System.out.println(run(target, connections, duration));
+    }
+
+    public static Result run(URI target, int connections, Duration duration) throws IOException, InterruptedException {
+        InetSocketAddress address = new InetSocketAddress(target.getHost(), target.getPort() > 0 ? target.getPort() : 80);
+        String path = target.getRawPath() + (target.getRawQuery() != null ? "?" + target.getRawQuery() : "");
+        byte[] request = ("GET " + path + " HTTP/1.1\r\nHost: " + target.getHost() + ":" + address.getPort()
+            + "\r\nAccept: application/json\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        int loops = Math.max(1, Math.min(connections, Runtime.getRuntime().availableProcessors() / 2));
+        List<Loop> workers = new ArrayList<>(loops);
+        for (int i = 0; i < loops; i++) {
+            workers.add(new Loop(address, request, connections / loops + (i < connections % loops ? 1 : 0)));
+        }
+        for (Loop worker : workers) {
+            worker.connect();
+        }
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        List<Thread> threads = new ArrayList<>(loops);
+        for (Loop worker : workers) {
+            Thread thread = new Thread(() -> worker.run(deadline), "api-benchmark-" + threads.size());
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        long errors = 0;
+        int total = 0;
+        for (Loop worker : workers) {
+            errors += worker.errors;
+            total += worker.count;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Loop worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(latencies);
+        return new Result(total, errors, elapsed, latencies);
+    }
+
+    /**
+     * Length of the complete response at the start of the buffer, or -1 while more bytes are
+     * needed; handles Content-Length and chunked bodies, which is all the server sends
+     */
+    static int responseLength(byte[] buffer, int length) {
+        int headerEnd = indexOf(buffer, 0, length, HEADER_END);
+        if (headerEnd < 0) {
+            return -1;
+        }
+        int bodyStart = headerEnd + HEADER_END.length;
+        String headers = new String(buffer, 0, headerEnd, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+        int status = status(buffer);
+        if (status == 204 || status == 304) {
+            return bodyStart;
+        }
+        int contentLength = headers.indexOf("\r\ncontent-length:");
+        if (contentLength >= 0) {
+            int valueStart = contentLength + "\r\ncontent-length:".length();
+            int valueEnd = headers.indexOf("\r\n", valueStart);
+            int bodyLength = Integer.parseInt(headers.substring(valueStart, valueEnd < 0 ? headers.length() : valueEnd).trim());
+            return bodyStart + bodyLength <= length ? bodyStart + bodyLength : -1;
+        }
+        if (!headers.contains("\r\ntransfer-encoding: chunked")) {
+            throw new IllegalStateException("Response has neither a length nor chunked encoding");
+        }
+        int position = bodyStart;
+        while (true) {
+            int lineEnd = indexOf(buffer, position, length, LINE_END);
+            if (lineEnd < 0) {
+                return -1;
+            }
+            String sizeLine = new String(buffer, position, lineEnd - position, StandardCharsets.ISO_8859_1);
+            int extension = sizeLine.indexOf(';');
+            int chunkSize = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            position = lineEnd + LINE_END.length + chunkSize + LINE_END.length;
+            if (position > length) {
+                return -1;
+            }
+            if (chunkSize == 0) {
+                return position;
+            }
+        }
+    }
+
+    static int status(byte[] buffer) {
+        // "HTTP/1.1 200 ..."
+        return (buffer[9] - '0') * 100 + (buffer[10] - '0') * 10 + (buffer[11] - '0');
+    }
+
+    private static int indexOf(byte[] buffer, int from, int length, byte[] pattern) {
+        for (int i = from; i <= length - pattern.length; i++) {
+            int matched = 0;
+            while (matched < pattern.length && buffer[i + matched] == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One selector thread and its share of the connections
+     */
+    private static final class Loop {
+        private final InetSocketAddress address;
+        private final byte[] request;
+        private final Selector selector;
+        private final Connection[] connections;
+        private long[] latencies = new long[4096];
+        private int count;
+        private long errors;
+
+        Loop(InetSocketAddress address, byte[] request, int connectionCount) throws IOException {
+            this.address = address;
+            this.request = request;
+            this.selector = Selector.open();
+            this.connections = new Connection[connectionCount];
+        }
+
+        void connect() throws IOException {
+            for (int i = 0; i < connections.length; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.connect(address);
+                connections[i] = new Connection(channel, ByteBuffer.wrap(request));
+                channel.register(selector, SelectionKey.OP_CONNECT, connections[i]);
+            }
+            int pending = connections.length;
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+            while (pending > 0) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException(pending + " connections could not be established");
+                }
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    ((SocketChannel) key.channel()).finishConnect();
+                    key.interestOps(0);
+                    pending--;
+                }
+                selector.selectedKeys().clear();
+            }
+        }
+
+        void run(long deadline) {
+            int open = connections.length;
+            for (Connection connection : connections) {
+                send(connection);
+            }
+            try {
+                while (open > 0) {
+                    selector.select(100);
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isWritable()) {
+                                write(connection);
+                            } else if (key.isReadable() && read(connection)) {
+                                if (System.nanoTime() < deadline) {
+                                    send(connection);
+                                } else {
+                                    connection.close();
+                                    open--;
+                                }
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            errors++;
+                            connection.close();
+                            open--;
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+                selector.close();
+            } catch (IOException e) {
+                errors++;
+            }
+        }
+
+        private void send(Connection connection) {
+            connection.out.rewind();
+            connection.sentAt = System.nanoTime();
+            try {
+                write(connection);
+            } catch (IOException e) {
+                errors++;
+            }
+        }
+
+        private void write(Connection connection) throws IOException {
+            connection.channel.write(connection.out);
+            int interest = connection.out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            connection.channel.keyFor(selector).interestOps(interest);
+        }
+
+        /**
+         * Reads what has arrived; true once the response is complete
+         */
+        private boolean read(Connection connection) throws IOException {
+            ByteBuffer in = connection.in;
+            if (!in.hasRemaining()) {
+                connection.in = in = ByteBuffer.wrap(Arrays.copyOf(in.array(), in.capacity() * 2)).position(in.position());
+            }
+            if (connection.channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            int complete = responseLength(in.array(), in.position());
+            if (complete < 0) {
+                return false;
+            }
+            if (status(in.array()) >= 400) {
+                errors++;
+            } else {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - connection.sentAt;
+            }
+            in.clear();
+            return true;
+        }
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer out;
+        ByteBuffer in = ByteBuffer.allocate(8 * 1024);
+        long sentAt;
+
+        Connection(SocketChannel channel, ByteBuffer out) {
+            this.channel = channel;
+            this.out = out;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+
+    public static final class Result {
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        Result(long requests, long errors, long elapsedNanos, long[] sortedLatencies) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        public long getRequests() { return requests; }
+        public long getErrors() { return errors; }
+
+        public double getRequestsPerSecond() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Latency at the given quantile (0 to 1) in microseconds
+         */
+        public long getLatencyMicros(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.floor(quantile * sortedLatencies.length));
+            return sortedLatencies[index] / 1_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d errors, %.0f req/s, latency p50=%dus p99=%dus p99.9=%dus",
+                requests, errors, getRequestsPerSecond(), getLatencyMicros(0.5), getLatencyMicros(0.99),
+                getLatencyMicros(0.999));
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package com.financemanager.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.financemanager.model.*;
+import com.financemanager.service.AnalyticsReport;
+import com.financemanager.service.DuplicateIdException;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.HeavyHitter;
+import com.financemanager.service.TransactionSort;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/JSON access to a FinanceService on the JDK's built-in server
+ * Routes, all under /api:
+ * <pre>
+ *   GET    /accounts                      POST /accounts
+ *   GET    /accounts/{id}                 DELETE /accounts/{id}
+ *   GET    /accounts/{id}/transactions
+ *   GET    /transactions?search=&amp;sort=DATE&amp;ascending=false&amp;offset=0&amp;limit=100
+ *   POST   /transactions                  POST /transactions/bulk (a JSON array, added atomically)
+ *   GET    /transactions/{id}             PUT /transactions/{id}      DELETE /transactions/{id}
+ *   GET    /reports/balance               GET /reports/monthly?month=2024-03
+ *   GET    /reports/analytics             GET /reports/merchants?month=2024-03&amp;k=10
+ * </pre>
+ * Responses are written with a streaming JsonGenerator straight into the chunked response
+ * body, and request bodies are read token by token, so a bulk ingest or a long listing is
+ * never held as a JSON tree. Invalid input answers 400, unknown IDs 404, refused writes and
+ * IDs that already exist 409, and anything unexpected 500.
+ * <p>
+ * Idle keep-alive connections wait in the server's selector, not on a thread, so a small
+ * handler pool serves many thousands of open connections; threads are only busy while a
+ * request is being handled, which the service's read lock keeps short. The JDK server reads
+ * its tuning from system properties once, when its classes load, so they are set at startup
+ * (Main does) or as -D flags: {@code -Dsun.net.httpserver.maxIdleConnections=16384} keeps more
+ * than the default 200 idle connections open, and {@code -Dsun.net.httpserver.nodelay=true}
+ * stops the separate writes of headers and chunks waiting ~40ms on delayed ACKs.
+ */
+public class FinanceApiServer implements AutoCloseable {
+    public static final int DEFAULT_MAX_PAGE_SIZE = 10_000;
+    private static final int ACCEPT_BACKLOG = 4_096;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final FinanceService financeService;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+
+    public FinanceApiServer(FinanceService financeService, int port) throws IOException {
+        this(financeService, new InetSocketAddress(port), Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public FinanceApiServer(FinanceService financeService, InetSocketAddress address, int handlerThreads) throws IOException {
+        this.financeService = financeService;
+        this.server = HttpServer.create(address, ACCEPT_BACKLOG);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(handlerThreads, task -> {
+            Thread thread = new Thread(task, "finance-api-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handlers);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            try {
+                route(exchange, exchange.getRequestMethod(), path);
+            } catch (NoSuchElementException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (JsonProcessingException e) {
+                sendError(exchange, 400, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (DateTimeParseException e) {
+                sendError(exchange, 400, "Malformed date: " + e.getParsedString());
+            } catch (DuplicateIdException e) {
+                sendError(exchange, 409, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (IllegalStateException e) {
+                sendError(exchange, 409, e.getMessage());
+            } catch (RuntimeException e) {
+                // A bug rather than bad input; the details stay on the server
+                sendError(exchange, 500, "Internal server error");
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String[] path) throws IOException {
+        String resource = path[0];
+        if (resource.equals("accounts")) {
+            routeAccounts(exchange, method, path);
+        } else if (resource.equals("transactions")) {
+            routeTransactions(exchange, method, path);
+        } else if (resource.equals("reports") && path.length == 2 && method.equals("GET")) {
+            routeReports(exchange, path[1], query(exchange));
+        } else {
+            throw new NoSuchElementException("No such resource: " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void routeAccounts(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1 && method.equals("GET")) {
+            List<Account> accounts = financeService.getAllAccounts();
+            send(exchange, 200, json -> {
+                json.writeStartArray();
+                for (Account account : accounts) {
+                    writeAccount(json, account);
+                }
+                json.writeEndArray();
+            });
+        } else if (path.length == 1 && method.equals("POST")) {
+            Account account = newAccount(readObject(exchange.getRequestBody()));
+            financeService.addAccount(account);
+            send(exchange, 201, json -> writeAccount(json, account));
+        } else if (path.length == 2 && method.equals("GET")) {
+            Account account = account(path[1]);
+            send(exchange, 200, json -> writeAccount(json, account));
+        } else if (path.length == 2 && method.equals("DELETE")) {
+            account(path[1]);
+            financeService.removeAccount(path[1]);
+            sendEmpty(exchange);
+        } else if (path.length == 3 && path[2].equals("transactions") && method.equals("GET")) {
+            account(path[1]);
+            List<Transaction> transactions = financeService.getTransactionsForAccount(path[1]);
+            send(exchange, 200, json -> writeTransactions(json, transactions));
+        } else {
+            sendError(exchange, 405, method + " is not supported on " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void routeTransactions(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1 && method.equals("GET")) {
+            Map<String, String> query = query(exchange);
+            TransactionSort sort = new TransactionSort(
+                TransactionSort.Field.valueOf(query.getOrDefault("sort", "DATE").toUpperCase(Locale.ROOT)),
+                Boolean.parseBoolean(query.getOrDefault("ascending", "false")));
+            int offset = intParameter(query, "offset", 0);
+            int limit = Math.min(intParameter(query, "limit", 100), DEFAULT_MAX_PAGE_SIZE);
+            List<Transaction> page = financeService.getTransactionPage(query.get("search"), sort, offset, limit);
+            send(exchange, 200, json -> writeTransactions(json, page));
+        } else if (path.length == 1 && method.equals("POST")) {
+            Transaction transaction = newTransaction(readObject(exchange.getRequestBody()));
+            financeService.addTransaction(transaction);
+            send(exchange, 201, json -> writeTransaction(json, transaction));
+        } else if (path.length == 2 && path[1].equals("bulk") && method.equals("POST")) {
+            List<Transaction> batch = readTransactions(exchange.getRequestBody());
+            financeService.addTransactions(batch);
+            send(exchange, 201, json -> {
+                json.writeStartObject();
+                json.writeNumberField("added", batch.size());
+                json.writeEndObject();
+            });
+        } else if (path.length == 2 && method.equals("GET")) {
+            Transaction transaction = transaction(path[1]);
+            send(exchange, 200, json -> writeTransaction(json, transaction));
+        } else if (path.length == 2 && method.equals("PUT")) {
+            Transaction replacement = transaction(path[1]).copy();
+            applyFields(replacement, readObject(exchange.getRequestBody()));
+            financeService.updateTransaction(replacement);
+            send(exchange, 200, json -> writeTransaction(json, replacement));
+        } else if (path.length == 2 && method.equals("DELETE")) {
+            transaction(path[1]);
+            financeService.deleteTransaction(path[1]);
+            sendEmpty(exchange);
+        } else {
+            sendError(exchange, 405, method + " is not supported on " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void routeReports(HttpExchange exchange, String report, Map<String, String> query) throws IOException {
+        switch (report) {
+            case "balance": {
+                BigDecimal total = financeService.getTotalBalance();
+                String currency = financeService.getReportingCurrency().getCurrencyCode();
+                send(exchange, 200, json -> {
+                    json.writeStartObject();
+                    json.writeStringField("currency", currency);
+                    json.writeNumberField("total", total);
+                    json.writeEndObject();
+                });
+                break;
+            }
+            case "monthly": {
+                YearMonth month = monthParameter(query);
+                BigDecimal income = financeService.getMonthlyIncome(month.getMonth(), month.getYear());
+                BigDecimal expenses = financeService.getMonthlyExpenses(month.getMonth(), month.getYear());
+                Map<Category, BigDecimal> byCategory = financeService.getExpensesByCategory(month.getMonth(), month.getYear());
+                send(exchange, 200, json -> {
+                    json.writeStartObject();
+                    json.writeStringField("month", month.toString());
+                    json.writeNumberField("income", income);
+                    json.writeNumberField("expenses", expenses);
+                    writeCategoryTotals(json, byCategory);
+                    json.writeEndObject();
+                });
+                break;
+            }
+            case "analytics": {
+                AnalyticsReport analytics = financeService.getAnalyticsReport();
+                send(exchange, 200, json -> {
+                    json.writeStartObject();
+                    json.writeNumberField("transactionCount", analytics.getTransactionCount());
+                    json.writeArrayFieldStart("months");
+                    for (Map.Entry<YearMonth, AnalyticsReport.PeriodSummary> entry : analytics.getMonths().entrySet()) {
+                        AnalyticsReport.PeriodSummary summary = entry.getValue();
+                        json.writeStartObject();
+                        json.writeStringField("month", entry.getKey().toString());
+                        json.writeNumberField("count", summary.getCount());
+                        json.writeNumberField("income", summary.getIncome());
+                        json.writeNumberField("expenses", summary.getExpenses());
+                        json.writeNumberField("net", summary.getNet());
+                        writeCategoryTotals(json, summary.getCategoryTotals());
+                        json.writeEndObject();
+                    }
+                    json.writeEndArray();
+                    json.writeEndObject();
+                });
+                break;
+            }
+            case "merchants": {
+                YearMonth month = monthParameter(query);
+                List<HeavyHitter> merchants = financeService.getTopMerchantsBySpend(month, intParameter(query, "k", 10));
+                send(exchange, 200, json -> {
+                    json.writeStartArray();
+                    for (HeavyHitter merchant : merchants) {
+                        json.writeStartObject();
+                        json.writeStringField("merchant", merchant.getMerchant());
+                        json.writeNumberField("estimatedAmount", merchant.getEstimatedAmount());
+                        json.writeNumberField("maxErrorCents", merchant.getMaxError());
+                        json.writeEndObject();
+                    }
+                    json.writeEndArray();
+                });
+                break;
+            }
+            default:
+                throw new NoSuchElementException("No such report: " + report);
+        }
+    }
+
+    private Account account(String accountId) {
+        return financeService.getAccount(accountId)
+            .orElseThrow(() -> new NoSuchElementException("Account not found: " + accountId));
+    }
+
+    private Transaction transaction(String transactionId) {
+        return financeService.getTransaction(transactionId)
+            .orElseThrow(() -> new NoSuchElementException("Transaction not found: " + transactionId));
+    }
+
+    private Account newAccount(Map<String, String> fields) {
+        String currency = optional(fields, "currency");
+        String balance = optional(fields, "balance");
+        Account account = new Account(required(fields, "id"), required(fields, "name"),
+            AccountType.valueOf(required(fields, "type")), balance != null ? new BigDecimal(balance) : BigDecimal.ZERO,
+            currency != null ? Currency.getInstance(currency) : Money.DEFAULT_CURRENCY);
+        account.setDescription(fields.get("description"));
+        return account;
+    }
+
+    private Transaction newTransaction(Map<String, String> fields) {
+        String id = fields.get("id");
+        String accountId = required(fields, "accountId");
+        TransactionType type = TransactionType.valueOf(required(fields, "type"));
+        BigDecimal amount = new BigDecimal(required(fields, "amount"));
+        Category category = fields.get("category") != null ? Category.valueOf(fields.get("category")) : null;
+        Transaction transaction = id != null
+            ? financeService.getTransactionService().createTransaction(id, accountId, type, amount, fields.get("description"), category)
+            : financeService.getTransactionService().createTransaction(accountId, type, amount, fields.get("description"), category);
+        String date = optional(fields, "date");
+        if (date != null) {
+            transaction.setDate(LocalDateTime.parse(date));
+        }
+        String currency = optional(fields, "currency");
+        if (currency != null) {
+            transaction.setCurrency(Currency.getInstance(currency));
+        }
+        return transaction;
+    }
+
+    private static void applyFields(Transaction transaction, Map<String, String> fields) {
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            String name = field.getKey();
+            String value = field.getValue();
+            switch (name) {
+                case "type": transaction.setType(TransactionType.valueOf(nonNull(name, value))); break;
+                case "amount": transaction.setAmount(new BigDecimal(nonNull(name, value))); break;
+                case "description": transaction.setDescription(value); break;
+                case "category": transaction.setCategory(value != null ? Category.valueOf(value) : null); break;
+                case "date": transaction.setDate(LocalDateTime.parse(nonNull(name, value))); break;
+                case "currency": transaction.setCurrency(Currency.getInstance(nonNull(name, value))); break;
+                case "id":
+                case "accountId":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown transaction field: " + field.getKey());
+            }
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * The field's value when present, else null; a JSON null is refused, as the field has no empty value
+     */
+    private static String optional(Map<String, String> fields, String name) {
+        return fields.containsKey(name) ? nonNull(name, fields.get(name)) : null;
+    }
+
+    private static String nonNull(String name, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Field " + name + " cannot be null");
+        }
+        return value;
+    }
+
+    /**
+     * Reads one flat JSON object into field name to text; numbers keep their exact literal
+     */
+    private static Map<String, String> readObject(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            parser.nextToken();
+            return readFields(parser);
+        }
+    }
+
+    private List<Transaction> readTransactions(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of transactions");
+            }
+            List<Transaction> batch = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                batch.add(newTransaction(readFields(parser)));
+            }
+            return batch;
+        }
+    }
+
+    private static Map<String, String> readFields(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value.isStructStart()) {
+                throw new IllegalArgumentException("Field " + name + " must be a scalar");
+            }
+            fields.put(name, value == JsonToken.VALUE_NULL ? null : parser.getText());
+        }
+        return fields;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        String raw = exchange.getRequestURI().getRawQuery();
+        Map<String, String> parameters = new HashMap<>();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "" : pair.substring(equals + 1);
+                parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a whole number");
+        }
+    }
+
+    private static YearMonth monthParameter(Map<String, String> query) {
+        String value = query.get("month");
+        return value != null ? YearMonth.parse(value) : YearMonth.now();
+    }
+
+    private static void writeAccount(JsonGenerator json, Account account) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", account.getId());
+        json.writeStringField("name", account.getName());
+        json.writeStringField("type", account.getType().name());
+        json.writeNumberField("balance", account.getBalance());
+        json.writeStringField("currency", account.getCurrency().getCurrencyCode());
+        if (account.getDescription() != null) {
+            json.writeStringField("description", account.getDescription());
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeTransactions(JsonGenerator json, List<Transaction> transactions) throws IOException {
+        json.writeStartArray();
+        for (Transaction transaction : transactions) {
+            writeTransaction(json, transaction);
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeTransaction(JsonGenerator json, Transaction transaction) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", transaction.getId());
+        json.writeStringField("accountId", transaction.getAccountId());
+        json.writeStringField("type", transaction.getType().name());
+        json.writeNumberField("amount", transaction.getAmount());
+        if (transaction.getCurrency() != null) {
+            json.writeStringField("currency", transaction.getCurrency().getCurrencyCode());
+        }
+        json.writeStringField("description", transaction.getDescription());
+        if (transaction.getCategory() != null) {
+            json.writeStringField("category", transaction.getCategory().name());
+        }
+        json.writeStringField("date", transaction.getDate().toString());
+        json.writeEndObject();
+    }
+
+    private static void writeCategoryTotals(JsonGenerator json, Map<Category, BigDecimal> totals) throws IOException {
+        json.writeObjectFieldStart("categories");
+        for (Map.Entry<Category, BigDecimal> entry : totals.entrySet()) {
+            json.writeNumberField(entry.getKey().name(), entry.getValue());
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Sends the status, then streams the body through a generator into the chunked response
+     */
+    private static void send(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, 0);
+        try (JsonGenerator json = JSON.createGenerator(exchange.getResponseBody())) {
+            body.writeTo(json);
+        }
+    }
+
+    private static void sendEmpty(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, json -> {
+            json.writeStartObject();
+            json.writeStringField("error", message != null ? message : "Request failed");
+            json.writeEndObject();
+        });
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void writeTo(JsonGenerator json) throws IOException;
+    }
+}
@@ -2,6 +2,7 @@ package com.financemanager.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Currency;
 import java.util.Objects;
 
 /**
@@ -13,24 +14,49 @@ public class Account {
     private String name;
     private AccountType type;
     private BigDecimal balance;
+    private final Currency currency;
     private String description;
     private final LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     public Account(String id, String name, AccountType type, BigDecimal initialBalance) {
+        this(id, name, type, initialBalance, Money.DEFAULT_CURRENCY);
+    }
+
+    public Account(String id, String name, AccountType type, BigDecimal initialBalance, Currency currency) {
         this.id = Objects.requireNonNull(id, "Account ID cannot be null");
         this.name = Objects.requireNonNull(name, "Account name cannot be null");
         this.type = Objects.requireNonNull(type, "Account type cannot be null");
         this.balance = initialBalance != null ? initialBalance : BigDecimal.ZERO;
+        this.currency = Objects.requireNonNull(currency, "Account currency cannot be null");
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
 
+    private Account(Account other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.type = other.type;
+        this.balance = other.balance;
+        this.currency = other.currency;
+        this.description = other.description;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
+    /**
+     * Returns a copy as the account is now, e.g. its balance at the time a change is published
+     */
+    public Account copy() {
+        return new Account(this);
+    }
+
     // Getters
     public String getId() { return id; }
     public String getName() { return name; }
     public AccountType getType() { return type; }
     public BigDecimal getBalance() { return balance; }
+    public Currency getCurrency() { return currency; }
     public String getDescription() { return description; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
@@ -76,7 +102,7 @@ public class Account {
 
     @Override
     public String toString() {
-        return String.format("Account{id='%s', name='%s', type=%s, balance=%s}", 
-                           id, name, type, balance);
+        return String.format("Account{id='%s', name='%s', type=%s, balance=%s %s}", 
+                           id, name, type, balance, currency);
     }
 }
@@ -0,0 +1,39 @@
+package com.financemanager.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Fixed-point helpers for monetary amounts stored as whole cents
+ * Lets hot aggregation paths sum primitive longs instead of allocating BigDecimals
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to cents, rejecting fractions of a cent
+     */
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must be a whole number of cents: " + amount);
+        }
+    }
+
+    /**
+     * Converts an amount that may carry fractions of a cent, rounding half-even
+     */
+    public static long roundToCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
@@ -2,6 +2,7 @@ package com.financemanager.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Currency;
 import java.util.Objects;
 
 /**
@@ -13,6 +14,8 @@ public class Transaction {
     private final String accountId;
     private TransactionType type;
     private BigDecimal amount;
+    private long amountCents;
+    private Currency currency;
     private String description;
     private Category category;
     private LocalDateTime date;
@@ -29,13 +32,37 @@ public class Transaction {
         this.date = LocalDateTime.now();
         this.createdAt = LocalDateTime.now();
         
-        validateAmount();
+        this.amountCents = validateAmount(amount);
     }
 
-    private void validateAmount() {
+    private Transaction(Transaction other) {
+        this.id = other.id;
+        this.accountId = other.accountId;
+        this.type = other.type;
+        this.amount = other.amount;
+        this.amountCents = other.amountCents;
+        this.currency = other.currency;
+        this.description = other.description;
+        this.category = other.category;
+        this.date = other.date;
+        this.createdAt = other.createdAt;
+    }
+
+    /**
+     * Returns an editable copy with the same ID, for use with FinanceService.updateTransaction
+     */
+    public Transaction copy() {
+        return new Transaction(this);
+    }
+
+    /**
+     * Checks an amount and returns it in cents, without touching this transaction
+     */
+    private static long validateAmount(BigDecimal amount) {
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Transaction amount must be positive");
         }
+        return Money.toCents(amount);
     }
 
     // Getters
@@ -43,19 +70,30 @@ public class Transaction {
     public String getAccountId() { return accountId; }
     public TransactionType getType() { return type; }
     public BigDecimal getAmount() { return amount; }
+    public long getAmountCents() { return amountCents; }
+    public Currency getCurrency() { return currency; }
     public String getDescription() { return description; }
     public Category getCategory() { return category; }
     public LocalDateTime getDate() { return date; }
     public LocalDateTime getCreatedAt() { return createdAt; }
 
     // Setters with validation
+    // A transaction already added to FinanceService must not be changed in place, since
+    // balances and indexes would go stale; edit a copy() and pass it to updateTransaction
     public void setType(TransactionType type) {
         this.type = Objects.requireNonNull(type, "Transaction type cannot be null");
     }
 
     public void setAmount(BigDecimal amount) {
-        this.amount = Objects.requireNonNull(amount, "Amount cannot be null");
-        validateAmount();
+        // A rejected amount leaves both fields as they were
+        long cents = validateAmount(Objects.requireNonNull(amount, "Amount cannot be null"));
+        this.amount = amount;
+        this.amountCents = cents;
+    }
+
+    // Left null, FinanceService fills in the account's currency when the transaction is added
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
     }
 
     public void setDescription(String description) {
@@ -75,6 +113,10 @@ public class Transaction {
         return type == TransactionType.INCOME ? amount : amount.negate();
     }
 
+    public long getSignedAmountCents() {
+        return type == TransactionType.INCOME ? amountCents : -amountCents;
+    }
+
     public boolean isIncome() {
         return type == TransactionType.INCOME;
     }
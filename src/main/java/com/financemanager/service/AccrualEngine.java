@@ -0,0 +1,122 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.AccountType;
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Computes month-end interest and fee postings for many accounts in parallel
+ * Daily balances come from the balance history index and are summed as cents; each
+ * account's interest is then one BigDecimal multiplication rounded half-even to the cent.
+ * Postings get deterministic IDs per period, account and kind, which is what makes
+ * re-running a period (after a failure or by mistake) safe. Callers hold FinanceService's
+ * read lock; the worker threads only read.
+ */
+final class AccrualEngine {
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(AccrualPolicy.DAYS_PER_YEAR);
+
+    /**
+     * What a posting is for; the code is the last part of its ID
+     */
+    enum Kind {
+        INTEREST_PAID("INT_CR"), INTEREST_CHARGED("INT_DR"), FEE("FEE");
+
+        private final String code;
+
+        Kind(String code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * A computed accrual transaction together with its kind
+     */
+    static final class Posting {
+        final Kind kind;
+        final Transaction transaction;
+
+        Posting(Kind kind, Transaction transaction) {
+            this.kind = kind;
+            this.transaction = transaction;
+        }
+    }
+
+    private AccrualEngine() {
+    }
+
+    static String postingId(YearMonth period, String accountId, Kind kind) {
+        return "ACR_" + period + "_" + accountId + "_" + kind.code;
+    }
+
+    static List<Posting> compute(YearMonth period, Collection<Account> accounts,
+                                     Map<AccountType, AccrualPolicy> policiesByType, BalanceHistoryIndex balanceHistory) {
+        long firstDay = period.atDay(1).toEpochDay();
+        long lastDay = period.atEndOfMonth().toEpochDay();
+        LocalDateTime postedAt = period.atEndOfMonth().atTime(23, 59, 59);
+
+        return accounts.parallelStream()
+            .filter(account -> policiesByType.containsKey(account.getType()))
+            .flatMap(account -> {
+                AccrualPolicy policy = policiesByType.get(account.getType());
+                long positiveCentDays = 0;
+                long negativeCentDays = 0;
+                for (long day = firstDay; day <= lastDay; day++) {
+                    long balance = balanceHistory.balanceThrough(account.getId(), day);
+                    if (balance > 0) {
+                        positiveCentDays += balance;
+                    } else {
+                        negativeCentDays -= balance;
+                    }
+                }
+
+                List<Posting> postings = new ArrayList<>(3);
+                long paid = interestCents(positiveCentDays, policy.getCreditRate());
+                if (paid > 0) {
+                    postings.add(posting(period, account, Kind.INTEREST_PAID, TransactionType.INCOME, paid,
+                                         "Interest paid " + period, policy.getCreditCategory(), postedAt));
+                }
+                long charged = interestCents(negativeCentDays, policy.getDebitRate());
+                if (charged > 0) {
+                    postings.add(posting(period, account, Kind.INTEREST_CHARGED, TransactionType.EXPENSE, charged,
+                                         "Interest charged " + period, policy.getDebitCategory(), postedAt));
+                }
+                if (policy.getMonthlyFeeCents() > 0) {
+                    postings.add(posting(period, account, Kind.FEE, TransactionType.EXPENSE, policy.getMonthlyFeeCents(),
+                                         "Monthly fee " + period, policy.getDebitCategory(), postedAt));
+                }
+                return postings.stream();
+            })
+            .collect(Collectors.toList());
+    }
+
+    private static long interestCents(long centDays, BigDecimal annualRate) {
+        if (centDays == 0 || annualRate.signum() == 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(centDays).multiply(annualRate)
+            .divide(DAYS_PER_YEAR, 0, RoundingMode.HALF_EVEN)
+            .longValueExact();
+    }
+
+    private static Posting posting(YearMonth period, Account account, Kind kind, TransactionType type,
+                                       long cents, String description, Category category,
+                                       LocalDateTime postedAt) {
+        Transaction transaction = new Transaction(postingId(period, account.getId(), kind), account.getId(), type,
+                                                  Money.fromCents(cents), description, category);
+        transaction.setDate(postedAt);
+        return new Posting(kind, transaction);
+    }
+}
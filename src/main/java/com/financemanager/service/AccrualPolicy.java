@@ -0,0 +1,66 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Month-end interest and fee rules for one account type
+ * Interest is computed on the average daily balance: credit interest on the days the
+ * balance is positive, debit interest on the days it is negative. Rates are annual and
+ * accrue on an actual/365 basis.
+ */
+public final class AccrualPolicy {
+    public static final int DAYS_PER_YEAR = 365;
+
+    private final BigDecimal creditRate;
+    private final BigDecimal debitRate;
+    private final long monthlyFeeCents;
+
+    private AccrualPolicy(BigDecimal creditRate, BigDecimal debitRate, long monthlyFeeCents) {
+        this.creditRate = Objects.requireNonNull(creditRate, "Credit rate cannot be null");
+        this.debitRate = Objects.requireNonNull(debitRate, "Debit rate cannot be null");
+        if (creditRate.signum() < 0 || debitRate.signum() < 0 || monthlyFeeCents < 0) {
+            throw new IllegalArgumentException("Rates and fees cannot be negative");
+        }
+        this.monthlyFeeCents = monthlyFeeCents;
+    }
+
+    /**
+     * Pays interest on positive balances, e.g. savings at 0.045 for 4.5% a year
+     */
+    public static AccrualPolicy creditInterest(BigDecimal annualRate) {
+        return new AccrualPolicy(annualRate, BigDecimal.ZERO, 0);
+    }
+
+    /**
+     * Charges interest on negative balances, e.g. a credit card or loan
+     */
+    public static AccrualPolicy debitInterest(BigDecimal annualRate) {
+        return new AccrualPolicy(BigDecimal.ZERO, annualRate, 0);
+    }
+
+    public static AccrualPolicy feeOnly(BigDecimal monthlyFee) {
+        return new AccrualPolicy(BigDecimal.ZERO, BigDecimal.ZERO, Money.toCents(monthlyFee));
+    }
+
+    public AccrualPolicy withMonthlyFee(BigDecimal monthlyFee) {
+        return new AccrualPolicy(creditRate, debitRate, Money.toCents(monthlyFee));
+    }
+
+    public BigDecimal getCreditRate() { return creditRate; }
+    public BigDecimal getDebitRate() { return debitRate; }
+    public BigDecimal getMonthlyFee() { return Money.fromCents(monthlyFeeCents); }
+
+    long getMonthlyFeeCents() { return monthlyFeeCents; }
+
+    Category getCreditCategory() { return Category.INVESTMENT; }
+    Category getDebitCategory() { return Category.OTHER_EXPENSE; }
+
+    @Override
+    public String toString() {
+        return "AccrualPolicy{credit=" + creditRate + ", debit=" + debitRate + ", fee=" + getMonthlyFee() + "}";
+    }
+}
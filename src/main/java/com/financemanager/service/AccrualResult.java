@@ -0,0 +1,43 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Outcome of one month-end accrual run
+ */
+public final class AccrualResult {
+    private final YearMonth period;
+    private final int posted;
+    private final int alreadyPosted;
+    private final long interestPaidCents;
+    private final long interestChargedCents;
+    private final long feesCents;
+
+    AccrualResult(YearMonth period, int posted, int alreadyPosted,
+                  long interestPaidCents, long interestChargedCents, long feesCents) {
+        this.period = period;
+        this.posted = posted;
+        this.alreadyPosted = alreadyPosted;
+        this.interestPaidCents = interestPaidCents;
+        this.interestChargedCents = interestChargedCents;
+        this.feesCents = feesCents;
+    }
+
+    public YearMonth getPeriod() { return period; }
+    /** Transactions written by this run */
+    public int getPosted() { return posted; }
+    /** Accruals skipped because an earlier run for the same period already posted them */
+    public int getAlreadyPosted() { return alreadyPosted; }
+    /** Totals over everything this run posted */
+    public BigDecimal getInterestPaid() { return Money.fromCents(interestPaidCents); }
+    public BigDecimal getInterestCharged() { return Money.fromCents(interestChargedCents); }
+    public BigDecimal getFees() { return Money.fromCents(feesCents); }
+
+    @Override
+    public String toString() {
+        return "AccrualResult{period=" + period + ", posted=" + posted + ", alreadyPosted=" + alreadyPosted + "}";
+    }
+}
@@ -0,0 +1,130 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.time.YearMonth;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds a complete multi-year AnalyticsReport in one parallel pass over a ledger snapshot
+ * The snapshot is split into chunks on the common fork-join pool; every chunk fills its own
+ * accumulators per month and currency, and sibling results are merged on the way back up the
+ * tree. Each month's per-currency totals are converted once into the reporting currency.
+ */
+final class AnalyticsEngine {
+    // Below this many rows a chunk is summed directly instead of being split further
+    static final int CHUNK_SIZE = 8192;
+
+    private AnalyticsEngine() {
+    }
+
+    /**
+     * Report in the target currency; groups lists every currency the snapshot's rows are in
+     */
+    static AnalyticsReport report(Transaction[] snapshot, Currency[] groups, Currency target, FxRateTable rates) {
+        long started = System.nanoTime();
+        Map<Long, AnalyticsReport.PeriodSummary> parts = snapshot.length <= CHUNK_SIZE
+            ? accumulate(snapshot, groups, 0, snapshot.length)
+            : ForkJoinPool.commonPool().invoke(new ChunkTask(snapshot, groups, 0, snapshot.length));
+        return new AnalyticsReport(parts, groups, target, rates, snapshot.length, System.nanoTime() - started);
+    }
+
+    private static Map<Long, AnalyticsReport.PeriodSummary> accumulate(Transaction[] snapshot, Currency[] groups,
+                                                                      int from, int to) {
+        Map<Long, AnalyticsReport.PeriodSummary> parts = new HashMap<>();
+        // Ledgers are mostly in date order, so consecutive rows usually hit the same month
+        long lastKey = Long.MIN_VALUE;
+        AnalyticsReport.PeriodSummary current = null;
+        for (int i = from; i < to; i++) {
+            Transaction transaction = snapshot[i];
+            long key = partKey(monthKey(transaction), currencyGroup(groups, transaction.getCurrency()), groups);
+            if (key != lastKey) {
+                current = parts.computeIfAbsent(key, k -> new AnalyticsReport.PeriodSummary());
+                lastKey = key;
+            }
+            current.add(transaction);
+        }
+        return parts;
+    }
+
+    /**
+     * Key of the accumulator for one month and currency group
+     */
+    static long partKey(int monthKey, int group, Currency[] groups) {
+        return (long) monthKey * Math.max(1, groups.length) + group;
+    }
+
+    static int monthOfPart(long partKey, Currency[] groups) {
+        return (int) Math.floorDiv(partKey, (long) Math.max(1, groups.length));
+    }
+
+    static int groupOfPart(long partKey, Currency[] groups) {
+        return (int) Math.floorMod(partKey, (long) Math.max(1, groups.length));
+    }
+
+    private static int currencyGroup(Currency[] groups, Currency currency) {
+        // A ledger holds a handful of currencies, so a scan beats hashing on every row
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i] == currency) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown currency " + currency);
+    }
+
+    private static Map<Long, AnalyticsReport.PeriodSummary> merge(Map<Long, AnalyticsReport.PeriodSummary> left,
+                                                                  Map<Long, AnalyticsReport.PeriodSummary> right) {
+        if (left.size() < right.size()) {
+            Map<Long, AnalyticsReport.PeriodSummary> swap = left;
+            left = right;
+            right = swap;
+        }
+        for (Map.Entry<Long, AnalyticsReport.PeriodSummary> entry : right.entrySet()) {
+            AnalyticsReport.PeriodSummary existing = left.putIfAbsent(entry.getKey(), entry.getValue());
+            if (existing != null) {
+                existing.merge(entry.getValue());
+            }
+        }
+        return left;
+    }
+
+    static int monthKey(Transaction transaction) {
+        return transaction.getDate().getYear() * 12 + transaction.getDate().getMonthValue() - 1;
+    }
+
+    static YearMonth toYearMonth(int monthKey) {
+        return YearMonth.of(Math.floorDiv(monthKey, 12), Math.floorMod(monthKey, 12) + 1);
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Map<Long, AnalyticsReport.PeriodSummary>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Transaction[] snapshot;
+        private final Currency[] groups;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Transaction[] snapshot, Currency[] groups, int from, int to) {
+            this.snapshot = snapshot;
+            this.groups = groups;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, AnalyticsReport.PeriodSummary> compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return accumulate(snapshot, groups, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(snapshot, groups, from, middle);
+            left.fork();
+            Map<Long, AnalyticsReport.PeriodSummary> right = new ChunkTask(snapshot, groups, middle, to).compute();
+            return merge(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Multi-year report computed in a single pass: income, expenses, category splits and
+ * per-account flows for every month, with yearly and all-history rollups merged from them
+ * Totals are in the reporting currency, each month converted at the rates of its last day
+ * as the monthly queries are; account flows stay in the account's own currency.
+ */
+public final class AnalyticsReport {
+    private final NavigableMap<YearMonth, PeriodSummary> months;
+    private final NavigableMap<Integer, PeriodSummary> years;
+    private final PeriodSummary total;
+    private final int transactionCount;
+    private final long elapsedNanos;
+
+    AnalyticsReport(Map<Long, PeriodSummary> parts, Currency[] groups, Currency target, FxRateTable rates,
+                    int transactionCount, long elapsedNanos) {
+        NavigableMap<YearMonth, PeriodSummary> sortedMonths = new TreeMap<>();
+        for (Map.Entry<Long, PeriodSummary> entry : parts.entrySet()) {
+            YearMonth month = AnalyticsEngine.toYearMonth(AnalyticsEngine.monthOfPart(entry.getKey(), groups));
+            Currency currency = groups.length > 0 ? groups[AnalyticsEngine.groupOfPart(entry.getKey(), groups)] : target;
+            PeriodSummary summary = sortedMonths.computeIfAbsent(month, m -> new PeriodSummary());
+            if (currency.equals(target)) {
+                summary.merge(entry.getValue());
+            } else {
+                // One conversion per total of the month's rows in this currency
+                summary.mergeConverted(entry.getValue(), currency, target, rates, month.atEndOfMonth());
+            }
+        }
+        NavigableMap<Integer, PeriodSummary> yearTotals = new TreeMap<>();
+        PeriodSummary allHistory = new PeriodSummary();
+        for (Map.Entry<YearMonth, PeriodSummary> entry : sortedMonths.entrySet()) {
+            yearTotals.computeIfAbsent(entry.getKey().getYear(), year -> new PeriodSummary()).merge(entry.getValue());
+            allHistory.merge(entry.getValue());
+        }
+        this.months = Collections.unmodifiableNavigableMap(sortedMonths);
+        this.years = Collections.unmodifiableNavigableMap(yearTotals);
+        this.total = allHistory;
+        this.transactionCount = transactionCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Months that have at least one transaction, oldest first */
+    public NavigableMap<YearMonth, PeriodSummary> getMonths() { return months; }
+    /** Calendar years that have at least one transaction, oldest first */
+    public NavigableMap<Integer, PeriodSummary> getYears() { return years; }
+    public PeriodSummary getTotal() { return total; }
+    public int getTransactionCount() { return transactionCount; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Summary for a month with no transactions is empty rather than missing
+     */
+    public PeriodSummary getMonth(YearMonth month) {
+        PeriodSummary summary = months.get(month);
+        return summary != null ? summary : new PeriodSummary();
+    }
+
+    @Override
+    public String toString() {
+        return "AnalyticsReport{months=" + months.size() + ", transactions=" + transactionCount + "}";
+    }
+
+    /**
+     * Mergeable totals for one period; summing two summaries gives the summary of both periods
+     */
+    public static final class PeriodSummary {
+        private static final Category[] CATEGORIES = Category.values();
+
+        private int count;
+        private long incomeCents;
+        private long expenseCents;
+        private final long[] categoryCents = new long[CATEGORIES.length];
+        // Per account: [0] inflow cents, [1] outflow cents
+        private final Map<String, long[]> accountFlows = new HashMap<>();
+
+        void add(Transaction transaction) {
+            count++;
+            long cents = transaction.getAmountCents();
+            long[] flows = accountFlows.computeIfAbsent(transaction.getAccountId(), id -> new long[2]);
+            if (transaction.isIncome()) {
+                incomeCents += cents;
+                flows[0] += cents;
+            } else {
+                expenseCents += cents;
+                flows[1] += cents;
+            }
+            if (transaction.getCategory() != null) {
+                categoryCents[transaction.getCategory().ordinal()] += cents;
+            }
+        }
+
+        void merge(PeriodSummary other) {
+            count += other.count;
+            incomeCents += other.incomeCents;
+            expenseCents += other.expenseCents;
+            for (int i = 0; i < categoryCents.length; i++) {
+                categoryCents[i] += other.categoryCents[i];
+            }
+            mergeAccountFlows(other);
+        }
+
+        /**
+         * Adds a summary of rows in another currency, converting its totals at the given day's
+         * rates; account flows are kept in their account's currency
+         */
+        void mergeConverted(PeriodSummary other, Currency from, Currency to, FxRateTable rates, LocalDate rateDate) {
+            count += other.count;
+            incomeCents += rates.convertCents(other.incomeCents, from, to, rateDate);
+            expenseCents += rates.convertCents(other.expenseCents, from, to, rateDate);
+            for (int i = 0; i < categoryCents.length; i++) {
+                categoryCents[i] += rates.convertCents(other.categoryCents[i], from, to, rateDate);
+            }
+            mergeAccountFlows(other);
+        }
+
+        private void mergeAccountFlows(PeriodSummary other) {
+            for (Map.Entry<String, long[]> entry : other.accountFlows.entrySet()) {
+                long[] flows = accountFlows.computeIfAbsent(entry.getKey(), id -> new long[2]);
+                flows[0] += entry.getValue()[0];
+                flows[1] += entry.getValue()[1];
+            }
+        }
+
+        public int getCount() { return count; }
+        public BigDecimal getIncome() { return Money.fromCents(incomeCents); }
+        public BigDecimal getExpenses() { return Money.fromCents(expenseCents); }
+        public BigDecimal getNet() { return Money.fromCents(incomeCents - expenseCents); }
+
+        public BigDecimal getCategoryTotal(Category category) {
+            return Money.fromCents(categoryCents[category.ordinal()]);
+        }
+
+        /**
+         * Categories with a non-zero total in this period
+         */
+        public Map<Category, BigDecimal> getCategoryTotals() {
+            Map<Category, BigDecimal> totals = new EnumMap<>(Category.class);
+            for (int i = 0; i < categoryCents.length; i++) {
+                if (categoryCents[i] != 0) {
+                    totals.put(CATEGORIES[i], Money.fromCents(categoryCents[i]));
+                }
+            }
+            return totals;
+        }
+
+        /** Income into the account in this period, in the account's currency */
+        public BigDecimal getAccountInflow(String accountId) {
+            long[] flows = accountFlows.get(accountId);
+            return Money.fromCents(flows != null ? flows[0] : 0);
+        }
+
+        /** Expenses from the account in this period, in the account's currency */
+        public BigDecimal getAccountOutflow(String accountId) {
+            long[] flows = accountFlows.get(accountId);
+            return Money.fromCents(flows != null ? flows[1] : 0);
+        }
+
+        @Override
+        public String toString() {
+            return "PeriodSummary{count=" + count + ", income=" + getIncome() + ", expenses=" + getExpenses() + "}";
+        }
+    }
+}
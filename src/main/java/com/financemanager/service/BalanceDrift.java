@@ -0,0 +1,38 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * An account whose stored balance disagrees with the balance recomputed from its transactions
+ */
+public final class BalanceDrift {
+    private final String accountId;
+    private final BigDecimal recordedBalance;
+    private final long recomputedCents;
+    private final long indexedCents;
+
+    BalanceDrift(String accountId, BigDecimal recordedBalance, long recomputedCents, long indexedCents) {
+        this.accountId = accountId;
+        this.recordedBalance = recordedBalance;
+        this.recomputedCents = recomputedCents;
+        this.indexedCents = indexedCents;
+    }
+
+    public String getAccountId() { return accountId; }
+    /** Account.getBalance() as maintained by the write paths */
+    public BigDecimal getRecordedBalance() { return recordedBalance; }
+    /** Opening balance plus every stored transaction of the account */
+    public BigDecimal getRecomputedBalance() { return Money.fromCents(recomputedCents); }
+    /** Current balance according to the as-of balance history */
+    public BigDecimal getIndexedBalance() { return Money.fromCents(indexedCents); }
+    /** Recorded minus recomputed */
+    public BigDecimal getDrift() { return recordedBalance.subtract(getRecomputedBalance()); }
+
+    @Override
+    public String toString() {
+        return "BalanceDrift{account='" + accountId + "', recorded=" + recordedBalance +
+               ", recomputed=" + getRecomputedBalance() + ", indexed=" + getIndexedBalance() + "}";
+    }
+}
@@ -0,0 +1,105 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-account and portfolio-wide balance history for as-of queries
+ * Each account keeps its opening balance plus a DailyFenwickTree of signed daily amounts,
+ * so the balance at the end of any past day is one O(log n) prefix sum instead of a re-scan.
+ * Not thread-safe on its own; FinanceService guards it with its lock.
+ */
+final class BalanceHistoryIndex {
+    private final Map<String, AccountHistory> histories = new HashMap<>();
+    private final DailyFenwickTree portfolio = new DailyFenwickTree();
+    private long portfolioOpeningCents;
+
+    void openAccount(String accountId, long openingCents) {
+        histories.put(accountId, new AccountHistory(openingCents));
+        portfolioOpeningCents += openingCents;
+    }
+
+    void removeAccount(String accountId) {
+        AccountHistory history = histories.remove(accountId);
+        if (history == null) {
+            return;
+        }
+        portfolioOpeningCents -= history.openingCents;
+        history.tree.forEachDay((epochDay, cents) -> portfolio.add(epochDay, -cents));
+    }
+
+    void add(Transaction transaction) {
+        record(transaction.getAccountId(), transaction.getDate().toLocalDate().toEpochDay(), transaction.getSignedAmountCents());
+    }
+
+    void remove(Transaction transaction) {
+        record(transaction.getAccountId(), transaction.getDate().toLocalDate().toEpochDay(), -transaction.getSignedAmountCents());
+    }
+
+    /**
+     * Throws if add would reject the transaction, without recording anything
+     */
+    void checkRecordable(Transaction transaction) {
+        AccountHistory history = histories.get(transaction.getAccountId());
+        if (history == null) {
+            throw new IllegalStateException("No balance history for account " + transaction.getAccountId());
+        }
+        long epochDay = transaction.getDate().toLocalDate().toEpochDay();
+        history.tree.checkCoverable(epochDay);
+        portfolio.checkCoverable(epochDay);
+    }
+
+    void record(String accountId, long epochDay, long signedCents) {
+        AccountHistory history = histories.get(accountId);
+        if (history == null) {
+            throw new IllegalStateException("No balance history for account " + accountId);
+        }
+        history.tree.add(epochDay, signedCents);
+        portfolio.add(epochDay, signedCents);
+    }
+
+    boolean hasAccount(String accountId) {
+        return histories.containsKey(accountId);
+    }
+
+    /**
+     * Balance in cents at the end of the given day
+     */
+    long balanceThrough(String accountId, long epochDay) {
+        AccountHistory history = histories.get(accountId);
+        return history.openingCents + history.tree.sumThrough(epochDay);
+    }
+
+    /**
+     * Balance in cents the account was opened with
+     */
+    long openingBalance(String accountId) {
+        return histories.get(accountId).openingCents;
+    }
+
+    /**
+     * Balance in cents after every recorded transaction
+     */
+    long currentBalance(String accountId) {
+        AccountHistory history = histories.get(accountId);
+        return history.openingCents + history.tree.total();
+    }
+
+    /**
+     * Total of all account balances in cents at the end of the given day
+     */
+    long portfolioThrough(long epochDay) {
+        return portfolioOpeningCents + portfolio.sumThrough(epochDay);
+    }
+
+    private static final class AccountHistory {
+        final long openingCents;
+        final DailyFenwickTree tree = new DailyFenwickTree();
+
+        AccountHistory(long openingCents) {
+            this.openingCents = openingCents;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.financemanager.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * LZ4-style block compression: greedy matching through a hash of 4-byte sequences
+ * A block is a run of sequences, each a token (literal length, match length - 4 in two nibbles,
+ * 15 meaning "more follows in 255-runs"), the literals, a 2-byte little-endian offset back into
+ * the output and the match extension. The last sequence carries literals only. No checksums or
+ * frames; TransactionCodec records the raw length, which tells the decoder where to stop.
+ */
+final class BlockCompressor {
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_BITS = 12;
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    private BlockCompressor() {
+    }
+
+    static byte[] compress(byte[] source, int length) {
+        byte[] out = new byte[length + length / 255 + 16];
+        int outPos = 0;
+        int[] table = new int[1 << HASH_BITS];
+        Arrays.fill(table, -1);
+
+        int anchor = 0;
+        int position = 0;
+        while (position <= length - MIN_MATCH) {
+            int sequence = readInt(source, position);
+            int slot = (sequence * 0x9E3779B1) >>> (32 - HASH_BITS);
+            int candidate = table[slot];
+            table[slot] = position;
+            if (candidate < 0 || position - candidate > MAX_OFFSET || readInt(source, candidate) != sequence) {
+                position++;
+                continue;
+            }
+            int matchLength = MIN_MATCH;
+            while (position + matchLength < length && source[candidate + matchLength] == source[position + matchLength]) {
+                matchLength++;
+            }
+            out = ensure(out, outPos, position - anchor + matchLength / 255 + 16);
+            outPos = writeSequence(out, outPos, source, anchor, position - anchor, position - candidate, matchLength);
+            position += matchLength;
+            anchor = position;
+        }
+        out = ensure(out, outPos, length - anchor + 16);
+        outPos = writeLiterals(out, outPos, source, anchor, length - anchor, 0);
+        return Arrays.copyOf(out, outPos);
+    }
+
+    /**
+     * Decodes one block from the buffer's position until the target array is full
+     */
+    static void decompress(ByteBuffer in, byte[] target) {
+        int position = 0;
+        while (true) {
+            int token = in.get() & 0xFF;
+            int literalLength = readLength(in, token >>> 4);
+            in.get(target, position, literalLength);
+            position += literalLength;
+            if (position == target.length) {
+                return;
+            }
+            int offset = (in.get() & 0xFF) | (in.get() & 0xFF) << 8;
+            int matchLength = readLength(in, token & 0x0F) + MIN_MATCH;
+            int from = position - offset;
+            if (offset == 0 || from < 0 || position + matchLength > target.length) {
+                throw new IllegalArgumentException("Corrupt compressed block");
+            }
+            // Byte by byte, since a match may overlap the bytes it is producing
+            for (int i = 0; i < matchLength; i++) {
+                target[position++] = target[from + i];
+            }
+        }
+    }
+
+    private static int writeSequence(byte[] out, int outPos, byte[] source, int literalStart, int literalLength,
+                                     int offset, int matchLength) {
+        int extra = matchLength - MIN_MATCH;
+        outPos = writeLiterals(out, outPos, source, literalStart, literalLength, Math.min(extra, 15));
+        out[outPos++] = (byte) offset;
+        out[outPos++] = (byte) (offset >>> 8);
+        if (extra >= 15) {
+            outPos = writeLengthRun(out, outPos, extra - 15);
+        }
+        return outPos;
+    }
+
+    private static int writeLiterals(byte[] out, int outPos, byte[] source, int start, int length, int matchNibble) {
+        out[outPos++] = (byte) (Math.min(length, 15) << 4 | matchNibble);
+        if (length >= 15) {
+            outPos = writeLengthRun(out, outPos, length - 15);
+        }
+        System.arraycopy(source, start, out, outPos, length);
+        return outPos + length;
+    }
+
+    private static int writeLengthRun(byte[] out, int outPos, int remaining) {
+        while (remaining >= 255) {
+            out[outPos++] = (byte) 255;
+            remaining -= 255;
+        }
+        out[outPos++] = (byte) remaining;
+        return outPos;
+    }
+
+    private static int readLength(ByteBuffer in, int nibble) {
+        int length = nibble;
+        if (nibble == 15) {
+            int next;
+            do {
+                next = in.get() & 0xFF;
+                length += next;
+            } while (next == 255);
+        }
+        return length;
+    }
+
+    private static int readInt(byte[] source, int position) {
+        return (source[position] & 0xFF) | (source[position + 1] & 0xFF) << 8
+            | (source[position + 2] & 0xFF) << 16 | (source[position + 3] & 0xFF) << 24;
+    }
+
+    private static byte[] ensure(byte[] out, int outPos, int needed) {
+        // Literal runs add one length byte per 255, so leave room beyond the raw bytes
+        int required = outPos + needed + needed / 255;
+        return required <= out.length ? out : Arrays.copyOf(out, Math.max(required, out.length * 2));
+    }
+}
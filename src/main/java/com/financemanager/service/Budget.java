@@ -0,0 +1,69 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A monthly spending limit on one expense category or one account
+ * Category budgets count every account's expenses in that category; account budgets count all
+ * expenses of the account. A category budget's limit is in the reporting currency, since its
+ * expenses may come from accounts in several currencies; an account budget's is in the
+ * account's currency.
+ */
+public final class Budget {
+    public enum Scope { CATEGORY, ACCOUNT }
+
+    private final Scope scope;
+    private final Category category;
+    private final String accountId;
+    private final long limitCents;
+
+    private Budget(Scope scope, Category category, String accountId, BigDecimal monthlyLimit) {
+        this.scope = scope;
+        this.category = category;
+        this.accountId = accountId;
+        if (monthlyLimit == null || monthlyLimit.signum() <= 0) {
+            throw new IllegalArgumentException("Monthly budget must be positive");
+        }
+        this.limitCents = Money.toCents(monthlyLimit);
+    }
+
+    public static Budget forCategory(Category category, BigDecimal monthlyLimit) {
+        return new Budget(Scope.CATEGORY, Objects.requireNonNull(category, "Category cannot be null"), null, monthlyLimit);
+    }
+
+    public static Budget forAccount(String accountId, BigDecimal monthlyLimit) {
+        return new Budget(Scope.ACCOUNT, null, Objects.requireNonNull(accountId, "Account ID cannot be null"), monthlyLimit);
+    }
+
+    public Scope getScope() { return scope; }
+    /** The budgeted category for CATEGORY budgets, otherwise null */
+    public Category getCategory() { return category; }
+    /** The budgeted account for ACCOUNT budgets, otherwise null */
+    public String getAccountId() { return accountId; }
+    public BigDecimal getMonthlyLimit() { return Money.fromCents(limitCents); }
+    public long getLimitCents() { return limitCents; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Budget budget = (Budget) o;
+        return limitCents == budget.limitCents && scope == budget.scope
+            && category == budget.category && Objects.equals(accountId, budget.accountId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, category, accountId, limitCents);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Budget{%s=%s, monthlyLimit=%s}",
+            scope, scope == Scope.CATEGORY ? category : accountId, getMonthlyLimit());
+    }
+}
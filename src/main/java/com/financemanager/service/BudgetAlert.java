@@ -0,0 +1,63 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Raised when a transaction takes a budget's month-to-date spending past a threshold
+ */
+public final class BudgetAlert {
+    public enum Level {
+        WARNING(80), EXCEEDED(100);
+
+        private final int percent;
+
+        Level(int percent) {
+            this.percent = percent;
+        }
+
+        public int getPercent() {
+            return percent;
+        }
+
+        /**
+         * Highest level reached by the spending, or null below the warning threshold
+         */
+        static Level reached(long spentCents, long limitCents) {
+            if (spentCents >= limitCents) {
+                return EXCEEDED;
+            }
+            return spentCents * 100 >= limitCents * WARNING.percent ? WARNING : null;
+        }
+    }
+
+    private final Budget budget;
+    private final YearMonth month;
+    private final Level level;
+    private final long spentCents;
+    private final Transaction transaction;
+
+    BudgetAlert(Budget budget, YearMonth month, Level level, long spentCents, Transaction transaction) {
+        this.budget = budget;
+        this.month = month;
+        this.level = level;
+        this.spentCents = spentCents;
+        this.transaction = transaction;
+    }
+
+    public Budget getBudget() { return budget; }
+    public YearMonth getMonth() { return month; }
+    public Level getLevel() { return level; }
+    /** Month-to-date spending including the triggering transaction */
+    public BigDecimal getSpent() { return Money.fromCents(spentCents); }
+    /** The transaction that crossed the threshold */
+    public Transaction getTransaction() { return transaction; }
+
+    @Override
+    public String toString() {
+        return String.format("BudgetAlert{%s, month=%s, level=%s, spent=%s}", budget, month, level, getSpent());
+    }
+}
@@ -0,0 +1,271 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Month-to-date spending counters for budgets, updated as expenses are indexed
+ * A transaction touches at most two counters (its category's and its account's), each an array
+ * slot indexed by month, so checking thresholds is O(1) per write and costs nothing while no
+ * budget is set. Each threshold alerts at most once per budget and month, so edits that take
+ * spending down and back up do not repeat it. Crossings are buffered until the writer drains
+ * them into its change-feed batch. Spending is counted per currency; a category budget's limit
+ * is in the reporting currency, and each currency's month total is converted once at the
+ * month's last day when thresholds are checked. Not thread-safe on its own; FinanceService
+ * guards it with its lock.
+ */
+final class BudgetTracker {
+    private final BudgetCounter[] byCategory = new BudgetCounter[Category.values().length];
+    private final Map<String, BudgetCounter> byAccount = new HashMap<>();
+    private int size;
+    private List<BudgetAlert> pending = List.of();
+
+    /**
+     * Sets or replaces the budget for its category or account, counting the given existing
+     * transactions; thresholds they already passed are not alerted
+     */
+    void setBudget(Budget budget, Collection<Transaction> existing, Currency target, FxRateTable rates) {
+        BudgetCounter counter = new BudgetCounter(budget);
+        for (Transaction transaction : existing) {
+            if (transaction.isExpense()) {
+                counter.add(monthKey(transaction), transaction.getCurrency(), transaction.getAmountCents());
+            }
+        }
+        counter.markReached(target, rates);
+        BudgetCounter previous = budget.getScope() == Budget.Scope.CATEGORY
+            ? swap(budget.getCategory(), counter)
+            : byAccount.put(budget.getAccountId(), counter);
+        if (previous == null) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes the budget set on the same category or account, returning whether there was one
+     */
+    boolean removeBudget(Budget budget) {
+        BudgetCounter previous = budget.getScope() == Budget.Scope.CATEGORY
+            ? swap(budget.getCategory(), null)
+            : byAccount.remove(budget.getAccountId());
+        if (previous != null) {
+            size--;
+        }
+        return previous != null;
+    }
+
+    void removeAccount(String accountId) {
+        if (byAccount.remove(accountId) != null) {
+            size--;
+        }
+    }
+
+    List<Budget> budgets() {
+        List<Budget> budgets = new ArrayList<>(size);
+        for (BudgetCounter counter : byCategory) {
+            if (counter != null) {
+                budgets.add(counter.budget);
+            }
+        }
+        for (BudgetCounter counter : byAccount.values()) {
+            budgets.add(counter.budget);
+        }
+        return budgets;
+    }
+
+    /**
+     * Spending in cents counted against the budget's category or account for the month, in
+     * the budget's currency, or -1 when no budget is set there
+     */
+    long spent(Budget budget, YearMonth month, Currency target, FxRateTable rates) {
+        BudgetCounter counter = counterFor(budget);
+        return counter == null ? -1 : counter.spent(month.getYear() * 12 + month.getMonthValue() - 1, target, rates);
+    }
+
+    void add(Transaction transaction, Currency target, FxRateTable rates) {
+        if (size == 0 || !transaction.isExpense()) {
+            return;
+        }
+        record(transaction.getCategory() != null ? byCategory[transaction.getCategory().ordinal()] : null,
+               transaction, target, rates);
+        if (!byAccount.isEmpty()) {
+            record(byAccount.get(transaction.getAccountId()), transaction, target, rates);
+        }
+    }
+
+    void remove(Transaction transaction) {
+        if (size == 0 || !transaction.isExpense()) {
+            return;
+        }
+        int month = monthKey(transaction);
+        if (transaction.getCategory() != null && byCategory[transaction.getCategory().ordinal()] != null) {
+            byCategory[transaction.getCategory().ordinal()].add(month, transaction.getCurrency(), -transaction.getAmountCents());
+        }
+        BudgetCounter counter = byAccount.isEmpty() ? null : byAccount.get(transaction.getAccountId());
+        if (counter != null) {
+            counter.add(month, transaction.getCurrency(), -transaction.getAmountCents());
+        }
+    }
+
+    /**
+     * Returns the alerts raised since the last call and forgets them
+     */
+    List<BudgetAlert> drainAlerts() {
+        List<BudgetAlert> alerts = pending;
+        pending = List.of();
+        return alerts;
+    }
+
+    private void record(BudgetCounter counter, Transaction transaction, Currency target, FxRateTable rates) {
+        if (counter == null) {
+            return;
+        }
+        int month = monthKey(transaction);
+        counter.add(month, transaction.getCurrency(), transaction.getAmountCents());
+        long spent;
+        try {
+            spent = counter.spent(month, target, rates);
+        } catch (IllegalStateException e) {
+            // No rate to convert with yet; the write stands and the next one re-checks
+            return;
+        }
+        BudgetAlert.Level level = BudgetAlert.Level.reached(spent, counter.budget.getLimitCents());
+        if (level != null && counter.raise(month, level)) {
+            if (pending.isEmpty()) {
+                pending = new ArrayList<>();
+            }
+            pending.add(new BudgetAlert(counter.budget, YearMonth.of(month / 12, month % 12 + 1), level, spent, transaction));
+        }
+    }
+
+    private BudgetCounter counterFor(Budget budget) {
+        return budget.getScope() == Budget.Scope.CATEGORY
+            ? byCategory[budget.getCategory().ordinal()]
+            : byAccount.get(budget.getAccountId());
+    }
+
+    private BudgetCounter swap(Category category, BudgetCounter counter) {
+        BudgetCounter previous = byCategory[category.ordinal()];
+        byCategory[category.ordinal()] = counter;
+        return previous;
+    }
+
+    private static int monthKey(Transaction transaction) {
+        return AnalyticsEngine.monthKey(transaction);
+    }
+
+    /**
+     * Spending per currency and the highest alerted level per month, in arrays that grow to
+     * cover the months seen
+     */
+    private static final class BudgetCounter {
+        final Budget budget;
+        int firstMonth;
+        int months;
+        // Currencies the counted expenses are in, usually one, and each one's spending per month
+        Currency[] currencies = new Currency[0];
+        long[][] spent = new long[0][];
+        // Level ordinal + 1 already alerted per month, 0 for none
+        byte[] alerted = new byte[0];
+
+        BudgetCounter(Budget budget) {
+            this.budget = budget;
+        }
+
+        void add(int month, Currency currency, long cents) {
+            int index = ensureMonth(month);
+            int currencyIndex = currencyIndex(currency);
+            spent[currencyIndex][index] += cents;
+        }
+
+        /**
+         * The month's spending in the budget's currency: the reporting currency for category
+         * budgets, the account's own for account budgets
+         */
+        long spent(int month, Currency target, FxRateTable rates) {
+            int index = month - firstMonth;
+            if (index < 0 || index >= months) {
+                return 0;
+            }
+            if (budget.getScope() == Budget.Scope.ACCOUNT) {
+                return currencies.length > 0 ? spent[0][index] : 0;
+            }
+            long total = 0;
+            for (int i = 0; i < currencies.length; i++) {
+                total += currencies[i].equals(target) ? spent[i][index]
+                    : rates.convertCents(spent[i][index], currencies[i], target, AnalyticsEngine.toYearMonth(month).atEndOfMonth());
+            }
+            return total;
+        }
+
+        /**
+         * Records the level as alerted for the month, returning false if it or a higher one already was
+         */
+        boolean raise(int month, BudgetAlert.Level level) {
+            int index = month - firstMonth;
+            if (alerted[index] > level.ordinal()) {
+                return false;
+            }
+            alerted[index] = (byte) (level.ordinal() + 1);
+            return true;
+        }
+
+        void markReached(Currency target, FxRateTable rates) {
+            for (int i = 0; i < months; i++) {
+                BudgetAlert.Level level;
+                try {
+                    level = BudgetAlert.Level.reached(spent(firstMonth + i, target, rates), budget.getLimitCents());
+                } catch (IllegalStateException e) {
+                    level = null;
+                }
+                alerted[i] = level == null ? 0 : (byte) (level.ordinal() + 1);
+            }
+        }
+
+        private int currencyIndex(Currency currency) {
+            for (int i = 0; i < currencies.length; i++) {
+                if (currencies[i].equals(currency)) {
+                    return i;
+                }
+            }
+            currencies = Arrays.copyOf(currencies, currencies.length + 1);
+            currencies[currencies.length - 1] = currency;
+            spent = Arrays.copyOf(spent, spent.length + 1);
+            spent[spent.length - 1] = new long[alerted.length];
+            return currencies.length - 1;
+        }
+
+        private int ensureMonth(int month) {
+            if (months == 0) {
+                firstMonth = month;
+                resize(0, 1);
+                months = 1;
+                return 0;
+            }
+            if (month < firstMonth) {
+                int shift = Math.max(firstMonth - month, months / 2);
+                resize(shift, months + shift);
+                months += shift;
+                firstMonth -= shift;
+            } else if (month - firstMonth >= months) {
+                int length = Math.max(month - firstMonth + 1, months * 2);
+                resize(0, length);
+                months = length;
+            }
+            return month - firstMonth;
+        }
+
+        private void resize(int shift, int length) {
+            for (int i = 0; i < spent.length; i++) {
+                long[] grown = new long[length];
+                System.arraycopy(spent[i], 0, grown, shift, months);
+                spent[i] = grown;
+            }
+            byte[] grownAlerted = new byte[length];
+            System.arraycopy(alerted, 0, grownAlerted, shift, months);
+            alerted = grownAlerted;
+        }
+    }
+}
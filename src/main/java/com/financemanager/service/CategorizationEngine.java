@@ -0,0 +1,181 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.TransactionType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Category rules compiled into a single Aho-Corasick automaton
+ * One left-to-right pass over a description finds every matching keyword, so the cost per
+ * row is O(description length) however many rules there are. Each state remembers the best
+ * rule ending there or at any of its suffix states, separately for income and expense
+ * categories, so resolving priorities needs no extra work while matching.
+ * Immutable once compiled and safe to share between threads.
+ */
+public final class CategorizationEngine {
+    public static final CategorizationEngine EMPTY = compile(List.of());
+
+    private static final int NO_RULE = -1;
+
+    private final List<CategoryRule> rules;
+    // Per state: sorted edge labels with their target states, and the failure link
+    private final char[][] edgeLabels;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    // Per state: index of the best matching rule for each transaction type, or NO_RULE
+    private final int[] bestIncomeRule;
+    private final int[] bestExpenseRule;
+
+    private CategorizationEngine(List<CategoryRule> rules, char[][] edgeLabels, int[][] edgeTargets, int[] failure,
+                                 int[] bestIncomeRule, int[] bestExpenseRule) {
+        this.rules = rules;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.failure = failure;
+        this.bestIncomeRule = bestIncomeRule;
+        this.bestExpenseRule = bestExpenseRule;
+    }
+
+    public static CategorizationEngine compile(Collection<CategoryRule> ruleSet) {
+        List<CategoryRule> rules = List.copyOf(ruleSet);
+        List<char[]> labels = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        labels.add(new char[0]);
+        targets.add(new int[0]);
+
+        // Build the keyword trie
+        int[] ruleStates = new int[rules.size()];
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            String keyword = rules.get(ruleIndex).getKeyword();
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                int next = step(labels.get(state), targets.get(state), c);
+                if (next < 0) {
+                    next = labels.size();
+                    labels.add(new char[0]);
+                    targets.add(new int[0]);
+                    addEdge(labels, targets, state, c, next);
+                }
+                state = next;
+            }
+            ruleStates[ruleIndex] = state;
+        }
+
+        int stateCount = labels.size();
+        char[][] edgeLabels = labels.toArray(new char[0][]);
+        int[][] edgeTargets = targets.toArray(new int[0][]);
+        int[] bestIncome = new int[stateCount];
+        int[] bestExpense = new int[stateCount];
+        Arrays.fill(bestIncome, NO_RULE);
+        Arrays.fill(bestExpense, NO_RULE);
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            int state = ruleStates[ruleIndex];
+            if (rules.get(ruleIndex).getCategory().isIncomeCategory()) {
+                bestIncome[state] = better(rules, bestIncome[state], ruleIndex);
+            } else {
+                bestExpense[state] = better(rules, bestExpense[state], ruleIndex);
+            }
+        }
+
+        // Breadth-first failure links; a state inherits the best rules of its failure state
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int target : edgeTargets[0]) {
+            failure[target] = 0;
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = 0; e < edgeLabels[state].length; e++) {
+                char c = edgeLabels[state][e];
+                int child = edgeTargets[state][e];
+                int fallback = failure[state];
+                int next;
+                while ((next = step(edgeLabels[fallback], edgeTargets[fallback], c)) < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next >= 0 ? next : 0;
+                bestIncome[child] = better(rules, bestIncome[child], bestIncome[failure[child]]);
+                bestExpense[child] = better(rules, bestExpense[child], bestExpense[failure[child]]);
+                queue.add(child);
+            }
+        }
+        return new CategorizationEngine(rules, edgeLabels, edgeTargets, failure, bestIncome, bestExpense);
+    }
+
+    public List<CategoryRule> getRules() { return rules; }
+    public boolean isEmpty() { return rules.isEmpty(); }
+
+    /**
+     * Best category for a description among the rules whose category fits the transaction
+     * type, or null if no keyword occurs in it
+     */
+    public Category categorize(String description, TransactionType type) {
+        if (description == null || rules.isEmpty()) {
+            return null;
+        }
+        int[] best = type == TransactionType.INCOME ? bestIncomeRule : bestExpenseRule;
+        int state = 0;
+        int bestRule = NO_RULE;
+        for (int i = 0; i < description.length(); i++) {
+            char c = Character.toLowerCase(description.charAt(i));
+            int next;
+            while ((next = step(edgeLabels[state], edgeTargets[state], c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = next >= 0 ? next : 0;
+            bestRule = better(rules, bestRule, best[state]);
+        }
+        return bestRule == NO_RULE ? null : rules.get(bestRule).getCategory();
+    }
+
+    private static int step(char[] labels, int[] targets, char c) {
+        int index = Arrays.binarySearch(labels, c);
+        return index >= 0 ? targets[index] : -1;
+    }
+
+    private static void addEdge(List<char[]> labels, List<int[]> targets, int state, char c, int target) {
+        char[] oldLabels = labels.get(state);
+        int[] oldTargets = targets.get(state);
+        int insertAt = -Arrays.binarySearch(oldLabels, c) - 1;
+        char[] newLabels = new char[oldLabels.length + 1];
+        int[] newTargets = new int[oldTargets.length + 1];
+        System.arraycopy(oldLabels, 0, newLabels, 0, insertAt);
+        System.arraycopy(oldTargets, 0, newTargets, 0, insertAt);
+        newLabels[insertAt] = c;
+        newTargets[insertAt] = target;
+        System.arraycopy(oldLabels, insertAt, newLabels, insertAt + 1, oldLabels.length - insertAt);
+        System.arraycopy(oldTargets, insertAt, newTargets, insertAt + 1, oldTargets.length - insertAt);
+        labels.set(state, newLabels);
+        targets.set(state, newTargets);
+    }
+
+    /**
+     * Higher priority wins, then the longer keyword, then the rule listed first
+     */
+    private static int better(List<CategoryRule> rules, int a, int b) {
+        if (a == NO_RULE) return b;
+        if (b == NO_RULE) return a;
+        CategoryRule ruleA = rules.get(a);
+        CategoryRule ruleB = rules.get(b);
+        if (ruleA.getPriority() != ruleB.getPriority()) {
+            return ruleA.getPriority() > ruleB.getPriority() ? a : b;
+        }
+        if (ruleA.getKeyword().length() != ruleB.getKeyword().length()) {
+            return ruleA.getKeyword().length() > ruleB.getKeyword().length() ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    @Override
+    public String toString() {
+        return "CategorizationEngine{rules=" + rules.size() + ", states=" + failure.length + "}";
+    }
+}
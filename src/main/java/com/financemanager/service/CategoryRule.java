@@ -0,0 +1,38 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+
+import java.util.Objects;
+
+/**
+ * A "description contains keyword → category" rule; matching ignores case
+ * When several rules match, the highest priority wins, then the longest keyword.
+ */
+public final class CategoryRule {
+    private final String keyword;
+    private final Category category;
+    private final int priority;
+
+    public CategoryRule(String keyword, Category category, int priority) {
+        Objects.requireNonNull(keyword, "Keyword cannot be null");
+        if (keyword.isBlank()) {
+            throw new IllegalArgumentException("Keyword cannot be blank");
+        }
+        this.keyword = keyword;
+        this.category = Objects.requireNonNull(category, "Category cannot be null");
+        this.priority = priority;
+    }
+
+    public CategoryRule(String keyword, Category category) {
+        this(keyword, category, 0);
+    }
+
+    public String getKeyword() { return keyword; }
+    public Category getCategory() { return category; }
+    public int getPriority() { return priority; }
+
+    @Override
+    public String toString() {
+        return "CategoryRule{'" + keyword + "' -> " + category + ", priority=" + priority + "}";
+    }
+}
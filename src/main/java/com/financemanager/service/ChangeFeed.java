@@ -0,0 +1,76 @@
+package com.financemanager.service;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes FinanceService change batches to any number of Flow subscribers
+ * Each subscriber gets its own bounded buffer and signals demand with request(n).
+ * Delivery never blocks the writer: when a subscriber's buffer is full the batch is
+ * dropped for that subscriber only, and the gap shows up in the batch sequence numbers.
+ */
+public class ChangeFeed implements Flow.Publisher<FinanceEventBatch> {
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    private final SubmissionPublisher<FinanceEventBatch> publisher;
+    private final AtomicLong droppedDeliveries = new AtomicLong();
+    private long sequence;
+
+    public ChangeFeed() {
+        this(DEFAULT_BUFFER_CAPACITY);
+    }
+
+    public ChangeFeed(int bufferCapacity) {
+        // Deliveries run on the common pool, never on the writer's thread
+        this.publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super FinanceEventBatch> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Cheap check so writers can skip building events nobody will receive
+     */
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    /**
+     * Publishes one batch; callers serialize publishing so sequence numbers follow write order.
+     * Returns false if the batch was dropped for any subscriber whose buffer was full.
+     */
+    boolean publish(List<FinanceEvent> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+        FinanceEventBatch batch = new FinanceEventBatch(++sequence, events);
+        // Negative when deliveries were dropped
+        return publisher.offer(batch, (subscriber, dropped) -> {
+            droppedDeliveries.incrementAndGet();
+            return false;
+        }) >= 0;
+    }
+
+    /**
+     * Sequence number of the last published batch; read under the same lock publishers hold
+     */
+    long lastSequence() {
+        return sequence;
+    }
+
+    /**
+     * Number of batch deliveries skipped because a subscriber's buffer was full
+     */
+    public long getDroppedDeliveries() {
+        return droppedDeliveries.get();
+    }
+
+    public void close() {
+        publisher.close();
+    }
+}
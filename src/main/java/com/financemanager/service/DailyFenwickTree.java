@@ -0,0 +1,123 @@
+package com.financemanager.service;
+
+/**
+ * Fenwick (binary indexed) tree of cent amounts keyed by epoch day
+ * Point updates and prefix sums are O(log n) in the number of days covered. The covered
+ * range grows in either direction on demand, so backdated entries are accepted; growth
+ * doubles the range and rebuilds in linear time, which keeps updates amortized O(log n).
+ */
+final class DailyFenwickTree {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long baseDay;
+    private long[] daily = new long[0];
+    private long[] tree = new long[1];
+
+    void add(long epochDay, long cents) {
+        ensureCovered(epochDay);
+        int index = (int) (epochDay - baseDay);
+        daily[index] += cents;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += cents;
+        }
+    }
+
+    /**
+     * Sum of all amounts on or before the given day
+     */
+    long sumThrough(long epochDay) {
+        if (daily.length == 0 || epochDay < baseDay) {
+            return 0;
+        }
+        int count = (int) Math.min(epochDay - baseDay + 1, daily.length);
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    long total() {
+        return sumThrough(baseDay + daily.length - 1);
+    }
+
+    /**
+     * Calls the visitor for every day with a non-zero amount, in day order
+     */
+    void forEachDay(DayVisitor visitor) {
+        for (int i = 0; i < daily.length; i++) {
+            if (daily[i] != 0) {
+                visitor.visit(baseDay + i, daily[i]);
+            }
+        }
+    }
+
+    interface DayVisitor {
+        void visit(long epochDay, long cents);
+    }
+
+    /**
+     * Throws if the covered range could not grow to the given day, without changing the tree
+     */
+    void checkCoverable(long epochDay) {
+        if (daily.length > 0 && !covers(epochDay)) {
+            grownRange(epochDay);
+        }
+    }
+
+    private boolean covers(long epochDay) {
+        return epochDay >= baseDay && epochDay < baseDay + daily.length;
+    }
+
+    private void ensureCovered(long epochDay) {
+        if (daily.length == 0) {
+            baseDay = epochDay - INITIAL_CAPACITY / 2;
+            resize(baseDay, INITIAL_CAPACITY);
+            return;
+        }
+        if (covers(epochDay)) {
+            return;
+        }
+        long[] range = grownRange(epochDay);
+        resize(range[0], (int) range[1]);
+    }
+
+    /**
+     * The new base day and capacity that cover the given day
+     */
+    private long[] grownRange(long epochDay) {
+        // Double the range toward the new day so repeated backdating or future entries stay amortized
+        long capacity = daily.length;
+        long newBase = baseDay;
+        long newEnd = baseDay + daily.length;
+        while (epochDay < newBase || epochDay >= newEnd) {
+            capacity *= 2;
+            if (epochDay < newBase) {
+                newBase = newEnd - capacity;
+            } else {
+                newEnd = newBase + capacity;
+            }
+        }
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Date range too large for balance history: epoch day " + epochDay);
+        }
+        return new long[] {newBase, capacity};
+    }
+
+    private void resize(long newBase, int capacity) {
+        long[] newDaily = new long[capacity];
+        System.arraycopy(daily, 0, newDaily, (int) (baseDay - newBase), daily.length);
+        // Linear-time Fenwick construction from the raw daily amounts
+        long[] newTree = new long[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            newTree[i] += newDaily[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                newTree[parent] += newTree[i];
+            }
+        }
+        baseDay = newBase;
+        daily = newDaily;
+        tree = newTree;
+    }
+}
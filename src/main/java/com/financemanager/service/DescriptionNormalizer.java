@@ -0,0 +1,65 @@
+package com.financemanager.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reduces a free-text transaction description to a stable merchant key
+ * Case and punctuation are dropped, as are tokens containing digits (card numbers, store
+ * numbers, reference codes), so "AMAZON.COM*1A2B3 Seattle" and "Amazon.com #77 SEATTLE"
+ * both become "amazon com seattle". Shared by every feature that groups by merchant.
+ */
+public final class DescriptionNormalizer {
+    // Ledgers repeat the same few thousand descriptions, so most calls are a lookup
+    private static final int CACHE_LIMIT = 8192;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private DescriptionNormalizer() {
+    }
+
+    /**
+     * Normalized key, or an empty string if nothing recognisable is left
+     */
+    public static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        String cached = CACHE.get(description);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = compute(description);
+        if (CACHE.size() >= CACHE_LIMIT) {
+            CACHE.clear();
+        }
+        CACHE.put(description, normalized);
+        return normalized;
+    }
+
+    private static String compute(String description) {
+        StringBuilder normalized = new StringBuilder(description.length());
+        int tokenStart = -1;
+        boolean tokenHasDigit = false;
+        for (int i = 0; i <= description.length(); i++) {
+            char c = i < description.length() ? description.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (tokenStart < 0) {
+                    tokenStart = i;
+                    tokenHasDigit = false;
+                }
+                tokenHasDigit |= Character.isDigit(c);
+            } else if (tokenStart >= 0) {
+                if (!tokenHasDigit) {
+                    if (normalized.length() > 0) {
+                        normalized.append(' ');
+                    }
+                    for (int j = tokenStart; j < i; j++) {
+                        normalized.append(Character.toLowerCase(description.charAt(j)));
+                    }
+                }
+                tokenStart = -1;
+            }
+        }
+        return normalized.toString();
+    }
+}
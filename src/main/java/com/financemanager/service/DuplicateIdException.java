@@ -0,0 +1,14 @@
+package com.financemanager.service;
+
+/**
+ * Thrown when an account or transaction is added under an ID the ledger already holds
+ * An IllegalArgumentException, so callers that treat any refused write alike need not
+ * change; the API answers it 409 rather than 400, since the request itself was valid.
+ */
+public class DuplicateIdException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateIdException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package com.financemanager.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bookkeeping and throughput of one statement file picked up by StatementIngestDaemon
+ * Rows count the data lines parsed; each ends up added, skipped because its ID is already in
+ * the ledger (the file was partly posted before a restart) or rejected with a reason, the
+ * first of which is kept. Blocked time is how long parsing waited on a full queue, i.e. how
+ * much the ledger writer held this file back.
+ */
+public final class FileIngestReport {
+    public enum Status { PARSING, COMPLETED, DUPLICATE, FAILED }
+
+    private final String fileName;
+    private final String contentHash;
+    private final Status status;
+    private final long bytes;
+    private final long rows;
+    private final long added;
+    private final long skipped;
+    private final long rejected;
+    private final String firstError;
+    private final Instant started;
+    private final Instant finished;
+    private final long blockedMillis;
+
+    FileIngestReport(String fileName, String contentHash, Status status, long bytes, long rows, long added,
+                     long skipped, long rejected, String firstError, Instant started, Instant finished,
+                     long blockedMillis) {
+        this.fileName = fileName;
+        this.contentHash = contentHash;
+        this.status = status;
+        this.bytes = bytes;
+        this.rows = rows;
+        this.added = added;
+        this.skipped = skipped;
+        this.rejected = rejected;
+        this.firstError = firstError;
+        this.started = started;
+        this.finished = finished;
+        this.blockedMillis = blockedMillis;
+    }
+
+    public String getFileName() { return fileName; }
+    /** SHA-256 of the file's content in hex, or null until it has been read */
+    public String getContentHash() { return contentHash; }
+    public Status getStatus() { return status; }
+    public long getBytes() { return bytes; }
+    public long getRows() { return rows; }
+    public long getAdded() { return added; }
+    public long getSkipped() { return skipped; }
+    public long getRejected() { return rejected; }
+    /** The first rejected row's reason or the failure's message, or null */
+    public String getFirstError() { return firstError; }
+    public Instant getStarted() { return started; }
+    /** Null while the file is still being parsed or posted */
+    public Instant getFinished() { return finished; }
+    public long getBlockedMillis() { return blockedMillis; }
+
+    public boolean isFinished() {
+        return status != Status.PARSING;
+    }
+
+    /**
+     * Time from claiming the file to its last row being posted, or so far
+     */
+    public Duration getElapsed() {
+        return Duration.between(started, finished != null ? finished : Instant.now());
+    }
+
+    public double getRowsPerSecond() {
+        long millis = Math.max(1, getElapsed().toMillis());
+        return rows * 1000.0 / millis;
+    }
+
+    public double getBytesPerSecond() {
+        long millis = Math.max(1, getElapsed().toMillis());
+        return bytes * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileIngestReport{file=%s, status=%s, rows=%d, added=%d, skipped=%d, rejected=%d, "
+                + "%.0f rows/s, blocked=%dms}", fileName, status, rows, added, skipped, rejected,
+            getRowsPerSecond(), blockedMillis);
+    }
+}
@@ -0,0 +1,97 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A single change to the ledger, published by FinanceService through its change feed
+ * Accounts and transactions are copied when the event is created, so a subscriber reading
+ * them later on another thread sees them as they were at publish time, not as changed by
+ * later writes.
+ */
+public final class FinanceEvent {
+    public enum Type {
+        ACCOUNT_ADDED, ACCOUNT_REMOVED, TRANSACTION_ADDED, TRANSACTION_UPDATED, TRANSACTION_DELETED, BALANCE_CHANGED,
+        OUTLIER_FLAGGED, BUDGET_ALERT
+    }
+
+    private final Type type;
+    private final String accountId;
+    private final Account account;
+    private final Transaction transaction;
+    private final BigDecimal balanceDelta;
+    private final BudgetAlert budgetAlert;
+
+    private FinanceEvent(Type type, String accountId, Account account, Transaction transaction, BigDecimal balanceDelta) {
+        this(type, accountId, account, transaction, balanceDelta, null);
+    }
+
+    private FinanceEvent(Type type, String accountId, Account account, Transaction transaction, BigDecimal balanceDelta,
+                         BudgetAlert budgetAlert) {
+        this.type = Objects.requireNonNull(type, "Event type cannot be null");
+        this.accountId = Objects.requireNonNull(accountId, "Account ID cannot be null");
+        this.account = account != null ? account.copy() : null;
+        this.transaction = transaction != null ? transaction.copy() : null;
+        this.balanceDelta = balanceDelta;
+        this.budgetAlert = budgetAlert;
+    }
+
+    public static FinanceEvent accountAdded(Account account) {
+        // The balance is read now, while it is still the opening balance
+        return new FinanceEvent(Type.ACCOUNT_ADDED, account.getId(), account, null, account.getBalance());
+    }
+
+    public static FinanceEvent accountRemoved(Account account) {
+        return new FinanceEvent(Type.ACCOUNT_REMOVED, account.getId(), account, null, null);
+    }
+
+    public static FinanceEvent transactionAdded(Transaction transaction) {
+        return new FinanceEvent(Type.TRANSACTION_ADDED, transaction.getAccountId(), null, transaction, null);
+    }
+
+    public static FinanceEvent transactionUpdated(Transaction transaction) {
+        return new FinanceEvent(Type.TRANSACTION_UPDATED, transaction.getAccountId(), null, transaction, null);
+    }
+
+    public static FinanceEvent transactionDeleted(Transaction transaction) {
+        return new FinanceEvent(Type.TRANSACTION_DELETED, transaction.getAccountId(), null, transaction, null);
+    }
+
+    /**
+     * A newly added expense that is unusually large for its category
+     */
+    public static FinanceEvent outlierFlagged(Transaction transaction) {
+        return new FinanceEvent(Type.OUTLIER_FLAGGED, transaction.getAccountId(), null, transaction, null);
+    }
+
+    /**
+     * A transaction took a budget's month-to-date spending past 80% or 100% of its limit
+     */
+    public static FinanceEvent budgetAlert(BudgetAlert alert) {
+        Transaction transaction = alert.getTransaction();
+        return new FinanceEvent(Type.BUDGET_ALERT, transaction.getAccountId(), null, transaction, null, alert);
+    }
+
+    public static FinanceEvent balanceChanged(Account account, BigDecimal balanceDelta) {
+        return new FinanceEvent(Type.BALANCE_CHANGED, account.getId(), account, null, balanceDelta);
+    }
+
+    public Type getType() { return type; }
+    public String getAccountId() { return accountId; }
+    /** A copy of the affected account, with its balance after the change, for account and balance events, otherwise null */
+    public Account getAccount() { return account; }
+    /** A copy of the affected transaction for transaction, outlier and budget events, otherwise null */
+    public Transaction getTransaction() { return transaction; }
+    /** The net balance change for BALANCE_CHANGED events, the opening balance for ACCOUNT_ADDED, otherwise null */
+    public BigDecimal getBalanceDelta() { return balanceDelta; }
+    /** The alert for BUDGET_ALERT events, otherwise null */
+    public BudgetAlert getBudgetAlert() { return budgetAlert; }
+
+    @Override
+    public String toString() {
+        return String.format("FinanceEvent{type=%s, accountId='%s'}", type, accountId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.financemanager.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The events produced by one write to FinanceService, delivered together
+ * Sequence numbers increase by one per batch; a subscriber that sees a jump
+ * has missed batches (it fell too far behind) and should reload its view in full
+ */
+public final class FinanceEventBatch {
+    private final long sequence;
+    private final List<FinanceEvent> events;
+
+    FinanceEventBatch(long sequence, List<FinanceEvent> events) {
+        this.sequence = sequence;
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    public long getSequence() { return sequence; }
+    public List<FinanceEvent> getEvents() { return events; }
+
+    public boolean follows(long previousSequence) {
+        return sequence == previousSequence + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "FinanceEventBatch{sequence=" + sequence + ", events=" + events.size() + "}";
+    }
+}
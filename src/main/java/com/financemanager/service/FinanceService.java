@@ -2,164 +2,1591 @@ package com.financemanager.service;
 
 import com.financemanager.model.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Service class handling business logic for finance management
  * Demonstrates service layer pattern, collections usage, and streams
+ * Thread-safe: reads share a read lock so reports and searches can run off the UI thread
  */
 public class FinanceService {
+    private static final int MAX_CACHED_LISTINGS = 8;
+    private static final int MAX_CACHED_LISTING_ROWS = 50_000;
+    // Larger search results are not cached, so arbitrary terms cannot pin copies of the ledger
+    private static final int MAX_CACHED_SEARCH_ROWS = 1_000;
+
     private final Map<String, Account> accounts;
-    private final List<Transaction> transactions;
+    // Keyed by ID in insertion order, so single transactions can be found and removed in O(1)
+    private final Map<String, Transaction> transactions;
+    private final LedgerDateIndex dateIndex;
+    private final TransactionLookupIndex lookupIndex;
+    private final SpendDistributionIndex spendDistributions;
+    private final MerchantRankingIndex merchantRankings;
+    private final RecurringDetector recurringDetector;
+    private final LedgerMerkleIndex merkleIndex;
+    private final BalanceHistoryIndex balanceHistory;
+    private final BudgetTracker budgetTracker;
+    private final LedgerVersions versions;
+    private final QueryCache queryCache;
+    private final QueryPlanner queryPlanner;
     private final TransactionService transactionService;
+    private final ChangeFeed changeFeed;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Bumped on every change to the transaction list; invalidates cached views
+    private long dataVersion;
+    // Listings per (search term, sort), so the GUI's listing is not evicted by API or other queries
+    private final QueryCache listingCache = new QueryCache(MAX_CACHED_LISTINGS);
+    // The most recent listing, re-sorted when only the sort order changes
+    private volatile TransactionListing lastListing;
+    private volatile CategorizationEngine categorizationEngine = CategorizationEngine.EMPTY;
+    private volatile Currency reportingCurrency = Money.DEFAULT_CURRENCY;
+    private volatile FxRateTable fxRates = FxRateTable.empty(Money.DEFAULT_CURRENCY);
+    // Currencies of all accounts ever added; aggregations sum cents per group, then convert each once
+    private Currency[] currencyGroups = new Currency[0];
+    // Budget alerts raised while nobody was subscribed, or dropped for a subscriber
+    private final List<BudgetAlert> undeliveredAlerts = new ArrayList<>();
+    // Null until enableUndo; every write then records into it and commits one step
+    private LedgerHistory history;
 
     public FinanceService() {
         this.accounts = new HashMap<>();
-        this.transactions = new ArrayList<>();
+        this.transactions = new LinkedHashMap<>();
+        this.dateIndex = new LedgerDateIndex();
+        this.lookupIndex = new TransactionLookupIndex();
+        this.spendDistributions = new SpendDistributionIndex(lookupIndex);
+        this.merchantRankings = new MerchantRankingIndex();
+        this.recurringDetector = new RecurringDetector();
+        this.merkleIndex = new LedgerMerkleIndex();
+        this.balanceHistory = new BalanceHistoryIndex();
+        this.budgetTracker = new BudgetTracker();
+        this.versions = new LedgerVersions();
+        this.queryCache = new QueryCache(QueryCache.DEFAULT_CAPACITY);
+        this.queryPlanner = new QueryPlanner(transactions, dateIndex, lookupIndex);
         this.transactionService = new TransactionService();
+        this.changeFeed = new ChangeFeed();
     }
 
     // Account Management
     public void addAccount(Account account) {
-        if (accounts.containsKey(account.getId())) {
-            throw new IllegalArgumentException("Account with ID " + account.getId() + " already exists");
+        lock.writeLock().lock();
+        try {
+            if (accounts.containsKey(account.getId())) {
+                throw new DuplicateIdException("Account with ID " + account.getId() + " already exists");
+            }
+            // Rejected like a transaction amount, so the balance history never starts from a rounded figure
+            long openingCents = Money.toCents(account.getBalance());
+            accounts.put(account.getId(), account);
+            registerCurrency(account.getCurrency());
+            balanceHistory.openAccount(account.getId(), openingCents);
+            if (history != null) {
+                history.accountAdded(account);
+                history.commit("Add account " + account.getName());
+            }
+            if (changeFeed.hasSubscribers()) {
+                changeFeed.publish(List.of(FinanceEvent.accountAdded(account)));
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
-        accounts.put(account.getId(), account);
     }
 
     public Optional<Account> getAccount(String accountId) {
-        return Optional.ofNullable(accounts.get(accountId));
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(accounts.get(accountId));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<Account> getAllAccounts() {
-        return new ArrayList<>(accounts.values());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(accounts.values());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public void removeAccount(String accountId) {
-        if (!accounts.containsKey(accountId)) {
-            throw new IllegalArgumentException("Account with ID " + accountId + " not found");
+        lock.writeLock().lock();
+        try {
+            Account account = accounts.remove(accountId);
+            if (account == null) {
+                throw new IllegalArgumentException("Account with ID " + accountId + " not found");
+            }
+            // Remove all transactions for this account, found through the date index
+            for (Transaction transaction : dateIndex.removeAccount(accountId)) {
+                transactions.remove(transaction.getId());
+                spendDistributions.remove(transaction);
+                merchantRankings.remove(transaction);
+                merkleIndex.remove(transaction);
+                budgetTracker.remove(transaction);
+                versions.touch(transaction, dataVersion + 1);
+                if (history != null) {
+                    history.transactionRemoved(transaction.getId());
+                }
+            }
+            versions.touchAccount(accountId, dataVersion + 1);
+            lookupIndex.removeAccount(accountId);
+            spendDistributions.removeAccount(accountId);
+            recurringDetector.removeAccount(accountId);
+            balanceHistory.removeAccount(accountId);
+            budgetTracker.removeAccount(accountId);
+            dataVersion++;
+            if (history != null) {
+                history.accountRemoved(accountId);
+                history.commit("Remove account " + account.getName());
+            }
+            if (changeFeed.hasSubscribers()) {
+                changeFeed.publish(List.of(FinanceEvent.accountRemoved(account)));
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
-        accounts.remove(accountId);
-        // Remove all transactions for this account
-        transactions.removeIf(transaction -> transaction.getAccountId().equals(accountId));
     }
 
     // Transaction Management
     public void addTransaction(Transaction transaction) {
-        Account account = accounts.get(transaction.getAccountId());
-        if (account == null) {
-            throw new IllegalArgumentException("Account not found for transaction");
-        }
+        lock.writeLock().lock();
+        try {
+            Account account = accounts.get(transaction.getAccountId());
+            if (account == null) {
+                throw new IllegalArgumentException("Account not found for transaction");
+            }
+            if (transactions.containsKey(transaction.getId())) {
+                throw new DuplicateIdException("Transaction with ID " + transaction.getId() + " already exists");
+            }
+            checkIndexable(transaction);
+            assignCurrency(transaction, account);
+
+            categorizeIfMissing(transaction);
+            // Compared before it is added, so the sketch does not include the transaction itself
+            boolean outlier = changeFeed.hasSubscribers() && spendDistributions.isOutlier(transaction);
 
-        // Update account balance
-        account.updateBalance(transaction.getSignedAmount());
+            // Update account balance
+            BigDecimal signedAmount = transaction.getSignedAmount();
+            account.updateBalance(signedAmount);
         
-        // Add transaction
-        transactions.add(transaction);
+            // Add transaction
+            index(transaction);
+            dataVersion++;
+            if (history != null) {
+                history.transactionAdded(transaction);
+                history.commit("Add transaction " + transaction.getDescription());
+            }
+            List<FinanceEvent> events = null;
+            if (changeFeed.hasSubscribers()) {
+                FinanceEvent added = FinanceEvent.transactionAdded(transaction);
+                FinanceEvent balance = FinanceEvent.balanceChanged(account, signedAmount);
+                events = outlier
+                    ? List.of(added, balance, FinanceEvent.outlierFlagged(transaction))
+                    : List.of(added, balance);
+            }
+            publishWithBudgetAlerts(events);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a batch of transactions atomically: either every account exists and all are
+     * added, or none are. Balances are updated once per account and the change feed
+     * receives a single batch, which makes this the preferred path for bulk ingest.
+     */
+    public void addTransactions(Collection<Transaction> batch) {
+        lock.writeLock().lock();
+        try {
+            Set<String> batchIds = new HashSet<>();
+            for (Transaction transaction : batch) {
+                Account account = accounts.get(transaction.getAccountId());
+                if (account == null) {
+                    throw new IllegalArgumentException("Account not found for transaction " + transaction.getId());
+                }
+                if (transactions.containsKey(transaction.getId())) {
+                    throw new DuplicateIdException("Transaction with ID " + transaction.getId() + " already exists");
+                }
+                if (!batchIds.add(transaction.getId())) {
+                    throw new IllegalArgumentException("Transaction ID " + transaction.getId() + " appears twice in the batch");
+                }
+                checkIndexable(transaction);
+                assignCurrency(transaction, account);
+            }
+
+            boolean publish = changeFeed.hasSubscribers();
+            List<Transaction> outliers = publish ? new ArrayList<>() : null;
+            Map<String, long[]> balanceDeltas = new LinkedHashMap<>();
+            for (Transaction transaction : batch) {
+                categorizeIfMissing(transaction);
+                if (publish && spendDistributions.isOutlier(transaction)) {
+                    outliers.add(transaction);
+                }
+                balanceDeltas.computeIfAbsent(transaction.getAccountId(), id -> new long[1])[0] +=
+                    transaction.getSignedAmountCents();
+                index(transaction);
+                if (history != null) {
+                    history.transactionAdded(transaction);
+                }
+            }
+            dataVersion++;
+            if (history != null) {
+                history.commit("Add " + batch.size() + " transactions");
+            }
+
+            List<FinanceEvent> events = publish
+                ? new ArrayList<>(batch.size() + balanceDeltas.size() + outliers.size()) : null;
+            if (publish) {
+                for (Transaction transaction : batch) {
+                    events.add(FinanceEvent.transactionAdded(transaction));
+                }
+                for (Transaction transaction : outliers) {
+                    events.add(FinanceEvent.outlierFlagged(transaction));
+                }
+            }
+            for (Map.Entry<String, long[]> entry : balanceDeltas.entrySet()) {
+                Account account = accounts.get(entry.getKey());
+                BigDecimal delta = Money.fromCents(entry.getValue()[0]);
+                account.updateBalance(delta);
+                if (publish) {
+                    events.add(FinanceEvent.balanceChanged(account, delta));
+                }
+            }
+            publishWithBudgetAlerts(events);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a composable query. The planner reads candidates from the most selective index
+     * (account, category or date range) and applies the remaining filters to those rows only;
+     * the result carries the chosen plan so callers can see how the query was answered.
+     * Group totals are in the reporting currency.
+     */
+    public QueryResult query(TransactionQuery query) {
+        lock.readLock().lock();
+        try {
+            return queryPlanner.execute(query, reportingCurrency, fxRates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Transaction> getTransaction(String transactionId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(transactions.get(transactionId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a stored transaction with an edited version carrying the same ID, e.g. one
+     * made with Transaction.copy(). Balances, rollups and indexes are corrected by the exact
+     * difference between the two versions; nothing is recomputed from scratch.
+     */
+    public void updateTransaction(Transaction replacement) {
+        lock.writeLock().lock();
+        try {
+            Transaction existing = transactions.get(replacement.getId());
+            if (existing == null) {
+                throw new IllegalArgumentException("Transaction with ID " + replacement.getId() + " not found");
+            }
+            if (existing == replacement) {
+                throw new IllegalArgumentException("Edit a copy of the transaction, not the stored instance");
+            }
+            Account oldAccount = accounts.get(existing.getAccountId());
+            Account newAccount = accounts.get(replacement.getAccountId());
+            if (newAccount == null) {
+                throw new IllegalArgumentException("Account not found for transaction");
+            }
+            checkIndexable(replacement);
+            assignCurrency(replacement, newAccount);
+
+            unindex(existing);
+            index(replacement);
+            dataVersion++;
+            if (history != null) {
+                history.transactionReplaced(replacement);
+                history.commit("Edit transaction " + replacement.getDescription());
+            }
+
+            // Events copy what they carry, so they are only built for subscribers
+            List<FinanceEvent> events = changeFeed.hasSubscribers() ? new ArrayList<>(3) : null;
+            if (events != null) {
+                events.add(FinanceEvent.transactionUpdated(replacement));
+            }
+            if (oldAccount == newAccount) {
+                long deltaCents = replacement.getSignedAmountCents() - existing.getSignedAmountCents();
+                if (deltaCents != 0) {
+                    applyBalanceDelta(newAccount, deltaCents, events);
+                }
+            } else {
+                applyBalanceDelta(oldAccount, -existing.getSignedAmountCents(), events);
+                applyBalanceDelta(newAccount, replacement.getSignedAmountCents(), events);
+            }
+            publishWithBudgetAlerts(events);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes a single transaction and reverses its effect on the account balance
+     */
+    public void deleteTransaction(String transactionId) {
+        lock.writeLock().lock();
+        try {
+            Transaction existing = transactions.get(transactionId);
+            if (existing == null) {
+                throw new IllegalArgumentException("Transaction with ID " + transactionId + " not found");
+            }
+            unindex(existing);
+            dataVersion++;
+            if (history != null) {
+                history.transactionRemoved(transactionId);
+                history.commit("Delete transaction " + existing.getDescription());
+            }
+
+            List<FinanceEvent> events = changeFeed.hasSubscribers() ? new ArrayList<>(2) : null;
+            if (events != null) {
+                events.add(FinanceEvent.transactionDeleted(existing));
+            }
+            applyBalanceDelta(accounts.get(existing.getAccountId()), -existing.getSignedAmountCents(), events);
+            if (events != null) {
+                changeFeed.publish(events);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the currency that total balances and monthly reports are converted into
+     */
+    public void setReportingCurrency(Currency currency) {
+        reportingCurrency = Objects.requireNonNull(currency, "Reporting currency cannot be null");
+    }
+
+    public Currency getReportingCurrency() {
+        return reportingCurrency;
+    }
+
+    /**
+     * Replaces the exchange rates used to convert totals into the reporting currency
+     */
+    public void setFxRates(FxRateTable rates) {
+        fxRates = Objects.requireNonNull(rates, "FX rates cannot be null");
+    }
+
+    public FxRateTable getFxRates() {
+        return fxRates;
+    }
+
+    /**
+     * Replaces the categorization rules. Transactions added from now on without a category
+     * are categorized by them; call recategorize to apply them to stored transactions.
+     */
+    public void setCategorizationRules(Collection<CategoryRule> rules) {
+        // Compiled before taking the lock; publishing the engine is a single volatile write
+        categorizationEngine = CategorizationEngine.compile(rules);
+    }
+
+    public CategorizationEngine getCategorizationEngine() {
+        return categorizationEngine;
+    }
+
+    /**
+     * Re-applies the categorization rules to stored transactions, e.g. after a rule change.
+     * Rules are matched in parallel against a snapshot without holding the lock; the rows
+     * whose category changes then go through the update path in one write and are published
+     * as one batch. Rows edited or deleted in between are left alone. With overwrite false
+     * only uncategorized transactions are considered. Returns the number of rows changed.
+     */
+    public int recategorize(boolean overwrite) {
+        CategorizationEngine engine = categorizationEngine;
+        Transaction[] snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = transactions.values().toArray(new Transaction[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Recategorization> changes = Arrays.stream(snapshot).parallel()
+            .filter(transaction -> overwrite || transaction.getCategory() == null)
+            .map(transaction -> {
+                Category category = engine.categorize(transaction.getDescription(), transaction.getType());
+                return category != null && category != transaction.getCategory()
+                    ? new Recategorization(transaction, category) : null;
+            })
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<FinanceEvent> events = new ArrayList<>(changes.size());
+            for (Recategorization change : changes) {
+                if (transactions.get(change.original.getId()) != change.original) {
+                    continue;
+                }
+                Transaction replacement = change.original.copy();
+                replacement.setCategory(change.category);
+                unindex(change.original);
+                index(replacement);
+                if (history != null) {
+                    history.transactionReplaced(replacement);
+                }
+                events.add(FinanceEvent.transactionUpdated(replacement));
+            }
+            int changed = events.size();
+            if (changed > 0) {
+                dataVersion++;
+                if (history != null) {
+                    history.commit("Recategorize " + changed + " transactions");
+                }
+            }
+            publishWithBudgetAlerts(changeFeed.hasSubscribers() ? events : null);
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Undo History
+
+    /**
+     * Starts recording undo history, keeping up to maxSteps steps; the current ledger becomes
+     * the state the first undo returns to. Off by default so writes pay nothing for it.
+     * Each step is a version of a persistent account map and transaction vector that shares
+     * everything unchanged with its neighbours, so a step costs O(log n) memory, not a copy.
+     */
+    public void enableUndo(int maxSteps) {
+        lock.writeLock().lock();
+        try {
+            history = historyFromLedger(maxSteps);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private LedgerHistory historyFromLedger(int maxSteps) {
+        List<Account> openedAccounts = new ArrayList<>(accounts.size());
+        for (Account account : accounts.values()) {
+            openedAccounts.add(LedgerHistory.opened(account, Money.fromCents(balanceHistory.openingBalance(account.getId()))));
+        }
+        return new LedgerHistory(maxSteps, openedAccounts, transactions.values());
+    }
+
+    public boolean canUndo() {
+        return canMove(-1);
+    }
+
+    public boolean canRedo() {
+        return canMove(1);
+    }
+
+    /**
+     * Label of the change the next undo reverts, e.g. "Add transaction Coffee"
+     */
+    public Optional<String> getUndoLabel() {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(history != null ? history.undoLabel() : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<String> getRedoLabel() {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(history != null ? history.redoLabel() : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void undo() {
+        undo(1);
+    }
+
+    public void redo() {
+        redo(1);
+    }
+
+    /**
+     * Reverts the last steps changes at once. Only the difference between the current and
+     * the target version is applied, so jumping back many steps costs what changed between
+     * them, not one replay per step. Throws IllegalStateException if the ledger refused part
+     * of the difference; what was applied stays, and the history restarts from there.
+     */
+    public void undo(int steps) {
+        move(-requirePositive(steps));
+    }
+
+    public void redo(int steps) {
+        move(requirePositive(steps));
+    }
+
+    private static int requirePositive(int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Steps must be positive");
+        }
+        return steps;
+    }
+
+    private boolean canMove(int delta) {
+        lock.readLock().lock();
+        try {
+            return history != null && history.canMove(delta);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the ledger to the version delta steps away by replaying the diff through the
+     * regular write methods, so indexes, balances and the change feed stay consistent.
+     * Accounts are added before the transactions that need them and removed after the
+     * transactions that leave them; the history itself is not recorded into meanwhile.
+     * A write refused halfway leaves a ledger that matches no step, so the history is
+     * restarted from it rather than left pointing at a version the ledger is not at.
+     */
+    private void move(int delta) {
+        lock.writeLock().lock();
+        try {
+            if (history == null) {
+                throw new IllegalStateException("Undo history is not enabled");
+            }
+            LedgerHistory.Step from = history.current();
+            LedgerHistory.Step to = history.stepAt(delta);
+
+            List<Account> addedAccounts = new ArrayList<>();
+            List<Account> reopenedAccounts = new ArrayList<>();
+            List<String> removedAccounts = new ArrayList<>();
+            PersistentHashMap.diff(from.accounts, to.accounts, (id, before, after) -> {
+                if (before == null) {
+                    addedAccounts.add(after);
+                } else if (after == null) {
+                    removedAccounts.add(id);
+                } else {
+                    reopenedAccounts.add(after);
+                }
+            });
+            List<String> deleted = new ArrayList<>();
+            List<Transaction> added = new ArrayList<>();
+            List<Integer> addedSlots = new ArrayList<>();
+            List<Transaction> replaced = new ArrayList<>();
+            PersistentVector.diff(from.transactions, to.transactions, (slot, before, after) -> {
+                if (before != null && after != null && before.getId().equals(after.getId())) {
+                    replaced.add(after);
+                    return;
+                }
+                if (before != null) {
+                    deleted.add(before.getId());
+                }
+                if (after != null) {
+                    added.add(after.copy());
+                    addedSlots.add(slot);
+                }
+            });
+
+            history.beginReplay();
+            try {
+                for (Account account : addedAccounts) {
+                    addAccount(LedgerHistory.opened(account, account.getBalance()));
+                }
+                for (String id : deleted) {
+                    deleteTransaction(id);
+                }
+                for (Account account : reopenedAccounts) {
+                    removeAccount(account.getId());
+                    addAccount(LedgerHistory.opened(account, account.getBalance()));
+                }
+                if (!added.isEmpty()) {
+                    addTransactions(added);
+                }
+                for (Transaction transaction : replaced) {
+                    updateTransaction(transaction.copy());
+                }
+                for (String id : removedAccounts) {
+                    removeAccount(id);
+                }
+            } catch (RuntimeException e) {
+                history = historyFromLedger(history.maxSteps());
+                throw new IllegalStateException((delta < 0 ? "Undo" : "Redo")
+                    + " stopped partway and the undo history was reset: " + e.getMessage(), e);
+            }
+            history.endReplay(delta, addedSlots);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void assignCurrency(Transaction transaction, Account account) {
+        if (transaction.getCurrency() == null) {
+            transaction.setCurrency(account.getCurrency());
+        } else if (!transaction.getCurrency().equals(account.getCurrency())) {
+            throw new IllegalArgumentException("Transaction currency " + transaction.getCurrency()
+                + " does not match currency " + account.getCurrency() + " of account " + account.getId());
+        }
+    }
+
+    private void registerCurrency(Currency currency) {
+        for (Currency group : currencyGroups) {
+            if (group.equals(currency)) {
+                return;
+            }
+        }
+        currencyGroups = Arrays.copyOf(currencyGroups, currencyGroups.length + 1);
+        currencyGroups[currencyGroups.length - 1] = currency;
+    }
+
+    private int currencyGroup(Currency currency) {
+        // A ledger holds a handful of currencies, so a scan beats hashing on every row
+        for (int i = 0; i < currencyGroups.length; i++) {
+            if (currencyGroups[i] == currency) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown currency " + currency);
+    }
+
+    /**
+     * True when every account is held in the target currency, so totals need no conversion
+     */
+    private boolean isSingleCurrency(Currency target) {
+        return currencyGroups.length == 0 || (currencyGroups.length == 1 && currencyGroups[0].equals(target));
+    }
+
+    /**
+     * Converts per-currency totals at the rates effective on the given day, one conversion per group
+     */
+    private long toReportingCents(long[] centsByGroup, Currency target, FxRateTable rates, LocalDate rateDate) {
+        long total = 0;
+        for (int i = 0; i < centsByGroup.length; i++) {
+            total += rates.convertCents(centsByGroup[i], currencyGroups[i], target, rateDate);
+        }
+        return total;
+    }
+
+    /**
+     * Publishes a write's events, null when nobody is subscribed, with the budget alerts it
+     * raised. Each threshold alerts once per month, so alerts that did not reach every
+     * subscriber are kept for getPendingBudgetAlerts instead of being lost.
+     */
+    private void publishWithBudgetAlerts(List<FinanceEvent> events) {
+        List<BudgetAlert> alerts = budgetTracker.drainAlerts();
+        if (events == null) {
+            if (!alerts.isEmpty()) {
+                undeliveredAlerts.addAll(alerts);
+            }
+            return;
+        }
+        List<FinanceEvent> combined = events;
+        if (!alerts.isEmpty()) {
+            combined = new ArrayList<>(events.size() + alerts.size());
+            combined.addAll(events);
+            for (BudgetAlert alert : alerts) {
+                combined.add(FinanceEvent.budgetAlert(alert));
+            }
+        }
+        if (!changeFeed.publish(combined)) {
+            undeliveredAlerts.addAll(alerts);
+        }
+    }
+
+    private void categorizeIfMissing(Transaction transaction) {
+        CategorizationEngine engine = categorizationEngine;
+        if (transaction.getCategory() == null && !engine.isEmpty()) {
+            transaction.setCategory(engine.categorize(transaction.getDescription(), transaction.getType()));
+        }
+    }
+
+    /**
+     * Rejects a transaction that index() would fail on part way, before anything is changed,
+     * so a failed write never leaves the balance or some indexes updated and others not
+     */
+    private void checkIndexable(Transaction transaction) {
+        balanceHistory.checkRecordable(transaction);
+    }
+
+    private void index(Transaction transaction) {
+        transactions.put(transaction.getId(), transaction);
+        dateIndex.add(transaction);
+        lookupIndex.add(transaction);
+        spendDistributions.add(transaction);
+        merchantRankings.add(transaction);
+        recurringDetector.add(transaction);
+        merkleIndex.add(transaction);
+        balanceHistory.add(transaction);
+        budgetTracker.add(transaction, reportingCurrency, fxRates);
+        // Every write bumps dataVersion right after indexing, so this is the write's version
+        versions.touch(transaction, dataVersion + 1);
+    }
+
+    private void unindex(Transaction transaction) {
+        transactions.remove(transaction.getId());
+        dateIndex.remove(transaction);
+        lookupIndex.remove(transaction);
+        spendDistributions.remove(transaction);
+        merchantRankings.remove(transaction);
+        recurringDetector.remove(transaction);
+        merkleIndex.remove(transaction);
+        balanceHistory.remove(transaction);
+        budgetTracker.remove(transaction);
+        versions.touch(transaction, dataVersion + 1);
+    }
+
+    /**
+     * Applies a balance change and, when events is not null, records it for publishing
+     */
+    private static void applyBalanceDelta(Account account, long deltaCents, List<FinanceEvent> events) {
+        BigDecimal delta = Money.fromCents(deltaCents);
+        account.updateBalance(delta);
+        if (events != null) {
+            events.add(FinanceEvent.balanceChanged(account, delta));
+        }
     }
 
     public List<Transaction> getTransactionsForAccount(String accountId) {
-        return transactions.stream()
-                .filter(transaction -> transaction.getAccountId().equals(accountId))
-                .sorted(Comparator.comparing(Transaction::getDate).reversed())
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            // Cached per account, so writes to other accounts keep the result
+            List<Transaction> accountTransactions = cached(List.of("account", accountId), versions.account(accountId),
+                () -> transactions.values().stream()
+                    .filter(transaction -> transaction.getAccountId().equals(accountId))
+                    .sorted(Comparator.comparing(Transaction::getDate).reversed())
+                    .collect(Collectors.toUnmodifiableList()));
+            return new ArrayList<>(accountTransactions);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public List<Transaction> getAllTransactions() {
-        return new ArrayList<>(transactions);
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(transactions.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the transactions matching a search term (all transactions when blank)
+     */
+    public int countTransactions(String searchTerm) {
+        return countTransactions(searchTerm, TransactionSort.NEWEST_FIRST);
+    }
+
+    /**
+     * Counts the transactions matching a search term; a blank term is answered from the
+     * ledger size, otherwise the sorted listing is prepared so that following
+     * getTransactionPage calls with the same term and sort are cheap slices
+     */
+    public int countTransactions(String searchTerm, TransactionSort sort) {
+        return getTransactionWindow(searchTerm, sort, 0, 0).getTotal();
+    }
+
+    /**
+     * Returns one page of the filtered, sorted transaction listing
+     */
+    public List<Transaction> getTransactionPage(String searchTerm, TransactionSort sort, int offset, int limit) {
+        return getTransactionWindow(searchTerm, sort, offset, limit).getRows();
+    }
+
+    /**
+     * Up to limit filtered, sorted transactions starting at offset, with the total number of
+     * matches. The whole ledger in date order, the default view, is read straight from the
+     * date index, so no listing of every row is built or kept; other views are sliced from
+     * the cached listing for their term and sort.
+     */
+    public TransactionWindow getTransactionWindow(String searchTerm, TransactionSort sort, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        String term = searchTerm == null ? "" : searchTerm.trim();
+        TransactionSort order = sort != null ? sort : TransactionSort.NEWEST_FIRST;
+        lock.readLock().lock();
+        try {
+            if (term.isEmpty() && order.getField() == TransactionSort.Field.DATE) {
+                return new TransactionWindow(term, order, dataVersion, offset, transactions.size(),
+                    dateIndex.window(order.comparator(), !order.isAscending(), offset, limit));
+            }
+            TransactionListing listing = listing(term, order);
+            return new TransactionWindow(term, order, dataVersion, offset, listing.size(), listing.page(offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The filtered, sorted listing for a search term (all transactions when blank) at the
+     * current version. It is built once per (term, sort, data version) and holds only
+     * references; page through the returned listing rather than asking again per page, so
+     * every page comes from the same version. A cancelled background caller is interrupted
+     * out of the filter pass with a CancellationException.
+     */
+    public TransactionListing getTransactionListing(String searchTerm, TransactionSort sort) {
+        String term = searchTerm == null ? "" : searchTerm.trim();
+        TransactionSort order = sort != null ? sort : TransactionSort.NEWEST_FIRST;
+        lock.readLock().lock();
+        try {
+            return listing(term, order);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TransactionListing listing(String term, TransactionSort order) {
+        List<Object> key = List.of(term, order);
+        TransactionListing listing = (TransactionListing) listingCache.get(key, dataVersion);
+        if (listing != null) {
+            return listing;
+        }
+        TransactionListing previous = lastListing;
+        if (previous != null && previous.getVersion() == dataVersion && previous.getSearchTerm().equals(term)
+                && previous.getSort().equals(order)) {
+            return previous;
+        }
+        listing = buildListing(term, order);
+        // Only listings of at most MAX_CACHED_LISTING_ROWS are cached, which bounds the cache at
+        // MAX_CACHED_LISTINGS times that many references; a larger one is kept as the last listing only
+        if (listing.size() <= MAX_CACHED_LISTING_ROWS) {
+            listingCache.put(key, dataVersion, listing);
+        }
+        lastListing = listing;
+        return listing;
+    }
+
+    private TransactionListing buildListing(String term, TransactionSort order) {
+        TransactionListing previous = lastListing;
+        if (previous != null && previous.getVersion() == dataVersion && previous.getSearchTerm().equals(term)) {
+            // Same rows in a different order: re-sort the filtered references only
+            Transaction[] resorted = previous.rows().clone();
+            Arrays.sort(resorted, order.comparator());
+            return new TransactionListing(term, order, dataVersion, resorted);
+        }
+
+        List<Transaction> matches = new ArrayList<>();
+        int scanned = 0;
+        for (Transaction transaction : transactions.values()) {
+            // Let a superseded background search give up early
+            if ((scanned++ & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Transaction search was cancelled");
+            }
+            if (term.isEmpty() || matchesSearch(transaction, term)) {
+                matches.add(transaction);
+            }
+        }
+        Transaction[] rows = matches.toArray(new Transaction[0]);
+        Arrays.sort(rows, order.comparator());
+        return new TransactionListing(term, order, dataVersion, rows);
     }
 
     // Analytics and Reporting
+    /**
+     * Sum of all account balances in the reporting currency, converted at today's rates
+     */
     public BigDecimal getTotalBalance() {
-        return accounts.values().stream()
-                .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        lock.readLock().lock();
+        try {
+            Currency target = reportingCurrency;
+            if (isSingleCurrency(target)) {
+                return accounts.values().stream()
+                        .map(Account::getBalance)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+            }
+            long[] totals = new long[currencyGroups.length];
+            for (Account account : accounts.values()) {
+                totals[currencyGroup(account.getCurrency())] += Money.roundToCents(account.getBalance());
+            }
+            return Money.fromCents(toReportingCents(totals, target, fxRates, LocalDate.now()));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
+    /**
+     * Income for the month in the reporting currency, converted at the rates of the month's last day
+     */
     public BigDecimal getMonthlyIncome(Month month, int year) {
-        return transactions.stream()
-                .filter(transaction -> transaction.isIncome())
-                .filter(transaction -> transaction.getDate().getMonth() == month)
-                .filter(transaction -> transaction.getDate().getYear() == year)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        lock.readLock().lock();
+        try {
+            return monthlyTotal(TransactionType.INCOME, month, year);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
+    /**
+     * Expenses for the month, converted like getMonthlyIncome
+     */
     public BigDecimal getMonthlyExpenses(Month month, int year) {
-        return transactions.stream()
-                .filter(transaction -> transaction.isExpense())
-                .filter(transaction -> transaction.getDate().getMonth() == month)
-                .filter(transaction -> transaction.getDate().getYear() == year)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        lock.readLock().lock();
+        try {
+            return monthlyTotal(TransactionType.EXPENSE, month, year);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     public Map<Category, BigDecimal> getExpensesByCategory(Month month, int year) {
-        return transactions.stream()
-                .filter(transaction -> transaction.isExpense())
-                .filter(transaction -> transaction.getDate().getMonth() == month)
-                .filter(transaction -> transaction.getDate().getYear() == year)
-                .collect(Collectors.groupingBy(
-                    Transaction::getCategory,
-                    Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
+        lock.readLock().lock();
+        try {
+            Currency target = reportingCurrency;
+            FxRateTable rates = fxRates;
+            Map<Category, BigDecimal> expenses = cached(List.of("expensesByCategory", month, year, target, rates),
+                versions.month(monthKey(month, year)), () -> expensesByCategory(month, year, target, rates));
+            // Copied so callers cannot change the cached result
+            return new EnumMap<>(expenses);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
+    private Map<Category, BigDecimal> expensesByCategory(Month month, int year, Currency target, FxRateTable rates) {
+        // Indexed by ordinal so the scan sums primitives without boxing per row
+        // and, with several currencies, by currency group then ordinal
+        Category[] categories = Category.values();
+        boolean convert = !isSingleCurrency(target);
+        long[] totals = new long[categories.length * (convert ? currencyGroups.length : 1)];
+        boolean[] seen = new boolean[categories.length];
+        for (Transaction transaction : transactions.values()) {
+            Category category = transaction.getCategory();
+            if (category != null && transaction.isExpense() && isInMonth(transaction, month, year)) {
+                int group = convert ? currencyGroup(transaction.getCurrency()) : 0;
+                totals[group * categories.length + category.ordinal()] += transaction.getAmountCents();
+                seen[category.ordinal()] = true;
+            }
+        }
+
+        Map<Category, BigDecimal> expensesByCategory = new EnumMap<>(Category.class);
+        long[] byGroup = convert ? new long[currencyGroups.length] : null;
+        LocalDate rateDate = YearMonth.of(year, month).atEndOfMonth();
+        for (Category category : categories) {
+            if (!seen[category.ordinal()]) {
+                continue;
+            }
+            long cents = totals[category.ordinal()];
+            if (convert) {
+                for (int group = 0; group < byGroup.length; group++) {
+                    byGroup[group] = totals[group * categories.length + category.ordinal()];
+                }
+                cents = toReportingCents(byGroup, target, rates, rateDate);
+            }
+            expensesByCategory.put(category, Money.fromCents(cents));
+        }
+        return expensesByCategory;
+    }
+
+    @SuppressWarnings("unchecked")
     public List<Transaction> searchTransactions(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllTransactions();
         }
 
-        String lowerSearchTerm = searchTerm.toLowerCase();
-        return transactions.stream()
-                .filter(transaction -> 
-                    transaction.getDescription().toLowerCase().contains(lowerSearchTerm) ||
-                    transaction.getCategory().getDisplayName().toLowerCase().contains(lowerSearchTerm)
-                )
-                .sorted(Comparator.comparing(Transaction::getDate).reversed())
+        Object key = List.of("search", searchTerm);
+        List<Transaction> results = new ArrayList<>();
+        long version;
+        lock.readLock().lock();
+        try {
+            // Any write may add or remove a match, so results are tied to the global version
+            version = dataVersion;
+            Object cachedResults = queryCache.get(key, version);
+            if (cachedResults != null) {
+                results.addAll((List<Transaction>) cachedResults);
+                return results;
+            }
+            for (Transaction transaction : transactions.values()) {
+                if (matchesSearch(transaction, searchTerm)) {
+                    results.add(transaction);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Sorted outside the lock; the copy is cached under the version it was read at
+        results.sort(Comparator.comparing(Transaction::getDate).reversed());
+        if (results.size() <= MAX_CACHED_SEARCH_ROWS) {
+            queryCache.put(key, version, List.copyOf(results));
+        }
+        return results;
+    }
+
+    /**
+     * Hit, miss and eviction counts of the cache in front of searches and monthly reports
+     */
+    public QueryCacheStats getQueryCacheStats() {
+        return queryCache.stats();
+    }
+
+    /**
+     * Drops every cached search and report result, so the next call of each computes it again
+     */
+    public void clearQueryCache() {
+        queryCache.clear();
+    }
+
+    /**
+     * Returns the cached result of a query if the data it depends on is still at the given version,
+     * otherwise runs it and caches the result. Callers hold the read lock and must not hand out
+     * a mutable cached value.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(Object key, long version, Supplier<T> query) {
+        Object value = queryCache.get(key, version);
+        if (value == null) {
+            value = query.get();
+            queryCache.put(key, version, value);
+        }
+        return (T) value;
+    }
+
+    private BigDecimal monthlyTotal(TransactionType type, Month month, int year) {
+        Currency target = reportingCurrency;
+        FxRateTable rates = fxRates;
+        return cached(List.of("monthlyTotal", type, month, year, target, rates), versions.month(monthKey(month, year)),
+            () -> Money.fromCents(sumMonthlyCents(type, month, year, target, rates)));
+    }
+
+    private static int monthKey(Month month, int year) {
+        return year * 12 + month.getValue() - 1;
+    }
+
+    private long sumMonthlyCents(TransactionType type, Month month, int year, Currency target, FxRateTable rates) {
+        if (isSingleCurrency(target)) {
+            long total = 0;
+            for (Transaction transaction : transactions.values()) {
+                if (transaction.getType() == type && isInMonth(transaction, month, year)) {
+                    total += transaction.getAmountCents();
+                }
+            }
+            return total;
+        }
+        long[] totals = new long[currencyGroups.length];
+        for (Transaction transaction : transactions.values()) {
+            if (transaction.getType() == type && isInMonth(transaction, month, year)) {
+                totals[currencyGroup(transaction.getCurrency())] += transaction.getAmountCents();
+            }
+        }
+        return toReportingCents(totals, target, rates, YearMonth.of(year, month).atEndOfMonth());
+    }
+
+    private static boolean isInMonth(Transaction transaction, Month month, int year) {
+        LocalDateTime date = transaction.getDate();
+        return date.getMonth() == month && date.getYear() == year;
+    }
+
+    static boolean matchesSearch(Transaction transaction, String term) {
+        return containsIgnoreCase(transaction.getDescription(), term) ||
+               (transaction.getCategory() != null &&
+                containsIgnoreCase(transaction.getCategory().getDisplayName(), term));
+    }
+
+    /**
+     * Case-insensitive substring match that avoids lower-casing a copy of every row
+     */
+    static boolean containsIgnoreCase(String text, String term) {
+        if (text == null) return false;
+        int last = text.length() - term.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The most recent transactions, newest first, read from the date index without sorting the ledger
+     */
+    public List<Transaction> getRecentTransactions(int limit) {
+        lock.readLock().lock();
+        try {
+            return dateIndex.recent(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Daily net cash flow across all accounts in the reporting currency, converted at each
+     * day's rates, downsampled to at most maxPoints
+     */
+    public TimeSeries getCashFlowSeries(int maxPoints) {
+        TimeSeries series;
+        lock.readLock().lock();
+        try {
+            Currency target = reportingCurrency;
+            series = isSingleCurrency(target) ? dateIndex.cashFlow() : dateIndex.cashFlow(currencyGroups,
+                accountId -> currencyGroup(accounts.get(accountId).getCurrency()), target, fxRates);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return series.downsample(maxPoints);
+    }
+
+    /**
+     * End-of-day balance history of one account, downsampled to at most maxPoints
+     */
+    public TimeSeries getBalanceHistory(String accountId, int maxPoints) {
+        TimeSeries series;
+        lock.readLock().lock();
+        try {
+            Account account = accounts.get(accountId);
+            if (account == null) {
+                throw new IllegalArgumentException("Account with ID " + accountId + " not found");
+            }
+            series = dateIndex.balanceHistory(accountId, balanceHistory.currentBalance(accountId));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return series.downsample(maxPoints);
+    }
+
+    /**
+     * Balance of an account as of a past (or future) moment, including transactions dated at or
+     * before it. Backdated transactions are accounted for; the cost is O(log days) plus the
+     * transactions on asOf's own day, independent of ledger size.
+     */
+    public BigDecimal getBalanceAsOf(String accountId, LocalDateTime asOf) {
+        lock.readLock().lock();
+        try {
+            if (!balanceHistory.hasAccount(accountId)) {
+                throw new IllegalArgumentException("Account with ID " + accountId + " not found");
+            }
+            long previousDay = asOf.toLocalDate().toEpochDay() - 1;
+            return Money.fromCents(balanceHistory.balanceThrough(accountId, previousDay)
+                + dateIndex.netOnDayThrough(accountId, asOf));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Total balance across all accounts as of a given moment, in O(log days), in the reporting
+     * currency at the rates of that day. With several currencies each account is read separately.
+     */
+    public BigDecimal getTotalBalanceAsOf(LocalDateTime asOf) {
+        lock.readLock().lock();
+        try {
+            long previousDay = asOf.toLocalDate().toEpochDay() - 1;
+            Currency target = reportingCurrency;
+            if (isSingleCurrency(target)) {
+                return Money.fromCents(balanceHistory.portfolioThrough(previousDay)
+                    + dateIndex.netOnDayThrough(null, asOf));
+            }
+            long[] totals = new long[currencyGroups.length];
+            for (Account account : accounts.values()) {
+                totals[currencyGroup(account.getCurrency())] += balanceHistory.balanceThrough(account.getId(), previousDay)
+                    + dateIndex.netOnDayThrough(account.getId(), asOf);
+            }
+            return Money.fromCents(toReportingCents(totals, target, fxRates, asOf.toLocalDate()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate distribution of transaction amounts in a category (median, p90, p99),
+     * maintained incrementally as transactions are added
+     */
+    public Optional<SpendDistribution> getCategoryDistribution(Category category) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(spendDistributions.forCategory(category));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate distribution of expense amounts for one account
+     */
+    public Optional<SpendDistribution> getAccountSpendDistribution(String accountId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(spendDistributions.forAccount(accountId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True if a prospective expense is above the 99th percentile of its category so far.
+     * New outliers are also published on the change feed as OUTLIER_FLAGGED events.
+     */
+    public boolean isUnusuallyLarge(Transaction transaction) {
+        lock.readLock().lock();
+        try {
+            return spendDistributions.isOutlier(transaction);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merchants with the highest expense totals in the reporting currency, by normalized
+     * description. Estimates may overcount by at most each entry's max error; month may be
+     * null for all-time.
+     */
+    public List<HeavyHitter> getTopMerchantsBySpend(YearMonth month, int k) {
+        lock.readLock().lock();
+        try {
+            return merchantRankings.topBySpend(month, k, reportingCurrency, fxRates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merchants paid most often, by normalized description; month may be null for all-time
+     */
+    public List<HeavyHitter> getMostFrequentPayees(YearMonth month, int k) {
+        lock.readLock().lock();
+        try {
+            return merchantRankings.topByCount(month, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recurring payments and deposits (subscriptions, rent, salary) still active on the given
+     * date, soonest next expected occurrence first. Detection is maintained as transactions
+     * arrive, so this only re-examines series that changed since the last call.
+     */
+    public List<RecurringSeries> getRecurringTransactions(LocalDate asOf) {
+        lock.readLock().lock();
+        try {
+            return recurringDetector.active(asOf);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Accrues month-end interest and fees for every account whose type has a policy and
+     * posts them in one batch dated the last day of the period. Accruals are computed in
+     * parallel from daily balances. Each posting has a fixed ID per period, account and kind,
+     * so running a period again only posts what is missing.
+     */
+    public AccrualResult runAccruals(YearMonth period, Map<AccountType, AccrualPolicy> policies) {
+        List<AccrualEngine.Posting> accruals;
+        lock.readLock().lock();
+        try {
+            accruals = AccrualEngine.compute(period, accounts.values(), policies, balanceHistory);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Transaction> missing = new ArrayList<>(accruals.size());
+            int alreadyPosted = 0;
+            long paid = 0;
+            long charged = 0;
+            long fees = 0;
+            for (AccrualEngine.Posting posting : accruals) {
+                Transaction accrual = posting.transaction;
+                // Skip what an earlier run posted, and accounts removed since the balances were read
+                if (transactions.containsKey(accrual.getId())) {
+                    alreadyPosted++;
+                    continue;
+                }
+                if (!accounts.containsKey(accrual.getAccountId())) {
+                    continue;
+                }
+                missing.add(accrual);
+                switch (posting.kind) {
+                    case INTEREST_PAID:
+                        paid += accrual.getAmountCents();
+                        break;
+                    case FEE:
+                        fees += accrual.getAmountCents();
+                        break;
+                    default:
+                        charged += accrual.getAmountCents();
+                        break;
+                }
+            }
+            if (!missing.isEmpty()) {
+                addTransactions(missing);
+            }
+            return new AccrualResult(period, missing.size(), alreadyPosted, paid, charged, fees);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes every account balance from its opening balance and the stored transactions
+     * themselves, summed in parallel, and returns the accounts where the stored balance or
+     * the balance history disagrees with that. The sums read the transaction map, not a
+     * derived index, so a drifted index cannot hide its own error. An empty list means the
+     * ledger is consistent.
+     */
+    public List<BalanceDrift> verifyBalances() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> netByAccount = transactions.values().parallelStream()
+                .collect(Collectors.groupingByConcurrent(Transaction::getAccountId,
+                    Collectors.summingLong(Transaction::getSignedAmountCents)));
+            return accounts.values().stream()
+                .map(account -> {
+                    long recomputed = balanceHistory.openingBalance(account.getId())
+                        + netByAccount.getOrDefault(account.getId(), 0L);
+                    long indexed = balanceHistory.currentBalance(account.getId());
+                    boolean consistent = account.getBalance().compareTo(Money.fromCents(recomputed)) == 0
+                        && indexed == recomputed;
+                    return consistent ? null : new BalanceDrift(account.getId(), account.getBalance(), recomputed, indexed);
+                })
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(BalanceDrift::getAccountId))
                 .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merkle checksum of the ledger with one leaf per month. Compare it with another copy's
+     * checksum to find the months that differ without transferring the transactions.
+     */
+    public LedgerChecksum getLedgerChecksum() {
+        lock.readLock().lock();
+        try {
+            return merkleIndex.checksum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sequence number of the last change batch published
+     */
+    long changeSequence() {
+        lock.readLock().lock();
+        try {
+            return changeFeed.lastSequence();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Accounts with their opening balances, every transaction and the change-feed sequence
+     * they reflect, read under one lock so a replica built from them can continue with the
+     * next published batch, plus the reporting currency and FX rates
+     */
+    ReplicationSnapshot replicationSnapshot() {
+        lock.readLock().lock();
+        try {
+            List<Account> openedAccounts = new ArrayList<>(accounts.size());
+            for (Account account : accounts.values()) {
+                Account opened = new Account(account.getId(), account.getName(), account.getType(),
+                    Money.fromCents(balanceHistory.openingBalance(account.getId())), account.getCurrency());
+                opened.setDescription(account.getDescription());
+                openedAccounts.add(opened);
+            }
+            return new ReplicationSnapshot(changeFeed.lastSequence(), openedAccounts,
+                new ArrayList<>(transactions.values()), reportingCurrency, fxRates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Multi-year report covering every month in the ledger, computed in one parallel pass and
+     * converted into the reporting currency month by month. Only the snapshot of the ledger
+     * is taken under the read lock, so writers are not held up while the report is summed.
+     */
+    public AnalyticsReport getAnalyticsReport() {
+        Transaction[] snapshot;
+        Currency[] groups;
+        lock.readLock().lock();
+        try {
+            snapshot = transactions.values().toArray(new Transaction[0]);
+            // Groups only ever grow by replacing the array, so this one covers the snapshot
+            groups = currencyGroups;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return AnalyticsEngine.report(snapshot, groups, reportingCurrency, fxRates);
     }
 
     // Budget Management
+
+    /**
+     * Sets a monthly budget on a category or account, replacing any budget already set there.
+     * Spending is tracked by month-to-date counters updated with each write; when a transaction
+     * takes a month past 80% or 100% of the limit, a BUDGET_ALERT event is published on the
+     * change feed with that write's batch. Thresholds already passed when the budget is set
+     * are not alerted. A category budget's limit is in the reporting currency, with expenses
+     * in other currencies converted at the rates of the month's last day.
+     */
+    public void setBudget(Budget budget) {
+        lock.writeLock().lock();
+        try {
+            if (budget.getScope() == Budget.Scope.ACCOUNT && !accounts.containsKey(budget.getAccountId())) {
+                throw new IllegalArgumentException("Account with ID " + budget.getAccountId() + " not found");
+            }
+            budgetTracker.setBudget(budget, budget.getScope() == Budget.Scope.CATEGORY
+                ? lookupIndex.forCategory(budget.getCategory())
+                : lookupIndex.forAccount(budget.getAccountId()), reportingCurrency, fxRates);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the budget on the given budget's category or account; returns false if there was none
+     */
+    public boolean removeBudget(Budget budget) {
+        lock.writeLock().lock();
+        try {
+            return budgetTracker.removeBudget(budget);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Budget> getBudgets() {
+        lock.readLock().lock();
+        try {
+            return budgetTracker.budgets();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Spending counted against the budget's category or account in the given month, in the
+     * budget's currency
+     */
+    public BigDecimal getBudgetSpent(Budget budget, YearMonth month) {
+        lock.readLock().lock();
+        try {
+            long spent = budgetTracker.spent(budget, month, reportingCurrency, fxRates);
+            if (spent < 0) {
+                throw new IllegalArgumentException("No budget set for " + budget);
+            }
+            return Money.fromCents(spent);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Budget alerts that no change feed subscriber has received, either because none was
+     * subscribed or because a subscriber's buffer was full, oldest first. They stay until
+     * cleared, as each threshold alerts only once per month.
+     */
+    public List<BudgetAlert> getPendingBudgetAlerts() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(undeliveredAlerts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the pending budget alerts once they have been shown or otherwise handled
+     */
+    public void clearPendingBudgetAlerts() {
+        lock.writeLock().lock();
+        try {
+            undeliveredAlerts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     public Map<Category, BigDecimal> getMonthlyBudgetRecommendations() {
-        Map<Category, BigDecimal> recommendations = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Map<Category, BigDecimal> recommendations = new HashMap<>();
         
-        // Get average expenses for the last 3 months
-        LocalDateTime threeMonthsAgo = LocalDateTime.now().minusMonths(3);
+            // Get average expenses for the last 3 months
+            LocalDateTime threeMonthsAgo = LocalDateTime.now().minusMonths(3);
         
-        for (Category category : Category.values()) {
-            if (category.isExpenseCategory()) {
-                BigDecimal averageExpense = transactions.stream()
-                        .filter(transaction -> transaction.getCategory() == category)
-                        .filter(transaction -> transaction.getDate().isAfter(threeMonthsAgo))
-                        .map(Transaction::getAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                        .divide(BigDecimal.valueOf(3), 2, java.math.RoundingMode.HALF_UP);
+            for (Category category : Category.values()) {
+                if (category.isExpenseCategory()) {
+                    BigDecimal averageExpense = transactions.values().stream()
+                            .filter(transaction -> transaction.getCategory() == category)
+                            .filter(transaction -> transaction.getDate().isAfter(threeMonthsAgo))
+                            .map(Transaction::getAmount)
+                            .reduce(BigDecimal.ZERO, BigDecimal::add)
+                            .divide(BigDecimal.valueOf(3), 2, java.math.RoundingMode.HALF_UP);
                 
-                // Add 10% buffer to average expense
-                BigDecimal recommendation = averageExpense.multiply(BigDecimal.valueOf(1.1));
-                recommendations.put(category, recommendation);
+                    // Add 10% buffer to average expense
+                    BigDecimal recommendation = averageExpense.multiply(BigDecimal.valueOf(1.1));
+                    recommendations.put(category, recommendation);
+                }
             }
-        }
         
-        return recommendations;
+            return recommendations;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     // Data validation and business rules
     public boolean canMakeTransaction(String accountId, BigDecimal amount, TransactionType type) {
-        Account account = accounts.get(accountId);
-        if (account == null) return false;
+        lock.readLock().lock();
+        try {
+            Account account = accounts.get(accountId);
+            if (account == null) return false;
         
-        if (type == TransactionType.EXPENSE) {
-            return account.hasSufficientFunds(amount);
+            if (type == TransactionType.EXPENSE) {
+                return account.hasSufficientFunds(amount);
+            }
+            return true; // Income transactions are always allowed
+        } finally {
+            lock.readLock().unlock();
         }
-        return true; // Income transactions are always allowed
     }
 
     public TransactionService getTransactionService() {
         return transactionService;
     }
+
+    /**
+     * Feed of change batches for views and downstream consumers that apply deltas
+     * instead of reloading; a slow subscriber misses batches rather than stalling writes
+     */
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * A category found for a stored transaction during recategorize, applied under the write lock
+     */
+    private static final class Recategorization {
+        final Transaction original;
+        final Category category;
+
+        Recategorization(Transaction original, Category category) {
+            this.original = original;
+            this.category = category;
+        }
+    }
 }
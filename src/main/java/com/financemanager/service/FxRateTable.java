@@ -0,0 +1,272 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Date-effective exchange rates, each quoted as units of a base currency per one unit of a currency
+ * A rate applies from its effective date until the next rate for the same currency, so a lookup is a
+ * binary search over that currency's sorted epoch days. Cross rates are derived through the base.
+ * Resolved rates are cached in a direct-mapped table keyed by a packed long (from, to, epoch day),
+ * so repeated report conversions neither search nor divide again. Immutable once built and safe to
+ * share between threads; the cache holds immutable entries, so a racing overwrite only costs a miss.
+ */
+public final class FxRateTable {
+    private static final int CACHE_SLOTS = 4096;
+
+    private final Currency base;
+    private final Map<Currency, Integer> currencyIds;
+    private final RateHistory[] histories;
+    private final CachedRate[] cache = new CachedRate[CACHE_SLOTS];
+
+    private FxRateTable(Currency base, Map<Currency, List<Rate>> rates) {
+        this.base = base;
+        this.currencyIds = new HashMap<>();
+        this.histories = new RateHistory[rates.size() + 1];
+        currencyIds.put(base, 0);
+        int next = 1;
+        for (Map.Entry<Currency, List<Rate>> entry : rates.entrySet()) {
+            currencyIds.put(entry.getKey(), next);
+            histories[next++] = new RateHistory(entry.getValue());
+        }
+    }
+
+    /**
+     * A table that only converts between identical currencies
+     */
+    public static FxRateTable empty(Currency base) {
+        return builder(base).build();
+    }
+
+    public static Builder builder(Currency base) {
+        return new Builder(base);
+    }
+
+    /**
+     * Loads rates from a text file with one {@code effectiveDate,currency,rate} line per rate,
+     * e.g. {@code 2024-03-01,EUR,1.0850} for one euro costing 1.0850 of the base currency.
+     * Blank lines and lines starting with '#' are ignored.
+     */
+    public static FxRateTable load(Path file, Currency base) throws IOException {
+        Builder builder = builder(base);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    throw new IOException(file + ":" + lineNumber + ": expected effectiveDate,currency,rate");
+                }
+                try {
+                    builder.rate(LocalDate.parse(fields[0].trim()),
+                        Currency.getInstance(fields[1].trim()), new BigDecimal(fields[2].trim()));
+                } catch (DateTimeParseException | IllegalArgumentException e) {
+                    throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public Currency getBaseCurrency() {
+        return base;
+    }
+
+    public boolean hasCurrency(Currency currency) {
+        return currencyIds.containsKey(currency);
+    }
+
+    /**
+     * Units of {@code to} per one unit of {@code from}, using the rates effective on the given date
+     */
+    public BigDecimal rate(Currency from, Currency to, LocalDate date) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        int fromId = idOf(from);
+        int toId = idOf(to);
+        long epochDay = date.toEpochDay();
+        long key = ((long) fromId << 48) | ((long) toId << 32) | (epochDay & 0xFFFFFFFFL);
+        int slot = slot(key);
+        CachedRate cached = cache[slot];
+        if (cached != null && cached.key == key) {
+            return cached.rate;
+        }
+        BigDecimal rate = inBase(fromId, from, epochDay)
+            .divide(inBase(toId, to, epochDay), MathContext.DECIMAL128);
+        cache[slot] = new CachedRate(key, rate);
+        return rate;
+    }
+
+    /**
+     * Converts an amount in cents, rounding the result half-even to whole cents
+     */
+    public long convertCents(long cents, Currency from, Currency to, LocalDate date) {
+        if (cents == 0 || from.equals(to)) {
+            return cents;
+        }
+        return Money.roundToCents(BigDecimal.valueOf(cents, Money.SCALE).multiply(rate(from, to, date)));
+    }
+
+    public BigDecimal convert(BigDecimal amount, Currency from, Currency to, LocalDate date) {
+        return Money.fromCents(convertCents(Money.roundToCents(amount), from, to, date));
+    }
+
+    private int idOf(Currency currency) {
+        Integer id = currencyIds.get(currency);
+        if (id == null) {
+            throw new IllegalStateException("No FX rates for " + currency.getCurrencyCode());
+        }
+        return id;
+    }
+
+    private BigDecimal inBase(int id, Currency currency, long epochDay) {
+        if (id == 0) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal rate = histories[id].effectiveOn(epochDay);
+        if (rate == null) {
+            throw new IllegalStateException("No " + currency.getCurrencyCode() + " rate effective on "
+                + LocalDate.ofEpochDay(epochDay));
+        }
+        return rate;
+    }
+
+    /**
+     * Writes the base currency and every rate, for readFrom to rebuild the table elsewhere
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(base.getCurrencyCode());
+        out.writeInt(histories.length - 1);
+        for (Map.Entry<Currency, Integer> entry : currencyIds.entrySet()) {
+            if (entry.getValue() == 0) {
+                continue;
+            }
+            RateHistory history = histories[entry.getValue()];
+            out.writeUTF(entry.getKey().getCurrencyCode());
+            out.writeInt(history.epochDays.length);
+            for (int i = 0; i < history.epochDays.length; i++) {
+                out.writeLong(history.epochDays[i]);
+                out.writeUTF(history.values[i].toString());
+            }
+        }
+    }
+
+    static FxRateTable readFrom(DataInput in) throws IOException {
+        Builder builder = builder(Currency.getInstance(in.readUTF()));
+        int currencies = in.readInt();
+        for (int i = 0; i < currencies; i++) {
+            Currency currency = Currency.getInstance(in.readUTF());
+            int rates = in.readInt();
+            for (int j = 0; j < rates; j++) {
+                builder.rate(LocalDate.ofEpochDay(in.readLong()), currency, new BigDecimal(in.readUTF()));
+            }
+        }
+        return builder.build();
+    }
+
+    private static int slot(long key) {
+        key = (key ^ (key >>> 31)) * 0x7FB5D329728EA185L;
+        return (int) (key >>> 52) & (CACHE_SLOTS - 1);
+    }
+
+    /**
+     * Collects rates; a later rate for the same currency and date replaces the earlier one
+     */
+    public static final class Builder {
+        private final Currency base;
+        private final Map<Currency, List<Rate>> rates = new LinkedHashMap<>();
+
+        private Builder(Currency base) {
+            this.base = Objects.requireNonNull(base, "Base currency cannot be null");
+        }
+
+        public Builder rate(LocalDate effectiveDate, Currency currency, BigDecimal rate) {
+            Objects.requireNonNull(effectiveDate, "Effective date cannot be null");
+            Objects.requireNonNull(currency, "Currency cannot be null");
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("FX rate must be positive");
+            }
+            if (currency.equals(base)) {
+                throw new IllegalArgumentException("The base currency always has rate 1");
+            }
+            rates.computeIfAbsent(currency, c -> new ArrayList<>()).add(new Rate(effectiveDate.toEpochDay(), rate));
+            return this;
+        }
+
+        public FxRateTable build() {
+            return new FxRateTable(base, rates);
+        }
+    }
+
+    private static final class Rate {
+        final long epochDay;
+        final BigDecimal value;
+
+        Rate(long epochDay, BigDecimal value) {
+            this.epochDay = epochDay;
+            this.value = value;
+        }
+    }
+
+    private static final class RateHistory {
+        private final long[] epochDays;
+        private final BigDecimal[] values;
+
+        RateHistory(List<Rate> rates) {
+            // Stable sort keeps insertion order within a day, so the last one wins below
+            List<Rate> sorted = new ArrayList<>(rates);
+            sorted.sort(Comparator.comparingLong(rate -> rate.epochDay));
+            long[] days = new long[sorted.size()];
+            BigDecimal[] rateValues = new BigDecimal[sorted.size()];
+            int size = 0;
+            for (Rate rate : sorted) {
+                if (size > 0 && days[size - 1] == rate.epochDay) {
+                    size--;
+                }
+                days[size] = rate.epochDay;
+                rateValues[size++] = rate.value;
+            }
+            this.epochDays = Arrays.copyOf(days, size);
+            this.values = Arrays.copyOf(rateValues, size);
+        }
+
+        /**
+         * Latest rate effective on or before the day, or null before the first one
+         */
+        BigDecimal effectiveOn(long epochDay) {
+            int index = Arrays.binarySearch(epochDays, epochDay);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return index >= 0 ? values[index] : null;
+        }
+    }
+
+    private static final class CachedRate {
+        final long key;
+        final BigDecimal rate;
+
+        CachedRate(long key, BigDecimal rate) {
+            this.key = key;
+            this.rate = rate;
+        }
+    }
+}
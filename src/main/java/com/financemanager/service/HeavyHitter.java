@@ -0,0 +1,36 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * One entry of a heavy-hitter ranking: a normalized merchant with an estimated weight
+ * The weight is a transaction count for frequency rankings and cents in the reporting
+ * currency for spend rankings.
+ * The true value lies between getGuaranteed() and getEstimate().
+ */
+public final class HeavyHitter {
+    private final String merchant;
+    private final long estimate;
+    private final long maxError;
+
+    HeavyHitter(String merchant, long estimate, long maxError) {
+        this.merchant = merchant;
+        this.estimate = estimate;
+        this.maxError = maxError;
+    }
+
+    public String getMerchant() { return merchant; }
+    public long getEstimate() { return estimate; }
+    public long getMaxError() { return maxError; }
+    public long getGuaranteed() { return estimate - maxError; }
+
+    /** The estimate as money, for spend rankings */
+    public BigDecimal getEstimatedAmount() { return Money.fromCents(estimate); }
+
+    @Override
+    public String toString() {
+        return "HeavyHitter{merchant='" + merchant + "', estimate=" + estimate + ", maxError=" + maxError + "}";
+    }
+}
@@ -0,0 +1,235 @@
+package com.financemanager.service;
+
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch over long values (amounts in cents)
+ * Keeps a stack of levels where an item on level h stands for 2^h inputs. When the sketch
+ * outgrows its budget, the lowest full level is sorted and every other item, from a random
+ * offset, is promoted to the level above. Memory stays O(k) however many values are added,
+ * rank error is roughly 1.7/k, and two sketches merge by concatenating levels and compacting.
+ */
+final class KllSketch {
+    static final int DEFAULT_K = 200;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final double LEVEL_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private long[][] levels = { new long[MIN_LEVEL_CAPACITY] };
+    private int[] sizes = new int[1];
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    // Sorted values with cumulative weights, rebuilt lazily after an update
+    private long[] sortedValues;
+    private long[] cumulativeWeights;
+
+    KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("Sketch accuracy parameter must be at least " + MIN_LEVEL_CAPACITY);
+        }
+        this.k = k;
+    }
+
+    long getCount() { return count; }
+    boolean isEmpty() { return count == 0; }
+
+    void update(long value) {
+        append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sortedValues = null;
+        compressIfNeeded();
+    }
+
+    void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sortedValues = null;
+        compressIfNeeded();
+    }
+
+    /**
+     * Value at the given quantile in [0, 1]; the exact minimum and maximum are kept for 0 and 1
+     */
+    long quantile(double quantile) {
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+        if (quantile <= 0) return min;
+        if (quantile >= 1) return max;
+        ensureSorted();
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        int index = Arrays.binarySearch(cumulativeWeights, rank);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return sortedValues[Math.min(index, sortedValues.length - 1)];
+    }
+
+    /**
+     * Value at the given quantile of the values in this sketch that are not in removed, a
+     * sketch of values deleted since. One pass over the retained values, so the cost does not
+     * depend on how many values were added; the error grows with the share removed.
+     */
+    long quantileExcluding(KllSketch removed, double quantile) {
+        if (removed.count == 0) {
+            return quantile(quantile);
+        }
+        long remaining = count - removed.count;
+        if (remaining <= 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+        ensureSorted();
+        long rank = Math.max(1, (long) Math.ceil(quantile * remaining));
+        for (int i = 0; i < sortedValues.length; i++) {
+            if (cumulativeWeights[i] - removed.rank(sortedValues[i]) >= rank) {
+                return sortedValues[i];
+            }
+        }
+        return sortedValues[sortedValues.length - 1];
+    }
+
+    /**
+     * Estimated number of values less than or equal to the given value
+     */
+    long rank(long value) {
+        if (count == 0) {
+            return 0;
+        }
+        ensureSorted();
+        // First index holding a larger value; everything before it is counted
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? 0 : cumulativeWeights[low - 1];
+    }
+
+    /** Number of values retained, bounded by about 3k */
+    int retained() {
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        return retained;
+    }
+
+    private void append(int level, long value) {
+        while (level >= levels.length) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = new long[MIN_LEVEL_CAPACITY];
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(LEVEL_DECAY, depth)));
+    }
+
+    private void compressIfNeeded() {
+        while (true) {
+            int totalCapacity = 0;
+            for (int level = 0; level < levels.length; level++) {
+                totalCapacity += capacity(level);
+            }
+            if (retained() <= totalCapacity) {
+                return;
+            }
+            for (int level = 0; level < levels.length; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        long[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // An odd item out stays behind so the total weight is preserved exactly
+        int paired = size & ~1;
+        int offset = nextBit();
+        long leftover = items[size - 1];
+        sizes[level] = 0;
+        for (int i = offset; i < paired; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if (paired != size) {
+            levels[level][0] = leftover;
+            sizes[level] = 1;
+        }
+    }
+
+    private int nextBit() {
+        // xorshift; deterministic so results are reproducible for the same input order
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState & 1);
+    }
+
+    private void ensureSorted() {
+        if (sortedValues != null) {
+            return;
+        }
+        long[] values = new long[0];
+        long[] weights = new long[0];
+        for (int level = 0; level < levels.length; level++) {
+            long[] levelValues = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(levelValues);
+            long weight = 1L << level;
+
+            // Merge this sorted level into the values gathered so far
+            long[] mergedValues = new long[values.length + levelValues.length];
+            long[] mergedWeights = new long[mergedValues.length];
+            int i = 0;
+            int j = 0;
+            for (int out = 0; out < mergedValues.length; out++) {
+                if (j >= levelValues.length || (i < values.length && values[i] <= levelValues[j])) {
+                    mergedValues[out] = values[i];
+                    mergedWeights[out] = weights[i++];
+                } else {
+                    mergedValues[out] = levelValues[j++];
+                    mergedWeights[out] = weight;
+                }
+            }
+            values = mergedValues;
+            weights = mergedWeights;
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        cumulativeWeights = weights;
+        sortedValues = values;
+    }
+}
@@ -0,0 +1,74 @@
+package com.financemanager.service;
+
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Point-in-time Merkle checksum of a ledger, one leaf per calendar month
+ * Two checksums with equal root hashes describe identical ledgers. When they differ,
+ * diff descends only into subtrees whose hashes disagree, so k differing months are found
+ * with O(k log n) hash comparisons. A remote copy only needs to serve getNodeHash.
+ */
+public final class LedgerChecksum {
+    /** Node number of the root; node n has children 2n and 2n + 1 */
+    public static final int ROOT = 1;
+
+    private final byte[][] nodeHashes;
+
+    LedgerChecksum(byte[][] nodeHashes) {
+        this.nodeHashes = nodeHashes;
+    }
+
+    public byte[] getRootHash() {
+        return getNodeHash(ROOT);
+    }
+
+    /**
+     * Hash of a tree node; all zeros for a subtree without transactions
+     */
+    public byte[] getNodeHash(int node) {
+        byte[] hash = nodeHashes[node];
+        return hash != null ? hash.clone() : new byte[LedgerMerkleIndex.HASH_BYTES];
+    }
+
+    public String getRootHashHex() {
+        return HexFormat.of().formatHex(getRootHash());
+    }
+
+    public boolean matches(LedgerChecksum other) {
+        return Arrays.equals(getRootHash(), other.getRootHash());
+    }
+
+    /**
+     * Months whose transactions differ between the two ledgers, oldest first
+     */
+    public List<YearMonth> diff(LedgerChecksum other) {
+        List<YearMonth> differing = new ArrayList<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(ROOT);
+        while (!pending.isEmpty()) {
+            int node = pending.pop();
+            if (Arrays.equals(getNodeHash(node), other.getNodeHash(node))) {
+                continue;
+            }
+            if (node >= LedgerMerkleIndex.LEAVES) {
+                differing.add(LedgerMerkleIndex.monthOf(node - LedgerMerkleIndex.LEAVES));
+            } else {
+                // Right child first so the left subtree is visited first, keeping months in order
+                pending.push(2 * node + 1);
+                pending.push(2 * node);
+            }
+        }
+        return differing;
+    }
+
+    @Override
+    public String toString() {
+        return "LedgerChecksum{root=" + getRootHashHex() + "}";
+    }
+}
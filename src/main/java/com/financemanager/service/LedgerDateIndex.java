@@ -0,0 +1,269 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Day-ordered index of the ledger with precomputed daily totals
+ * Maintained by FinanceService on every write so date-range reads, recent activity
+ * and chart series never need to scan or sort the full transaction list.
+ * Not thread-safe on its own; FinanceService guards it with its lock.
+ */
+final class LedgerDateIndex {
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+
+    private final NavigableMap<LocalDate, List<Transaction>> transactionsByDay = new TreeMap<>();
+    private final NavigableMap<LocalDate, long[]> totalsByDay = new TreeMap<>();
+    private final Map<String, NavigableMap<LocalDate, long[]>> netByAccountDay = new HashMap<>();
+
+    void add(Transaction transaction) {
+        LocalDate day = transaction.getDate().toLocalDate();
+        transactionsByDay.computeIfAbsent(day, d -> new ArrayList<>()).add(transaction);
+        totalsByDay.computeIfAbsent(day, d -> new long[2])[transaction.isIncome() ? INCOME : EXPENSE] +=
+            transaction.getAmountCents();
+        netByAccountDay.computeIfAbsent(transaction.getAccountId(), id -> new TreeMap<>())
+            .computeIfAbsent(day, d -> new long[1])[0] += transaction.getSignedAmountCents();
+    }
+
+    void remove(Transaction transaction) {
+        LocalDate day = transaction.getDate().toLocalDate();
+        List<Transaction> dayTransactions = transactionsByDay.get(day);
+        if (dayTransactions == null || !removeSame(dayTransactions, transaction)) {
+            throw new IllegalStateException("Transaction " + transaction.getId() + " is not indexed");
+        }
+        if (dayTransactions.isEmpty()) {
+            transactionsByDay.remove(day);
+            totalsByDay.remove(day);
+        } else {
+            totalsByDay.get(day)[transaction.isIncome() ? INCOME : EXPENSE] -= transaction.getAmountCents();
+        }
+
+        NavigableMap<LocalDate, long[]> accountDays = netByAccountDay.get(transaction.getAccountId());
+        long[] net = accountDays.get(day);
+        net[0] -= transaction.getSignedAmountCents();
+        if (net[0] == 0 && !hasAccountTransactionOn(dayTransactions, transaction.getAccountId())) {
+            accountDays.remove(day);
+        }
+    }
+
+    /**
+     * Drops every transaction of the account and returns them
+     */
+    List<Transaction> removeAccount(String accountId) {
+        List<Transaction> removed = new ArrayList<>();
+        NavigableMap<LocalDate, long[]> accountDays = netByAccountDay.remove(accountId);
+        if (accountDays == null) {
+            return removed;
+        }
+        // Only the days this account was active on need touching
+        for (LocalDate day : accountDays.keySet()) {
+            List<Transaction> dayTransactions = transactionsByDay.get(day);
+            long[] totals = totalsByDay.get(day);
+            dayTransactions.removeIf(transaction -> {
+                if (!transaction.getAccountId().equals(accountId)) {
+                    return false;
+                }
+                totals[transaction.isIncome() ? INCOME : EXPENSE] -= transaction.getAmountCents();
+                removed.add(transaction);
+                return true;
+            });
+            if (dayTransactions.isEmpty()) {
+                transactionsByDay.remove(day);
+                totalsByDay.remove(day);
+            }
+        }
+        return removed;
+    }
+
+    private static boolean removeSame(List<Transaction> dayTransactions, Transaction transaction) {
+        // Identity, not equals: an edited copy shares the ID of the instance being replaced
+        for (int i = dayTransactions.size() - 1; i >= 0; i--) {
+            if (dayTransactions.get(i) == transaction) {
+                dayTransactions.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAccountTransactionOn(List<Transaction> dayTransactions, String accountId) {
+        for (Transaction transaction : dayTransactions) {
+            if (transaction.getAccountId().equals(accountId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Signed total of the transactions on asOf's day dated at or before asOf,
+     * for one account or for all accounts when accountId is null
+     */
+    long netOnDayThrough(String accountId, LocalDateTime asOf) {
+        List<Transaction> dayTransactions = transactionsByDay.get(asOf.toLocalDate());
+        if (dayTransactions == null) {
+            return 0;
+        }
+        long net = 0;
+        for (Transaction transaction : dayTransactions) {
+            if ((accountId == null || transaction.getAccountId().equals(accountId)) &&
+                !transaction.getDate().isAfter(asOf)) {
+                net += transaction.getSignedAmountCents();
+            }
+        }
+        return net;
+    }
+
+    /**
+     * Transactions grouped by day for the inclusive day range; null bounds are open
+     */
+    Collection<List<Transaction>> daysBetween(LocalDate fromDay, LocalDate toDay) {
+        return range(fromDay, toDay).values();
+    }
+
+    /**
+     * Number of transactions in the inclusive day range, reading one list size per day
+     */
+    long countBetween(LocalDate fromDay, LocalDate toDay) {
+        long count = 0;
+        for (List<Transaction> dayTransactions : range(fromDay, toDay).values()) {
+            count += dayTransactions.size();
+        }
+        return count;
+    }
+
+    private NavigableMap<LocalDate, List<Transaction>> range(LocalDate fromDay, LocalDate toDay) {
+        if (fromDay != null && toDay != null) {
+            return fromDay.isAfter(toDay) ? new TreeMap<>() : transactionsByDay.subMap(fromDay, true, toDay, true);
+        }
+        if (fromDay != null) {
+            return transactionsByDay.tailMap(fromDay, true);
+        }
+        if (toDay != null) {
+            return transactionsByDay.headMap(toDay, true);
+        }
+        return transactionsByDay;
+    }
+
+    /**
+     * Most recent transactions, newest first, reading only as many days as needed
+     */
+    List<Transaction> recent(int limit) {
+        List<Transaction> recent = new ArrayList<>(limit);
+        Comparator<Transaction> newestFirst = Comparator.comparing(Transaction::getDate).reversed();
+        for (List<Transaction> dayTransactions : transactionsByDay.descendingMap().values()) {
+            if (recent.size() >= limit) {
+                break;
+            }
+            List<Transaction> day = new ArrayList<>(dayTransactions);
+            day.sort(newestFirst);
+            recent.addAll(day.subList(0, Math.min(day.size(), limit - recent.size())));
+        }
+        return recent;
+    }
+
+    /**
+     * Up to limit transactions from offset in date order, oldest or newest day first, with
+     * each day in the given order. Days before the window are skipped by their size, so the
+     * cost depends on the number of days and the window rather than on the ledger.
+     */
+    List<Transaction> window(Comparator<Transaction> order, boolean newestFirst, int offset, int limit) {
+        List<Transaction> window = new ArrayList<>(Math.min(limit, 1024));
+        int skip = offset;
+        NavigableMap<LocalDate, List<Transaction>> days = newestFirst ? transactionsByDay.descendingMap() : transactionsByDay;
+        for (List<Transaction> dayTransactions : days.values()) {
+            if (window.size() >= limit) {
+                break;
+            }
+            if (skip >= dayTransactions.size()) {
+                skip -= dayTransactions.size();
+                continue;
+            }
+            List<Transaction> day = new ArrayList<>(dayTransactions);
+            day.sort(order);
+            window.addAll(day.subList(skip, Math.min(day.size(), skip + limit - window.size())));
+            skip = 0;
+        }
+        return window;
+    }
+
+    /**
+     * Net cash flow (income minus expenses) per active day, in currency units, for a ledger
+     * held in one currency
+     */
+    TimeSeries cashFlow() {
+        long[] days = new long[totalsByDay.size()];
+        double[] values = new double[days.length];
+        int i = 0;
+        for (Map.Entry<LocalDate, long[]> entry : totalsByDay.entrySet()) {
+            days[i] = entry.getKey().toEpochDay();
+            values[i] = (entry.getValue()[INCOME] - entry.getValue()[EXPENSE]) / 100.0;
+            i++;
+        }
+        return new TimeSeries(days, values);
+    }
+
+    /**
+     * Net cash flow per active day in the target currency. Each account's daily net is summed
+     * per currency group, and each group's sum is converted once at that day's rates.
+     */
+    TimeSeries cashFlow(Currency[] groups, ToIntFunction<String> groupOfAccount, Currency target, FxRateTable rates) {
+        NavigableMap<LocalDate, long[]> netByDayGroup = new TreeMap<>();
+        for (Map.Entry<String, NavigableMap<LocalDate, long[]>> account : netByAccountDay.entrySet()) {
+            int group = groupOfAccount.applyAsInt(account.getKey());
+            for (Map.Entry<LocalDate, long[]> day : account.getValue().entrySet()) {
+                netByDayGroup.computeIfAbsent(day.getKey(), d -> new long[groups.length])[group] += day.getValue()[0];
+            }
+        }
+
+        long[] days = new long[netByDayGroup.size()];
+        double[] values = new double[days.length];
+        int i = 0;
+        for (Map.Entry<LocalDate, long[]> entry : netByDayGroup.entrySet()) {
+            long cents = 0;
+            for (int group = 0; group < groups.length; group++) {
+                cents += rates.convertCents(entry.getValue()[group], groups[group], target, entry.getKey());
+            }
+            days[i] = entry.getKey().toEpochDay();
+            values[i] = cents / 100.0;
+            i++;
+        }
+        return new TimeSeries(days, values);
+    }
+
+    /**
+     * End-of-day balance on each day the account was active, walking back from its current balance
+     */
+    TimeSeries balanceHistory(String accountId, long currentBalanceCents) {
+        NavigableMap<LocalDate, long[]> accountDays = netByAccountDay.getOrDefault(accountId, new TreeMap<>());
+        long totalNet = 0;
+        for (long[] net : accountDays.values()) {
+            totalNet += net[0];
+        }
+
+        long[] days = new long[accountDays.size()];
+        double[] values = new double[days.length];
+        long running = currentBalanceCents - totalNet;
+        int i = 0;
+        for (Map.Entry<LocalDate, long[]> entry : accountDays.entrySet()) {
+            running += entry.getValue()[0];
+            days[i] = entry.getKey().toEpochDay();
+            values[i] = running / 100.0;
+            i++;
+        }
+        return new TimeSeries(days, values);
+    }
+}
@@ -0,0 +1,246 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Undo/redo history of a ledger as a list of persistent versions
+ * The working version is an account map (ID to the account as opened) and a transaction
+ * vector in the order transactions were recorded; a deleted transaction leaves a null slot
+ * and an edit overwrites its slot. FinanceService records each write into the working
+ * version and commits it as one step. Because versions share structure, a step costs only
+ * the copied paths, O(log n) per changed account or transaction, and moving to any step is
+ * a pointer change; FinanceService then replays the difference between the two versions.
+ * Once enough deletions have aged out with the steps that held them, the vectors are
+ * compacted, so null slots and their IDs do not pile up over a long session.
+ * Not thread-safe; FinanceService calls it under its write lock.
+ */
+final class LedgerHistory {
+    // Fewest recorded deletions worth a compaction; it also waits for half the vector's size
+    private static final int MIN_COMPACTION = 1024;
+
+    private final int maxSteps;
+    private final List<Step> steps = new ArrayList<>();
+    // Slot of each transaction ID in the working version; entries for removed IDs go at compaction
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int removedSinceCompaction;
+    private PersistentHashMap<String, Account> accounts = PersistentHashMap.empty();
+    private PersistentVector<Transaction> transactions = PersistentVector.empty();
+    private int position;
+    private boolean replaying;
+
+    LedgerHistory(int maxSteps, Iterable<Account> openedAccounts, Iterable<Transaction> existing) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("History must keep at least one step");
+        }
+        this.maxSteps = maxSteps;
+        for (Account account : openedAccounts) {
+            accounts = accounts.put(account.getId(), account);
+        }
+        for (Transaction transaction : existing) {
+            transactionAdded(transaction);
+        }
+        steps.add(new Step("Initial state", accounts, transactions));
+    }
+
+    /**
+     * Records an account as it is opened; the live account's balance changes later, so a copy is kept
+     */
+    void accountAdded(Account account) {
+        if (!replaying) {
+            accounts = accounts.put(account.getId(), opened(account, account.getBalance()));
+        }
+    }
+
+    void accountRemoved(String accountId) {
+        if (!replaying) {
+            accounts = accounts.remove(accountId);
+        }
+    }
+
+    void transactionAdded(Transaction transaction) {
+        if (!replaying) {
+            slots.put(transaction.getId(), transactions.size());
+            transactions = transactions.append(transaction);
+        }
+    }
+
+    void transactionReplaced(Transaction replacement) {
+        if (!replaying) {
+            transactions = transactions.set(slots.get(replacement.getId()), replacement);
+        }
+    }
+
+    void transactionRemoved(String transactionId) {
+        if (!replaying) {
+            transactions = transactions.set(slots.get(transactionId), null);
+            removedSinceCompaction++;
+        }
+    }
+
+    /**
+     * Ends the current write as one step; writes after an undo discard the steps that could
+     * have been redone, and the oldest step is dropped once maxSteps are kept
+     */
+    void commit(String label) {
+        Step current = steps.get(position);
+        if (replaying || (current.accounts == accounts && current.transactions == transactions)) {
+            return;
+        }
+        steps.subList(position + 1, steps.size()).clear();
+        steps.add(new Step(label, accounts, transactions));
+        if (steps.size() > maxSteps + 1) {
+            steps.remove(0);
+            if (removedSinceCompaction >= Math.max(MIN_COMPACTION, transactions.size() / 2)) {
+                compact();
+            }
+        }
+        position = steps.size() - 1;
+    }
+
+    /**
+     * Drops the slots that are null in every kept step and renumbers the rest in order, in
+     * every step alike so diffs between steps still line up. Each step is rebuilt from the
+     * rebuilt step before it with only the slots that changed between them, so the steps
+     * keep sharing structure; the cost is one pass over the oldest step plus the changes.
+     */
+    private void compact() {
+        int length = 0;
+        for (Step step : steps) {
+            length = Math.max(length, step.transactions.size());
+        }
+        boolean[] live = new boolean[length];
+        PersistentVector<Transaction> previous = PersistentVector.empty();
+        for (Step step : steps) {
+            PersistentVector.diff(previous, step.transactions, (slot, before, after) -> {
+                if (after != null) {
+                    live[slot] = true;
+                }
+            });
+            previous = step.transactions;
+        }
+        int[] renumbered = new int[length];
+        int next = 0;
+        for (int slot = 0; slot < length; slot++) {
+            renumbered[slot] = live[slot] ? next++ : -1;
+        }
+
+        previous = PersistentVector.empty();
+        PersistentVector<Transaction> compacted = PersistentVector.empty();
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            List<Integer> changed = new ArrayList<>();
+            PersistentVector.diff(previous, step.transactions, (slot, before, after) -> changed.add(slot));
+            for (int slot : changed) {
+                if (renumbered[slot] >= 0) {
+                    compacted = put(compacted, renumbered[slot],
+                        slot < step.transactions.size() ? step.transactions.get(slot) : null);
+                }
+            }
+            previous = step.transactions;
+            steps.set(i, new Step(step.label, step.accounts, compacted));
+        }
+
+        transactions = compacted;
+        slots.clear();
+        for (int slot = 0; slot < transactions.size(); slot++) {
+            Transaction transaction = transactions.get(slot);
+            if (transaction != null) {
+                slots.put(transaction.getId(), slot);
+            }
+        }
+        removedSinceCompaction = 0;
+    }
+
+    private static PersistentVector<Transaction> put(PersistentVector<Transaction> vector, int slot, Transaction value) {
+        if (slot < vector.size()) {
+            return vector.set(slot, value);
+        }
+        while (vector.size() < slot) {
+            vector = vector.append(null);
+        }
+        return vector.append(value);
+    }
+
+    boolean canMove(int delta) {
+        int target = position + delta;
+        return target >= 0 && target < steps.size();
+    }
+
+    /**
+     * Label of the step an undo would revert, or null at the start of the history
+     */
+    String undoLabel() {
+        return position > 0 ? steps.get(position).label : null;
+    }
+
+    String redoLabel() {
+        return position + 1 < steps.size() ? steps.get(position + 1).label : null;
+    }
+
+    Step current() {
+        return steps.get(position);
+    }
+
+    Step stepAt(int delta) {
+        if (!canMove(delta)) {
+            throw new IllegalStateException(delta < 0 ? "Nothing to undo" : "Nothing to redo");
+        }
+        return steps.get(position + delta);
+    }
+
+    /**
+     * Suspends recording while the difference to a step is replayed into the ledger
+     */
+    void beginReplay() {
+        replaying = true;
+    }
+
+    /**
+     * Makes the step the working version once the ledger matches it
+     */
+    void endReplay(int delta, List<Integer> restoredSlots) {
+        position += delta;
+        Step step = steps.get(position);
+        accounts = step.accounts;
+        transactions = step.transactions;
+        for (int slot : restoredSlots) {
+            slots.put(transactions.get(slot).getId(), slot);
+        }
+        replaying = false;
+    }
+
+    int maxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * A new account like the given one, holding the given balance as its opening balance
+     */
+    static Account opened(Account account, BigDecimal openingBalance) {
+        Account copy = new Account(account.getId(), account.getName(), account.getType(), openingBalance, account.getCurrency());
+        copy.setDescription(account.getDescription());
+        return copy;
+    }
+
+    /**
+     * One committed version of the ledger
+     */
+    static final class Step {
+        final String label;
+        final PersistentHashMap<String, Account> accounts;
+        final PersistentVector<Transaction> transactions;
+
+        Step(String label, PersistentHashMap<String, Account> accounts, PersistentVector<Transaction> transactions) {
+            this.label = label;
+            this.accounts = accounts;
+            this.transactions = transactions;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.BitSet;
+
+/**
+ * Merkle tree over calendar months, kept current as the ledger changes
+ * Each month leaf holds a 128-bit sum of its transactions' fingerprints, so adding or
+ * removing a transaction is O(1) and needs no re-read of the month. Node hashes are
+ * SHA-256 over the children and are recomputed lazily, only along dirty paths, when a
+ * checksum is taken. The tree has a fixed shape (4096 months from 1900), so two ledgers'
+ * trees line up node for node and can be diffed top-down.
+ * Synchronized because checksums are taken under FinanceService's shared read lock.
+ */
+final class LedgerMerkleIndex {
+    static final int FIRST_YEAR = 1900;
+    static final int LEAVES = 4096;
+    static final int HASH_BYTES = 32;
+
+    private final long[] leafCount = new long[LEAVES];
+    private final long[] leafLow = new long[LEAVES];
+    private final long[] leafHigh = new long[LEAVES];
+    // Heap layout: node 1 is the root, leaves are nodes LEAVES..2*LEAVES-1; null means empty
+    private final byte[][] nodeHashes = new byte[2 * LEAVES][];
+    private final BitSet dirty = new BitSet(2 * LEAVES);
+    private final MessageDigest sha256;
+
+    LedgerMerkleIndex() {
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    synchronized void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    synchronized void remove(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    /**
+     * Brings dirty nodes up to date and returns a copy of every node hash
+     */
+    synchronized LedgerChecksum checksum() {
+        for (int node = dirty.previousSetBit(2 * LEAVES - 1); node >= 1; node = dirty.previousSetBit(node - 1)) {
+            nodeHashes[node] = node >= LEAVES ? leafHash(node - LEAVES) : innerHash(node);
+        }
+        dirty.clear();
+        return new LedgerChecksum(nodeHashes.clone());
+    }
+
+    static YearMonth monthOf(int leaf) {
+        return YearMonth.of(FIRST_YEAR + leaf / 12, leaf % 12 + 1);
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        LocalDateTime date = transaction.getDate();
+        int leaf = Math.max(0, Math.min(LEAVES - 1, (date.getYear() - FIRST_YEAR) * 12 + date.getMonthValue() - 1));
+        leafCount[leaf] += sign;
+        leafLow[leaf] += sign * fingerprint(transaction, 0x9E3779B97F4A7C15L);
+        leafHigh[leaf] += sign * fingerprint(transaction, 0xC2B2AE3D27D4EB4FL);
+        // Mark the leaf and its ancestors; stop once an ancestor is already marked
+        for (int node = LEAVES + leaf; node >= 1 && !dirty.get(node); node >>>= 1) {
+            dirty.set(node);
+        }
+    }
+
+    private byte[] leafHash(int leaf) {
+        if (leafCount[leaf] == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(28);
+        buffer.putInt(leaf).putLong(leafCount[leaf]).putLong(leafLow[leaf]).putLong(leafHigh[leaf]);
+        return sha256.digest(buffer.array());
+    }
+
+    private byte[] innerHash(int node) {
+        byte[] left = nodeHashes[2 * node];
+        byte[] right = nodeHashes[2 * node + 1];
+        if (left == null && right == null) {
+            return null;
+        }
+        sha256.update(left != null ? left : new byte[HASH_BYTES]);
+        sha256.update(right != null ? right : new byte[HASH_BYTES]);
+        return sha256.digest();
+    }
+
+    /**
+     * 64-bit fingerprint of every persistent field, computed without allocating
+     */
+    private static long fingerprint(Transaction transaction, long seed) {
+        long hash = seed;
+        hash = mix(hash, transaction.getId());
+        hash = mix(hash, transaction.getAccountId());
+        hash = mix(hash, transaction.getDescription());
+        hash = mix(hash, transaction.getType().ordinal());
+        hash = mix(hash, transaction.getCategory() != null ? transaction.getCategory().ordinal() + 1 : 0);
+        hash = mix(hash, transaction.getAmountCents());
+        hash = mix(hash, transaction.getCurrency() != null ? transaction.getCurrency().getCurrencyCode() : null);
+        hash = mix(hash, transaction.getDate().toLocalDate().toEpochDay());
+        hash = mix(hash, transaction.getDate().toLocalTime().toNanoOfDay());
+        return finish(hash);
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash, value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ finish(value)) * 0x100000001B3L;
+    }
+
+    // SplitMix64 finalizer
+    private static long finish(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,55 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last-write stamps per calendar month and per account, for invalidating cached query results
+ * A result that depends on one month or one account stays valid while that stamp is unchanged,
+ * so a write to one account does not flush results cached for others. Stamps come from
+ * FinanceService's data version, which only grows, so a removed and re-added account cannot
+ * revive an old stamp. Not thread-safe on its own; FinanceService guards it with its lock.
+ */
+final class LedgerVersions {
+    private int firstMonth;
+    private long[] monthStamps = new long[0];
+    private final Map<String, long[]> accountStamps = new HashMap<>();
+
+    void touch(Transaction transaction, long stamp) {
+        touchMonth(AnalyticsEngine.monthKey(transaction), stamp);
+        touchAccount(transaction.getAccountId(), stamp);
+    }
+
+    void touchAccount(String accountId, long stamp) {
+        accountStamps.computeIfAbsent(accountId, id -> new long[1])[0] = stamp;
+    }
+
+    long month(int monthKey) {
+        int index = monthKey - firstMonth;
+        return index >= 0 && index < monthStamps.length ? monthStamps[index] : 0;
+    }
+
+    long account(String accountId) {
+        long[] stamp = accountStamps.get(accountId);
+        return stamp != null ? stamp[0] : 0;
+    }
+
+    private void touchMonth(int monthKey, long stamp) {
+        if (monthStamps.length == 0) {
+            firstMonth = monthKey;
+            monthStamps = new long[12];
+        } else if (monthKey < firstMonth) {
+            int shift = Math.max(firstMonth - monthKey, monthStamps.length / 2);
+            long[] grown = new long[monthStamps.length + shift];
+            System.arraycopy(monthStamps, 0, grown, shift, monthStamps.length);
+            monthStamps = grown;
+            firstMonth -= shift;
+        } else if (monthKey - firstMonth >= monthStamps.length) {
+            monthStamps = Arrays.copyOf(monthStamps, Math.max(monthKey - firstMonth + 1, monthStamps.length * 2));
+        }
+        monthStamps[monthKey - firstMonth] = stamp;
+    }
+}
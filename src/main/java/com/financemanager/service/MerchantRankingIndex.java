@@ -0,0 +1,141 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving sketches of expense merchants by count and by spend, per month and all-time
+ * Updates are O(log capacity) per expense and rankings read a few hundred counters, so
+ * top-K answers do not depend on ledger size. Deletes and edits retract the old expense from
+ * its month's and the all-time sketches, so no write rescans the ledger. Spend is tracked per currency
+ * and a ranking converts each merchant's per-currency estimate once, so amounts in different
+ * currencies are never added as raw cents. Synchronized because reads run under
+ * FinanceService's shared read lock.
+ */
+final class MerchantRankingIndex {
+    static final int ALL_TIME_CAPACITY = 512;
+    static final int MONTHLY_CAPACITY = 64;
+
+    private final Rankings allTime = new Rankings(ALL_TIME_CAPACITY);
+    private final Map<YearMonth, Rankings> monthly = new HashMap<>();
+
+    synchronized void add(Transaction transaction) {
+        if (!transaction.isExpense()) {
+            return;
+        }
+        String merchant = DescriptionNormalizer.normalize(transaction.getDescription());
+        allTime.add(merchant, transaction);
+        monthly.computeIfAbsent(YearMonth.from(transaction.getDate()), m -> new Rankings(MONTHLY_CAPACITY))
+               .add(merchant, transaction);
+    }
+
+    synchronized void remove(Transaction transaction) {
+        if (!transaction.isExpense()) {
+            return;
+        }
+        String merchant = DescriptionNormalizer.normalize(transaction.getDescription());
+        allTime.retract(merchant, transaction);
+        Rankings month = monthly.get(YearMonth.from(transaction.getDate()));
+        if (month != null) {
+            month.retract(merchant, transaction);
+        }
+    }
+
+    /**
+     * Top merchants by spend in the target currency, converted at the rates of the month's
+     * last day, or today's for all-time
+     */
+    synchronized List<HeavyHitter> topBySpend(YearMonth month, int k, Currency target, FxRateTable rates) {
+        Map<Currency, SpaceSavingSketch> bySpend = rankings(month).bySpend;
+        if (bySpend.isEmpty()) {
+            return List.of();
+        }
+        SpaceSavingSketch only = bySpend.size() == 1 ? bySpend.get(target) : null;
+        if (only != null) {
+            return only.top(k);
+        }
+
+        LocalDate rateDate = month != null ? month.atEndOfMonth() : LocalDate.now();
+        // Per merchant: [0] estimate, [1] max error, both in target cents
+        Map<String, long[]> merged = new HashMap<>();
+        for (Map.Entry<Currency, SpaceSavingSketch> entry : bySpend.entrySet()) {
+            for (HeavyHitter hitter : entry.getValue().top(Integer.MAX_VALUE)) {
+                long[] totals = merged.computeIfAbsent(hitter.getMerchant(), merchant -> new long[2]);
+                totals[0] += rates.convertCents(hitter.getEstimate(), entry.getKey(), target, rateDate);
+                totals[1] += rates.convertCents(hitter.getMaxError(), entry.getKey(), target, rateDate);
+            }
+        }
+        for (Map.Entry<Currency, SpaceSavingSketch> entry : bySpend.entrySet()) {
+            // A merchant a full sketch does not track may still have spent up to its lightest counter
+            long bound = rates.convertCents(entry.getValue().untrackedBound(), entry.getKey(), target, rateDate);
+            if (bound == 0) {
+                continue;
+            }
+            Set<String> tracked = new HashSet<>();
+            for (HeavyHitter hitter : entry.getValue().top(Integer.MAX_VALUE)) {
+                tracked.add(hitter.getMerchant());
+            }
+            for (Map.Entry<String, long[]> merchant : merged.entrySet()) {
+                if (!tracked.contains(merchant.getKey())) {
+                    merchant.getValue()[0] += bound;
+                    merchant.getValue()[1] += bound;
+                }
+            }
+        }
+
+        List<HeavyHitter> ranked = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            ranked.add(new HeavyHitter(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        ranked.sort((a, b) -> a.getEstimate() != b.getEstimate()
+            ? Long.compare(b.getEstimate(), a.getEstimate()) : a.getMerchant().compareTo(b.getMerchant()));
+        return ranked.subList(0, Math.min(k, ranked.size()));
+    }
+
+    synchronized List<HeavyHitter> topByCount(YearMonth month, int k) {
+        return rankings(month).byCount.top(k);
+    }
+
+    private Rankings rankings(YearMonth month) {
+        if (month == null) {
+            return allTime;
+        }
+        Rankings rankings = monthly.get(month);
+        return rankings != null ? rankings : new Rankings(1);
+    }
+
+    private static final class Rankings {
+        private final int capacity;
+        private final SpaceSavingSketch byCount;
+        // Usually a single entry; one sketch per currency the expenses are in
+        private final Map<Currency, SpaceSavingSketch> bySpend = new HashMap<>(2);
+
+        Rankings(int capacity) {
+            this.capacity = capacity;
+            this.byCount = new SpaceSavingSketch(capacity);
+        }
+
+        void add(String merchant, Transaction transaction) {
+            byCount.offer(merchant, 1);
+            bySpend.computeIfAbsent(transaction.getCurrency(), currency -> new SpaceSavingSketch(capacity))
+                   .offer(merchant, transaction.getAmountCents());
+        }
+
+        void retract(String merchant, Transaction transaction) {
+            byCount.retract(merchant, 1);
+            SpaceSavingSketch spend = bySpend.get(transaction.getCurrency());
+            if (spend != null) {
+                spend.retract(merchant, transaction.getAmountCents());
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.financemanager.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash array mapped trie with structural sharing
+ * Each node covers five bits of the key's hash; a bitmap records which of its 32 positions
+ * are occupied and the slots array holds only those, each either an entry or a child node.
+ * Keys whose full hashes collide share a collision node. put and remove copy the path to one
+ * node, O(log32 n), and leave every earlier version intact. Nodes are kept canonical (a child
+ * holding a single entry is folded into its parent), so diff can skip shared subtrees.
+ */
+final class PersistentHashMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        Entry entry = root.find(0, hash(key), key);
+        return entry != null ? (V) entry.value : null;
+    }
+
+    PersistentHashMap<K, V> put(K key, V value) {
+        int hash = hash(key);
+        boolean present = root.find(0, hash, key) != null;
+        Node newRoot = root.put(0, new Entry(hash, key, value));
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, present ? size : size + 1);
+    }
+
+    PersistentHashMap<K, V> remove(Object key) {
+        Node newRoot = root.remove(0, hash(key), key);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Calls the visitor for every key whose value differs (by identity) between the two
+     * versions, with null for a missing key
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> void diff(PersistentHashMap<K, V> from, PersistentHashMap<K, V> to, DiffVisitor<K, V> visitor) {
+        diffNodes(from.root, to.root, 0, (DiffVisitor<Object, Object>) visitor);
+    }
+
+    private static void diffNodes(Object a, Object b, int shift, DiffVisitor<Object, Object> visitor) {
+        if (a == b) {
+            return;
+        }
+        if (a instanceof BitmapNode && b instanceof BitmapNode) {
+            BitmapNode left = (BitmapNode) a;
+            BitmapNode right = (BitmapNode) b;
+            for (int bits = left.bitmap | right.bitmap; bits != 0; bits &= bits - 1) {
+                int bit = Integer.lowestOneBit(bits);
+                Object leftSlot = (left.bitmap & bit) != 0 ? left.slots[left.index(bit)] : null;
+                Object rightSlot = (right.bitmap & bit) != 0 ? right.slots[right.index(bit)] : null;
+                if (leftSlot != rightSlot) {
+                    diffNodes(leftSlot, rightSlot, shift + BITS, visitor);
+                }
+            }
+            return;
+        }
+        // An entry against a subtree, or collision nodes: compare their entries directly
+        Map<Object, Object> before = new HashMap<>();
+        Map<Object, Object> after = new HashMap<>();
+        collect(a, before);
+        collect(b, after);
+        Set<Object> keys = new HashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (Object key : keys) {
+            Object was = before.get(key);
+            Object is = after.get(key);
+            if (was != is) {
+                visitor.visit(key, was, is);
+            }
+        }
+    }
+
+    private static void collect(Object slot, Map<Object, Object> into) {
+        if (slot instanceof Entry) {
+            into.put(((Entry) slot).key, ((Entry) slot).value);
+        } else if (slot instanceof BitmapNode) {
+            for (Object child : ((BitmapNode) slot).slots) {
+                collect(child, into);
+            }
+        } else if (slot instanceof CollisionNode) {
+            for (Entry entry : ((CollisionNode) slot).entries) {
+                into.put(entry.key, entry.value);
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Node merge(int shift, Entry first, Entry second) {
+        if (first.hash == second.hash) {
+            return new CollisionNode(first.hash, new Entry[]{first, second});
+        }
+        int firstBit = bitFor(first.hash, shift);
+        int secondBit = bitFor(second.hash, shift);
+        if (firstBit == secondBit) {
+            return new BitmapNode(firstBit, new Object[]{merge(shift + BITS, first, second)});
+        }
+        return new BitmapNode(firstBit | secondBit, Integer.compareUnsigned(firstBit, secondBit) < 0
+            ? new Object[]{first, second} : new Object[]{second, first});
+    }
+
+    @FunctionalInterface
+    interface DiffVisitor<K, V> {
+        void visit(K key, V before, V after);
+    }
+
+    private interface Node {
+        Entry find(int shift, int hash, Object key);
+
+        Node put(int shift, Entry entry);
+
+        /** Returns this if the key is absent */
+        Node remove(int shift, int hash, Object key);
+
+        /** The only entry when the node holds exactly one, so the parent can fold it in */
+        Entry single();
+    }
+
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Entry(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Entry find(int shift, int hash, Object key) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Entry) {
+                Entry entry = (Entry) slot;
+                return entry.hash == hash && entry.key.equals(key) ? entry : null;
+            }
+            return ((Node) slot).find(shift + BITS, hash, key);
+        }
+
+        @Override
+        public Node put(int shift, Entry entry) {
+            int bit = bitFor(entry.hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, index);
+                copy[index] = entry;
+                System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Entry) {
+                Entry existing = (Entry) slot;
+                if (existing.hash == entry.hash && existing.key.equals(entry.key)) {
+                    if (existing.value == entry.value) {
+                        return this;
+                    }
+                    replacement = entry;
+                } else {
+                    replacement = merge(shift + BITS, existing, entry);
+                }
+            } else {
+                Node child = (Node) slot;
+                replacement = child.put(shift + BITS, entry);
+                if (replacement == child) {
+                    return this;
+                }
+            }
+            Object[] copy = slots.clone();
+            copy[index] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+            int bit = bitFor(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Entry) {
+                Entry existing = (Entry) slot;
+                if (existing.hash != hash || !existing.key.equals(key)) {
+                    return this;
+                }
+                replacement = null;
+            } else {
+                Node child = (Node) slot;
+                Node removed = child.remove(shift + BITS, hash, key);
+                if (removed == child) {
+                    return this;
+                }
+                Entry single = removed.single();
+                replacement = single != null ? single : removed;
+            }
+            if (replacement != null) {
+                Object[] copy = slots.clone();
+                copy[index] = replacement;
+                return new BitmapNode(bitmap, copy);
+            }
+            if (slots.length == 1) {
+                return EMPTY;
+            }
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        @Override
+        public Entry single() {
+            return slots.length == 1 && slots[0] instanceof Entry ? (Entry) slots[0] : null;
+        }
+    }
+
+    private static final class CollisionNode implements Node {
+        final int hash;
+        final Entry[] entries;
+
+        CollisionNode(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        public Entry find(int shift, int hash, Object key) {
+            for (Entry entry : entries) {
+                if (entry.key.equals(key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(int shift, Entry entry) {
+            if (entry.hash != hash) {
+                // Only reached at the root of a subtree; split by the next hash bits
+                return new BitmapNode(bitFor(hash, shift), new Object[]{this}).put(shift, entry);
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    if (entries[i].value == entry.value) {
+                        return this;
+                    }
+                    Entry[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+            for (int i = 0; i < entries.length; i++) {
+                if (Objects.equals(entries[i].key, key)) {
+                    if (entries.length == 2) {
+                        Entry remaining = entries[1 - i];
+                        return new BitmapNode(bitFor(hash, shift), new Object[]{remaining});
+                    }
+                    Entry[] copy = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, copy, 0, i);
+                    System.arraycopy(entries, i + 1, copy, i, entries.length - i - 1);
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Entry single() {
+            return null;
+        }
+    }
+}
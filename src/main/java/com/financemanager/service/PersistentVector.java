@@ -0,0 +1,182 @@
+package com.financemanager.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable vector with structural sharing: a 32-way trie of leaves plus a tail leaf
+ * append and set copy only the tail or the path from the root to one leaf, O(log32 n), and
+ * every earlier version stays valid and shares all untouched leaves with the new one. A full
+ * tail moves into the trie as a whole leaf, and when the root overflows the old root becomes
+ * the first child of the new one, so versions of different sizes still share their subtrees.
+ * diff walks two versions side by side and skips every subtree they share, which makes
+ * comparing two nearby versions cost in proportion to what changed, not to their size.
+ */
+final class PersistentVector<E> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    PersistentVector<E> append(E value) {
+        int tailLength = size - tailOffset();
+        if (tailLength < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tailLength + 1);
+            newTail[tailLength] = value;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{value});
+    }
+
+    PersistentVector<E> set(int index, E value) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = value;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, value), tail);
+    }
+
+    /**
+     * Calls the visitor for every index where the two versions hold different elements (by
+     * identity), with null for an index beyond a version's size, in ascending index order
+     */
+    static <E> void diff(PersistentVector<E> from, PersistentVector<E> to, DiffVisitor<E> visitor) {
+        if (from == to) {
+            return;
+        }
+        int trieLimit = Math.min(from.tailOffset(), to.tailOffset());
+        if (trieLimit > 0) {
+            // A taller trie holds the shorter one's root range under its first children
+            Object[] a = from.root;
+            Object[] b = to.root;
+            int level = Math.min(from.shift, to.shift);
+            for (int s = from.shift; s > level; s -= BITS) {
+                a = (Object[]) a[0];
+            }
+            for (int s = to.shift; s > level; s -= BITS) {
+                b = (Object[]) b[0];
+            }
+            diffNodes(a, b, level, 0, trieLimit, visitor);
+        }
+        int limit = Math.max(from.size, to.size);
+        for (int index = trieLimit; index < limit; index++) {
+            E before = index < from.size ? from.get(index) : null;
+            E after = index < to.size ? to.get(index) : null;
+            if (before != after) {
+                visitor.visit(index, before, after);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void diffNodes(Object[] a, Object[] b, int level, int base, int limit, DiffVisitor<E> visitor) {
+        if (a == b) {
+            return;
+        }
+        if (level == 0) {
+            for (int i = 0; i < WIDTH && base + i < limit; i++) {
+                if (a[i] != b[i]) {
+                    visitor.visit(base + i, (E) a[i], (E) b[i]);
+                }
+            }
+            return;
+        }
+        int span = 1 << level;
+        for (int child = 0; child < WIDTH && base + child * span < limit; child++) {
+            diffNodes((Object[]) a[child], (Object[]) b[child], level - BITS, base + child * span, limit, visitor);
+        }
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int child = ((size - 1) >>> level) & MASK;
+        Object[] copy = parent.clone();
+        copy[child] = level == BITS
+            ? tailNode
+            : parent[child] != null
+                ? pushTail(level - BITS, (Object[]) parent[child], tailNode)
+                : newPath(level - BITS, tailNode);
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object value) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = value;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = assoc(level - BITS, (Object[]) node[child], index, value);
+        }
+        return copy;
+    }
+
+    @FunctionalInterface
+    interface DiffVisitor<E> {
+        void visit(int index, E before, E after);
+    }
+}
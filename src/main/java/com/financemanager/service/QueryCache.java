@@ -0,0 +1,72 @@
+package com.financemanager.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of query results, each stored with the version of the data it was computed from
+ * A lookup only hits when the caller's current version for that data still equals the stored one,
+ * so invalidation needs no bookkeeping on the write path. Stale entries are dropped when found.
+ * Synchronized, since FinanceService reads it from many threads under its shared read lock.
+ */
+final class QueryCache {
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final Map<Object, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    QueryCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > QueryCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached value if it was computed at the given version, otherwise null
+     */
+    synchronized Object get(Object key, long version) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            hits++;
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    synchronized void put(Object key, long version, Object value) {
+        entries.put(key, new Entry(version, value));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized QueryCacheStats stats() {
+        return new QueryCacheStats(hits, misses, evictions, entries.size(), capacity);
+    }
+
+    private static final class Entry {
+        final long version;
+        final Object value;
+
+        Entry(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
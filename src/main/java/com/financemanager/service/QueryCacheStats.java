@@ -0,0 +1,39 @@
+package com.financemanager.service;
+
+/**
+ * Snapshot of FinanceService's query result cache counters
+ */
+public final class QueryCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final int capacity;
+
+    QueryCacheStats(long hits, long misses, long evictions, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public long getHits() { return hits; }
+    /** Lookups that found no entry or only an invalidated one */
+    public long getMisses() { return misses; }
+    /** Entries dropped to stay within capacity */
+    public long getEvictions() { return evictions; }
+    public int getSize() { return size; }
+    public int getCapacity() { return capacity; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryCacheStats{hits=%d, misses=%d, evictions=%d, size=%d/%d}",
+            hits, misses, evictions, size, capacity);
+    }
+}
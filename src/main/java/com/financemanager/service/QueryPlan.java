@@ -0,0 +1,33 @@
+package com.financemanager.service;
+
+/**
+ * How a TransactionQuery was executed: the access path chosen and how much it read
+ */
+public final class QueryPlan {
+    public enum AccessPath {
+        ACCOUNT_INDEX, CATEGORY_INDEX, DATE_INDEX, FULL_SCAN, PARALLEL_SCAN
+    }
+
+    private final AccessPath accessPath;
+    private final long estimatedRows;
+    private final long scannedRows;
+    private final long elapsedNanos;
+
+    QueryPlan(AccessPath accessPath, long estimatedRows, long scannedRows, long elapsedNanos) {
+        this.accessPath = accessPath;
+        this.estimatedRows = estimatedRows;
+        this.scannedRows = scannedRows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public AccessPath getAccessPath() { return accessPath; }
+    public long getEstimatedRows() { return estimatedRows; }
+    public long getScannedRows() { return scannedRows; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    @Override
+    public String toString() {
+        return String.format("%s(estimated=%d, scanned=%d, %.2f ms)",
+                             accessPath, estimatedRows, scannedRows, elapsedNanos / 1_000_000.0);
+    }
+}
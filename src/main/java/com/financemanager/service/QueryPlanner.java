@@ -0,0 +1,237 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Executes TransactionQuery objects against FinanceService's indexes
+ * Estimates how many rows each applicable index would yield, reads candidates from the
+ * most selective one and applies the remaining filters to them. Without a selective index
+ * it scans, in parallel once the ledger is large. Callers hold FinanceService's read lock.
+ */
+final class QueryPlanner {
+    static final int PARALLEL_SCAN_THRESHOLD = 100_000;
+
+    private final Map<String, Transaction> transactions;
+    private final LedgerDateIndex dateIndex;
+    private final TransactionLookupIndex lookupIndex;
+
+    QueryPlanner(Map<String, Transaction> transactions, LedgerDateIndex dateIndex, TransactionLookupIndex lookupIndex) {
+        this.transactions = transactions;
+        this.dateIndex = dateIndex;
+        this.lookupIndex = lookupIndex;
+    }
+
+    /**
+     * Runs the query; group totals are converted into the target currency
+     */
+    QueryResult execute(TransactionQuery query, Currency target, FxRateTable rates) {
+        long started = System.nanoTime();
+
+        QueryPlan.AccessPath path = QueryPlan.AccessPath.FULL_SCAN;
+        long estimate = transactions.size();
+        if (!query.getAccountIds().isEmpty()) {
+            long accountRows = 0;
+            for (String accountId : query.getAccountIds()) {
+                accountRows += lookupIndex.forAccount(accountId).size();
+            }
+            if (accountRows < estimate) {
+                path = QueryPlan.AccessPath.ACCOUNT_INDEX;
+                estimate = accountRows;
+            }
+        }
+        if (!query.getCategories().isEmpty()) {
+            long categoryRows = 0;
+            for (Category category : query.getCategories()) {
+                categoryRows += lookupIndex.forCategory(category).size();
+            }
+            if (categoryRows < estimate) {
+                path = QueryPlan.AccessPath.CATEGORY_INDEX;
+                estimate = categoryRows;
+            }
+        }
+        if (query.hasDateRange()) {
+            long dateRows = dateIndex.countBetween(fromDay(query), toDay(query));
+            if (dateRows < estimate) {
+                path = QueryPlan.AccessPath.DATE_INDEX;
+                estimate = dateRows;
+            }
+        }
+        if (path == QueryPlan.AccessPath.FULL_SCAN && estimate >= PARALLEL_SCAN_THRESHOLD) {
+            path = QueryPlan.AccessPath.PARALLEL_SCAN;
+        }
+
+        if (path == QueryPlan.AccessPath.PARALLEL_SCAN) {
+            return executeParallel(query, target, rates, started);
+        }
+
+        List<Transaction> matched = new ArrayList<>();
+        long scanned = 0;
+        for (Collection<Transaction> candidates : candidates(query, path)) {
+            for (Transaction transaction : candidates) {
+                scanned++;
+                if (query.matches(transaction)) {
+                    matched.add(transaction);
+                }
+            }
+        }
+
+        Map<String, QueryResult.GroupTotal> groups = new TreeMap<>();
+        if (query.getGroupBy() != TransactionQuery.GroupBy.NONE) {
+            for (Transaction transaction : matched) {
+                groups.computeIfAbsent(groupKey(query.getGroupBy(), transaction), key -> new QueryResult.GroupTotal())
+                      .add(transaction);
+            }
+            convertGroups(groups, query, target, rates);
+            return new QueryResult(List.of(), groups, matched.size(),
+                                   new QueryPlan(path, estimate, scanned, System.nanoTime() - started));
+        }
+        return new QueryResult(sortAndLimit(matched, query), groups, matched.size(),
+                               new QueryPlan(path, estimate, scanned, System.nanoTime() - started));
+    }
+
+    private QueryResult executeParallel(TransactionQuery query, Currency target, FxRateTable rates, long started) {
+        Transaction[] snapshot = transactions.values().toArray(new Transaction[0]);
+        QueryPlan.AccessPath path = QueryPlan.AccessPath.PARALLEL_SCAN;
+
+        if (query.getGroupBy() != TransactionQuery.GroupBy.NONE) {
+            // Per-thread partial totals merged pairwise, so no shared map is contended
+            Map<String, QueryResult.GroupTotal> partial = Arrays.stream(snapshot).parallel()
+                .filter(query::matches)
+                .collect(HashMap::new,
+                         (totals, transaction) -> totals.computeIfAbsent(groupKey(query.getGroupBy(), transaction),
+                                                                         key -> new QueryResult.GroupTotal()).add(transaction),
+                         (left, right) -> right.forEach((key, total) ->
+                             left.merge(key, total, (a, b) -> { a.merge(b); return a; })));
+            convertGroups(partial, query, target, rates);
+            int matchedCount = 0;
+            for (QueryResult.GroupTotal total : partial.values()) {
+                matchedCount += total.getCount();
+            }
+            return new QueryResult(List.of(), new TreeMap<>(partial), matchedCount,
+                                   new QueryPlan(path, snapshot.length, snapshot.length, System.nanoTime() - started));
+        }
+
+        List<Transaction> matched = Arrays.stream(snapshot).parallel()
+            .filter(query::matches)
+            .collect(Collectors.toList());
+        return new QueryResult(sortAndLimit(matched, query), new TreeMap<>(), matched.size(),
+                               new QueryPlan(path, snapshot.length, snapshot.length, System.nanoTime() - started));
+    }
+
+    private List<Collection<Transaction>> candidates(TransactionQuery query, QueryPlan.AccessPath path) {
+        List<Collection<Transaction>> candidates = new ArrayList<>();
+        switch (path) {
+            case ACCOUNT_INDEX:
+                for (String accountId : query.getAccountIds()) {
+                    candidates.add(lookupIndex.forAccount(accountId));
+                }
+                break;
+            case CATEGORY_INDEX:
+                for (Category category : query.getCategories()) {
+                    candidates.add(lookupIndex.forCategory(category));
+                }
+                break;
+            case DATE_INDEX:
+                candidates.addAll(dateIndex.daysBetween(fromDay(query), toDay(query)));
+                break;
+            default:
+                candidates.add(transactions.values());
+                break;
+        }
+        return candidates;
+    }
+
+    /**
+     * Sorts the matches, or keeps only the top rows in a bounded heap when a small limit applies
+     */
+    private static List<Transaction> sortAndLimit(List<Transaction> matched, TransactionQuery query) {
+        Comparator<Transaction> order = query.getSort().comparator();
+        int limit = query.getLimit();
+        if (limit >= matched.size()) {
+            matched.sort(order);
+            return matched;
+        }
+
+        PriorityQueue<Transaction> top = new PriorityQueue<>(Math.max(1, limit), order.reversed());
+        for (Transaction transaction : matched) {
+            if (top.size() < limit) {
+                top.add(transaction);
+            } else if (limit > 0 && order.compare(transaction, top.peek()) < 0) {
+                top.poll();
+                top.add(transaction);
+            }
+        }
+        List<Transaction> rows = new ArrayList<>(top);
+        rows.sort(order);
+        return rows;
+    }
+
+    /**
+     * Converts each group's per-currency sums once: month and day groups at the rates of
+     * their last day, other groups at the rates of the query's last day or today
+     */
+    private static void convertGroups(Map<String, QueryResult.GroupTotal> groups, TransactionQuery query,
+                                      Currency target, FxRateTable rates) {
+        LocalDate queryEnd = toDay(query) != null ? toDay(query) : LocalDate.now();
+        for (Map.Entry<String, QueryResult.GroupTotal> entry : groups.entrySet()) {
+            LocalDate rateDate;
+            switch (query.getGroupBy()) {
+                case MONTH:
+                    rateDate = YearMonth.parse(entry.getKey()).atEndOfMonth();
+                    break;
+                case DAY:
+                    rateDate = LocalDate.parse(entry.getKey());
+                    break;
+                default:
+                    rateDate = queryEnd;
+                    break;
+            }
+            entry.getValue().convertTo(target, rates, rateDate);
+        }
+    }
+
+    private static String groupKey(TransactionQuery.GroupBy groupBy, Transaction transaction) {
+        switch (groupBy) {
+            case ACCOUNT:
+                return transaction.getAccountId();
+            case CATEGORY:
+                return transaction.getCategory() != null ? transaction.getCategory().name() : "UNCATEGORIZED";
+            case TYPE:
+                return transaction.getType().name();
+            case MONTH:
+                return YearMonth.from(transaction.getDate()).toString();
+            default:
+                return transaction.getDate().toLocalDate().toString();
+        }
+    }
+
+    private static LocalDate fromDay(TransactionQuery query) {
+        return query.getFrom() != null ? query.getFrom().toLocalDate() : null;
+    }
+
+    private static LocalDate toDay(TransactionQuery query) {
+        LocalDateTime to = query.getTo();
+        if (to == null) {
+            return null;
+        }
+        // The end bound is exclusive, so a midnight end does not reach into that day
+        return to.toLocalTime().equals(LocalTime.MIDNIGHT) ? to.toLocalDate().minusDays(1) : to.toLocalDate();
+    }
+}
@@ -0,0 +1,128 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a TransactionQuery: matching rows or group totals, plus the plan that produced them
+ */
+public final class QueryResult {
+    private final List<Transaction> rows;
+    private final Map<String, GroupTotal> groups;
+    private final int matchedCount;
+    private final QueryPlan plan;
+
+    QueryResult(List<Transaction> rows, Map<String, GroupTotal> groups, int matchedCount, QueryPlan plan) {
+        this.rows = Collections.unmodifiableList(rows);
+        this.groups = Collections.unmodifiableMap(groups);
+        this.matchedCount = matchedCount;
+        this.plan = plan;
+    }
+
+    /** Matching transactions in query sort order, up to the limit; empty for group-by queries */
+    public List<Transaction> getRows() { return rows; }
+    /**
+     * Totals per group key (account ID, category or type name, yyyy-MM or yyyy-MM-dd), sorted by
+     * key, in the reporting currency
+     */
+    public Map<String, GroupTotal> getGroups() { return groups; }
+    /** Matching transactions before the limit was applied */
+    public int getMatchedCount() { return matchedCount; }
+    public QueryPlan getPlan() { return plan; }
+
+    /**
+     * Count and income/expense totals for one group
+     * Rows are summed per currency while the query runs and each currency's sums are converted
+     * once at the end, so rows in different currencies are never added as raw cents.
+     */
+    public static final class GroupTotal {
+        private int count;
+        private long incomeCents;
+        private long expenseCents;
+        // Currency of the totals above; rows in any other currency are kept apart until converted
+        private Currency currency;
+        private Map<Currency, GroupTotal> otherCurrencies;
+
+        void add(Transaction transaction) {
+            GroupTotal total = inCurrency(transaction.getCurrency());
+            total.count++;
+            if (transaction.isIncome()) {
+                total.incomeCents += transaction.getAmountCents();
+            } else {
+                total.expenseCents += transaction.getAmountCents();
+            }
+        }
+
+        void merge(GroupTotal other) {
+            if (other.currency != null) {
+                inCurrency(other.currency).addTotals(other);
+            }
+            if (other.otherCurrencies != null) {
+                for (GroupTotal part : other.otherCurrencies.values()) {
+                    inCurrency(part.currency).addTotals(part);
+                }
+            }
+        }
+
+        /**
+         * Converts every currency's sums into the target at the given day's rates
+         */
+        void convertTo(Currency target, FxRateTable rates, LocalDate rateDate) {
+            if (currency == null) {
+                return;
+            }
+            incomeCents = rates.convertCents(incomeCents, currency, target, rateDate);
+            expenseCents = rates.convertCents(expenseCents, currency, target, rateDate);
+            if (otherCurrencies != null) {
+                for (GroupTotal part : otherCurrencies.values()) {
+                    count += part.count;
+                    incomeCents += rates.convertCents(part.incomeCents, part.currency, target, rateDate);
+                    expenseCents += rates.convertCents(part.expenseCents, part.currency, target, rateDate);
+                }
+                otherCurrencies = null;
+            }
+            currency = target;
+        }
+
+        private GroupTotal inCurrency(Currency rowCurrency) {
+            if (currency == null) {
+                currency = rowCurrency;
+            }
+            if (currency.equals(rowCurrency)) {
+                return this;
+            }
+            if (otherCurrencies == null) {
+                otherCurrencies = new HashMap<>();
+            }
+            return otherCurrencies.computeIfAbsent(rowCurrency, c -> {
+                GroupTotal part = new GroupTotal();
+                part.currency = c;
+                return part;
+            });
+        }
+
+        private void addTotals(GroupTotal part) {
+            count += part.count;
+            incomeCents += part.incomeCents;
+            expenseCents += part.expenseCents;
+        }
+
+        public int getCount() { return count; }
+        public BigDecimal getIncome() { return Money.fromCents(incomeCents); }
+        public BigDecimal getExpenses() { return Money.fromCents(expenseCents); }
+        public BigDecimal getNet() { return Money.fromCents(incomeCents - expenseCents); }
+
+        @Override
+        public String toString() {
+            return "GroupTotal{count=" + count + ", income=" + getIncome() + ", expenses=" + getExpenses() + "}";
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds recurring transactions without comparing every pair of rows
+ * Each transaction lands in one bucket keyed by account, type, normalized description and
+ * a logarithmic amount band, where it adds its day to a sorted array. A bucket's period is
+ * the median gap between its days and its jitter the median deviation from that period.
+ * Both are cached until the bucket changes, so adds and removes are O(1) for in-order data
+ * and listing only re-examines buckets touched since the last call.
+ * Synchronized because listing refreshes the cache under FinanceService's shared read lock.
+ */
+final class RecurringDetector {
+    static final int MIN_OCCURRENCES = 3;
+    static final int MIN_PERIOD_DAYS = 5;
+    static final int MAX_PERIOD_DAYS = 400;
+    // Amounts within about this ratio of each other usually share a band
+    static final double AMOUNT_TOLERANCE = 0.10;
+    private static final double LOG_BAND_WIDTH = Math.log1p(AMOUNT_TOLERANCE);
+
+    private final Map<BucketKey, Bucket> buckets = new HashMap<>();
+
+    synchronized void add(Transaction transaction) {
+        buckets.computeIfAbsent(keyOf(transaction), Bucket::new).add(transaction);
+    }
+
+    synchronized void remove(Transaction transaction) {
+        BucketKey key = keyOf(transaction);
+        Bucket bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(transaction) && bucket.size == 0) {
+            buckets.remove(key);
+        }
+    }
+
+    synchronized void removeAccount(String accountId) {
+        buckets.keySet().removeIf(key -> key.accountId.equals(accountId));
+    }
+
+    /**
+     * Recurring series still active on the given date, soonest next occurrence first
+     */
+    synchronized List<RecurringSeries> active(LocalDate asOf) {
+        List<RecurringSeries> active = new ArrayList<>();
+        for (Bucket bucket : buckets.values()) {
+            RecurringSeries series = bucket.series();
+            if (series != null && series.isActiveOn(asOf)) {
+                active.add(series);
+            }
+        }
+        active.sort(Comparator.comparing(RecurringSeries::getNextExpectedDate)
+                              .thenComparing(RecurringSeries::getMerchant));
+        return active;
+    }
+
+    private static BucketKey keyOf(Transaction transaction) {
+        int band = (int) Math.round(Math.log(Math.max(1, transaction.getAmountCents())) / LOG_BAND_WIDTH);
+        return new BucketKey(transaction.getAccountId(), transaction.getType(),
+                             DescriptionNormalizer.normalize(transaction.getDescription()), band);
+    }
+
+    private static final class BucketKey {
+        private final String accountId;
+        private final TransactionType type;
+        private final String merchant;
+        private final int amountBand;
+
+        BucketKey(String accountId, TransactionType type, String merchant, int amountBand) {
+            this.accountId = accountId;
+            this.type = type;
+            this.merchant = merchant;
+            this.amountBand = amountBand;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BucketKey)) return false;
+            BucketKey that = (BucketKey) o;
+            return amountBand == that.amountBand && type == that.type &&
+                   accountId.equals(that.accountId) && merchant.equals(that.merchant);
+        }
+
+        @Override
+        public int hashCode() {
+            // Written out to avoid boxing and a varargs array on every add
+            int hash = accountId.hashCode();
+            hash = 31 * hash + type.hashCode();
+            hash = 31 * hash + merchant.hashCode();
+            return 31 * hash + amountBand;
+        }
+    }
+
+    private static final class Bucket {
+        private final BucketKey key;
+        // Epoch days of the occurrences, ascending; ints keep ten million rows compact
+        private int[] days = new int[4];
+        private int size;
+        private long totalCents;
+        private boolean dirty;
+        private RecurringSeries cached;
+
+        Bucket(BucketKey key) {
+            this.key = key;
+        }
+
+        void add(Transaction transaction) {
+            int day = (int) transaction.getDate().toLocalDate().toEpochDay();
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+            }
+            // Usually appends; a backdated row shifts only the days after it
+            int index = size;
+            while (index > 0 && days[index - 1] > day) {
+                index--;
+            }
+            System.arraycopy(days, index, days, index + 1, size - index);
+            days[index] = day;
+            size++;
+            totalCents += transaction.getAmountCents();
+            dirty = true;
+        }
+
+        boolean remove(Transaction transaction) {
+            int day = (int) transaction.getDate().toLocalDate().toEpochDay();
+            int index = Arrays.binarySearch(days, 0, size, day);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(days, index + 1, days, index, size - index - 1);
+            size--;
+            totalCents -= transaction.getAmountCents();
+            dirty = true;
+            return true;
+        }
+
+        RecurringSeries series() {
+            if (dirty) {
+                cached = detect();
+                dirty = false;
+            }
+            return cached;
+        }
+
+        private RecurringSeries detect() {
+            if (size < MIN_OCCURRENCES) {
+                return null;
+            }
+            int[] gaps = new int[size - 1];
+            for (int i = 1; i < size; i++) {
+                gaps[i - 1] = days[i] - days[i - 1];
+            }
+            int[] sortedGaps = gaps.clone();
+            Arrays.sort(sortedGaps);
+            int period = sortedGaps[sortedGaps.length / 2];
+            if (period < MIN_PERIOD_DAYS || period > MAX_PERIOD_DAYS) {
+                return null;
+            }
+            int[] deviations = new int[gaps.length];
+            for (int i = 0; i < gaps.length; i++) {
+                deviations[i] = Math.abs(gaps[i] - period);
+            }
+            Arrays.sort(deviations);
+            int jitter = deviations[deviations.length / 2];
+            // Regular enough to call recurring: a few days' slack, or 15% for long periods
+            if (jitter > Math.max(3, period * 15 / 100)) {
+                return null;
+            }
+            return new RecurringSeries(key.accountId, key.merchant, key.type, totalCents / size,
+                                       period, jitter, size, LocalDate.ofEpochDay(days[size - 1]));
+        }
+    }
+}
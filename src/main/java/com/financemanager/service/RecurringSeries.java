@@ -0,0 +1,60 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+import com.financemanager.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A detected recurring payment or deposit, such as a subscription, rent or salary
+ */
+public final class RecurringSeries {
+    private final String accountId;
+    private final String merchant;
+    private final TransactionType type;
+    private final long typicalAmountCents;
+    private final int periodDays;
+    private final int jitterDays;
+    private final int occurrences;
+    private final LocalDate lastDate;
+
+    RecurringSeries(String accountId, String merchant, TransactionType type, long typicalAmountCents,
+                    int periodDays, int jitterDays, int occurrences, LocalDate lastDate) {
+        this.accountId = accountId;
+        this.merchant = merchant;
+        this.type = type;
+        this.typicalAmountCents = typicalAmountCents;
+        this.periodDays = periodDays;
+        this.jitterDays = jitterDays;
+        this.occurrences = occurrences;
+        this.lastDate = lastDate;
+    }
+
+    public String getAccountId() { return accountId; }
+    /** Normalized description shared by the occurrences */
+    public String getMerchant() { return merchant; }
+    public TransactionType getType() { return type; }
+    /** Mean amount of the occurrences */
+    public BigDecimal getTypicalAmount() { return Money.fromCents(typicalAmountCents); }
+    /** Median number of days between occurrences */
+    public int getPeriodDays() { return periodDays; }
+    /** Median deviation of the intervals from the period, in days */
+    public int getJitterDays() { return jitterDays; }
+    public int getOccurrences() { return occurrences; }
+    public LocalDate getLastDate() { return lastDate; }
+    public LocalDate getNextExpectedDate() { return lastDate.plusDays(periodDays); }
+
+    /**
+     * Still active unless the next occurrence is overdue by more than half a period plus jitter
+     */
+    public boolean isActiveOn(LocalDate date) {
+        return !date.isAfter(getNextExpectedDate().plusDays(periodDays / 2 + jitterDays));
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringSeries{merchant='" + merchant + "', amount=" + getTypicalAmount() +
+               ", every " + periodDays + " days, next=" + getNextExpectedDate() + "}";
+    }
+}
@@ -0,0 +1,289 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.AccountType;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps a read-only copy of a ReplicationLeader's FinanceService for analytics and search
+ * The replica is seeded from the leader's snapshot and then follows its mutation log. Queries
+ * go to getReplica(); the replica must not be written to, since the next re-seed replaces it.
+ * A re-seed builds a new FinanceService and swaps it in once complete, so readers never see a
+ * half-loaded ledger. Reports on the replica convert with the leader's reporting currency and
+ * FX rates; budgets and categorization rules stay with the leader. The follower does not
+ * reconnect by itself; after a disconnect getFailure
+ * says why, and a new follower starts again from a snapshot.
+ */
+public class ReplicationFollower implements AutoCloseable {
+    private static final int SOCKET_BUFFER_BYTES = 64 * 1024;
+
+    private final InetSocketAddress leaderAddress;
+    private final Object progress = new Object();
+    private Socket socket;
+    private volatile FinanceService replica;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    // Guarded by progress
+    private long appliedSequence = -1;
+    private long appliedCumulative;
+    private long appliedMillis;
+    private long leaderSequence;
+    private long leaderCumulative;
+    private long leaderMillis;
+
+    public ReplicationFollower(String host, int port) {
+        this.leaderAddress = new InetSocketAddress(host, port);
+    }
+
+    /**
+     * Connects to the leader and starts applying its stream on a background thread
+     */
+    public void start() throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(leaderAddress);
+        Thread reader = new Thread(this::follow, "replication-follower-" + socket.getLocalPort());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * The replica for queries; treat it as read-only
+     */
+    public FinanceService getReplica() {
+        FinanceService current = replica;
+        if (current == null) {
+            throw new IllegalStateException("No snapshot has been received from the leader yet");
+        }
+        return current;
+    }
+
+    public boolean isSeeded() {
+        return replica != null;
+    }
+
+    public ReplicationLag getLag() {
+        synchronized (progress) {
+            long sequence = Math.max(leaderSequence, appliedSequence);
+            long transactions = Math.max(0, leaderCumulative - appliedCumulative);
+            long millis = appliedSequence >= sequence ? 0 : Math.max(0, leaderMillis - appliedMillis);
+            return new ReplicationLag(appliedSequence, sequence, transactions, millis);
+        }
+    }
+
+    /**
+     * Waits until the replica has applied the given leader sequence, for instance the
+     * leader's getHeadSequence() after a write; false if the timeout passed first
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            while (appliedSequence < sequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || failure != null || closed) {
+                    return false;
+                }
+                progress.wait(Math.max(1, remaining / 1_000_000));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Why the stream stopped, or null while it is running
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException ignored) {
+            // Already closed
+        }
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    private void follow() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), SOCKET_BUFFER_BYTES))) {
+            while (!closed) {
+                byte type = in.readByte();
+                int length = in.readInt();
+                switch (type) {
+                    case ReplicationLeader.FRAME_SNAPSHOT:
+                        loadSnapshot(in);
+                        break;
+                    case ReplicationLeader.FRAME_ENTRIES:
+                        readLeaderHead(in);
+                        int count = in.readInt();
+                        for (int i = 0; i < count; i++) {
+                            applyEntry(in);
+                        }
+                        break;
+                    case ReplicationLeader.FRAME_HEARTBEAT:
+                        readLeaderHead(in);
+                        break;
+                    default:
+                        in.skipNBytes(length);
+                }
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } finally {
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void loadSnapshot(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        long cumulative = in.readLong();
+        long snapshotMillis = in.readLong();
+        FinanceService seeded = new FinanceService();
+        int accountCount = in.readInt();
+        for (int i = 0; i < accountCount; i++) {
+            seeded.addAccount(readAccount(in));
+        }
+        seeded.addTransactions(readTransactions(in));
+        seeded.setReportingCurrency(Currency.getInstance(in.readUTF()));
+        seeded.setFxRates(FxRateTable.readFrom(in));
+        replica = seeded;
+        synchronized (progress) {
+            appliedSequence = sequence;
+            appliedCumulative = cumulative;
+            appliedMillis = snapshotMillis;
+        }
+    }
+
+    private void readLeaderHead(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        long cumulative = in.readLong();
+        long millis = in.readLong();
+        synchronized (progress) {
+            if (sequence >= leaderSequence) {
+                leaderSequence = sequence;
+                leaderCumulative = cumulative;
+                leaderMillis = millis;
+            }
+        }
+    }
+
+    /**
+     * Applies one logged batch in its original order; consecutive adds go in as one batch
+     */
+    private void applyEntry(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        long entryMillis = in.readLong();
+        long cumulative = in.readLong();
+        int mutationCount = in.readInt();
+        byte[] kinds = new byte[mutationCount];
+        Object[] operands = new Object[mutationCount];
+        for (int i = 0; i < mutationCount; i++) {
+            kinds[i] = in.readByte();
+            switch (kinds[i]) {
+                case ReplicationLeader.ACCOUNT_ADDED:
+                    operands[i] = readAccount(in);
+                    break;
+                case ReplicationLeader.ACCOUNT_REMOVED:
+                case ReplicationLeader.TRANSACTION_DELETED:
+                    operands[i] = in.readUTF();
+                    break;
+                default:
+                    break;
+            }
+        }
+        List<Transaction> carried = readTransactions(in);
+        synchronized (progress) {
+            if (sequence <= appliedSequence) {
+                return;
+            }
+        }
+
+        FinanceService target = replica;
+        Iterator<Transaction> transactions = carried.iterator();
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < mutationCount; i++) {
+            if (kinds[i] == ReplicationLeader.TRANSACTION_ADDED) {
+                added.add(transactions.next());
+                continue;
+            }
+            if (!added.isEmpty()) {
+                target.addTransactions(added);
+                added = new ArrayList<>();
+            }
+            switch (kinds[i]) {
+                case ReplicationLeader.ACCOUNT_ADDED:
+                    target.addAccount((Account) operands[i]);
+                    break;
+                case ReplicationLeader.ACCOUNT_REMOVED:
+                    target.removeAccount((String) operands[i]);
+                    break;
+                case ReplicationLeader.TRANSACTION_UPDATED:
+                    target.updateTransaction(transactions.next());
+                    break;
+                case ReplicationLeader.TRANSACTION_DELETED:
+                    target.deleteTransaction((String) operands[i]);
+                    break;
+                default:
+                    throw new IOException("Unknown replicated mutation " + kinds[i]);
+            }
+        }
+        if (!added.isEmpty()) {
+            target.addTransactions(added);
+        }
+        synchronized (progress) {
+            appliedSequence = sequence;
+            appliedCumulative = cumulative;
+            appliedMillis = entryMillis;
+        }
+    }
+
+    private static Account readAccount(DataInput in) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        AccountType type = AccountType.valueOf(in.readUTF());
+        Currency currency = Currency.getInstance(in.readUTF());
+        String description = in.readBoolean() ? in.readUTF() : null;
+        Account account = new Account(id, name, type, Money.fromCents(in.readLong()), currency);
+        account.setDescription(description);
+        return account;
+    }
+
+    private static List<Transaction> readTransactions(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == 0) {
+            return List.of();
+        }
+        byte[] batch = new byte[length];
+        in.readFully(batch);
+        return TransactionCodec.decode(ByteBuffer.wrap(batch));
+    }
+}
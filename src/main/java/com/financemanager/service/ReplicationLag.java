@@ -0,0 +1,36 @@
+package com.financemanager.service;
+
+/**
+ * How far a replica trails its leader, as last reported over the replication stream
+ * Transactions counts the transaction adds, updates and deletes the leader has logged but the
+ * replica has not applied. Millis is the leader-clock time between the newest logged batch and
+ * the newest applied one, so it does not depend on the two machines' clocks agreeing.
+ */
+public final class ReplicationLag {
+    private final long appliedSequence;
+    private final long leaderSequence;
+    private final long transactions;
+    private final long millis;
+
+    ReplicationLag(long appliedSequence, long leaderSequence, long transactions, long millis) {
+        this.appliedSequence = appliedSequence;
+        this.leaderSequence = leaderSequence;
+        this.transactions = transactions;
+        this.millis = millis;
+    }
+
+    public long getAppliedSequence() { return appliedSequence; }
+    public long getLeaderSequence() { return leaderSequence; }
+    public long getTransactions() { return transactions; }
+    public long getMillis() { return millis; }
+
+    public boolean isCaughtUp() {
+        return appliedSequence >= leaderSequence;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplicationLag{applied=%d, leader=%d, transactions=%d, millis=%d}",
+            appliedSequence, leaderSequence, transactions, millis);
+    }
+}
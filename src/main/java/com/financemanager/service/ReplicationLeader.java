@@ -0,0 +1,371 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+
+/**
+ * Streams a FinanceService's mutation log to ReplicationFollowers over plain TCP
+ * The leader subscribes to the service's change feed and appends every batch to an in-memory
+ * log, encoded once for all followers. A follower that connects is first sent a snapshot taken
+ * under the service's read lock, then every logged batch after the snapshot's sequence.
+ * Each follower has its own sender thread, which packs whatever has accumulated since its last
+ * write into one frame (up to MAX_ENTRIES_PER_FRAME batches), so a slow follower catches up in
+ * large frames rather than one round trip per write. Idle connections get a heartbeat carrying
+ * the log head, from which followers compute their lag. A follower whose position has dropped
+ * out of the log (it fell a full log behind, or the leader's own subscription missed batches)
+ * is re-seeded with a fresh snapshot, as is every follower when the leader's reporting
+ * currency or FX rates are replaced. Budgets and categorization rules are not replicated:
+ * transactions arrive with the categories the leader assigned, and budget alerts are raised
+ * on the leader only. Errors that end a follower's stream or stop accepting are kept for
+ * getFailure.
+ * <p>
+ * Wire format: frames of a type byte, an int length and a payload. Log entries carry their
+ * sequence, the leader's clock when logged, the running count of transaction mutations, the
+ * account mutations inline, and the added or updated transactions as one TransactionCodec batch.
+ */
+public class ReplicationLeader implements AutoCloseable {
+    static final byte FRAME_SNAPSHOT = 1;
+    static final byte FRAME_ENTRIES = 2;
+    static final byte FRAME_HEARTBEAT = 3;
+
+    static final byte ACCOUNT_ADDED = 1;
+    static final byte ACCOUNT_REMOVED = 2;
+    static final byte TRANSACTION_ADDED = 3;
+    static final byte TRANSACTION_UPDATED = 4;
+    static final byte TRANSACTION_DELETED = 5;
+
+    static final int MAX_ENTRIES_PER_FRAME = 512;
+    static final long HEARTBEAT_MILLIS = 100;
+    private static final long SNAPSHOT_WAIT_MILLIS = 1_000;
+    private static final int SOCKET_BUFFER_BYTES = 64 * 1024;
+
+    private final FinanceService service;
+    private final ServerSocket serverSocket;
+    private final ReplicationLog log;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private final LogSubscriber subscriber = new LogSubscriber();
+    private final Thread acceptor;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    /**
+     * Listens on the loopback interface; port 0 picks a free port
+     */
+    public ReplicationLeader(FinanceService service, int port) throws IOException {
+        this(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public ReplicationLeader(FinanceService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.log = new ReplicationLog(ReplicationLog.DEFAULT_CAPACITY);
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        // Subscribed before the sequence is read, so every batch after it reaches the log
+        service.getChangeFeed().subscribe(subscriber);
+        log.start(service.changeSequence());
+        this.acceptor = new Thread(this::acceptFollowers, "replication-leader-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    /**
+     * Sequence of the latest write; a follower that has applied it reflects every write so far
+     */
+    public long getHeadSequence() {
+        return service.changeSequence();
+    }
+
+    /**
+     * The latest error that stopped the leader accepting followers or ended a follower's
+     * stream, or null if there was none
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        subscriber.cancel();
+        log.close();
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Already closing
+        }
+        for (Socket socket : followers) {
+            closeQuietly(socket);
+        }
+    }
+
+    private void acceptFollowers() {
+        int connections = 0;
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                Thread sender = new Thread(() -> serve(socket), "replication-sender-" + ++connections);
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    failure = e;
+                }
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream(), SOCKET_BUFFER_BYTES))) {
+            long position = -1;
+            ReplicationSnapshot seeded = null;
+            while (!closed) {
+                if (position < 0) {
+                    seeded = sendSnapshot(out);
+                    position = seeded != null ? seeded.sequence : -1;
+                } else if (service.getFxRates() != seeded.fxRates
+                        || !service.getReportingCurrency().equals(seeded.reportingCurrency)) {
+                    position = -1;
+                    continue;
+                } else {
+                    List<ReplicationLog.Entry> entries = log.entriesAfter(position, MAX_ENTRIES_PER_FRAME, HEARTBEAT_MILLIS);
+                    if (entries == null) {
+                        position = -1;
+                        continue;
+                    }
+                    if (entries.isEmpty()) {
+                        // Idle while the service is ahead: the last batches may have been dropped
+                        long latest = service.changeSequence();
+                        if (latest > position && !log.catchUp(latest, SNAPSHOT_WAIT_MILLIS)) {
+                            position = -1;
+                            continue;
+                        }
+                        sendHeartbeat(out);
+                    } else {
+                        sendEntries(out, entries);
+                        position = entries.get(entries.size() - 1).sequence;
+                    }
+                }
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // The follower disconnected or the leader closed
+        } catch (IOException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Writes a snapshot frame and returns the snapshot, or null if its sequence has already
+     * fallen out of the log again and another one should be taken
+     */
+    private ReplicationSnapshot sendSnapshot(DataOutputStream out) throws IOException, InterruptedException {
+        ReplicationSnapshot snapshot = service.replicationSnapshot();
+        log.catchUp(snapshot.sequence, SNAPSHOT_WAIT_MILLIS);
+        long cumulative = log.cumulativeThrough(snapshot.sequence);
+        if (cumulative < 0) {
+            return null;
+        }
+        List<Transaction> transactions = new ArrayList<>(snapshot.transactions);
+        // Date order keeps the codec's timestamp deltas small
+        transactions.sort(Comparator.comparing(Transaction::getDate));
+        byte[] batch = TransactionCodec.encode(transactions, true);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.length + snapshot.accounts.size() * 64 + 64);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeLong(snapshot.sequence);
+        payload.writeLong(cumulative);
+        payload.writeLong(System.currentTimeMillis());
+        payload.writeInt(snapshot.accounts.size());
+        for (Account account : snapshot.accounts) {
+            writeAccount(payload, account, Money.toCents(account.getBalance()));
+        }
+        payload.writeInt(batch.length);
+        payload.write(batch);
+        payload.writeUTF(snapshot.reportingCurrency.getCurrencyCode());
+        snapshot.fxRates.writeTo(payload);
+
+        out.writeByte(FRAME_SNAPSHOT);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        return snapshot;
+    }
+
+    private void sendEntries(DataOutputStream out, List<ReplicationLog.Entry> entries) throws IOException {
+        int length = 28;
+        for (ReplicationLog.Entry entry : entries) {
+            length += entry.payload.length;
+        }
+        out.writeByte(FRAME_ENTRIES);
+        out.writeInt(length);
+        writeHead(out);
+        out.writeInt(entries.size());
+        for (ReplicationLog.Entry entry : entries) {
+            out.write(entry.payload);
+        }
+    }
+
+    private void sendHeartbeat(DataOutputStream out) throws IOException {
+        out.writeByte(FRAME_HEARTBEAT);
+        out.writeInt(24);
+        writeHead(out);
+    }
+
+    private void writeHead(DataOutputStream out) throws IOException {
+        ReplicationLog.Head head = log.head();
+        out.writeLong(head.sequence);
+        out.writeLong(head.cumulativeTransactions);
+        out.writeLong(head.leaderMillis);
+    }
+
+    private static void writeAccount(DataOutput out, Account account, long openingCents) throws IOException {
+        out.writeUTF(account.getId());
+        out.writeUTF(account.getName());
+        out.writeUTF(account.getType().name());
+        out.writeUTF(account.getCurrency().getCurrencyCode());
+        out.writeBoolean(account.getDescription() != null);
+        if (account.getDescription() != null) {
+            out.writeUTF(account.getDescription());
+        }
+        out.writeLong(openingCents);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * Encodes each change batch into a log entry as it is delivered; the feed delivers one
+     * batch at a time, so the running transaction count needs no synchronization
+     */
+    private final class LogSubscriber implements Flow.Subscriber<FinanceEventBatch> {
+        private volatile Flow.Subscription subscription;
+        private long cumulativeTransactions;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(FinanceEventBatch batch) {
+            try {
+                log.append(encode(batch));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.close();
+        }
+
+        @Override
+        public void onComplete() {
+            log.close();
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private ReplicationLog.Entry encode(FinanceEventBatch batch) throws IOException {
+            ByteArrayOutputStream mutations = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(mutations);
+            List<Transaction> carried = new ArrayList<>();
+            int mutationCount = 0;
+            int transactionCount = 0;
+            for (FinanceEvent event : batch.getEvents()) {
+                switch (event.getType()) {
+                    case ACCOUNT_ADDED:
+                        out.writeByte(ACCOUNT_ADDED);
+                        writeAccount(out, event.getAccount(), Money.toCents(event.getBalanceDelta()));
+                        break;
+                    case ACCOUNT_REMOVED:
+                        out.writeByte(ACCOUNT_REMOVED);
+                        out.writeUTF(event.getAccountId());
+                        break;
+                    case TRANSACTION_ADDED:
+                        out.writeByte(TRANSACTION_ADDED);
+                        carried.add(event.getTransaction());
+                        transactionCount++;
+                        break;
+                    case TRANSACTION_UPDATED:
+                        out.writeByte(TRANSACTION_UPDATED);
+                        carried.add(event.getTransaction());
+                        transactionCount++;
+                        break;
+                    case TRANSACTION_DELETED:
+                        out.writeByte(TRANSACTION_DELETED);
+                        out.writeUTF(event.getTransaction().getId());
+                        transactionCount++;
+                        break;
+                    default:
+                        // Balance changes, outliers and alerts are derived again by the replica
+                        continue;
+                }
+                mutationCount++;
+            }
+            cumulativeTransactions += transactionCount;
+            long leaderMillis = System.currentTimeMillis();
+            byte[] carriedBatch = carried.isEmpty() ? new byte[0] : TransactionCodec.encode(carried);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(mutations.size() + carriedBatch.length + 32);
+            DataOutputStream entry = new DataOutputStream(bytes);
+            entry.writeLong(batch.getSequence());
+            entry.writeLong(leaderMillis);
+            entry.writeLong(cumulativeTransactions);
+            entry.writeInt(mutationCount);
+            mutations.writeTo(entry);
+            entry.writeInt(carriedBatch.length);
+            entry.write(carriedBatch);
+            return new ReplicationLog.Entry(batch.getSequence(), leaderMillis, cumulativeTransactions,
+                transactionCount, bytes.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.financemanager.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The leader's in-memory mutation log: the most recent change batches, already encoded
+ * Entries are kept in a ring indexed by sequence number, so a follower's position maps
+ * straight to a slot. Sequence numbers are contiguous from base + 1 to head; when the
+ * leader's feed subscription misses batches the log restarts after the gap, and any
+ * follower positioned before the new base has to be re-seeded from a snapshot.
+ */
+final class ReplicationLog {
+    static final int DEFAULT_CAPACITY = 65_536;
+
+    private final Entry[] ring;
+    private long baseSequence;
+    private long baseCumulative;
+    private long headSequence;
+    private long headMillis;
+    private boolean started;
+    private boolean closed;
+
+    ReplicationLog(int capacity) {
+        this.ring = new Entry[capacity];
+    }
+
+    /**
+     * Positions the log after the given sequence; batches delivered before this are held back
+     */
+    synchronized void start(long startSequence) {
+        baseSequence = startSequence;
+        headSequence = startSequence;
+        started = true;
+        notifyAll();
+    }
+
+    synchronized void append(Entry entry) {
+        while (!started && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (entry.sequence <= headSequence) {
+            return;
+        }
+        if (entry.sequence != headSequence + 1) {
+            // Batches were dropped; nothing before this one can be replayed any more
+            baseSequence = entry.sequence - 1;
+            baseCumulative = entry.cumulativeTransactions - entry.transactionCount;
+        } else if (headSequence - baseSequence == ring.length) {
+            baseSequence++;
+            baseCumulative = slot(baseSequence).cumulativeTransactions;
+        }
+        ring[(int) (entry.sequence % ring.length)] = entry;
+        headSequence = entry.sequence;
+        headMillis = entry.leaderMillis;
+        notifyAll();
+    }
+
+    /**
+     * Waits up to timeoutMillis for the feed to deliver the sequence. If it still has not, the
+     * batches up to it were dropped and no later batch has shown the gap yet, so the log
+     * restarts after the sequence; returns false then, as followers positioned before it
+     * have to be re-seeded.
+     */
+    synchronized boolean catchUp(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (headSequence < sequence && !closed) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                baseCumulative = headCumulative();
+                baseSequence = sequence;
+                headSequence = sequence;
+                notifyAll();
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Transaction mutations logged up to and including the sequence; -1 if it is not in the log
+     */
+    synchronized long cumulativeThrough(long sequence) {
+        if (sequence < baseSequence || headSequence < sequence) {
+            return -1;
+        }
+        return sequence == baseSequence ? baseCumulative : slot(sequence).cumulativeTransactions;
+    }
+
+    /**
+     * Up to max entries after the given position, waiting up to timeoutMillis for the first;
+     * an empty list on timeout and null if the position has fallen out of the log
+     */
+    synchronized List<Entry> entriesAfter(long position, int max, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (headSequence <= position && position >= baseSequence && !closed) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return List.of();
+            }
+            wait(remaining);
+        }
+        if (position < baseSequence) {
+            return null;
+        }
+        int count = (int) Math.min(max, headSequence - position);
+        List<Entry> entries = new ArrayList<>(count);
+        for (long sequence = position + 1; sequence <= position + count; sequence++) {
+            entries.add(slot(sequence));
+        }
+        return entries;
+    }
+
+    synchronized Head head() {
+        return new Head(headSequence, headCumulative(), headMillis);
+    }
+
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    private long headCumulative() {
+        return headSequence == baseSequence ? baseCumulative : slot(headSequence).cumulativeTransactions;
+    }
+
+    private Entry slot(long sequence) {
+        return ring[(int) (sequence % ring.length)];
+    }
+
+    /**
+     * One change batch as it goes on the wire, with the leader's clock at logging time and the
+     * running count of transaction mutations, which followers use to report their lag
+     */
+    static final class Entry {
+        final long sequence;
+        final long leaderMillis;
+        final long cumulativeTransactions;
+        final int transactionCount;
+        final byte[] payload;
+
+        Entry(long sequence, long leaderMillis, long cumulativeTransactions, int transactionCount, byte[] payload) {
+            this.sequence = sequence;
+            this.leaderMillis = leaderMillis;
+            this.cumulativeTransactions = cumulativeTransactions;
+            this.transactionCount = transactionCount;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * The newest logged position, read in one step
+     */
+    static final class Head {
+        final long sequence;
+        final long cumulativeTransactions;
+        final long leaderMillis;
+
+        Head(long sequence, long cumulativeTransactions, long leaderMillis) {
+            this.sequence = sequence;
+            this.cumulativeTransactions = cumulativeTransactions;
+            this.leaderMillis = leaderMillis;
+        }
+    }
+}
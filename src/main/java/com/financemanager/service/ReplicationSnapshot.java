@@ -0,0 +1,30 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Transaction;
+
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * A consistent copy of a FinanceService for seeding a replica
+ * Accounts carry their opening balances, so adding them and then the transactions
+ * reproduces the current balances; sequence is the last change batch the copy reflects.
+ * The reporting currency and FX rates come along so the replica's reports convert the same way.
+ */
+final class ReplicationSnapshot {
+    final long sequence;
+    final List<Account> accounts;
+    final List<Transaction> transactions;
+    final Currency reportingCurrency;
+    final FxRateTable fxRates;
+
+    ReplicationSnapshot(long sequence, List<Account> accounts, List<Transaction> transactions,
+                        Currency reportingCurrency, FxRateTable fxRates) {
+        this.sequence = sequence;
+        this.accounts = accounts;
+        this.transactions = transactions;
+        this.reportingCurrency = reportingCurrency;
+        this.fxRates = fxRates;
+    }
+}
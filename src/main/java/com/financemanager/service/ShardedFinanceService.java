@@ -0,0 +1,415 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Account;
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Partitions households across N FinanceService shards, each owned by one writer thread
+ * Accounts are placed by tenant (or by account ID when no tenant is given) and every later
+ * request for an account is routed to its shard's mailbox, a lock-free queue drained in order
+ * by the shard's thread. Shards never share state, so writes to different shards run in
+ * parallel. Queries over all tenants are scattered to every shard and the partial results
+ * combined. Transfers between shards use two-phase commit: both shards vote (the source holds
+ * the funds, both reserve their leg's ID) and the legs are posted only if both vote yes.
+ * Funds held by a prepared debit stay held against other debits until the transfer ends.
+ * Reads across shards are not a consistent snapshot; a scatter-gather running during a
+ * cross-shard transfer may see one leg without the other.
+ */
+public class ShardedFinanceService implements AutoCloseable {
+    private final Shard[] shards;
+    private final Map<String, Shard> accountShards = new ConcurrentHashMap<>();
+    private final TransactionService transactionService = new TransactionService();
+
+    public ShardedFinanceService(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    public ShardedFinanceService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Index of the shard that holds the tenant's accounts
+     */
+    public int shardOf(String tenantId) {
+        return shardFor(tenantId).index;
+    }
+
+    /**
+     * Adds an account on the tenant's shard, so a household's accounts stay together
+     * and transfers within it need no coordination
+     */
+    public CompletableFuture<Void> addAccount(String tenantId, Account account) {
+        Shard shard = shardFor(tenantId != null ? tenantId : account.getId());
+        // Routed before the write is queued, so requests that follow it land on the same mailbox
+        if (accountShards.putIfAbsent(account.getId(), shard) != null) {
+            return CompletableFuture.failedFuture(
+                new DuplicateIdException("Account with ID " + account.getId() + " already exists"));
+        }
+        return shard.submit(service -> {
+            service.addAccount(account);
+            return (Void) null;
+        }).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                accountShards.remove(account.getId(), shard);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> removeAccount(String accountId) {
+        Shard shard = accountShards.get(accountId);
+        if (shard == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Account with ID " + accountId + " not found"));
+        }
+        return shard.submit(service -> {
+            // A prepared leg must still be postable when the coordinator commits it
+            if (shard.prepared.values().stream().anyMatch(leg -> leg.getAccountId().equals(accountId))) {
+                throw new IllegalStateException("Account " + accountId + " has a transfer in progress");
+            }
+            service.removeAccount(accountId);
+            accountShards.remove(accountId, shard);
+            return (Void) null;
+        });
+    }
+
+    /**
+     * Adds a transaction on its account's shard; fails with IllegalStateException if it is a
+     * debit that would spend funds held for a transfer in progress
+     */
+    public CompletableFuture<Void> addTransaction(Transaction transaction) {
+        Shard shard = accountShards.get(transaction.getAccountId());
+        if (shard == null) {
+            return CompletableFuture.failedFuture(
+                new IllegalArgumentException("Account with ID " + transaction.getAccountId() + " not found"));
+        }
+        return shard.submit(service -> {
+            shard.checkHeldFunds(List.of(transaction));
+            service.addTransaction(transaction);
+            return null;
+        });
+    }
+
+    /**
+     * Adds a batch split by shard; each shard's part is atomic, the batch as a whole is not.
+     * A shard's part is refused if its debits would spend funds held for a transfer.
+     */
+    public CompletableFuture<Void> addTransactions(Collection<Transaction> batch) {
+        Map<Shard, List<Transaction>> byShard = new LinkedHashMap<>();
+        for (Transaction transaction : batch) {
+            Shard shard = accountShards.get(transaction.getAccountId());
+            if (shard == null) {
+                return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Account not found for transaction " + transaction.getId()));
+            }
+            byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(transaction);
+        }
+        CompletableFuture<?>[] parts = byShard.entrySet().stream()
+            .map(entry -> entry.getKey().submit(service -> {
+                entry.getKey().checkHeldFunds(entry.getValue());
+                service.addTransactions(entry.getValue());
+                return null;
+            }))
+            .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(parts);
+    }
+
+    /**
+     * Runs an operation on the shard that holds the account, on that shard's writer thread.
+     * The operation may change the account in ways that cannot be checked against funds held
+     * for a transfer, so it fails with IllegalStateException while the account has such funds.
+     */
+    public <T> CompletableFuture<T> withAccount(String accountId, Function<FinanceService, T> operation) {
+        Shard shard = accountShards.get(accountId);
+        if (shard == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Account with ID " + accountId + " not found"));
+        }
+        return shard.submit(service -> {
+            if (shard.heldCents.containsKey(accountId)) {
+                throw new IllegalStateException("Account " + accountId + " has a transfer in progress");
+            }
+            return operation.apply(service);
+        });
+    }
+
+    /**
+     * Runs a query on every shard in parallel and collects the results in shard order
+     */
+    public <T> CompletableFuture<List<T>> scatter(Function<FinanceService, T> query) {
+        List<CompletableFuture<T>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            parts.add(shard.submit(query));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<T> results = new ArrayList<>(parts.size());
+            for (CompletableFuture<T> part : parts) {
+                results.add(part.join());
+            }
+            return results;
+        });
+    }
+
+    public CompletableFuture<BigDecimal> getTotalBalance() {
+        return scatter(FinanceService::getTotalBalance)
+            .thenApply(totals -> totals.stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    public CompletableFuture<Map<Category, BigDecimal>> getExpensesByCategory(Month month, int year) {
+        return scatter(service -> service.getExpensesByCategory(month, year)).thenApply(parts -> {
+            Map<Category, BigDecimal> merged = new EnumMap<>(Category.class);
+            for (Map<Category, BigDecimal> part : parts) {
+                part.forEach((category, amount) -> merged.merge(category, amount, BigDecimal::add));
+            }
+            return merged;
+        });
+    }
+
+    /**
+     * Moves money between two accounts under the given transfer ID. Within one shard both legs
+     * are added in one batch; across shards the legs go through prepare and commit. The future
+     * fails with IllegalStateException, and nothing is posted, if either side votes no: an
+     * unknown account, a reused transfer ID, insufficient funds or different currencies.
+     */
+    public CompletableFuture<Void> transfer(String transferId, String fromAccountId, String toAccountId,
+                                            BigDecimal amount, String description) {
+        Transaction[] legs = transactionService.createTransfer(transferId, fromAccountId, toAccountId, amount, description);
+        Shard source = accountShards.get(fromAccountId);
+        Shard target = accountShards.get(toAccountId);
+        if (source == null || target == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                "Account with ID " + (source == null ? fromAccountId : toAccountId) + " not found"));
+        }
+        if (source == target) {
+            return source.submit(service -> {
+                Vote debit = source.prepare(legs[0], true);
+                Vote credit = source.prepare(legs[1], false);
+                source.release(legs[0]);
+                source.release(legs[1]);
+                String refusal = refusal(debit, credit);
+                if (refusal != null) {
+                    throw new IllegalStateException(refusal);
+                }
+                service.addTransactions(List.of(legs));
+                return null;
+            });
+        }
+
+        // Phase one: both shards vote in parallel
+        CompletableFuture<Vote> debitVote = source.submit(service -> source.prepare(legs[0], true));
+        CompletableFuture<Vote> creditVote = target.submit(service -> target.prepare(legs[1], false));
+        return debitVote.thenCombine(creditVote, ShardedFinanceService::refusal).thenCompose(refusal -> {
+            // Phase two: post both legs, or release whatever either side holds
+            if (refusal != null) {
+                source.submit(service -> source.release(legs[0]));
+                target.submit(service -> target.release(legs[1]));
+                return CompletableFuture.failedFuture(new IllegalStateException(refusal));
+            }
+            return CompletableFuture.allOf(source.submit(service -> source.commit(legs[0])),
+                target.submit(service -> target.commit(legs[1])));
+        });
+    }
+
+    private static String refusal(Vote debit, Vote credit) {
+        if (debit.refusal != null) {
+            return debit.refusal;
+        }
+        if (credit.refusal != null) {
+            return credit.refusal;
+        }
+        if (!debit.currency.equals(credit.currency)) {
+            return "Cannot transfer between " + debit.currency + " and " + credit.currency + " accounts";
+        }
+        return null;
+    }
+
+    /**
+     * Stops the shard threads after they finish the requests already queued
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Shard shardFor(String key) {
+        // Spread the hash so tenants with similar names do not cluster on one shard
+        int hash = key.hashCode() * 0x9E3779B9;
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    /**
+     * A prepare-phase answer: null refusal for yes, with the account's currency
+     */
+    private static final class Vote {
+        final String refusal;
+        final Currency currency;
+
+        Vote(String refusal, Currency currency) {
+            this.refusal = refusal;
+            this.currency = currency;
+        }
+    }
+
+    /**
+     * One FinanceService and the thread that owns it. Prepared transfer state lives here and
+     * is only touched from the shard's thread, so it needs no locking.
+     */
+    private static final class Shard {
+        final int index;
+        final FinanceService service = new FinanceService();
+        final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+        // Funds held by prepared debits per account, and leg IDs reserved by prepared transfers
+        final Map<String, long[]> heldCents = new HashMap<>();
+        final Map<String, Transaction> prepared = new HashMap<>();
+        volatile boolean running = true;
+
+        Shard(int index) {
+            this.index = index;
+            this.thread = new Thread(this::run, "finance-shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        <T> CompletableFuture<T> submit(Function<FinanceService, T> operation) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            if (!running) {
+                result.completeExceptionally(new IllegalStateException("Sharded service is closed"));
+                return result;
+            }
+            Runnable task = () -> {
+                try {
+                    result.complete(operation.apply(service));
+                } catch (Throwable e) {
+                    // An Error too must reach the caller; left uncaught it would end the shard's
+                    // thread and leave this and every later future on the shard pending forever
+                    result.completeExceptionally(e);
+                }
+            };
+            mailbox.offer(task);
+            // Closed after the check above: the thread may have drained the mailbox for the last
+            // time, so the task fails here unless the thread has already taken it
+            if (!running && mailbox.remove(task)) {
+                result.completeExceptionally(new IllegalStateException("Sharded service is closed"));
+                return result;
+            }
+            LockSupport.unpark(thread);
+            return result;
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        private void run() {
+            while (true) {
+                Runnable task = mailbox.poll();
+                if (task != null) {
+                    task.run();
+                } else if (running) {
+                    LockSupport.park(this);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        Vote prepare(Transaction leg, boolean debit) {
+            Optional<Account> account = service.getAccount(leg.getAccountId());
+            if (account.isEmpty()) {
+                return new Vote("Account with ID " + leg.getAccountId() + " not found", null);
+            }
+            if (prepared.containsKey(leg.getId()) || service.getTransaction(leg.getId()).isPresent()) {
+                return new Vote("Transaction with ID " + leg.getId() + " already exists", null);
+            }
+            if (debit) {
+                long[] held = heldCents.computeIfAbsent(leg.getAccountId(), id -> new long[1]);
+                long available = Money.roundToCents(account.get().getBalance()) - held[0];
+                if (available < leg.getAmountCents()) {
+                    if (held[0] == 0) {
+                        heldCents.remove(leg.getAccountId());
+                    }
+                    return new Vote("Insufficient funds in account " + leg.getAccountId(), null);
+                }
+                held[0] += leg.getAmountCents();
+            }
+            prepared.put(leg.getId(), leg);
+            return new Vote(null, account.get().getCurrency());
+        }
+
+        /**
+         * Refuses debits that would leave an account with less than the funds held on it by
+         * prepared transfers; accounts with nothing held are not checked
+         */
+        void checkHeldFunds(Collection<Transaction> batch) {
+            if (heldCents.isEmpty()) {
+                return;
+            }
+            Map<String, long[]> debits = new HashMap<>();
+            for (Transaction transaction : batch) {
+                if (transaction.isExpense() && heldCents.containsKey(transaction.getAccountId())) {
+                    debits.computeIfAbsent(transaction.getAccountId(), id -> new long[1])[0] += transaction.getAmountCents();
+                }
+            }
+            for (Map.Entry<String, long[]> debit : debits.entrySet()) {
+                Optional<Account> account = service.getAccount(debit.getKey());
+                long available = account.map(a -> Money.roundToCents(a.getBalance())).orElse(0L)
+                    - heldCents.get(debit.getKey())[0];
+                if (available < debit.getValue()[0]) {
+                    throw new IllegalStateException("Insufficient funds in account " + debit.getKey()
+                        + " while a transfer holds part of its balance");
+                }
+            }
+        }
+
+        Void commit(Transaction leg) {
+            release(leg);
+            service.addTransaction(leg);
+            return null;
+        }
+
+        /**
+         * Drops a prepared leg and its held funds; a no-op for legs that were never prepared
+         */
+        Void release(Transaction leg) {
+            if (prepared.remove(leg.getId()) != null && leg.isExpense()) {
+                long[] held = heldCents.get(leg.getAccountId());
+                held[0] -= leg.getAmountCents();
+                if (held[0] == 0) {
+                    heldCents.remove(leg.getAccountId());
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.financemanager.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter sketch over weighted string keys
+ * Tracks at most capacity keys. A new key that arrives when the sketch is full takes over
+ * the counter with the smallest weight and inherits that weight as its error, so every
+ * estimate overcounts by at most its error and any key heavier than total/capacity is
+ * guaranteed to be tracked. Counters sit in an indexed min-heap, so each update is O(log capacity).
+ * Retracting weight lowers a tracked key's counter; evicted weights are remembered as a floor,
+ * so the bound on untracked keys still holds after counters go down.
+ */
+final class SpaceSavingSketch {
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+    private long totalWeight;
+    // Heaviest counter ever evicted: no untracked key can weigh more
+    private long evictedFloor;
+
+    SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Sketch capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    long getTotalWeight() { return totalWeight; }
+
+    /**
+     * Most weight an untracked key can have had: the lightest counter once the sketch is full
+     */
+    long untrackedBound() {
+        return size < capacity ? 0 : Math.max(evictedFloor, heap[0].weight);
+    }
+
+    void offer(String key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        totalWeight += weight;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.weight += weight;
+            siftDown(counter.heapIndex);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(key, weight, 0);
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.heapIndex);
+            return;
+        }
+        // Evict the lightest key; the newcomer may have occurred up to that many times unseen
+        Counter lightest = heap[0];
+        counters.remove(lightest.key);
+        evictedFloor = Math.max(evictedFloor, lightest.weight);
+        lightest.key = key;
+        lightest.error = evictedFloor;
+        lightest.weight = evictedFloor + weight;
+        counters.put(key, lightest);
+        siftDown(0);
+    }
+
+    /**
+     * Takes back weight an earlier offer added. A tracked key's counter drops by it, which keeps
+     * it an overestimate; an untracked key is already covered by untrackedBound.
+     */
+    void retract(String key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        totalWeight -= weight;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            return;
+        }
+        counter.weight = Math.max(0, counter.weight - weight);
+        counter.error = Math.min(counter.error, counter.weight);
+        siftUp(counter.heapIndex);
+    }
+
+    /**
+     * The k heaviest keys, heaviest first; keys whose weight was all retracted are left out
+     */
+    List<HeavyHitter> top(int k) {
+        List<Counter> sorted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (heap[i].weight > 0) {
+                sorted.add(heap[i]);
+            }
+        }
+        sorted.sort((a, b) -> a.weight != b.weight ? Long.compare(b.weight, a.weight) : a.key.compareTo(b.key));
+        List<HeavyHitter> top = new ArrayList<>(Math.min(k, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < k; i++) {
+            Counter counter = sorted.get(i);
+            top.add(new HeavyHitter(counter.key, counter.weight, counter.error));
+        }
+        return top;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].weight <= counter.weight) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].weight < heap[child].weight) {
+                child++;
+            }
+            if (counter.weight <= heap[child].weight) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.heapIndex = index;
+    }
+
+    private static final class Counter {
+        private String key;
+        private long weight;
+        private long error;
+        private int heapIndex;
+
+        Counter(String key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+    }
+}
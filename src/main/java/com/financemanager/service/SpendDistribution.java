@@ -0,0 +1,46 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Approximate distribution of transaction amounts read from a quantile sketch
+ * Median, p90 and p99 are fixed when the distribution is taken, so reading them is O(1);
+ * values are within about one percent of rank of the exact answer.
+ */
+public final class SpendDistribution {
+    private final long count;
+    private final long minCents;
+    private final long medianCents;
+    private final long p90Cents;
+    private final long p99Cents;
+    private final long maxCents;
+
+    private SpendDistribution(long count, long minCents, long medianCents, long p90Cents, long p99Cents, long maxCents) {
+        this.count = count;
+        this.minCents = minCents;
+        this.medianCents = medianCents;
+        this.p90Cents = p90Cents;
+        this.p99Cents = p99Cents;
+        this.maxCents = maxCents;
+    }
+
+    static SpendDistribution of(KllSketch sketch) {
+        return new SpendDistribution(sketch.getCount(), sketch.quantile(0), sketch.quantile(0.5),
+                                     sketch.quantile(0.9), sketch.quantile(0.99), sketch.quantile(1));
+    }
+
+    public long getCount() { return count; }
+    public BigDecimal getMin() { return Money.fromCents(minCents); }
+    public BigDecimal getMedian() { return Money.fromCents(medianCents); }
+    public BigDecimal getP90() { return Money.fromCents(p90Cents); }
+    public BigDecimal getP99() { return Money.fromCents(p99Cents); }
+    public BigDecimal getMax() { return Money.fromCents(maxCents); }
+
+    @Override
+    public String toString() {
+        return "SpendDistribution{count=" + count + ", median=" + getMedian() + ", p90=" + getP90() +
+               ", p99=" + getP99() + "}";
+    }
+}
@@ -0,0 +1,124 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Quantile sketches of transaction amounts per category and of spending per account
+ * Sketches grow with every added transaction. They cannot forget a value, so a delete or
+ * edit adds the old value to a tombstone sketch instead. The outlier check on the write path
+ * subtracts the tombstones at query time, which costs the same however large the ledger is;
+ * only the distribution reads rebuild a sketch that has tombstones from the lookup index.
+ * Synchronized because reads under FinanceService's shared read lock may rebuild a sketch
+ * or refresh its sorted view.
+ */
+final class SpendDistributionIndex {
+    // Below this many values a category's p99 is too noisy to flag anything
+    static final int MIN_OUTLIER_SAMPLES = 50;
+    static final double OUTLIER_QUANTILE = 0.99;
+
+    private final TransactionLookupIndex lookupIndex;
+    private final Map<Category, KllSketch> byCategory = new EnumMap<>(Category.class);
+    private final Map<String, KllSketch> spendByAccount = new HashMap<>();
+    // Values deleted since the sketch was last built, kept apart so no write has to rebuild
+    private final Map<Category, KllSketch> removedByCategory = new EnumMap<>(Category.class);
+    private final Map<String, KllSketch> removedByAccount = new HashMap<>();
+    // Per category: [0] cached p99 in cents, [1] net count when it was computed
+    private final Map<Category, long[]> outlierThresholds = new EnumMap<>(Category.class);
+
+    SpendDistributionIndex(TransactionLookupIndex lookupIndex) {
+        this.lookupIndex = lookupIndex;
+    }
+
+    synchronized void add(Transaction transaction) {
+        Category category = transaction.getCategory();
+        if (category != null) {
+            byCategory.computeIfAbsent(category, c -> new KllSketch()).update(transaction.getAmountCents());
+        }
+        if (transaction.isExpense()) {
+            spendByAccount.computeIfAbsent(transaction.getAccountId(), id -> new KllSketch())
+                          .update(transaction.getAmountCents());
+        }
+    }
+
+    synchronized void remove(Transaction transaction) {
+        if (transaction.getCategory() != null) {
+            removedByCategory.computeIfAbsent(transaction.getCategory(), c -> new KllSketch())
+                             .update(transaction.getAmountCents());
+        }
+        if (transaction.isExpense()) {
+            removedByAccount.computeIfAbsent(transaction.getAccountId(), id -> new KllSketch())
+                            .update(transaction.getAmountCents());
+        }
+    }
+
+    /**
+     * Drops the account's own sketch; its transactions must be passed to remove first so
+     * the category sketches forget them
+     */
+    synchronized void removeAccount(String accountId) {
+        spendByAccount.remove(accountId);
+        removedByAccount.remove(accountId);
+    }
+
+    /**
+     * True if the transaction is an expense above its category's 99th percentile so far.
+     * Call before adding the transaction so it is not compared against itself. Never
+     * rebuilds a sketch; while more than half of a category's values are tombstones the
+     * estimate is too rough and nothing is flagged until a read rebuilds it.
+     */
+    synchronized boolean isOutlier(Transaction transaction) {
+        if (!transaction.isExpense() || transaction.getCategory() == null) {
+            return false;
+        }
+        KllSketch sketch = byCategory.get(transaction.getCategory());
+        if (sketch == null) {
+            return false;
+        }
+        KllSketch removed = removedByCategory.get(transaction.getCategory());
+        long removedCount = removed != null ? removed.getCount() : 0;
+        long count = sketch.getCount() - removedCount;
+        if (count < MIN_OUTLIER_SAMPLES || removedCount > count) {
+            return false;
+        }
+        // The p99 moves slowly, so it is recomputed only after the sketch changes by about 1.5%
+        long[] threshold = outlierThresholds.computeIfAbsent(transaction.getCategory(), c -> new long[] { 0, -1 });
+        if (threshold[1] < 0 || Math.abs(count - threshold[1]) > Math.max(16, threshold[1] / 64)) {
+            threshold[0] = removed != null
+                ? sketch.quantileExcluding(removed, OUTLIER_QUANTILE) : sketch.quantile(OUTLIER_QUANTILE);
+            threshold[1] = count;
+        }
+        return transaction.getAmountCents() > threshold[0];
+    }
+
+    synchronized SpendDistribution forCategory(Category category) {
+        if (removedByCategory.remove(category) != null) {
+            KllSketch rebuilt = new KllSketch();
+            for (Transaction transaction : lookupIndex.forCategory(category)) {
+                rebuilt.update(transaction.getAmountCents());
+            }
+            byCategory.put(category, rebuilt);
+            outlierThresholds.remove(category);
+        }
+        KllSketch sketch = byCategory.get(category);
+        return sketch != null && !sketch.isEmpty() ? SpendDistribution.of(sketch) : null;
+    }
+
+    synchronized SpendDistribution forAccount(String accountId) {
+        if (removedByAccount.remove(accountId) != null) {
+            KllSketch rebuilt = new KllSketch();
+            for (Transaction transaction : lookupIndex.forAccount(accountId)) {
+                if (transaction.isExpense()) {
+                    rebuilt.update(transaction.getAmountCents());
+                }
+            }
+            spendByAccount.put(accountId, rebuilt);
+        }
+        KllSketch sketch = spendByAccount.get(accountId);
+        return sketch != null && !sketch.isEmpty() ? SpendDistribution.of(sketch) : null;
+    }
+}
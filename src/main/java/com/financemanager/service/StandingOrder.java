@@ -0,0 +1,100 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Objects;
+
+/**
+ * A payment or transfer that repeats on a fixed calendar period, e.g. rent or salary
+ * Occurrence n falls at start + n × period, computed from the start each time so that
+ * month-end dates do not drift.
+ */
+public final class StandingOrder {
+    public enum Kind {
+        INCOME, EXPENSE, TRANSFER
+    }
+
+    private final String id;
+    private final Kind kind;
+    private final String accountId;
+    private final String toAccountId;
+    private final BigDecimal amount;
+    private final String description;
+    private final Category category;
+    private final LocalDateTime start;
+    private final Period period;
+    private final LocalDateTime end;
+
+    private StandingOrder(String id, Kind kind, String accountId, String toAccountId, BigDecimal amount,
+                          String description, Category category, LocalDateTime start, Period period, LocalDateTime end) {
+        this.id = Objects.requireNonNull(id, "Standing order ID cannot be null");
+        this.kind = kind;
+        this.accountId = Objects.requireNonNull(accountId, "Account ID cannot be null");
+        this.toAccountId = toAccountId;
+        this.amount = Objects.requireNonNull(amount, "Amount cannot be null");
+        this.description = Objects.requireNonNull(description, "Description cannot be null");
+        this.category = category;
+        this.start = Objects.requireNonNull(start, "Start cannot be null");
+        this.period = Objects.requireNonNull(period, "Period cannot be null");
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        this.end = end;
+    }
+
+    public static StandingOrder income(String id, String accountId, BigDecimal amount, String description,
+                                       Category category, LocalDateTime start, Period period) {
+        return new StandingOrder(id, Kind.INCOME, accountId, null, amount, description, category, start, period, null);
+    }
+
+    public static StandingOrder expense(String id, String accountId, BigDecimal amount, String description,
+                                        Category category, LocalDateTime start, Period period) {
+        return new StandingOrder(id, Kind.EXPENSE, accountId, null, amount, description, category, start, period, null);
+    }
+
+    public static StandingOrder transfer(String id, String fromAccountId, String toAccountId, BigDecimal amount,
+                                         String description, LocalDateTime start, Period period) {
+        Objects.requireNonNull(toAccountId, "Target account ID cannot be null");
+        return new StandingOrder(id, Kind.TRANSFER, fromAccountId, toAccountId, amount, description, null, start, period, null);
+    }
+
+    /**
+     * Same order with no occurrences after the given moment
+     */
+    public StandingOrder endingAt(LocalDateTime end) {
+        return new StandingOrder(id, kind, accountId, toAccountId, amount, description, category, start, period, end);
+    }
+
+    public String getId() { return id; }
+    public Kind getKind() { return kind; }
+    /** The account credited or debited; the source account for transfers */
+    public String getAccountId() { return accountId; }
+    public String getToAccountId() { return toAccountId; }
+    public BigDecimal getAmount() { return amount; }
+    public String getDescription() { return description; }
+    public Category getCategory() { return category; }
+    public LocalDateTime getStart() { return start; }
+    public Period getPeriod() { return period; }
+    public LocalDateTime getEnd() { return end; }
+
+    /**
+     * When occurrence n is due, or null if the order has ended by then
+     */
+    public LocalDateTime occurrence(int n) {
+        LocalDateTime due = start.plus(period.multipliedBy(n));
+        return end != null && due.isAfter(end) ? null : due;
+    }
+
+    TransactionType getType() {
+        return kind == Kind.INCOME ? TransactionType.INCOME : TransactionType.EXPENSE;
+    }
+
+    @Override
+    public String toString() {
+        return "StandingOrder{id='" + id + "', kind=" + kind + ", amount=" + amount + ", every " + period + "}";
+    }
+}
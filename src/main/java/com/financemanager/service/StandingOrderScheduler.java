@@ -0,0 +1,207 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts standing orders when they fall due
+ * Orders wait on a hierarchical timing wheel rather than being polled. Whatever falls due is
+ * posted in batches through FinanceService.addTransactions. Occurrences are posted under
+ * deterministic IDs (order ID plus occurrence number) and keep their due date, so restarting
+ * after downtime catches up every missed occurrence exactly once. One ticker thread drives the
+ * wheel however many orders there are.
+ */
+public class StandingOrderScheduler implements AutoCloseable {
+    static final int MAX_BATCH = 10_000;
+
+    private final FinanceService financeService;
+    private final TransactionService transactionService;
+    private final Clock clock;
+    private final long tickMillis;
+    private final TimingWheel<Occurrence> wheel;
+    private final Map<String, StandingOrder> orders = new HashMap<>();
+    private ScheduledExecutorService ticker;
+    private long postedCount;
+    private volatile RuntimeException lastFailure;
+
+    public StandingOrderScheduler(FinanceService financeService, Clock clock, Duration tick) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.financeService = financeService;
+        this.transactionService = financeService.getTransactionService();
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.wheel = new TimingWheel<>(Math.floorDiv(clock.millis(), tickMillis));
+    }
+
+    public StandingOrderScheduler(FinanceService financeService) {
+        this(financeService, Clock.systemDefaultZone(), Duration.ofMinutes(1));
+    }
+
+    /**
+     * Adds an order; occurrences already in the past are posted on the next run
+     */
+    public synchronized void schedule(StandingOrder order) {
+        if (orders.putIfAbsent(order.getId(), order) != null) {
+            throw new IllegalArgumentException("Standing order with ID " + order.getId() + " already exists");
+        }
+        enqueue(new Occurrence(order, 0));
+    }
+
+    public synchronized boolean cancel(String orderId) {
+        // Its wheel entries stay behind and are ignored when they fall due
+        return orders.remove(orderId) != null;
+    }
+
+    public synchronized int getOrderCount() { return orders.size(); }
+    public synchronized long getPostedCount() { return postedCount; }
+    /** The last error from a background run, or null */
+    public RuntimeException getLastFailure() { return lastFailure; }
+
+    /**
+     * Starts a daemon thread that runs due orders once per tick
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "standing-orders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                runPending();
+            } catch (RuntimeException e) {
+                // Keep ticking; a failed tick must not cancel every later one
+                lastFailure = e;
+            }
+        }, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to the clock's current time and posts every occurrence due by then.
+     * Returns the number of transactions posted.
+     */
+    public synchronized int runPending() {
+        long nowTick = Math.floorDiv(clock.millis(), tickMillis);
+        int posted = 0;
+        List<Occurrence> due = wheel.advanceTo(nowTick);
+        // Each round posts one occurrence per order; orders far behind come back as overdue
+        while (!due.isEmpty()) {
+            List<Transaction> batch = new ArrayList<>();
+            for (Occurrence occurrence : due) {
+                if (orders.get(occurrence.order.getId()) != occurrence.order) {
+                    continue;
+                }
+                if (!accountsExist(occurrence.order)) {
+                    orders.remove(occurrence.order.getId());
+                    continue;
+                }
+                for (Transaction transaction : toTransactions(occurrence)) {
+                    if (financeService.getTransaction(transaction.getId()).isEmpty()) {
+                        batch.add(transaction);
+                    }
+                }
+                enqueue(new Occurrence(occurrence.order, occurrence.index + 1));
+                if (batch.size() >= MAX_BATCH) {
+                    posted += post(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            posted += post(batch);
+            due = wheel.advanceTo(nowTick);
+        }
+        postedCount += posted;
+        return posted;
+    }
+
+    private void enqueue(Occurrence occurrence) {
+        LocalDateTime due = occurrence.order.occurrence(occurrence.index);
+        if (due == null) {
+            orders.remove(occurrence.order.getId());
+            return;
+        }
+        long dueMillis = due.atZone(clock.getZone()).toInstant().toEpochMilli();
+        // Rounded up so an occurrence never fires before its due time
+        wheel.schedule(-Math.floorDiv(-dueMillis, tickMillis), occurrence);
+    }
+
+    private boolean accountsExist(StandingOrder order) {
+        return financeService.getAccount(order.getAccountId()).isPresent()
+            && (order.getToAccountId() == null || financeService.getAccount(order.getToAccountId()).isPresent());
+    }
+
+    private List<Transaction> toTransactions(Occurrence occurrence) {
+        StandingOrder order = occurrence.order;
+        String id = order.getId() + "_" + occurrence.index;
+        List<Transaction> created = new ArrayList<>(2);
+        if (order.getKind() == StandingOrder.Kind.TRANSFER) {
+            for (Transaction leg : transactionService.createTransfer(id, order.getAccountId(), order.getToAccountId(),
+                                                                     order.getAmount(), order.getDescription())) {
+                created.add(leg);
+            }
+        } else {
+            created.add(transactionService.createTransaction(id, order.getAccountId(), order.getType(),
+                                                             order.getAmount(), order.getDescription(), order.getCategory()));
+        }
+        // Posted with the date it was due, not the date it was caught up
+        LocalDateTime due = order.occurrence(occurrence.index);
+        for (Transaction transaction : created) {
+            transaction.setDate(due);
+        }
+        return created;
+    }
+
+    private int post(List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            financeService.addTransactions(batch);
+            return batch.size();
+        } catch (IllegalArgumentException e) {
+            // Something changed under us (an account removed, an ID posted elsewhere); post what still fits
+            int posted = 0;
+            for (Transaction transaction : batch) {
+                try {
+                    financeService.addTransaction(transaction);
+                    posted++;
+                } catch (IllegalArgumentException skipped) {
+                    lastFailure = skipped;
+                }
+            }
+            return posted;
+        }
+    }
+
+    private static final class Occurrence {
+        private final StandingOrder order;
+        private final int index;
+
+        Occurrence(StandingOrder order, int index) {
+            this.order = order;
+            this.index = index;
+        }
+    }
+}
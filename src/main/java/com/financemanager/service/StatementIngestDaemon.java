@@ -0,0 +1,562 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Picks up bank statement files dropped into an inbox directory and posts their rows
+ * A watcher thread follows the directory with a WatchService and claims a file once it has
+ * been quiet for the settle time, by atomically moving it into .processing, so a file is
+ * claimed once even if it raises several events. A pool of parser threads reads claimed files
+ * (see StatementParser for the format) and hands their rows in batches to a bounded queue; a
+ * single writer thread posts each batch through FinanceService.addTransactions. When the
+ * writer falls behind the queue fills and parsers block, so the rows held in memory stay bounded
+ * by the queue capacity times the batch size however many or large the files are.
+ * Bookkeeping is exactly-once per file: a finished file moves to processed (or failed) and its
+ * content hash is appended to a journal, so the same export dropped again is recognised as a
+ * duplicate. Rows carry IDs derived from their own content, so files left in .processing by a
+ * crash are resumed on the next start, and a corrected copy of a partly posted file is posted,
+ * with the rows already posted skipped. Parsing keeps one small entry per distinct row of
+ * each file in progress to tell identical rows apart.
+ */
+public class StatementIngestDaemon implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    static final String PROCESSING_DIRECTORY = ".processing";
+    static final String PROCESSED_DIRECTORY = "processed";
+    static final String FAILED_DIRECTORY = "failed";
+    static final String JOURNAL_FILE = ".ingested";
+
+    private final FinanceService financeService;
+    private final TransactionService transactionService;
+    private final Path inbox;
+    private final Path processing;
+    private final Path processed;
+    private final Path failed;
+    private final Path journal;
+    private final int workers;
+    private final int batchSize;
+    private final long settleNanos;
+    private final BlockingQueue<Chunk> queue;
+    // Hashes of files posted completely or in flight; a file whose hash is already here is a duplicate
+    private final Set<String> ingestedHashes = ConcurrentHashMap.newKeySet();
+    // Candidate files and when they last changed; watcher thread only
+    private final Map<Path, Long> pending = new HashMap<>();
+    private final List<FileIngest> files = new CopyOnWriteArrayList<>();
+    private WatchService watchService;
+    private ExecutorService parsers;
+    private Thread watcher;
+    private Thread writer;
+    private volatile boolean closed;
+    private int finishedCount;
+    private volatile Exception lastFailure;
+
+    public StatementIngestDaemon(FinanceService financeService, Path inbox, int workers, int queueCapacity,
+                                 int batchSize, Duration settle) {
+        if (workers < 1 || queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Workers, queue capacity and batch size must be positive");
+        }
+        if (settle.isNegative()) {
+            throw new IllegalArgumentException("Settle time cannot be negative");
+        }
+        this.financeService = financeService;
+        this.transactionService = financeService.getTransactionService();
+        this.inbox = inbox;
+        this.processing = inbox.resolve(PROCESSING_DIRECTORY);
+        this.processed = inbox.resolve(PROCESSED_DIRECTORY);
+        this.failed = inbox.resolve(FAILED_DIRECTORY);
+        this.journal = processed.resolve(JOURNAL_FILE);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.settleNanos = settle.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public StatementIngestDaemon(FinanceService financeService, Path inbox) {
+        this(financeService, inbox, Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+             DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, Duration.ofMillis(500));
+    }
+
+    /**
+     * Creates the working directories, resumes files claimed before a restart and starts
+     * watching; files already in the inbox are picked up as if they had just been dropped
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Files.createDirectories(processing);
+        Files.createDirectories(processed);
+        Files.createDirectories(failed);
+        if (Files.exists(journal)) {
+            for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                int end = line.indexOf(' ');
+                if (end > 0) {
+                    ingestedHashes.add(line.substring(0, end));
+                }
+            }
+        }
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        AtomicInteger parserCount = new AtomicInteger();
+        parsers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "statement-parser-" + parserCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = daemonThread(this::writeLoop, "statement-writer");
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(processing)) {
+            for (Path file : leftovers) {
+                if (Files.isRegularFile(file)) {
+                    submit(file);
+                }
+            }
+        }
+        watcher = daemonThread(this::watchLoop, "statement-watcher");
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watcher == null || closed) {
+            return;
+        }
+        // Files being parsed stay in .processing and are resumed by the next start
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        watcher.interrupt();
+        parsers.shutdownNow();
+        writer.interrupt();
+    }
+
+    /**
+     * Reports of every file claimed since start, in the order they were claimed
+     */
+    public List<FileIngestReport> getReports() {
+        return files.stream().map(FileIngest::report).collect(Collectors.toList());
+    }
+
+    /**
+     * Batches parsed but not yet posted; stays at the capacity while parsers are held back
+     */
+    public int getQueuedBatches() {
+        return queue.size();
+    }
+
+    /** The last error from the watcher or the writer, or null; per-file errors are in the reports */
+    public Exception getLastFailure() { return lastFailure; }
+
+    /**
+     * Waits until at least the given number of files have finished, whatever their outcome;
+     * returns false on timeout
+     */
+    public synchronized boolean awaitFinished(int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (finishedCount < count) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    private static Thread daemonThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // Watcher thread
+
+    private void watchLoop() {
+        try {
+            scanInbox();
+            long pollMillis = Math.max(10, TimeUnit.NANOSECONDS.toMillis(settleNanos) / 2);
+            while (!closed) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanInbox();
+                        } else {
+                            noteChanged(inbox.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                claimSettled();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        } catch (IOException | RuntimeException e) {
+            lastFailure = e;
+        }
+    }
+
+    private void scanInbox() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(inbox)) {
+            for (Path entry : entries) {
+                noteChanged(entry);
+            }
+        }
+    }
+
+    private void noteChanged(Path file) {
+        String name = file.getFileName().toString();
+        // Hidden files, the working directories and files still being downloaded are not statements
+        if (!name.startsWith(".") && !name.endsWith(".tmp") && !name.endsWith(".part")
+                && !name.equals(PROCESSED_DIRECTORY) && !name.equals(FAILED_DIRECTORY)) {
+            pending.put(file, System.nanoTime());
+        }
+    }
+
+    private void claimSettled() {
+        long now = System.nanoTime();
+        List<Path> postponed = new ArrayList<>();
+        for (Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (now - entry.getValue() < settleNanos) {
+                continue;
+            }
+            it.remove();
+            Path file = entry.getKey();
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            Path claimed = processing.resolve(file.getFileName());
+            if (Files.exists(claimed)) {
+                // A file of the same name is still in flight; try again once it is done
+                postponed.add(file);
+                continue;
+            }
+            try {
+                Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                continue;
+            } catch (IOException e) {
+                lastFailure = e;
+                continue;
+            }
+            submit(claimed);
+        }
+        for (Path file : postponed) {
+            pending.put(file, now);
+        }
+    }
+
+    private void submit(Path claimed) {
+        FileIngest file = new FileIngest(claimed.getFileName().toString());
+        files.add(file);
+        parsers.execute(() -> parse(file, claimed));
+    }
+
+    // Parser threads
+
+    private void parse(FileIngest file, Path path) {
+        try {
+            parseFile(file, path);
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            if (closed) {
+                return;
+            }
+            file.fail(e.getMessage());
+            try {
+                enqueue(new Chunk(file, path, List.of(), FileIngestReport.Status.FAILED));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            // Closed while waiting for the writer
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void parseFile(FileIngest file, Path path) throws IOException, InterruptedException {
+        String hash = contentHash(path);
+        file.hashed(hash, Files.size(path));
+        if (!ingestedHashes.add(hash)) {
+            enqueue(new Chunk(file, path, List.of(), FileIngestReport.Status.DUPLICATE));
+            return;
+        }
+        StatementParser parser = new StatementParser(transactionService);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            List<Transaction> rows = new ArrayList<>(batchSize);
+            int lineNumber = 0;
+            int parsed = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    Transaction transaction = parser.parse(line, lineNumber);
+                    if (transaction != null) {
+                        rows.add(transaction);
+                        parsed++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    parsed++;
+                    file.rejected(e.getMessage());
+                }
+                if (rows.size() == batchSize) {
+                    file.parsed(parsed);
+                    parsed = 0;
+                    enqueue(new Chunk(file, path, rows, null));
+                    rows = new ArrayList<>(batchSize);
+                }
+            }
+            file.parsed(parsed);
+            enqueue(new Chunk(file, path, rows, FileIngestReport.Status.COMPLETED));
+        }
+    }
+
+    private void enqueue(Chunk chunk) throws InterruptedException {
+        if (!queue.offer(chunk)) {
+            long blockedAt = System.nanoTime();
+            queue.put(chunk);
+            chunk.file.blocked(System.nanoTime() - blockedAt);
+        }
+    }
+
+    private static String contentHash(Path path) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                sha256.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    // Writer thread
+
+    private void writeLoop() {
+        while (true) {
+            Chunk chunk;
+            try {
+                chunk = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                post(chunk);
+            } catch (RuntimeException e) {
+                // Keep posting; one bad batch must not stop every later file
+                lastFailure = e;
+                chunk.file.postingFailed("Posting failed: " + e);
+            } finally {
+                if (chunk.end != null) {
+                    // However posting went, the file leaves processing and its waiters are counted
+                    finish(chunk);
+                }
+            }
+        }
+    }
+
+    private void post(Chunk chunk) {
+        if (chunk.rows.isEmpty()) {
+            return;
+        }
+        List<Transaction> batch = new ArrayList<>(chunk.rows.size());
+        Map<String, Boolean> knownAccounts = new HashMap<>();
+        int skipped = 0;
+        for (Transaction transaction : chunk.rows) {
+            if (!knownAccounts.computeIfAbsent(transaction.getAccountId(),
+                    id -> financeService.getAccount(id).isPresent())) {
+                chunk.file.rejected("Account " + transaction.getAccountId() + " not found for " + transaction.getId());
+            } else if (financeService.getTransaction(transaction.getId()).isPresent()) {
+                // Posted before a restart
+                skipped++;
+            } else {
+                batch.add(transaction);
+            }
+        }
+        int added = 0;
+        try {
+            if (!batch.isEmpty()) {
+                financeService.addTransactions(batch);
+            }
+            added = batch.size();
+        } catch (IllegalArgumentException e) {
+            // Something changed under us (an account removed, an ID posted elsewhere); post what still fits
+            for (Transaction transaction : batch) {
+                try {
+                    financeService.addTransaction(transaction);
+                    added++;
+                } catch (IllegalArgumentException rejected) {
+                    chunk.file.rejected(rejected.getMessage());
+                }
+            }
+        }
+        chunk.file.posted(added, skipped);
+    }
+
+    private void finish(Chunk chunk) {
+        FileIngest file = chunk.file;
+        String hash = file.contentHash;
+        // A batch that could not be posted fails the file, so dropping it again is not a duplicate
+        FileIngestReport.Status outcome = file.hasPostingFailed() ? FileIngestReport.Status.FAILED : chunk.end;
+        Path directory = processed;
+        if (outcome == FileIngestReport.Status.FAILED) {
+            if (hash != null) {
+                ingestedHashes.remove(hash);
+            }
+            directory = failed;
+        }
+        try {
+            if (outcome == FileIngestReport.Status.COMPLETED) {
+                // Journal first: a crash before the move resumes the file, which is then a duplicate
+                Files.write(journal, (hash + " " + file.name + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+            }
+            Path target = directory.resolve(file.name);
+            if (Files.exists(target)) {
+                target = directory.resolve(file.name + "." + (hash != null ? hash.substring(0, 16) : System.nanoTime()));
+            }
+            Files.move(chunk.path, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            lastFailure = e;
+        }
+        file.finish(outcome);
+        synchronized (this) {
+            finishedCount++;
+            notifyAll();
+        }
+    }
+
+    /**
+     * A batch of parsed rows from one file; the last batch of a file carries its outcome
+     */
+    private static final class Chunk {
+        final FileIngest file;
+        final Path path;
+        final List<Transaction> rows;
+        final FileIngestReport.Status end;
+
+        Chunk(FileIngest file, Path path, List<Transaction> rows, FileIngestReport.Status end) {
+            this.file = file;
+            this.path = path;
+            this.rows = rows;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Running counts for one file, updated by its parser and the writer
+     */
+    private static final class FileIngest {
+        final String name;
+        final Instant started = Instant.now();
+        volatile String contentHash;
+        private long bytes;
+        private long rows;
+        private long added;
+        private long skipped;
+        private long rejected;
+        private long blockedNanos;
+        private String firstError;
+        private boolean postingFailed;
+        private FileIngestReport.Status status = FileIngestReport.Status.PARSING;
+        private Instant finished;
+
+        FileIngest(String name) {
+            this.name = name;
+        }
+
+        synchronized void hashed(String hash, long size) {
+            contentHash = hash;
+            bytes = size;
+        }
+
+        synchronized void parsed(int count) {
+            rows += count;
+        }
+
+        synchronized void rejected(String reason) {
+            rejected++;
+            fail(reason);
+        }
+
+        synchronized void fail(String reason) {
+            if (firstError == null) {
+                firstError = reason;
+            }
+        }
+
+        synchronized void postingFailed(String reason) {
+            postingFailed = true;
+            fail(reason);
+        }
+
+        synchronized boolean hasPostingFailed() {
+            return postingFailed;
+        }
+
+        synchronized void posted(int addedCount, int skippedCount) {
+            added += addedCount;
+            skipped += skippedCount;
+        }
+
+        synchronized void blocked(long nanos) {
+            blockedNanos += nanos;
+        }
+
+        synchronized void finish(FileIngestReport.Status outcome) {
+            status = outcome;
+            finished = Instant.now();
+        }
+
+        synchronized FileIngestReport report() {
+            return new FileIngestReport(name, contentHash, status, bytes, rows, added, skipped, rejected, firstError,
+                started, finished, TimeUnit.NANOSECONDS.toMillis(blockedNanos));
+        }
+    }
+}
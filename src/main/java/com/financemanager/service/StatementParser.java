@@ -0,0 +1,153 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses the rows of a bank export in CSV form
+ * Columns are date, account ID, description, signed amount and an optional category name:
+ * <pre>
+ *   date,account,description,amount,category
+ *   2024-03-05,ACC_001,"Corner Grocery, Main St",-42.50,FOOD
+ *   2024-03-06T09:00,ACC_001,Salary,2500.00,
+ * </pre>
+ * A negative amount is an expense and a positive one income; a blank category is left for
+ * the categorization rules. An optional header row is recognised by its first column. Each
+ * row gets an ID derived from its date, account, amount and description plus how many
+ * identical rows came before it in the file, so the same row gets the same ID in any file:
+ * posting a file again, or a corrected copy of a file that was partly posted, adds only
+ * the rows not posted yet. Rows are numbered within a run of rows on the same date, so the
+ * parser only remembers the current date's rows; a file that returns to an earlier date
+ * numbers that run after every row it already had on that date, which keeps IDs unique.
+ * A parser is used for one file.
+ */
+final class StatementParser {
+    private final TransactionService transactionService;
+    private final List<String> fields = new ArrayList<>(5);
+    private final MessageDigest sha256;
+    // Rows seen so far in the current date's run by content key, to number identical rows apart
+    private final Map<String, int[]> occurrences = new HashMap<>();
+    // Rows per date in earlier runs; one entry per day, however long the file
+    private final Map<LocalDate, int[]> rowsByDate = new HashMap<>();
+    private LocalDate runDate;
+    private int runStart;
+
+    StatementParser(TransactionService transactionService) {
+        this.transactionService = transactionService;
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The transaction on the given line, or null for a blank or header line.
+     * Throws IllegalArgumentException for a malformed row.
+     */
+    Transaction parse(String line, int lineNumber) {
+        if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+        if (line.isBlank()) {
+            return null;
+        }
+        split(line);
+        if (lineNumber == 1 && fields.get(0).trim().equalsIgnoreCase("date")) {
+            return null;
+        }
+        if (fields.size() < 4 || fields.size() > 5) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected 4 or 5 columns, found " + fields.size());
+        }
+        try {
+            BigDecimal amount = new BigDecimal(fields.get(3).trim());
+            if (amount.signum() == 0) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": amount cannot be zero");
+            }
+            String categoryName = fields.size() == 5 ? fields.get(4).trim() : "";
+            Category category = categoryName.isEmpty() ? null : Category.valueOf(categoryName.toUpperCase(Locale.ROOT));
+            LocalDateTime date = parseDate(fields.get(0).trim());
+            String accountId = fields.get(1).trim();
+            String description = fields.get(2).trim();
+            Transaction transaction = transactionService.createTransaction(rowId(date, accountId, amount, description),
+                accountId, amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME,
+                amount.abs(), description, category);
+            transaction.setDate(date);
+            return transaction;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid amount " + fields.get(3).trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid date " + fields.get(0).trim());
+        } catch (IllegalArgumentException e) {
+            throw e.getMessage() != null && e.getMessage().startsWith("Line ")
+                ? e : new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * STM_ and a 64-bit content hash, then the row's occurrence among identical rows in this file.
+     * The category is left out, so correcting it does not turn a posted row into a new one.
+     */
+    private String rowId(LocalDateTime date, String accountId, BigDecimal amount, String description) {
+        String content = date + "\n" + accountId + "\n" + amount.stripTrailingZeros().toPlainString() + "\n" + description;
+        String key = HexFormat.of().formatHex(sha256.digest(content.getBytes(StandardCharsets.UTF_8)), 0, 8);
+        LocalDate day = date.toLocalDate();
+        if (!day.equals(runDate)) {
+            occurrences.clear();
+            runDate = day;
+            runStart = rowsByDate.computeIfAbsent(day, d -> new int[1])[0];
+        }
+        rowsByDate.get(day)[0]++;
+        int occurrence = runStart + ++occurrences.computeIfAbsent(key, k -> new int[1])[0];
+        return "STM_" + key + "_" + occurrence;
+    }
+
+    private static LocalDateTime parseDate(String text) {
+        return text.length() <= 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+    }
+
+    /**
+     * Splits a line into fields; a quoted field may contain commas and doubled quotes
+     */
+    private void split(String line) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+}
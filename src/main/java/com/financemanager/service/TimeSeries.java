@@ -0,0 +1,88 @@
+package com.financemanager.service;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable daily time series for charts: x values are epoch days, y values are amounts
+ * Supports shape-preserving downsampling so a decade of history fits a chart's pixel width
+ */
+public final class TimeSeries {
+    private final long[] epochDays;
+    private final double[] values;
+
+    public TimeSeries(long[] epochDays, double[] values) {
+        if (epochDays.length != values.length) {
+            throw new IllegalArgumentException("Series needs one value per day");
+        }
+        this.epochDays = epochDays;
+        this.values = values;
+    }
+
+    public int size() { return epochDays.length; }
+    public long getEpochDay(int index) { return epochDays[index]; }
+    public LocalDate getDate(int index) { return LocalDate.ofEpochDay(epochDays[index]); }
+    public double getValue(int index) { return values[index]; }
+
+    /**
+     * Reduces the series to at most maxPoints using Largest-Triangle-Three-Buckets.
+     * The first and last points are kept; from every bucket in between the point forming
+     * the largest triangle with its neighbours is chosen, so peaks and dips survive.
+     */
+    public TimeSeries downsample(int maxPoints) {
+        int n = size();
+        if (maxPoints >= n || maxPoints < 3) {
+            return this;
+        }
+
+        long[] sampledDays = new long[maxPoints];
+        double[] sampledValues = new double[maxPoints];
+        double bucketSize = (double) (n - 2) / (maxPoints - 2);
+
+        int selected = 0;
+        sampledDays[0] = epochDays[0];
+        sampledValues[0] = values[0];
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            // Average of the next bucket acts as the third triangle vertex
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, n);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += epochDays[i];
+                averageY += values[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            averageX /= nextLength;
+            averageY /= nextLength;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double pointX = epochDays[selected];
+            double pointY = values[selected];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((pointX - averageX) * (values[i] - pointY)
+                    - (pointX - epochDays[i]) * (averageY - pointY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            sampledDays[bucket + 1] = epochDays[maxIndex];
+            sampledValues[bucket + 1] = values[maxIndex];
+            selected = maxIndex;
+        }
+
+        sampledDays[maxPoints - 1] = epochDays[n - 1];
+        sampledValues[maxPoints - 1] = values[n - 1];
+        return new TimeSeries(sampledDays, sampledValues);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeSeries{points=" + size() + "}";
+    }
+}
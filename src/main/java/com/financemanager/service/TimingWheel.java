@@ -0,0 +1,119 @@
+package com.financemanager.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel over integer ticks
+ * Four wheels of 64 slots cover 64^4 ticks; a deadline is kept on the lowest wheel whose
+ * range still contains it and cascades one wheel down each time the wheel below wraps.
+ * Scheduling is O(1) and advancing is O(1) per tick plus the entries that fall due, so
+ * nothing is polled. Deadlines past the top wheel wait in an overflow list.
+ * Not thread-safe; StandingOrderScheduler confines it to one thread at a time.
+ */
+final class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 4;
+
+    private final List<List<Entry<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    // Entries scheduled at or before the current tick, handed out by the next advance
+    private List<T> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    long getCurrentTick() { return currentTick; }
+    int size() { return size; }
+
+    void schedule(long deadline, T item) {
+        size++;
+        place(new Entry<>(deadline, item));
+    }
+
+    /**
+     * Moves time forward and returns everything due up to and including the target tick,
+     * in deadline order
+     */
+    List<T> advanceTo(long targetTick) {
+        List<T> due = overdue;
+        overdue = new ArrayList<>();
+        size -= due.size();
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // Nothing scheduled: jump instead of stepping through empty ticks
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            // Higher wheels first, so entries cascading down are picked up by the wheel below
+            if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                List<Entry<T>> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                for (Entry<T> entry : waiting) {
+                    place(entry);
+                }
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            List<Entry<T>> slot = slots.get((int) (currentTick & (SLOTS - 1)));
+            for (Entry<T> entry : slot) {
+                due.add(entry.item);
+            }
+            size -= slot.size();
+            slot.clear();
+            size -= overdue.size();
+            due.addAll(overdue);
+            overdue.clear();
+        }
+        return due;
+    }
+
+    private void cascade(int level) {
+        List<Entry<T>> slot = slots.get(level * SLOTS + (int) ((currentTick >>> (BITS * level)) & (SLOTS - 1)));
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> moving = new ArrayList<>(slot);
+        slot.clear();
+        for (Entry<T> entry : moving) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long deadline = entry.deadline;
+        if (deadline <= currentTick) {
+            overdue.add(entry.item);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            // The lowest wheel on which the deadline and now share every higher-order digit
+            if (((deadline ^ currentTick) >>> (BITS * (level + 1))) == 0) {
+                slots.get(level * SLOTS + (int) ((deadline >>> (BITS * level)) & (SLOTS - 1))).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private static final class Entry<T> {
+        private final long deadline;
+        private final T item;
+
+        Entry(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Cursor over a batch written by TransactionCodec, decoding one row at a time from its buffer
+ * Dictionaries are read once when the batch is opened; after that next() only reads varints
+ * into primitive fields, so totals can be computed over a batch without creating a Transaction
+ * or an ID string per row. Call toTransaction() for rows that are needed as objects.
+ * Not thread-safe; open one reader per thread.
+ */
+public final class TransactionBatchReader {
+    private final ByteBuffer rows;
+    private final int size;
+    private final String[] accounts;
+    private final String[] descriptions;
+    private final Category[] categories;
+    private final Currency[] currencies;
+
+    private int index = -1;
+    private byte[] idBytes = new byte[32];
+    private int idLength;
+    private int header;
+    private String accountId;
+    private String description;
+    private Currency currency;
+    private long amountCents;
+    private long epochSecond;
+    private int nanos;
+
+    TransactionBatchReader(ByteBuffer payload) {
+        this.rows = payload;
+        this.size = (int) TransactionCodec.readVarLong(payload);
+        this.accounts = readStrings(payload);
+        this.descriptions = readStrings(payload);
+        String[] categoryNames = readStrings(payload);
+        this.categories = new Category[categoryNames.length];
+        for (int i = 0; i < categoryNames.length; i++) {
+            categories[i] = Category.valueOf(categoryNames[i]);
+        }
+        String[] currencyCodes = readStrings(payload);
+        this.currencies = new Currency[currencyCodes.length];
+        for (int i = 0; i < currencyCodes.length; i++) {
+            currencies[i] = Currency.getInstance(currencyCodes[i]);
+        }
+    }
+
+    /**
+     * Number of rows in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves to the next row, returning false after the last one
+     */
+    public boolean next() {
+        if (index + 1 >= size) {
+            return false;
+        }
+        index++;
+        header = rows.get() & 0xFF;
+
+        int shared = (int) TransactionCodec.readVarLong(rows);
+        int suffix = (int) TransactionCodec.readVarLong(rows);
+        if (shared + suffix > idBytes.length) {
+            idBytes = Arrays.copyOf(idBytes, Math.max(shared + suffix, idBytes.length * 2));
+        }
+        rows.get(idBytes, shared, suffix);
+        idLength = shared + suffix;
+
+        accountId = accounts[(int) TransactionCodec.readVarLong(rows)];
+        int descriptionRef = (int) TransactionCodec.readVarLong(rows);
+        description = descriptionRef == 0 ? null : descriptions[descriptionRef - 1];
+        int currencyRef = (int) TransactionCodec.readVarLong(rows);
+        currency = currencyRef == 0 ? null : currencies[currencyRef - 1];
+        amountCents = TransactionCodec.readVarLong(rows);
+        epochSecond += TransactionCodec.unZigZag(TransactionCodec.readVarLong(rows));
+        nanos = (header & TransactionCodec.ROW_NANOS) != 0 ? (int) TransactionCodec.readVarLong(rows) : 0;
+        return true;
+    }
+
+    public String getId() {
+        return new String(idBytes, 0, idLength, StandardCharsets.UTF_8);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public TransactionType getType() {
+        return (header & TransactionCodec.ROW_EXPENSE) != 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public long getSignedAmountCents() {
+        return (header & TransactionCodec.ROW_EXPENSE) != 0 ? -amountCents : amountCents;
+    }
+
+    public Category getCategory() {
+        int categoryRef = header >>> TransactionCodec.ROW_CATEGORY_SHIFT;
+        return categoryRef == 0 ? null : categories[categoryRef - 1];
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * The row's date as seconds since the epoch, reading local date-time as UTC
+     */
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public LocalDateTime getDate() {
+        return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+    }
+
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction(getId(), accountId, getType(), Money.fromCents(amountCents),
+            description, getCategory());
+        transaction.setDate(getDate());
+        transaction.setCurrency(currency);
+        return transaction;
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        String[] values = new String[(int) TransactionCodec.readVarLong(buffer)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = TransactionCodec.readString(buffer);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,258 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Compact binary encoding for transaction batches, for snapshots, exports and replication
+ * A batch is a header ("FMTX", format version, flags, payload length) followed by a payload
+ * of four dictionaries (account IDs, descriptions, category names, currency codes) and one
+ * row per transaction. Rows hold dictionary references and varints: cents as unsigned
+ * varints, the timestamp as a zig-zag delta from the previous row in seconds, and the
+ * transaction ID front-coded against the previous row's ID. The payload can also be
+ * block-compressed, which pays off when descriptions or IDs repeat with small variations.
+ * Transactions are written in the given order; sorting by date first keeps deltas small.
+ * Creation timestamps are not stored, decoded transactions are created at decode time.
+ */
+public final class TransactionCodec {
+    static final int MAGIC = 0x464D5458;
+    static final byte FORMAT_VERSION = 1;
+    static final int FLAG_COMPRESSED = 1;
+
+    // Row header bits; the remaining six hold the category reference
+    static final int ROW_EXPENSE = 1;
+    static final int ROW_NANOS = 2;
+    static final int ROW_CATEGORY_SHIFT = 2;
+
+    private TransactionCodec() {
+    }
+
+    public static byte[] encode(Collection<Transaction> transactions) {
+        return encode(transactions, false);
+    }
+
+    public static byte[] encode(Collection<Transaction> transactions, boolean compress) {
+        Dictionary accounts = new Dictionary();
+        Dictionary descriptions = new Dictionary();
+        Dictionary categories = new Dictionary();
+        Dictionary currencies = new Dictionary();
+        for (Transaction transaction : transactions) {
+            accounts.add(transaction.getAccountId());
+            descriptions.add(transaction.getDescription());
+            categories.add(transaction.getCategory() != null ? transaction.getCategory().name() : null);
+            currencies.add(transaction.getCurrency() != null ? transaction.getCurrency().getCurrencyCode() : null);
+        }
+
+        ByteOutput payload = new ByteOutput(64 + transactions.size() * 24);
+        payload.writeVarLong(transactions.size());
+        accounts.writeTo(payload);
+        descriptions.writeTo(payload);
+        categories.writeTo(payload);
+        currencies.writeTo(payload);
+
+        byte[] previousId = new byte[0];
+        long previousSecond = 0;
+        for (Transaction transaction : transactions) {
+            LocalDateTime date = transaction.getDate();
+            long second = date.toEpochSecond(ZoneOffset.UTC);
+            int nanos = date.getNano();
+            int categoryRef = transaction.getCategory() != null ? categories.ref(transaction.getCategory().name()) : 0;
+            payload.writeByte((transaction.isExpense() ? ROW_EXPENSE : 0) | (nanos != 0 ? ROW_NANOS : 0)
+                | categoryRef << ROW_CATEGORY_SHIFT);
+
+            byte[] id = transaction.getId().getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            int maxShared = Math.min(id.length, previousId.length);
+            while (shared < maxShared && id[shared] == previousId[shared]) {
+                shared++;
+            }
+            payload.writeVarLong(shared);
+            payload.writeVarLong(id.length - shared);
+            payload.writeBytes(id, shared, id.length - shared);
+            previousId = id;
+
+            payload.writeVarLong(accounts.ref(transaction.getAccountId()) - 1);
+            payload.writeVarLong(descriptions.ref(transaction.getDescription()));
+            payload.writeVarLong(transaction.getCurrency() != null
+                ? currencies.ref(transaction.getCurrency().getCurrencyCode()) : 0);
+            payload.writeVarLong(transaction.getAmountCents());
+            payload.writeVarLong(zigZag(second - previousSecond));
+            previousSecond = second;
+            if (nanos != 0) {
+                payload.writeVarLong(nanos);
+            }
+        }
+
+        byte[] body = payload.bytes;
+        int bodyLength = payload.size;
+        int flags = 0;
+        if (compress) {
+            byte[] compressed = BlockCompressor.compress(body, bodyLength);
+            if (compressed.length < bodyLength) {
+                flags = FLAG_COMPRESSED;
+                body = compressed;
+            }
+        }
+        ByteOutput out = new ByteOutput(body.length + 24);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(flags);
+        if (flags == FLAG_COMPRESSED) {
+            out.writeVarLong(bodyLength);
+            bodyLength = body.length;
+        }
+        out.writeVarLong(bodyLength);
+        out.writeBytes(body, 0, bodyLength);
+        return Arrays.copyOf(out.bytes, out.size);
+    }
+
+    /**
+     * Decodes the batch at the buffer's position and advances past it
+     */
+    public static List<Transaction> decode(ByteBuffer buffer) {
+        TransactionBatchReader reader = reader(buffer);
+        List<Transaction> transactions = new ArrayList<>(reader.size());
+        while (reader.next()) {
+            transactions.add(reader.toTransaction());
+        }
+        return transactions;
+    }
+
+    /**
+     * Opens the batch at the buffer's position for row-by-row reading and advances past it.
+     * Uncompressed rows are read straight from the buffer; a compressed payload is inflated once.
+     */
+    public static TransactionBatchReader reader(ByteBuffer buffer) {
+        // Read byte by byte, so the buffer's byte order does not matter
+        int magic = (buffer.get() & 0xFF) << 24 | (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF);
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Not a transaction batch");
+        }
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported transaction batch version " + version);
+        }
+        int flags = buffer.get();
+        int rawLength = (flags & FLAG_COMPRESSED) != 0 ? (int) readVarLong(buffer) : -1;
+        int length = (int) readVarLong(buffer);
+        ByteBuffer payload = buffer.slice();
+        payload.limit(length);
+        buffer.position(buffer.position() + length);
+        if (rawLength >= 0) {
+            byte[] inflated = new byte[rawLength];
+            BlockCompressor.decompress(payload, inflated);
+            payload = ByteBuffer.wrap(inflated);
+        }
+        return new TransactionBatchReader(payload);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while (next < 0);
+        return value;
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Distinct strings in first-seen order; reference 0 is null and n is the n-th entry
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        void add(String value) {
+            if (value != null && !refs.containsKey(value)) {
+                values.add(value);
+                refs.put(value, values.size());
+            }
+        }
+
+        int ref(String value) {
+            return value == null ? 0 : refs.get(value);
+        }
+
+        void writeTo(ByteOutput out) {
+            out.writeVarLong(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeVarLong(bytes.length);
+                out.writeBytes(bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    private static final class ByteOutput {
+        byte[] bytes;
+        int size;
+
+        ByteOutput(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + extra, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Filtered and sorted transactions for one (search term, sort) pair, pinned to the version
+ * of the ledger it was built from
+ * Rows are the stored transactions themselves, which are never edited in place, so a listing
+ * can be paged without the service's lock and every page comes from the same version; later
+ * writes only show up in a newer listing.
+ */
+public final class TransactionListing {
+    private final String searchTerm;
+    private final TransactionSort sort;
+    private final long version;
+    private final Transaction[] rows;
+
+    TransactionListing(String searchTerm, TransactionSort sort, long version, Transaction[] rows) {
+        this.searchTerm = searchTerm;
+        this.sort = sort;
+        this.version = version;
+        this.rows = rows;
+    }
+
+    public String getSearchTerm() { return searchTerm; }
+    public TransactionSort getSort() { return sort; }
+
+    long getVersion() {
+        return version;
+    }
+
+    Transaction[] rows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public Transaction get(int index) {
+        return rows[index];
+    }
+
+    /**
+     * Up to limit rows starting at offset; empty past the end
+     */
+    public List<Transaction> page(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        int from = Math.min(offset, rows.length);
+        int to = (int) Math.min((long) from + limit, rows.length);
+        return new ArrayList<>(Arrays.asList(rows).subList(from, to));
+    }
+}
@@ -0,0 +1,60 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Transaction;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary indexes from account ID and category to their transactions
+ * Used by the query planner to avoid full scans for selective filters.
+ * Not thread-safe on its own; FinanceService guards it with its lock.
+ */
+final class TransactionLookupIndex {
+    private final Map<String, Set<Transaction>> byAccount = new HashMap<>();
+    private final Map<Category, Set<Transaction>> byCategory = new EnumMap<>(Category.class);
+
+    void add(Transaction transaction) {
+        byAccount.computeIfAbsent(transaction.getAccountId(), id -> new LinkedHashSet<>()).add(transaction);
+        if (transaction.getCategory() != null) {
+            byCategory.computeIfAbsent(transaction.getCategory(), category -> new LinkedHashSet<>()).add(transaction);
+        }
+    }
+
+    void remove(Transaction transaction) {
+        Set<Transaction> accountTransactions = byAccount.get(transaction.getAccountId());
+        if (accountTransactions != null) {
+            accountTransactions.remove(transaction);
+        }
+        if (transaction.getCategory() != null) {
+            Set<Transaction> categoryTransactions = byCategory.get(transaction.getCategory());
+            if (categoryTransactions != null) {
+                categoryTransactions.remove(transaction);
+            }
+        }
+    }
+
+    void removeAccount(String accountId) {
+        Set<Transaction> removed = byAccount.remove(accountId);
+        if (removed != null) {
+            for (Transaction transaction : removed) {
+                if (transaction.getCategory() != null) {
+                    byCategory.get(transaction.getCategory()).remove(transaction);
+                }
+            }
+        }
+    }
+
+    Set<Transaction> forAccount(String accountId) {
+        return byAccount.getOrDefault(accountId, Collections.emptySet());
+    }
+
+    Set<Transaction> forCategory(Category category) {
+        return byCategory.getOrDefault(category, Collections.emptySet());
+    }
+}
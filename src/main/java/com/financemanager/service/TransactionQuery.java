@@ -0,0 +1,185 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Category;
+import com.financemanager.model.Money;
+import com.financemanager.model.Transaction;
+import com.financemanager.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Composable transaction query: filters, sort, limit and optional group-by aggregation
+ * Built with TransactionQuery.builder() and run through FinanceService.query, which picks
+ * the most selective index for the filters instead of a hand-written scan per report.
+ */
+public final class TransactionQuery {
+    public enum GroupBy {
+        NONE, ACCOUNT, CATEGORY, TYPE, MONTH, DAY
+    }
+
+    private final Set<String> accountIds;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Set<TransactionType> types;
+    private final Set<Category> categories;
+    private final long minAmountCents;
+    private final long maxAmountCents;
+    private final String text;
+    private final TransactionSort sort;
+    private final int limit;
+    private final GroupBy groupBy;
+
+    private TransactionQuery(Builder builder) {
+        this.accountIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.accountIds));
+        this.from = builder.from;
+        this.to = builder.to;
+        this.types = Collections.unmodifiableSet(EnumSet.copyOf(builder.types));
+        this.categories = builder.categories.isEmpty()
+            ? Collections.emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(builder.categories));
+        this.minAmountCents = builder.minAmountCents;
+        this.maxAmountCents = builder.maxAmountCents;
+        this.text = builder.text;
+        this.sort = builder.sort;
+        this.limit = builder.limit;
+        this.groupBy = builder.groupBy;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Getters; empty sets and null bounds mean "no filter"
+    public Set<String> getAccountIds() { return accountIds; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public Set<TransactionType> getTypes() { return types; }
+    public Set<Category> getCategories() { return categories; }
+    public long getMinAmountCents() { return minAmountCents; }
+    public long getMaxAmountCents() { return maxAmountCents; }
+    public String getText() { return text; }
+    public TransactionSort getSort() { return sort; }
+    public int getLimit() { return limit; }
+    public GroupBy getGroupBy() { return groupBy; }
+
+    public boolean hasDateRange() {
+        return from != null || to != null;
+    }
+
+    /**
+     * Evaluates every filter against one transaction; index access only narrows the candidates
+     */
+    public boolean matches(Transaction transaction) {
+        if (!accountIds.isEmpty() && !accountIds.contains(transaction.getAccountId())) return false;
+        if (!types.contains(transaction.getType())) return false;
+        if (!categories.isEmpty() && !categories.contains(transaction.getCategory())) return false;
+        long cents = transaction.getAmountCents();
+        if (cents < minAmountCents || cents > maxAmountCents) return false;
+        LocalDateTime date = transaction.getDate();
+        if (from != null && date.isBefore(from)) return false;
+        if (to != null && !date.isBefore(to)) return false;
+        return text == null || FinanceService.containsIgnoreCase(transaction.getDescription(), text);
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionQuery{accounts=" + accountIds + ", from=" + from + ", to=" + to + ", types=" + types +
+               ", categories=" + categories + ", amountCents=[" + minAmountCents + ", " + maxAmountCents + "]" +
+               ", text=" + text + ", sort=" + sort + ", limit=" + limit + ", groupBy=" + groupBy + "}";
+    }
+
+    /**
+     * Builder for TransactionQuery; every filter is optional
+     */
+    public static final class Builder {
+        private final Set<String> accountIds = new LinkedHashSet<>();
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private final Set<TransactionType> types = EnumSet.allOf(TransactionType.class);
+        private final Set<Category> categories = EnumSet.noneOf(Category.class);
+        private long minAmountCents = Long.MIN_VALUE;
+        private long maxAmountCents = Long.MAX_VALUE;
+        private String text;
+        private TransactionSort sort = TransactionSort.NEWEST_FIRST;
+        private int limit = Integer.MAX_VALUE;
+        private GroupBy groupBy = GroupBy.NONE;
+
+        private Builder() {
+        }
+
+        public Builder accounts(String... accountIds) {
+            this.accountIds.addAll(Arrays.asList(accountIds));
+            return this;
+        }
+
+        /**
+         * Date range, from inclusive and to exclusive; either bound may be null
+         */
+        public Builder between(LocalDateTime from, LocalDateTime to) {
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new IllegalArgumentException("Query range start must be before its end");
+            }
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        public Builder types(TransactionType... types) {
+            this.types.clear();
+            this.types.addAll(Arrays.asList(types));
+            if (this.types.isEmpty()) {
+                throw new IllegalArgumentException("At least one transaction type is required");
+            }
+            return this;
+        }
+
+        public Builder categories(Category... categories) {
+            this.categories.addAll(Arrays.asList(categories));
+            return this;
+        }
+
+        /**
+         * Amount range, both bounds inclusive; either bound may be null
+         */
+        public Builder amountBetween(BigDecimal min, BigDecimal max) {
+            this.minAmountCents = min != null ? Money.toCents(min) : Long.MIN_VALUE;
+            this.maxAmountCents = max != null ? Money.toCents(max) : Long.MAX_VALUE;
+            return this;
+        }
+
+        /**
+         * Case-insensitive substring of the description
+         */
+        public Builder text(String text) {
+            this.text = text == null || text.trim().isEmpty() ? null : text.trim();
+            return this;
+        }
+
+        public Builder sortBy(TransactionSort sort) {
+            this.sort = sort != null ? sort : TransactionSort.NEWEST_FIRST;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit must not be negative");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder groupBy(GroupBy groupBy) {
+            this.groupBy = groupBy != null ? groupBy : GroupBy.NONE;
+            return this;
+        }
+
+        public TransactionQuery build() {
+            return new TransactionQuery(this);
+        }
+    }
+}
@@ -15,9 +15,15 @@ public class TransactionService {
      */
     public Transaction createTransaction(String accountId, TransactionType type, 
                                        BigDecimal amount, String description, Category category) {
+        return createTransaction(generateTransactionId(), accountId, type, amount, description, category);
+    }
+
+    /**
+     * Creates a transaction with a caller-chosen ID, so a repeated post can be recognised
+     */
+    public Transaction createTransaction(String transactionId, String accountId, TransactionType type,
+                                       BigDecimal amount, String description, Category category) {
         validateTransactionInput(accountId, type, amount, description);
-        
-        String transactionId = generateTransactionId();
         return new Transaction(transactionId, accountId, type, amount, description, category);
     }
     
@@ -42,11 +48,18 @@ public class TransactionService {
      */
     public Transaction[] createTransfer(String fromAccountId, String toAccountId, 
                                       BigDecimal amount, String description) {
+        return createTransfer(generateTransactionId(), fromAccountId, toAccountId, amount, description);
+    }
+
+    /**
+     * Transfers money between accounts under a caller-chosen transfer ID
+     */
+    public Transaction[] createTransfer(String transferId, String fromAccountId, String toAccountId,
+                                      BigDecimal amount, String description) {
         if (fromAccountId.equals(toAccountId)) {
             throw new IllegalArgumentException("Cannot transfer to the same account");
         }
         
-        String transferId = generateTransactionId();
         String descriptionWithTransfer = description + " (Transfer)";
         
         Transaction debit = new Transaction(
@@ -87,6 +100,8 @@ public class TransactionService {
     }
     
     private String generateTransactionId() {
-        return "TXN_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // 64 bits of the UUID: IDs are keys in FinanceService, and 32 bits collide within ~100k rows
+        UUID uuid = UUID.randomUUID();
+        return "TXN_" + String.format("%016X", uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits());
     }
 }
@@ -0,0 +1,73 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Sort order for transaction listings that is applied inside the service layer
+ * Ties are broken by transaction ID so paging over a sorted view is stable
+ */
+public final class TransactionSort {
+    public enum Field {
+        DATE, DESCRIPTION, TYPE, AMOUNT, CATEGORY
+    }
+
+    public static final TransactionSort NEWEST_FIRST = new TransactionSort(Field.DATE, false);
+
+    private final Field field;
+    private final boolean ascending;
+
+    public TransactionSort(Field field, boolean ascending) {
+        this.field = Objects.requireNonNull(field, "Sort field cannot be null");
+        this.ascending = ascending;
+    }
+
+    public Field getField() { return field; }
+    public boolean isAscending() { return ascending; }
+
+    public Comparator<Transaction> comparator() {
+        Comparator<Transaction> comparator;
+        switch (field) {
+            case DESCRIPTION:
+                comparator = Comparator.comparing(Transaction::getDescription,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+                break;
+            case TYPE:
+                comparator = Comparator.comparing(Transaction::getType);
+                break;
+            case AMOUNT:
+                comparator = Comparator.comparingLong(Transaction::getAmountCents);
+                break;
+            case CATEGORY:
+                comparator = Comparator.comparing(Transaction::getCategory, Comparator.nullsFirst(Comparator.naturalOrder()));
+                break;
+            default:
+                comparator = Comparator.comparing(Transaction::getDate);
+                break;
+        }
+        if (!ascending) {
+            comparator = comparator.reversed();
+        }
+        return comparator.thenComparing(Transaction::getId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TransactionSort that = (TransactionSort) o;
+        return ascending == that.ascending && field == that.field;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, ascending);
+    }
+
+    @Override
+    public String toString() {
+        return field + (ascending ? " ASC" : " DESC");
+    }
+}
@@ -0,0 +1,37 @@
+package com.financemanager.service;
+
+import com.financemanager.model.Transaction;
+
+import java.util.List;
+
+/**
+ * One slice of the filtered, sorted transactions for a (search term, sort) pair, with the
+ * number of matches it was cut from and the ledger version it was read at
+ * Holds only the slice, so a caller pages through a large ledger without keeping a reference
+ * to every row; windows with the same version come from the same state of the ledger.
+ */
+public final class TransactionWindow {
+    private final String searchTerm;
+    private final TransactionSort sort;
+    private final long version;
+    private final int offset;
+    private final int total;
+    private final List<Transaction> rows;
+
+    TransactionWindow(String searchTerm, TransactionSort sort, long version, int offset, int total,
+                      List<Transaction> rows) {
+        this.searchTerm = searchTerm;
+        this.sort = sort;
+        this.version = version;
+        this.offset = offset;
+        this.total = total;
+        this.rows = rows;
+    }
+
+    public String getSearchTerm() { return searchTerm; }
+    public TransactionSort getSort() { return sort; }
+    public long getVersion() { return version; }
+    public int getOffset() { return offset; }
+    public int getTotal() { return total; }
+    public List<Transaction> getRows() { return rows; }
+}
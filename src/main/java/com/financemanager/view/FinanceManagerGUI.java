@@ -1,25 +1,54 @@
 package com.financemanager.view;
 
 import com.financemanager.model.*;
+import com.financemanager.service.AnalyticsReport;
+import com.financemanager.service.Budget;
+import com.financemanager.service.BudgetAlert;
+import com.financemanager.service.FinanceEvent;
+import com.financemanager.service.FinanceEventBatch;
 import com.financemanager.service.FinanceService;
+import com.financemanager.service.HeavyHitter;
+import com.financemanager.service.RecurringSeries;
+import com.financemanager.service.TimeSeries;
 import com.financemanager.service.TransactionService;
+import com.financemanager.service.TransactionSort;
+import com.financemanager.service.TransactionWindow;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 
 
 /**
@@ -30,6 +59,7 @@ public class FinanceManagerGUI extends Application {
     private FinanceService financeService;
     private TableView<Account> accountTable;
     private TableView<Transaction> transactionTable;
+    private PagedTransactionList transactionList;
     private Label totalBalanceLabel;
     private ComboBox<AccountType> accountTypeCombo;
     private ComboBox<TransactionType> transactionTypeCombo;
@@ -38,6 +68,30 @@ public class FinanceManagerGUI extends Application {
     private TextField transactionAmountField;
     private TextField transactionDescriptionField;
     private TextField searchField;
+    private TextArea analyticsText;
+    private LineChart<Number, Number> cashFlowChart;
+    private LineChart<Number, Number> balanceChart;
+    private Button undoBtn;
+    private Button redoBtn;
+    private ProgressIndicator progressIndicator;
+    private Label statusLabel;
+    // Kept apart from the status text so the reload that follows a change does not hide it
+    private Label outlierLabel;
+
+    // Searches, analytics and refreshes run here so a large ledger never blocks the FX thread
+    private final ExecutorService backgroundExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "finance-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(300));
+    private final LatestRequest<Task<TransactionWindow>> transactionRequests = new LatestRequest<>();
+    private final LatestRequest<Task<AnalyticsData>> analyticsRequests = new LatestRequest<>();
+    private final LatestRequest<Task<DataSnapshot>> refreshRequests = new LatestRequest<>();
+    private TransactionSort requestedSort = TransactionSort.NEWEST_FIRST;
+    // Set when transactions change while a load is running; one more load follows it
+    private boolean transactionsStale;
+    private int runningTasks;
 
     private static FinanceService staticFinanceService;
     
@@ -71,13 +125,21 @@ public class FinanceManagerGUI extends Application {
 
         Scene scene = new Scene(mainLayout, 1200, 800);
         scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), this::undo);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), this::redo);
         primaryStage.setScene(scene);
         primaryStage.show();
 
-        // Refresh data
+        // Apply service changes as they happen, then load the initial data
+        financeService.getChangeFeed().subscribe(new ChangeSubscriber());
         refreshData();
     }
 
+    @Override
+    public void stop() {
+        backgroundExecutor.shutdownNow();
+    }
+
     private VBox createTopSection() {
         VBox topSection = new VBox(10);
         topSection.setAlignment(Pos.CENTER);
@@ -133,6 +195,9 @@ public class FinanceManagerGUI extends Application {
         TableColumn<Account, AccountType> typeCol = new TableColumn<>("Type");
         typeCol.setCellValueFactory(new PropertyValueFactory<>("type"));
 
+        TableColumn<Account, Currency> currencyCol = new TableColumn<>("Currency");
+        currencyCol.setCellValueFactory(new PropertyValueFactory<>("currency"));
+
         TableColumn<Account, BigDecimal> balanceCol = new TableColumn<>("Balance");
         balanceCol.setCellValueFactory(new PropertyValueFactory<>("balance"));
         balanceCol.setCellFactory(column -> new TableCell<Account, BigDecimal>() {
@@ -153,7 +218,7 @@ public class FinanceManagerGUI extends Application {
             }
         });
 
-        accountTable.getColumns().addAll(nameCol, typeCol, balanceCol);
+        accountTable.getColumns().addAll(nameCol, typeCol, currencyCol, balanceCol);
 
         // Add account form
         HBox addAccountForm = new HBox(10);
@@ -186,22 +251,37 @@ public class FinanceManagerGUI extends Application {
         searchBar.setAlignment(Pos.CENTER_LEFT);
         searchField = new TextField();
         searchField.setPromptText("Search transactions...");
+        // Search as you type, but only once typing pauses
+        searchDebounce.setOnFinished(e -> searchTransactions());
+        searchField.textProperty().addListener((observable, oldText, newText) -> searchDebounce.playFromStart());
+        searchField.setOnAction(e -> searchTransactions());
         Button searchBtn = new Button("Search");
         searchBtn.setOnAction(e -> searchTransactions());
         searchBar.getChildren().addAll(new Label("Search:"), searchField, searchBtn);
 
-        // Transaction table
-        transactionTable = new TableView<>();
+        // Transaction table, backed by a lazily paged list; sorting is pushed down to the service
+        transactionList = new PagedTransactionList(financeService);
+        transactionTable = new TableView<>(transactionList);
         transactionTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        transactionTable.setSortPolicy(table -> {
+            TransactionSort sort = toTransactionSort(table.getSortOrder());
+            if (!sort.equals(requestedSort)) {
+                loadTransactions(searchField.getText(), sort);
+            }
+            return true;
+        });
 
         TableColumn<Transaction, String> descCol = new TableColumn<>("Description");
         descCol.setCellValueFactory(new PropertyValueFactory<>("description"));
+        descCol.setUserData(TransactionSort.Field.DESCRIPTION);
 
         TableColumn<Transaction, TransactionType> typeCol = new TableColumn<>("Type");
         typeCol.setCellValueFactory(new PropertyValueFactory<>("type"));
+        typeCol.setUserData(TransactionSort.Field.TYPE);
 
         TableColumn<Transaction, BigDecimal> amountCol = new TableColumn<>("Amount");
         amountCol.setCellValueFactory(new PropertyValueFactory<>("amount"));
+        amountCol.setUserData(TransactionSort.Field.AMOUNT);
         amountCol.setCellFactory(column -> new TableCell<Transaction, BigDecimal>() {
             @Override
             protected void updateItem(BigDecimal item, boolean empty) {
@@ -211,8 +291,8 @@ public class FinanceManagerGUI extends Application {
                     setStyle("");
                 } else {
                     setText("$" + String.format("%.2f", item));
-                    Transaction transaction = getTableView().getItems().get(getIndex());
-                    if (transaction.isExpense()) {
+                    Transaction transaction = getTableRow().getItem();
+                    if (transaction != null && transaction.isExpense()) {
                         setTextFill(Color.RED);
                     } else {
                         setTextFill(Color.GREEN);
@@ -223,9 +303,11 @@ public class FinanceManagerGUI extends Application {
 
         TableColumn<Transaction, Category> categoryCol = new TableColumn<>("Category");
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
+        categoryCol.setUserData(TransactionSort.Field.CATEGORY);
 
         TableColumn<Transaction, LocalDateTime> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("date"));
+        dateCol.setUserData(TransactionSort.Field.DATE);
 
         transactionTable.getColumns().addAll(descCol, typeCol, amountCol, categoryCol, dateCol);
 
@@ -274,19 +356,57 @@ public class FinanceManagerGUI extends Application {
         Button refreshAnalyticsBtn = new Button("Refresh Analytics");
         refreshAnalyticsBtn.setOnAction(e -> refreshAnalytics());
         
-        TextArea analyticsText = new TextArea();
+        cashFlowChart = createTimeSeriesChart("Daily Cash Flow");
+        balanceChart = createTimeSeriesChart("Account Balances");
+        HBox charts = new HBox(10, cashFlowChart, balanceChart);
+        HBox.setHgrow(cashFlowChart, Priority.ALWAYS);
+        HBox.setHgrow(balanceChart, Priority.ALWAYS);
+
+        analyticsText = new TextArea();
         analyticsText.setEditable(false);
-        analyticsText.setPrefRowCount(15);
+        analyticsText.setPrefRowCount(10);
 
-        analyticsContent.getChildren().addAll(refreshAnalyticsBtn, analyticsText);
+        analyticsContent.getChildren().addAll(refreshAnalyticsBtn, charts, analyticsText);
         analyticsTab.getChildren().addAll(analyticsLabel, analyticsContent);
 
-        // Store reference for updates
-        analyticsTab.setUserData(analyticsText);
-
         return analyticsTab;
     }
 
+    private LineChart<Number, Number> createTimeSeriesChart(String title) {
+        NumberAxis dateAxis = new NumberAxis();
+        dateAxis.setForceZeroInRange(false);
+        dateAxis.setTickLabelFormatter(new StringConverter<Number>() {
+            @Override
+            public String toString(Number epochDay) {
+                return LocalDate.ofEpochDay(epochDay.longValue()).toString();
+            }
+
+            @Override
+            public Number fromString(String date) {
+                return LocalDate.parse(date).toEpochDay();
+            }
+        });
+        NumberAxis amountAxis = new NumberAxis();
+
+        LineChart<Number, Number> chart = new LineChart<>(dateAxis, amountAxis);
+        chart.setTitle(title);
+        chart.setCreateSymbols(false);
+        chart.setAnimated(false);
+        chart.setPrefHeight(300);
+        return chart;
+    }
+
+    private static XYChart.Series<Number, Number> toChartSeries(String name, TimeSeries timeSeries) {
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(timeSeries.size());
+        for (int i = 0; i < timeSeries.size(); i++) {
+            points.add(new XYChart.Data<>(timeSeries.getEpochDay(i), timeSeries.getValue(i)));
+        }
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        series.setName(name);
+        series.getData().setAll(points);
+        return series;
+    }
+
     private HBox createBottomSection() {
         HBox bottomSection = new HBox(10);
         bottomSection.setAlignment(Pos.CENTER);
@@ -296,11 +416,24 @@ public class FinanceManagerGUI extends Application {
         Button refreshBtn = new Button("Refresh Data");
         refreshBtn.setOnAction(e -> refreshData());
 
+        undoBtn = new Button("Undo");
+        undoBtn.setOnAction(e -> undo());
+        redoBtn = new Button("Redo");
+        redoBtn.setOnAction(e -> redo());
+        updateUndoButtons();
+
         Button exitBtn = new Button("Exit");
         exitBtn.setStyle("-fx-background-color: #f44336; -fx-text-fill: white;");
         exitBtn.setOnAction(e -> Platform.exit());
 
-        bottomSection.getChildren().addAll(refreshBtn, exitBtn);
+        progressIndicator = new ProgressIndicator();
+        progressIndicator.setPrefSize(20, 20);
+        progressIndicator.setVisible(false);
+        statusLabel = new Label();
+        outlierLabel = new Label();
+        outlierLabel.setTextFill(Color.DARKORANGE);
+
+        bottomSection.getChildren().addAll(refreshBtn, undoBtn, redoBtn, exitBtn, progressIndicator, statusLabel, outlierLabel);
         return bottomSection;
     }
 
@@ -320,7 +453,6 @@ public class FinanceManagerGUI extends Application {
 
             accountNameField.clear();
             accountTypeCombo.setValue(null);
-            refreshData();
             showAlert("Success", "Account added successfully!");
 
         } catch (Exception e) {
@@ -363,7 +495,6 @@ public class FinanceManagerGUI extends Application {
             transactionDescriptionField.clear();
             transactionTypeCombo.setValue(null);
             categoryCombo.setValue(null);
-            refreshData();
             showAlert("Success", "Transaction added successfully!");
 
         } catch (NumberFormatException e) {
@@ -373,23 +504,173 @@ public class FinanceManagerGUI extends Application {
         }
     }
 
+    private void undo() {
+        if (financeService.canUndo()) {
+            String label = financeService.getUndoLabel().orElse("");
+            try {
+                financeService.undo();
+                statusLabel.setText("Undone: " + label);
+            } catch (IllegalStateException e) {
+                statusLabel.setText(e.getMessage());
+                updateUndoButtons();
+            }
+        }
+    }
+
+    private void redo() {
+        if (financeService.canRedo()) {
+            String label = financeService.getRedoLabel().orElse("");
+            try {
+                financeService.redo();
+                statusLabel.setText("Redone: " + label);
+            } catch (IllegalStateException e) {
+                statusLabel.setText(e.getMessage());
+                updateUndoButtons();
+            }
+        }
+    }
+
+    private void updateUndoButtons() {
+        undoBtn.setDisable(!financeService.canUndo());
+        undoBtn.setTooltip(new Tooltip(financeService.getUndoLabel().map(label -> "Undo " + label).orElse("Nothing to undo")));
+        redoBtn.setDisable(!financeService.canRedo());
+        redoBtn.setTooltip(new Tooltip(financeService.getRedoLabel().map(label -> "Redo " + label).orElse("Nothing to redo")));
+    }
+
     private void searchTransactions() {
-        String searchTerm = searchField.getText().trim();
-        List<Transaction> results = financeService.searchTransactions(searchTerm);
-        transactionTable.setItems(FXCollections.observableArrayList(results));
+        searchDebounce.stop();
+        loadTransactions(searchField.getText(), requestedSort);
+    }
+
+    /**
+     * Filters and sorts in the background, cancelling any query it supersedes
+     */
+    private void loadTransactions(String searchTerm, TransactionSort sort) {
+        requestedSort = sort;
+        transactionsStale = false;
+        Task<TransactionWindow> task = new Task<>() {
+            @Override
+            protected TransactionWindow call() {
+                return transactionList.prepare(searchTerm, sort);
+            }
+        };
+        transactionRequests.start(task);
+        runInBackground(task, "Loading transactions", window -> {
+            if (!transactionRequests.isCurrent(task)) {
+                return null;
+            }
+            transactionList.publish(window);
+            if (transactionsStale) {
+                loadTransactions(searchTerm, sort);
+            }
+            return window.getTotal() + " transactions";
+        });
+    }
+
+    private TransactionSort toTransactionSort(List<TableColumn<Transaction, ?>> sortOrder) {
+        if (sortOrder.isEmpty()) {
+            return TransactionSort.NEWEST_FIRST;
+        }
+        TableColumn<Transaction, ?> column = sortOrder.get(0);
+        boolean ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        return new TransactionSort((TransactionSort.Field) column.getUserData(), ascending);
     }
 
     private void refreshData() {
-        // Refresh accounts
-        accountTable.setItems(FXCollections.observableArrayList(financeService.getAllAccounts()));
+        Task<DataSnapshot> task = new Task<>() {
+            @Override
+            protected DataSnapshot call() {
+                return new DataSnapshot(financeService.getAllAccounts(), financeService.getTotalBalance());
+            }
+        };
+        refreshRequests.start(task);
+        runInBackground(task, "Refreshing accounts", snapshot -> {
+            if (!refreshRequests.isCurrent(task)) {
+                return null;
+            }
+            // Refresh accounts
+            accountTable.setItems(FXCollections.observableArrayList(snapshot.accounts));
 
-        // Refresh transactions
-        transactionTable.setItems(FXCollections.observableArrayList(financeService.getAllTransactions()));
+            // Refresh total balance
+            showTotalBalance(snapshot.totalBalance);
+            return snapshot.accounts.size() + " accounts";
+        });
 
-        // Refresh total balance
-        BigDecimal totalBalance = financeService.getTotalBalance();
+        // Refresh transactions; only the visible pages are re-read
+        loadTransactions(searchField.getText(), requestedSort);
+    }
+
+    /**
+     * Applies one batch of service changes without reloading unaffected data
+     */
+    private void applyChanges(List<FinanceEvent> events) {
+        boolean balancesChanged = false;
+        boolean transactionsChanged = false;
+        for (FinanceEvent event : events) {
+            switch (event.getType()) {
+                case ACCOUNT_ADDED:
+                    if (!accountTable.getItems().contains(event.getAccount())) {
+                        accountTable.getItems().add(event.getAccount());
+                    }
+                    balancesChanged = true;
+                    break;
+                case ACCOUNT_REMOVED:
+                    accountTable.getItems().remove(event.getAccount());
+                    transactionsChanged = true;
+                    balancesChanged = true;
+                    break;
+                case TRANSACTION_ADDED:
+                case TRANSACTION_UPDATED:
+                case TRANSACTION_DELETED:
+                    transactionsChanged = true;
+                    break;
+                case BALANCE_CHANGED:
+                    // Events carry snapshots, so the row is replaced rather than re-read
+                    int row = accountTable.getItems().indexOf(event.getAccount());
+                    if (row >= 0) {
+                        accountTable.getItems().set(row, event.getAccount());
+                    }
+                    balancesChanged = true;
+                    break;
+                case OUTLIER_FLAGGED:
+                    Transaction outlier = event.getTransaction();
+                    outlierLabel.setText("Unusually large " + outlier.getCategory().getDisplayName() + " expense: "
+                        + outlier.getDescription() + " - $" + String.format("%.2f", outlier.getAmount()));
+                    break;
+                case BUDGET_ALERT:
+                    showBudgetAlert(event.getBudgetAlert());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (balancesChanged) {
+            showTotalBalance(financeService.getTotalBalance());
+        }
+        if (transactionsChanged) {
+            // Re-read in the background; a burst of batches during one load costs one more load,
+            // not a restart per batch that might never finish
+            if (transactionRequests.isPending()) {
+                transactionsStale = true;
+            } else {
+                loadTransactions(searchField.getText(), requestedSort);
+            }
+        }
+        updateUndoButtons();
+    }
+
+    private void showBudgetAlert(BudgetAlert alert) {
+        Budget budget = alert.getBudget();
+        String budgetName = budget.getScope() == Budget.Scope.CATEGORY
+            ? budget.getCategory().getDisplayName() : budget.getAccountId();
+        outlierLabel.setText(budgetName + " budget " + (alert.getLevel() == BudgetAlert.Level.EXCEEDED
+            ? "exceeded" : "at " + alert.getLevel().getPercent() + "%") + ": $"
+            + String.format("%.2f", alert.getSpent()) + " of $" + String.format("%.2f", budget.getMonthlyLimit()));
+    }
+
+    private void showTotalBalance(BigDecimal totalBalance) {
         totalBalanceLabel.setText("Total Balance: $" + String.format("%.2f", totalBalance));
-        
         if (totalBalance.compareTo(BigDecimal.ZERO) < 0) {
             totalBalanceLabel.setTextFill(Color.RED);
         } else {
@@ -398,10 +679,33 @@ public class FinanceManagerGUI extends Application {
     }
 
     private void refreshAnalytics() {
-        TextArea analyticsText = (TextArea) ((VBox) ((Tab) ((TabPane) ((BorderPane) 
-            ((Scene) ((Stage) totalBalanceLabel.getScene().getWindow()).getScene()).getRoot()).getCenter())
-            .getTabs().get(2)).getContent()).getChildren().get(1);
+        // Series are reduced in the service to about one point per horizontal pixel
+        int maxPoints = Math.max(100, (int) cashFlowChart.getWidth());
+        Task<AnalyticsData> task = new Task<>() {
+            @Override
+            protected AnalyticsData call() {
+                Map<String, TimeSeries> balances = new LinkedHashMap<>();
+                for (Account account : financeService.getAllAccounts()) {
+                    balances.put(account.getName(), financeService.getBalanceHistory(account.getId(), maxPoints));
+                }
+                return new AnalyticsData(buildAnalyticsReport(), financeService.getCashFlowSeries(maxPoints), balances);
+            }
+        };
+        analyticsRequests.start(task);
+        runInBackground(task, "Computing analytics", data -> {
+            if (!analyticsRequests.isCurrent(task)) {
+                return null;
+            }
+            analyticsText.setText(data.report);
+            cashFlowChart.getData().setAll(List.of(toChartSeries("Net cash flow", data.cashFlow)));
+            List<XYChart.Series<Number, Number>> balanceSeries = new ArrayList<>();
+            data.balances.forEach((name, series) -> balanceSeries.add(toChartSeries(name, series)));
+            balanceChart.getData().setAll(balanceSeries);
+            return "Analytics ready";
+        });
+    }
 
+    private String buildAnalyticsReport() {
         StringBuilder analytics = new StringBuilder();
         analytics.append("=== FINANCIAL ANALYTICS ===\n\n");
         
@@ -416,19 +720,80 @@ public class FinanceManagerGUI extends Application {
                    .append("): $").append(String.format("%.2f", account.getBalance())).append("\n");
         }
         
-        // Recent transactions
+        // Year over year, all computed in one parallel pass over the ledger
+        AnalyticsReport report = financeService.getAnalyticsReport();
+        if (!report.getYears().isEmpty()) {
+            analytics.append("\n=== YEAR OVER YEAR ===\n");
+            report.getYears().forEach((year, summary) ->
+                analytics.append(year).append(": income $").append(String.format("%.2f", summary.getIncome()))
+                       .append(", expenses $").append(String.format("%.2f", summary.getExpenses()))
+                       .append(", net $").append(String.format("%.2f", summary.getNet())).append("\n"));
+        }
+
+        // Merchant rankings come from incrementally maintained sketches, not a scan
+        List<HeavyHitter> topMerchants = financeService.getTopMerchantsBySpend(null, 5);
+        if (!topMerchants.isEmpty()) {
+            analytics.append("\n=== TOP MERCHANTS BY SPEND ===\n");
+            for (HeavyHitter merchant : topMerchants) {
+                analytics.append(merchant.getMerchant()).append(": $")
+                       .append(String.format("%.2f", merchant.getEstimatedAmount())).append("\n");
+            }
+            analytics.append("\n=== MOST FREQUENT PAYEES ===\n");
+            for (HeavyHitter payee : financeService.getMostFrequentPayees(null, 5)) {
+                analytics.append(payee.getMerchant()).append(": ").append(payee.getEstimate()).append(" payments\n");
+            }
+        }
+
+        List<RecurringSeries> subscriptions = financeService.getRecurringTransactions(LocalDate.now());
+        if (!subscriptions.isEmpty()) {
+            analytics.append("\n=== RECURRING PAYMENTS ===\n");
+            for (RecurringSeries series : subscriptions) {
+                analytics.append(series.getMerchant()).append(": $")
+                       .append(String.format("%.2f", series.getTypicalAmount()))
+                       .append(" every ").append(series.getPeriodDays()).append(" days, next ")
+                       .append(series.getNextExpectedDate()).append("\n");
+            }
+        }
+
+        // Recent transactions, read from the service's date index
         analytics.append("\n=== RECENT TRANSACTIONS ===\n");
-        List<Transaction> recentTransactions = financeService.getAllTransactions();
-        recentTransactions.stream()
-                .sorted((t1, t2) -> t2.getDate().compareTo(t1.getDate()))
-                .limit(10)
-                .forEach(transaction -> {
-                    analytics.append(transaction.getType().getDisplayName()).append(": ")
-                           .append(transaction.getDescription()).append(" - $")
-                           .append(String.format("%.2f", transaction.getAmount())).append("\n");
-                });
-
-        analyticsText.setText(analytics.toString());
+        for (Transaction transaction : financeService.getRecentTransactions(10)) {
+            analytics.append(transaction.getType().getDisplayName()).append(": ")
+                   .append(transaction.getDescription()).append(" - $")
+                   .append(String.format("%.2f", transaction.getAmount())).append("\n");
+        }
+
+        return analytics.toString();
+    }
+
+    /**
+     * Runs a task on the background executor and applies its result on the FX thread.
+     * The publish function returns the status text to show, or null if the result was superseded.
+     */
+    private <T> void runInBackground(Task<T> task, String description, Function<T, String> publish) {
+        long started = System.nanoTime();
+        updateProgress(1);
+        statusLabel.setText(description + "...");
+
+        task.setOnSucceeded(e -> {
+            updateProgress(-1);
+            String status = publish.apply(task.getValue());
+            if (status != null) {
+                long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+                statusLabel.setText(status + " in " + elapsedMillis + " ms");
+            }
+        });
+        task.setOnFailed(e -> {
+            updateProgress(-1);
+            statusLabel.setText(description + " failed: " + task.getException().getMessage());
+        });
+        task.setOnCancelled(e -> updateProgress(-1));
+        backgroundExecutor.execute(task);
+    }
+
+    private void updateProgress(int delta) {
+        runningTasks += delta;
+        progressIndicator.setVisible(runningTasks > 0);
     }
 
     private void showAlert(String title, String message) {
@@ -438,4 +803,77 @@ public class FinanceManagerGUI extends Application {
         alert.setContentText(message);
         alert.showAndWait();
     }
+
+    /**
+     * Accounts and total balance read together in the background and published as one update
+     */
+    private static final class DataSnapshot {
+        final List<Account> accounts;
+        final BigDecimal totalBalance;
+
+        DataSnapshot(List<Account> accounts, BigDecimal totalBalance) {
+            this.accounts = accounts;
+            this.totalBalance = totalBalance;
+        }
+    }
+
+    /**
+     * Report text and chart series computed together in the background
+     */
+    private static final class AnalyticsData {
+        final String report;
+        final TimeSeries cashFlow;
+        final Map<String, TimeSeries> balances;
+
+        AnalyticsData(String report, TimeSeries cashFlow, Map<String, TimeSeries> balances) {
+            this.report = report;
+            this.cashFlow = cashFlow;
+            this.balances = balances;
+        }
+    }
+
+    /**
+     * Receives change batches from FinanceService and applies them on the FX thread
+     * Requests one batch at a time, so a busy UI pushes back on the feed; if batches were
+     * dropped meanwhile the sequence gap triggers a full refresh instead
+     */
+    private final class ChangeSubscriber implements Flow.Subscriber<FinanceEventBatch> {
+        private Flow.Subscription subscription;
+        private long lastSequence = -1;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(FinanceEventBatch batch) {
+            Platform.runLater(() -> {
+                boolean missedBatches = lastSequence >= 0 && !batch.follows(lastSequence);
+                lastSequence = batch.getSequence();
+                if (missedBatches) {
+                    refreshData();
+                    // Alerts in the missed batches were kept by the service, those in this one were not
+                    financeService.getPendingBudgetAlerts().forEach(FinanceManagerGUI.this::showBudgetAlert);
+                    financeService.clearPendingBudgetAlerts();
+                    batch.getEvents().stream()
+                        .filter(event -> event.getType() == FinanceEvent.Type.BUDGET_ALERT)
+                        .forEach(event -> showBudgetAlert(event.getBudgetAlert()));
+                } else {
+                    applyChanges(batch.getEvents());
+                }
+                subscription.request(1);
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            Platform.runLater(() -> statusLabel.setText("Change feed failed: " + throwable.getMessage()));
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.financemanager.view;
+
+import java.util.concurrent.Future;
+
+/**
+ * Tracks the newest of a series of background requests of one kind, such as a search
+ * Starting a request cancels (and interrupts) the one it supersedes, and a result is only
+ * applied while its request is still the newest, so a slow, superseded request can never
+ * overwrite the result of a later one. Used from the FX thread only.
+ */
+public final class LatestRequest<T extends Future<?>> {
+    private T current;
+
+    /**
+     * Makes the request the newest, cancelling the previous one if it is still running
+     */
+    public void start(T request) {
+        if (current != null) {
+            current.cancel(true);
+        }
+        current = request;
+    }
+
+    /**
+     * Whether a result from this request should still be applied
+     */
+    public boolean isCurrent(T request) {
+        return request == current && !request.isCancelled();
+    }
+
+    /**
+     * Whether the newest request is still running
+     */
+    public boolean isPending() {
+        return current != null && !current.isDone();
+    }
+}
@@ -0,0 +1,108 @@
+package com.financemanager.view;
+
+import com.financemanager.model.Transaction;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.TransactionSort;
+import com.financemanager.service.TransactionWindow;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only list backing the transaction table, paged from the service in fixed-size windows
+ * Filtering and sorting happen in FinanceService; the list only keeps the pages the table has
+ * shown most recently, so a large ledger is never copied to the FX thread. Pages read after
+ * a write may come from the newer version until the reload that write triggers is published.
+ */
+public class PagedTransactionList extends ObservableListBase<Transaction> {
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 8;
+
+    private final FinanceService financeService;
+    // Pages by index, least recently used first, all read at the same ledger version
+    private final Map<Integer, List<Transaction>> pages = new LinkedHashMap<Integer, List<Transaction>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Transaction>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private String searchTerm = "";
+    private TransactionSort sort = TransactionSort.NEWEST_FIRST;
+    private long version = -1;
+    private int size;
+
+    public PagedTransactionList(FinanceService financeService) {
+        this.financeService = financeService;
+    }
+
+    public String getSearchTerm() { return searchTerm; }
+    public TransactionSort getSort() { return sort; }
+
+    /**
+     * Reads the total and the first pages for a search term and sort.
+     * Safe to call from a background thread; nothing visible changes until publish.
+     */
+    public TransactionWindow prepare(String searchTerm, TransactionSort sort) {
+        return financeService.getTransactionWindow(searchTerm, sort, 0, 2 * PAGE_SIZE);
+    }
+
+    /**
+     * Swaps in a prepared window in one change notification; must run on the FX thread
+     */
+    public void publish(TransactionWindow prepared) {
+        int oldSize = size;
+        searchTerm = prepared.getSearchTerm();
+        sort = prepared.getSort();
+        size = prepared.getTotal();
+        pages.clear();
+        store(prepared);
+
+        beginChange();
+        if (oldSize > 0) {
+            // Removed rows are not kept in memory; listeners only need the count
+            nextRemove(0, Collections.nCopies(oldSize, null));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int page = index / PAGE_SIZE;
+        List<Transaction> rows = pages.get(page);
+        if (rows == null) {
+            // The page scrolled into view and the one after it, in one read
+            store(financeService.getTransactionWindow(searchTerm, sort, page * PAGE_SIZE, 2 * PAGE_SIZE));
+            rows = pages.get(page);
+        }
+        int row = index - page * PAGE_SIZE;
+        // The ledger shrank since the size was published; the reload that follows fixes the count
+        return rows != null && row < rows.size() ? rows.get(row) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void store(TransactionWindow window) {
+        if (window.getVersion() != version) {
+            // Pages from different versions would show a row twice or skip one across a boundary
+            pages.clear();
+            version = window.getVersion();
+        }
+        List<Transaction> rows = window.getRows();
+        int first = window.getOffset() / PAGE_SIZE;
+        for (int from = 0; from < rows.size(); from += PAGE_SIZE) {
+            pages.put(first + from / PAGE_SIZE, rows.subList(from, Math.min(rows.size(), from + PAGE_SIZE)));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.financemanager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financemanager.api.FinanceApiBenchmark;
+import com.financemanager.api.FinanceApiServer;
+import com.financemanager.model.*;
+import com.financemanager.service.FinanceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FinanceApiServer
+ * Drives the HTTP API on localhost with the JDK client and checks the service behind it
+ */
+@DisplayName("Finance API Server Tests")
+class FinanceApiServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private FinanceService financeService;
+    private FinanceApiServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        financeService = new FinanceService();
+        server = new FinanceApiServer(financeService, new InetSocketAddress("localhost", 0), 4);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should create, read, update and delete accounts and transactions")
+    void shouldServeCrud() throws Exception {
+        // When
+        HttpResponse<String> created = call("POST", "/api/accounts",
+            "{\"id\":\"ACC_001\",\"name\":\"Checking\",\"type\":\"CHECKING\",\"balance\":1000.00}");
+        HttpResponse<String> posted = call("POST", "/api/transactions",
+            "{\"id\":\"TXN_1\",\"accountId\":\"ACC_001\",\"type\":\"EXPENSE\",\"amount\":\"42.50\","
+                + "\"description\":\"Corner Grocery\",\"category\":\"FOOD\",\"date\":\"2024-03-05T10:15:00\"}");
+        HttpResponse<String> updated = call("PUT", "/api/transactions/TXN_1", "{\"amount\":40.00}");
+
+        // Then
+        assertEquals(201, created.statusCode());
+        assertEquals(201, posted.statusCode());
+        assertEquals(200, updated.statusCode());
+        JsonNode transaction = mapper.readTree(call("GET", "/api/transactions/TXN_1", null).body());
+        assertEquals("Corner Grocery", transaction.get("description").asText());
+        assertAmount("40.00", transaction.get("amount"));
+        assertEquals("2024-03-05T10:15", transaction.get("date").asText());
+        JsonNode account = mapper.readTree(call("GET", "/api/accounts/ACC_001", null).body());
+        assertAmount("960.00", account.get("balance"));
+        assertEquals("USD", account.get("currency").asText());
+
+        // When: the same IDs are posted again
+        HttpResponse<String> duplicateAccount = call("POST", "/api/accounts",
+            "{\"id\":\"ACC_001\",\"name\":\"Other\",\"type\":\"SAVINGS\",\"balance\":\"5.00\"}");
+        HttpResponse<String> duplicateTransaction = call("POST", "/api/transactions",
+            "{\"id\":\"TXN_1\",\"accountId\":\"ACC_001\",\"type\":\"EXPENSE\",\"amount\":\"1.00\",\"description\":\"Again\"}");
+
+        // Then: a conflict with what is stored, not a malformed request
+        assertEquals(409, duplicateAccount.statusCode());
+        assertEquals(409, duplicateTransaction.statusCode());
+        assertAmount("960.00", mapper.readTree(call("GET", "/api/accounts/ACC_001", null).body()).get("balance"));
+
+        // When: fields without an empty value are sent as JSON null
+        HttpResponse<String> nullAmount = call("PUT", "/api/transactions/TXN_1", "{\"amount\":null}");
+        HttpResponse<String> nullBalance = call("POST", "/api/accounts",
+            "{\"id\":\"ACC_002\",\"name\":\"Savings\",\"type\":\"SAVINGS\",\"balance\":null}");
+
+        // Then
+        assertEquals(400, nullAmount.statusCode());
+        assertEquals(400, nullBalance.statusCode());
+        assertTrue(financeService.getAccount("ACC_002").isEmpty());
+
+        // When
+        HttpResponse<String> deleted = call("DELETE", "/api/transactions/TXN_1", null);
+
+        // Then
+        assertEquals(204, deleted.statusCode());
+        assertTrue(financeService.getTransaction("TXN_1").isEmpty());
+        assertEquals(new BigDecimal("1000.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+        assertEquals(404, call("GET", "/api/transactions/TXN_1", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Should ingest a bulk array atomically and serve listings and reports")
+    void shouldIngestBulkAndServeReports() throws Exception {
+        // Given
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("5000.00")));
+        StringBuilder bulk = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            bulk.append(i == 0 ? "" : ",").append("{\"accountId\":\"ACC_001\",\"type\":\"EXPENSE\",\"amount\":\"2.00\",")
+                .append("\"description\":\"Coffee ").append(i % 5).append("\",\"category\":\"FOOD\",")
+                .append("\"date\":\"2024-03-").append(String.format("%02d", 1 + i % 28)).append("T08:00:00\"}");
+        }
+        bulk.append("]");
+
+        // When
+        HttpResponse<String> ingested = call("POST", "/api/transactions/bulk", bulk.toString());
+        HttpResponse<String> rejected = call("POST", "/api/transactions/bulk",
+            "[{\"accountId\":\"ACC_001\",\"type\":\"EXPENSE\",\"amount\":\"1.00\",\"description\":\"Ok\"},"
+                + "{\"accountId\":\"ACC_404\",\"type\":\"EXPENSE\",\"amount\":\"1.00\",\"description\":\"Unknown account\"}]");
+
+        // Then
+        assertEquals(201, ingested.statusCode());
+        assertEquals(500, mapper.readTree(ingested.body()).get("added").asInt());
+        assertEquals(400, rejected.statusCode());
+        assertTrue(mapper.readTree(rejected.body()).has("error"));
+        assertEquals(500, financeService.getAllTransactions().size());
+
+        JsonNode page = mapper.readTree(call("GET", "/api/transactions?search=coffee%203&limit=50&sort=amount", null).body());
+        assertEquals(50, page.size());
+        JsonNode monthly = mapper.readTree(call("GET", "/api/reports/monthly?month=2024-03", null).body());
+        assertAmount("1000.00", monthly.get("expenses"));
+        assertAmount("1000.00", monthly.get("categories").get("FOOD"));
+        JsonNode balance = mapper.readTree(call("GET", "/api/reports/balance", null).body());
+        assertAmount("4000.00", balance.get("total"));
+        assertEquals(1, mapper.readTree(call("GET", "/api/reports/analytics", null).body()).get("months").size());
+        assertEquals(400, call("POST", "/api/transactions", "{not json").statusCode());
+        assertEquals(404, call("GET", "/api/reports/unknown", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Should sustain concurrent keep-alive clients in the benchmark without errors")
+    void shouldRunBenchmarkWithoutErrors() throws Exception {
+        // Given
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("5000.00")));
+
+        // When
+        FinanceApiBenchmark.Result result = FinanceApiBenchmark.run(
+            URI.create("http://localhost:" + server.getPort() + "/api/reports/balance"), 64, Duration.ofMillis(500));
+
+        // Then
+        assertEquals(0, result.getErrors(), result.toString());
+        assertTrue(result.getRequests() > 64, result.toString());
+        assertTrue(result.getLatencyMicros(0.5) <= result.getLatencyMicros(0.99));
+    }
+
+    private static void assertAmount(String expected, JsonNode actual) {
+        // The tree model strips trailing zeros, so compare by value
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.decimalValue()), expected + " vs " + actual);
+    }
+
+    private HttpResponse<String> call(String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        request.method(method, body != null
+            ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
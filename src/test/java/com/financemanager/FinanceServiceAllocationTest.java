@@ -0,0 +1,155 @@
+package com.financemanager;
+
+import com.financemanager.model.*;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation-budget regression tests for the FinanceService hot paths
+ * Measures bytes allocated per operation so per-row boxing or stream garbage fails the build
+ */
+@DisplayName("Finance Service Allocation Tests")
+class FinanceServiceAllocationTest {
+
+    private static final int LEDGER_SIZE = 50_000;
+    private static final int ACCOUNT_COUNT = 100;
+    private static final int WARMUP_ROUNDS = 20;
+
+    private final com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private FinanceService financeService;
+    private TransactionService transactionService;
+    private Month month;
+    private int year;
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(threadBean.isThreadAllocatedMemorySupported(), "JVM must support per-thread allocation counters");
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        financeService = new FinanceService();
+        transactionService = financeService.getTransactionService();
+        LocalDateTime now = LocalDateTime.now();
+        month = now.getMonth();
+        year = now.getYear();
+
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            financeService.addAccount(new Account(accountId(i), "Account " + i, AccountType.CHECKING, new BigDecimal("1000.00")));
+        }
+        for (Transaction transaction : createTransactions(LEDGER_SIZE)) {
+            financeService.addTransaction(transaction);
+        }
+    }
+
+    @Test
+    @DisplayName("Monthly income and expenses should not allocate per transaction")
+    void monthlyTotalsShouldNotAllocatePerTransaction() {
+        long bytesPerCall = measure(20, () -> {
+            financeService.clearQueryCache();
+            financeService.getMonthlyIncome(month, year);
+            financeService.getMonthlyExpenses(month, year);
+        });
+
+        // Two results of a few dozen bytes each; one byte per row would already blow the budget
+        assertBudget("getMonthlyIncome + getMonthlyExpenses", bytesPerCall, 1_024);
+    }
+
+    @Test
+    @DisplayName("Expenses by category should not allocate per transaction")
+    void expensesByCategoryShouldNotAllocatePerTransaction() {
+        long bytesPerCall = measure(20, () -> {
+            financeService.clearQueryCache();
+            financeService.getExpensesByCategory(month, year);
+        });
+
+        assertBudget("getExpensesByCategory", bytesPerCall, 4_096);
+    }
+
+    @Test
+    @DisplayName("Account lookup should stay within a constant allocation budget")
+    void accountLookupShouldStayWithinBudget() {
+        // Built outside the measured call: concatenating the ID allocates a new String each time,
+        // which is the test's own cost and not part of getAccount's budget
+        String accountId = accountId(42);
+        long bytesPerCall = measure(100_000, () -> financeService.getAccount(accountId));
+
+        assertBudget("getAccount", bytesPerCall, 32);
+    }
+
+    @Test
+    @DisplayName("Adding a transaction should stay within a constant allocation budget")
+    void addTransactionShouldStayWithinBudget() {
+        int operations = 20_000;
+        List<Transaction> batch = createTransactions(operations * (WARMUP_ROUNDS + 1));
+        int[] next = {0};
+
+        long bytesPerCall = measure(operations, () -> financeService.addTransaction(batch.get(next[0]++)));
+
+        // Balance update and list growth only; no copies of the ledger or per-call collections
+        assertBudget("addTransaction", bytesPerCall, 512);
+    }
+
+    @Test
+    @DisplayName("Search should not allocate a lower-cased copy of every description")
+    void searchShouldNotAllocatePerTransaction() {
+        long bytesPerCall = measure(20, () -> {
+            financeService.clearQueryCache();
+            financeService.searchTransactions("no such merchant");
+        });
+
+        assertBudget("searchTransactions (no matches)", bytesPerCall, 1_024);
+    }
+
+    /**
+     * Average bytes allocated per run; queries behind the query cache clear it in the operation,
+     * so each run measures the scan rather than a cache hit
+     */
+    private long measure(int operations, Runnable operation) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < operations; i++) {
+                operation.run();
+            }
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / operations;
+    }
+
+    private static void assertBudget(String operation, long bytesPerCall, long budget) {
+        assertTrue(bytesPerCall <= budget,
+            operation + " allocated " + bytesPerCall + " bytes per call, budget is " + budget);
+    }
+
+    private List<Transaction> createTransactions(int count) {
+        List<Transaction> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Category category = i % 3 == 0 ? Category.SALARY : Category.values()[6 + i % 11];
+            TransactionType type = category.isIncomeCategory() ? TransactionType.INCOME : TransactionType.EXPENSE;
+            created.add(transactionService.createTransaction(
+                accountId(i % ACCOUNT_COUNT), type, new BigDecimal((i % 500) + 1 + ".25"), "Merchant " + (i % 250), category));
+        }
+        return created;
+    }
+
+    private static String accountId(int index) {
+        return "ACC_" + index;
+    }
+}
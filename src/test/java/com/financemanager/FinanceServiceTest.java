@@ -1,17 +1,54 @@
 package com.financemanager;
 
 import com.financemanager.model.*;
+import com.financemanager.service.AccrualPolicy;
+import com.financemanager.service.AccrualResult;
+import com.financemanager.service.AnalyticsReport;
+import com.financemanager.service.BalanceDrift;
+import com.financemanager.service.Budget;
+import com.financemanager.service.BudgetAlert;
+import com.financemanager.service.CategorizationEngine;
+import com.financemanager.service.CategoryRule;
+import com.financemanager.service.DescriptionNormalizer;
+import com.financemanager.service.FinanceEvent;
+import com.financemanager.service.FinanceEventBatch;
 import com.financemanager.service.FinanceService;
+import com.financemanager.service.FxRateTable;
+import com.financemanager.service.HeavyHitter;
+import com.financemanager.service.LedgerChecksum;
+import com.financemanager.service.QueryCacheStats;
+import com.financemanager.service.QueryPlan;
+import com.financemanager.service.QueryResult;
+import com.financemanager.service.RecurringSeries;
+import com.financemanager.service.SpendDistribution;
+import com.financemanager.service.TimeSeries;
+import com.financemanager.service.TransactionListing;
+import com.financemanager.service.TransactionQuery;
 import com.financemanager.service.TransactionService;
+import com.financemanager.service.TransactionSort;
+import com.financemanager.service.TransactionWindow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +94,18 @@ class FinanceServiceTest {
         assertThrows(IllegalArgumentException.class, () -> financeService.addAccount(account2));
     }
 
+    @Test
+    @DisplayName("Should reject an opening balance with a fraction of a cent")
+    void shouldRejectFractionalCentOpeningBalance() {
+        // Given
+        Account account = new Account("ACC_001", "Account 1", AccountType.CHECKING, new BigDecimal("100.005"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> financeService.addAccount(account));
+        assertTrue(financeService.getAccount("ACC_001").isEmpty());
+        assertTrue(financeService.getAllAccounts().isEmpty());
+    }
+
     @Test
     @DisplayName("Should calculate total balance correctly")
     void shouldCalculateTotalBalanceCorrectly() {
@@ -220,4 +269,1124 @@ class FinanceServiceTest {
         assertFalse(financeService.getAccount("ACC_001").isPresent());
         assertEquals(0, financeService.getAllTransactions().size());
     }
+
+    @Test
+    @DisplayName("Should page through filtered transactions in service-side sort order")
+    void shouldPageThroughFilteredTransactionsInSortOrder() {
+        // Given
+        Account account = new Account("ACC_001", "Test Account", AccountType.CHECKING, new BigDecimal("1000.00"));
+        financeService.addAccount(account);
+        for (int i = 1; i <= 25; i++) {
+            financeService.addTransaction(transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal(i + ".00"), "Coffee " + i, Category.FOOD));
+        }
+        financeService.addTransaction(transactionService.createIncomeTransaction(
+            "ACC_001", new BigDecimal("3000.00"), "Salary", Category.SALARY));
+
+        TransactionSort byAmount = new TransactionSort(TransactionSort.Field.AMOUNT, false);
+
+        // When
+        int matching = financeService.countTransactions("coffee");
+        List<Transaction> firstPage = financeService.getTransactionPage("coffee", byAmount, 0, 10);
+        List<Transaction> lastPage = financeService.getTransactionPage("coffee", byAmount, 20, 10);
+
+        // Then
+        assertEquals(25, matching);
+        assertEquals(26, financeService.countTransactions(""));
+        assertEquals(10, firstPage.size());
+        assertEquals(new BigDecimal("25.00"), firstPage.get(0).getAmount());
+        assertEquals(5, lastPage.size());
+        assertEquals(new BigDecimal("1.00"), lastPage.get(4).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should keep a listing pinned to its version and cache listings per term and sort")
+    void shouldPinListingsToTheirVersion() {
+        // Given
+        financeService.addAccount(new Account("ACC_001", "Test Account", AccountType.CHECKING, new BigDecimal("1000.00")));
+        for (int i = 1; i <= 5; i++) {
+            financeService.addTransaction(transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal(i + ".00"), "Coffee " + i, Category.FOOD));
+        }
+        TransactionSort byAmount = new TransactionSort(TransactionSort.Field.AMOUNT, true);
+        TransactionListing coffee = financeService.getTransactionListing("coffee", byAmount);
+
+        // When: another query runs, then a matching transaction is added
+        financeService.getTransactionPage("", TransactionSort.NEWEST_FIRST, 0, 50);
+        TransactionListing cached = financeService.getTransactionListing("coffee", byAmount);
+        financeService.addTransaction(transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("0.50"), "Coffee 0", Category.FOOD));
+
+        // Then: the other query did not evict the listing, and the old listing still pages its own version
+        assertSame(coffee, cached);
+        assertEquals(5, coffee.size());
+        assertEquals(new BigDecimal("1.00"), coffee.get(0).getAmount());
+        assertEquals(List.of(coffee.get(3), coffee.get(4)), coffee.page(3, 10));
+        TransactionListing refreshed = financeService.getTransactionListing("coffee", byAmount);
+        assertEquals(6, refreshed.size());
+        assertEquals(new BigDecimal("0.50"), refreshed.get(0).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should read date-ordered windows of the whole ledger in listing order")
+    void shouldReadDateOrderedWindows() {
+        // Given: several transactions on each of ten days, some at the same time
+        financeService.addAccount(new Account("ACC_001", "Test Account", AccountType.CHECKING, new BigDecimal("1000.00")));
+        for (int i = 0; i < 40; i++) {
+            Transaction transaction = transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal((i + 1) + ".00"), "Purchase " + i, Category.FOOD);
+            transaction.setDate(LocalDateTime.of(2024, 3, 1 + i % 10, 9 + i % 3, 0));
+            financeService.addTransaction(transaction);
+        }
+        TransactionSort oldestFirst = new TransactionSort(TransactionSort.Field.DATE, true);
+
+        for (TransactionSort sort : List.of(TransactionSort.NEWEST_FIRST, oldestFirst)) {
+            List<Transaction> all = new ArrayList<>(financeService.getAllTransactions());
+            all.sort(sort.comparator());
+
+            // When
+            TransactionWindow window = financeService.getTransactionWindow("", sort, 7, 15);
+
+            // Then: the window is the same slice a full sort would give, without building one
+            assertEquals(40, window.getTotal());
+            assertEquals(7, window.getOffset());
+            assertEquals(all.subList(7, 22), window.getRows());
+            assertEquals(all.subList(35, 40), financeService.getTransactionPage("", sort, 35, 10));
+            assertTrue(financeService.getTransactionPage("", sort, 40, 10).isEmpty());
+        }
+        assertEquals(40, financeService.countTransactions(""));
+    }
+
+    @Test
+    @DisplayName("Should abandon building a listing when the calling thread is interrupted")
+    void shouldCancelListingWhenInterrupted() {
+        // Given
+        financeService.addAccount(new Account("ACC_001", "Test Account", AccountType.CHECKING, new BigDecimal("1000.00")));
+        financeService.addTransaction(transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("3.00"), "Coffee", Category.FOOD));
+
+        // When: a superseded background search is interrupted
+        Thread.currentThread().interrupt();
+        try {
+            // Then
+            assertThrows(java.util.concurrent.CancellationException.class,
+                () -> financeService.getTransactionListing("coffee", TransactionSort.NEWEST_FIRST));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(1, financeService.getTransactionListing("coffee", TransactionSort.NEWEST_FIRST).size());
+    }
+
+    @Test
+    @DisplayName("Should add a batch of transactions atomically")
+    void shouldAddBatchOfTransactionsAtomically() {
+        // Given
+        Account account = new Account("ACC_001", "Test Account", AccountType.CHECKING, new BigDecimal("100.00"));
+        financeService.addAccount(account);
+        Transaction salary = transactionService.createIncomeTransaction(
+            "ACC_001", new BigDecimal("1000.00"), "Salary", Category.SALARY);
+        Transaction rent = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("400.00"), "Rent", Category.HOUSING);
+        Transaction orphan = transactionService.createExpenseTransaction(
+            "ACC_404", new BigDecimal("5.00"), "Unknown", Category.OTHER_EXPENSE);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> financeService.addTransactions(List.of(salary, orphan)));
+        financeService.addTransactions(List.of(salary, rent));
+
+        // Then
+        assertEquals(2, financeService.getAllTransactions().size());
+        assertEquals(new BigDecimal("700.00"), account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should publish change batches to subscribers")
+    void shouldPublishChangeBatchesToSubscribers() throws InterruptedException {
+        // Given
+        List<FinanceEventBatch> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(2);
+        financeService.getChangeFeed().subscribe(new Flow.Subscriber<FinanceEventBatch>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(FinanceEventBatch batch) {
+                received.add(batch);
+                delivered.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // When
+        Account account = new Account("ACC_001", "Test Account", AccountType.CHECKING, BigDecimal.ZERO);
+        financeService.addAccount(account);
+        financeService.addTransaction(transactionService.createIncomeTransaction(
+            "ACC_001", new BigDecimal("250.00"), "Salary", Category.SALARY));
+
+        // Then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(FinanceEvent.Type.ACCOUNT_ADDED, received.get(0).getEvents().get(0).getType());
+        FinanceEventBatch transactionBatch = received.get(1);
+        assertTrue(transactionBatch.follows(received.get(0).getSequence()));
+        assertEquals(FinanceEvent.Type.TRANSACTION_ADDED, transactionBatch.getEvents().get(0).getType());
+        assertEquals(new BigDecimal("250.00"), transactionBatch.getEvents().get(1).getBalanceDelta());
+
+        // When: a later write changes the live account
+        financeService.addTransaction(transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("100.00"), "Groceries", Category.FOOD));
+
+        // Then: the published event still shows the balance at publish time
+        Account published = transactionBatch.getEvents().get(1).getAccount();
+        assertNotSame(account, published);
+        assertEquals(new BigDecimal("250.00"), published.getBalance());
+        assertEquals(new BigDecimal("150.00"), account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should build downsampled chart series and recent activity from the date index")
+    void shouldBuildChartSeriesAndRecentActivity() {
+        // Given
+        Account account = new Account("ACC_001", "Test Account", AccountType.CHECKING, new BigDecimal("1000.00"));
+        financeService.addAccount(account);
+        LocalDateTime start = LocalDateTime.of(2015, 1, 1, 12, 0);
+        for (int day = 0; day < 3650; day++) {
+            BigDecimal amount = day == 1234 ? new BigDecimal("5000.00") : new BigDecimal("10.00");
+            Transaction expense = transactionService.createExpenseTransaction(
+                "ACC_001", amount, "Day " + day, Category.FOOD);
+            expense.setDate(start.plusDays(day));
+            financeService.addTransaction(expense);
+        }
+
+        // When
+        TimeSeries cashFlow = financeService.getCashFlowSeries(500);
+        TimeSeries balance = financeService.getBalanceHistory("ACC_001", 500);
+        List<Transaction> recent = financeService.getRecentTransactions(3);
+
+        // Then
+        assertEquals(500, cashFlow.size());
+        assertEquals(start.toLocalDate(), cashFlow.getDate(0));
+        assertEquals(start.plusDays(3649).toLocalDate(), cashFlow.getDate(499));
+        boolean spikeKept = false;
+        for (int i = 0; i < cashFlow.size(); i++) {
+            spikeKept |= cashFlow.getValue(i) == -5000.0;
+        }
+        assertTrue(spikeKept, "Downsampling should keep the outlier day");
+        assertEquals(account.getBalance().doubleValue(), balance.getValue(balance.size() - 1), 0.001);
+        assertEquals(990.0, balance.getValue(0), 0.001);
+        assertEquals(3, recent.size());
+        assertEquals("Day 3649", recent.get(0).getDescription());
+        assertEquals("Day 3647", recent.get(2).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should answer as-of balances including backdated transactions")
+    void shouldAnswerAsOfBalancesIncludingBackdatedTransactions() {
+        // Given
+        Account checking = new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("100.00"));
+        Account savings = new Account("ACC_002", "Savings", AccountType.SAVINGS, new BigDecimal("1000.00"));
+        financeService.addAccount(checking);
+        financeService.addAccount(savings);
+
+        Transaction salary = transactionService.createIncomeTransaction(
+            "ACC_001", new BigDecimal("2000.00"), "Salary", Category.SALARY);
+        salary.setDate(LocalDateTime.of(2024, 3, 1, 9, 0));
+        Transaction rent = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("800.00"), "Rent", Category.HOUSING);
+        rent.setDate(LocalDateTime.of(2024, 3, 1, 17, 30));
+        Transaction interest = transactionService.createIncomeTransaction(
+            "ACC_002", new BigDecimal("12.50"), "Interest", Category.INVESTMENT);
+        interest.setDate(LocalDateTime.of(2024, 6, 30, 0, 0));
+        // Backdated after later entries already exist
+        Transaction refund = transactionService.createIncomeTransaction(
+            "ACC_001", new BigDecimal("45.00"), "Refund", Category.OTHER_INCOME);
+        refund.setDate(LocalDateTime.of(2019, 11, 5, 12, 0));
+
+        financeService.addTransaction(salary);
+        financeService.addTransaction(rent);
+        financeService.addTransaction(interest);
+        financeService.addTransaction(refund);
+
+        // When & Then
+        assertEquals(new BigDecimal("100.00"), financeService.getBalanceAsOf("ACC_001", LocalDateTime.of(2019, 1, 1, 0, 0)));
+        assertEquals(new BigDecimal("145.00"), financeService.getBalanceAsOf("ACC_001", LocalDateTime.of(2024, 3, 1, 8, 59)));
+        assertEquals(new BigDecimal("2145.00"), financeService.getBalanceAsOf("ACC_001", LocalDateTime.of(2024, 3, 1, 12, 0)));
+        assertEquals(checking.getBalance(), financeService.getBalanceAsOf("ACC_001", LocalDateTime.of(2030, 1, 1, 0, 0)));
+        assertEquals(new BigDecimal("2345.00"), financeService.getTotalBalanceAsOf(LocalDateTime.of(2024, 5, 1, 0, 0)));
+        assertEquals(financeService.getTotalBalance(), financeService.getTotalBalanceAsOf(LocalDateTime.of(2030, 1, 1, 0, 0)));
+
+        // When: a date beyond the range the history can cover is added or edited in
+        Transaction ancient = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("5.00"), "Typo", Category.FOOD);
+        ancient.setDate(LocalDateTime.of(-999_999_999, 1, 1, 0, 0));
+        Transaction backdated = rent.copy();
+        backdated.setDate(ancient.getDate());
+
+        // Then: it is rejected before anything is changed
+        assertThrows(IllegalArgumentException.class, () -> financeService.addTransaction(ancient));
+        assertThrows(IllegalArgumentException.class, () -> financeService.updateTransaction(backdated));
+        assertEquals(new BigDecimal("1345.00"), checking.getBalance());
+        assertEquals(4, financeService.getAllTransactions().size());
+        assertSame(rent, financeService.getTransaction(rent.getId()).orElseThrow());
+        assertTrue(financeService.getTransaction(ancient.getId()).isEmpty());
+        assertTrue(financeService.verifyBalances().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should update and delete transactions with exact balance corrections")
+    void shouldUpdateAndDeleteTransactionsWithExactBalanceCorrections() {
+        // Given
+        Account checking = new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00"));
+        Account savings = new Account("ACC_002", "Savings", AccountType.SAVINGS, BigDecimal.ZERO);
+        financeService.addAccount(checking);
+        financeService.addAccount(savings);
+        Transaction groceries = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("150.00"), "Groceries", Category.FOOD);
+        groceries.setDate(LocalDateTime.of(2024, 2, 10, 10, 0));
+        financeService.addTransaction(groceries);
+
+        // When: correct the amount and move it to another month
+        Transaction edited = groceries.copy();
+        edited.setAmount(new BigDecimal("120.00"));
+        edited.setDate(LocalDateTime.of(2024, 3, 5, 10, 0));
+        financeService.updateTransaction(edited);
+
+        // Then
+        assertEquals(new BigDecimal("880.00"), checking.getBalance());
+        assertEquals(new BigDecimal("0.00"), financeService.getMonthlyExpenses(Month.FEBRUARY, 2024));
+        assertEquals(new BigDecimal("120.00"), financeService.getMonthlyExpenses(Month.MARCH, 2024));
+        assertEquals(new BigDecimal("1000.00"), financeService.getBalanceAsOf("ACC_001", LocalDateTime.of(2024, 3, 1, 0, 0)));
+        assertSame(edited, financeService.getTransaction(groceries.getId()).orElseThrow());
+        assertThrows(IllegalArgumentException.class, () -> financeService.updateTransaction(edited));
+
+        // When: delete it
+        financeService.deleteTransaction(groceries.getId());
+
+        // Then
+        assertEquals(new BigDecimal("1000.00"), checking.getBalance());
+        assertEquals(0, financeService.getAllTransactions().size());
+        assertEquals(0, financeService.getRecentTransactions(5).size());
+        assertEquals(new BigDecimal("1000.00"), financeService.getTotalBalanceAsOf(LocalDateTime.of(2030, 1, 1, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> financeService.deleteTransaction(groceries.getId()));
+    }
+
+    @Test
+    @DisplayName("Should answer composed queries from the most selective index")
+    void shouldAnswerComposedQueriesFromTheMostSelectiveIndex() {
+        // Given
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, BigDecimal.ZERO));
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, BigDecimal.ZERO));
+        for (int day = 1; day <= 28; day++) {
+            Transaction food = transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal(day + ".00"), "Market " + day, Category.FOOD);
+            food.setDate(LocalDateTime.of(2024, 2, day, 12, 0));
+            Transaction bills = transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal("10.00"), "Utility", Category.UTILITIES);
+            bills.setDate(LocalDateTime.of(2024, 3, day, 12, 0));
+            financeService.addTransaction(food);
+            financeService.addTransaction(bills);
+        }
+        Transaction interest = transactionService.createIncomeTransaction(
+            "ACC_002", new BigDecimal("5.00"), "Interest", Category.INVESTMENT);
+        interest.setDate(LocalDateTime.of(2024, 2, 29, 0, 0));
+        financeService.addTransaction(interest);
+
+        // When: the account filter is the narrowest
+        QueryResult savings = financeService.query(TransactionQuery.builder().accounts("ACC_002").build());
+
+        // Then
+        assertEquals(QueryPlan.AccessPath.ACCOUNT_INDEX, savings.getPlan().getAccessPath());
+        assertEquals(1, savings.getRows().size());
+
+        // When: a week of February, top three by amount
+        QueryResult topFood = financeService.query(TransactionQuery.builder()
+            .accounts("ACC_001")
+            .between(LocalDateTime.of(2024, 2, 10, 0, 0), LocalDateTime.of(2024, 2, 17, 0, 0))
+            .amountBetween(new BigDecimal("11.00"), null)
+            .sortBy(new TransactionSort(TransactionSort.Field.AMOUNT, false))
+            .limit(3)
+            .build());
+
+        // Then
+        assertEquals(QueryPlan.AccessPath.DATE_INDEX, topFood.getPlan().getAccessPath());
+        assertEquals(7, topFood.getPlan().getScannedRows());
+        assertEquals(6, topFood.getMatchedCount());
+        assertEquals(List.of(new BigDecimal("16.00"), new BigDecimal("15.00"), new BigDecimal("14.00")),
+            topFood.getRows().stream().map(Transaction::getAmount).collect(Collectors.toList()));
+
+        // When: grouped by month
+        QueryResult byMonth = financeService.query(TransactionQuery.builder()
+            .groupBy(TransactionQuery.GroupBy.MONTH)
+            .build());
+
+        // Then
+        assertEquals(List.of("2024-02", "2024-03"), List.copyOf(byMonth.getGroups().keySet()));
+        assertEquals(new BigDecimal("406.00"), byMonth.getGroups().get("2024-02").getExpenses());
+        assertEquals(new BigDecimal("5.00"), byMonth.getGroups().get("2024-02").getIncome());
+        assertEquals(new BigDecimal("-280.00"), byMonth.getGroups().get("2024-03").getNet());
+
+        // When: the category index stays correct after an edit
+        Transaction recategorized = interest.copy();
+        recategorized.setCategory(Category.OTHER_INCOME);
+        financeService.updateTransaction(recategorized);
+
+        // Then
+        assertEquals(0, financeService.query(TransactionQuery.builder().categories(Category.INVESTMENT).build()).getMatchedCount());
+        assertEquals(1, financeService.query(TransactionQuery.builder().categories(Category.OTHER_INCOME).build()).getMatchedCount());
+    }
+
+    @Test
+    @DisplayName("Should build a multi-year report that agrees with the per-month queries")
+    void shouldBuildMultiYearReportThatAgreesWithPerMonthQueries() {
+        // Given: ten years of activity, enough rows to be split across fork-join chunks
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, BigDecimal.ZERO));
+        financeService.addAccount(new Account("ACC_002", "Card", AccountType.CREDIT_CARD, BigDecimal.ZERO));
+        List<Transaction> batch = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2014, 1, 1, 9, 0);
+        for (int i = 0; i < 30_000; i++) {
+            Transaction transaction = i % 10 == 0
+                ? transactionService.createIncomeTransaction("ACC_001", new BigDecimal("250.00"), "Pay", Category.SALARY)
+                : transactionService.createExpenseTransaction(i % 2 == 0 ? "ACC_001" : "ACC_002",
+                    BigDecimal.valueOf(100 + i % 700, 2), "Spend", i % 3 == 0 ? Category.FOOD : Category.TRAVEL);
+            transaction.setDate(start.plusHours(i * 3L));
+            batch.add(transaction);
+        }
+        financeService.addTransactions(batch);
+
+        // When
+        AnalyticsReport report = financeService.getAnalyticsReport();
+
+        // Then
+        assertEquals(30_000, report.getTransactionCount());
+        assertEquals(30_000, report.getTotal().getCount());
+        assertEquals(financeService.getTotalBalance(), report.getTotal().getNet());
+        for (YearMonth month : List.of(YearMonth.of(2014, 1), YearMonth.of(2017, 6), YearMonth.of(2024, 3))) {
+            AnalyticsReport.PeriodSummary summary = report.getMonth(month);
+            assertEquals(financeService.getMonthlyIncome(month.getMonth(), month.getYear()), summary.getIncome());
+            assertEquals(financeService.getMonthlyExpenses(month.getMonth(), month.getYear()), summary.getExpenses());
+        }
+        AnalyticsReport.PeriodSummary total = report.getTotal();
+        assertEquals(total.getExpenses(), total.getCategoryTotal(Category.FOOD).add(total.getCategoryTotal(Category.TRAVEL)));
+        assertEquals(total.getExpenses(), total.getAccountOutflow("ACC_001").add(total.getAccountOutflow("ACC_002")));
+        BigDecimal yearlyNet = report.getYears().values().stream()
+            .map(AnalyticsReport.PeriodSummary::getNet).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(total.getNet(), yearlyNet);
+    }
+
+    @Test
+    @DisplayName("Should estimate spend percentiles per category and flag unusually large expenses")
+    void shouldEstimateSpendPercentilesAndFlagOutliers() {
+        // Given: 20,000 grocery expenses from $0.01 to $200.00 in shuffled order
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000000.00")));
+        List<Transaction> groceries = new ArrayList<>();
+        for (int cents = 1; cents <= 20_000; cents++) {
+            groceries.add(transactionService.createExpenseTransaction(
+                "ACC_001", BigDecimal.valueOf(cents, 2), "Groceries", Category.FOOD));
+        }
+        Collections.shuffle(groceries, new Random(7));
+        financeService.addTransactions(groceries);
+
+        // When
+        SpendDistribution food = financeService.getCategoryDistribution(Category.FOOD).orElseThrow();
+
+        // Then: within two percent of rank of the exact answers
+        assertEquals(20_000, food.getCount());
+        assertEquals(new BigDecimal("0.01"), food.getMin());
+        assertEquals(new BigDecimal("200.00"), food.getMax());
+        assertTrue(Math.abs(food.getMedian().doubleValue() - 100.00) <= 4.00, "median " + food.getMedian());
+        assertTrue(Math.abs(food.getP90().doubleValue() - 180.00) <= 4.00, "p90 " + food.getP90());
+        assertTrue(Math.abs(food.getP99().doubleValue() - 198.00) <= 4.00, "p99 " + food.getP99());
+        assertEquals(food.getCount(), financeService.getAccountSpendDistribution("ACC_001").orElseThrow().getCount());
+        assertTrue(financeService.getCategoryDistribution(Category.TRAVEL).isEmpty());
+
+        // When & Then
+        assertTrue(financeService.isUnusuallyLarge(transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("450.00"), "Party catering", Category.FOOD)));
+        assertFalse(financeService.isUnusuallyLarge(transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("45.00"), "Groceries", Category.FOOD)));
+
+        // When: a deletion forces the sketch to be rebuilt from the remaining rows
+        financeService.deleteTransaction(groceries.get(0).getId());
+
+        // Then
+        assertEquals(19_999, financeService.getCategoryDistribution(Category.FOOD).orElseThrow().getCount());
+        assertEquals(19_999, financeService.getAccountSpendDistribution("ACC_001").orElseThrow().getCount());
+    }
+
+    @Test
+    @DisplayName("Should account for deleted expenses in the outlier check without rebuilding the sketch")
+    void shouldSubtractDeletedExpensesFromOutlierCheck() {
+        // Given: 60 small and 60 large travel expenses
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("100000.00")));
+        List<Transaction> large = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            financeService.addTransaction(transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal("10.00"), "Bus fare", Category.TRANSPORTATION));
+            Transaction flight = transactionService.createExpenseTransaction(
+                "ACC_001", new BigDecimal("1000.00"), "Flight", Category.TRANSPORTATION);
+            financeService.addTransaction(flight);
+            large.add(flight);
+        }
+        Transaction taxi = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("500.00"), "Taxi", Category.TRANSPORTATION);
+        assertFalse(financeService.isUnusuallyLarge(taxi));
+
+        // When: the large ones are deleted or edited down
+        for (int i = 0; i < 59; i++) {
+            financeService.deleteTransaction(large.get(i).getId());
+        }
+        Transaction corrected = large.get(59).copy();
+        corrected.setAmount(new BigDecimal("12.00"));
+        financeService.updateTransaction(corrected);
+
+        // Then: the check on the write path already sees only the small ones
+        assertTrue(financeService.isUnusuallyLarge(taxi));
+        SpendDistribution transport = financeService.getCategoryDistribution(Category.TRANSPORTATION).orElseThrow();
+        assertEquals(61, transport.getCount());
+        assertEquals(new BigDecimal("12.00"), transport.getMax());
+        assertTrue(financeService.isUnusuallyLarge(taxi));
+    }
+
+    @Test
+    @DisplayName("Should rank merchants by spend and frequency with bounded error")
+    void shouldRankMerchantsBySpendAndFrequency() {
+        // Given: three regular merchants among 2,000 one-off payees, more than the sketch can track
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, BigDecimal.ZERO));
+        List<Transaction> batch = new ArrayList<>();
+        LocalDateTime march = LocalDateTime.of(2024, 3, 1, 10, 0);
+        for (int i = 0; i < 2_000; i++) {
+            batch.add(expenseOn(march.plusMinutes(i), "Corner Shop " + letters(i), "4.00"));
+            if (i % 10 == 0) {
+                batch.add(expenseOn(march.plusMinutes(i), "AMAZON.COM*" + i + " Seattle", "25.00"));
+            }
+            if (i % 4 == 0) {
+                batch.add(expenseOn(march.plusMinutes(i), "Coffee #12 Bar", "3.50"));
+            }
+            if (i % 100 == 0) {
+                batch.add(expenseOn(march.plusMinutes(i), "Landlord", "900.00"));
+            }
+        }
+        financeService.addTransactions(batch);
+
+        // When
+        List<HeavyHitter> bySpend = financeService.getTopMerchantsBySpend(YearMonth.of(2024, 3), 3);
+        List<HeavyHitter> byCount = financeService.getMostFrequentPayees(null, 2);
+
+        // Then
+        assertEquals("amazon com seattle", DescriptionNormalizer.normalize("Amazon.com #77 SEATTLE"));
+        assertEquals(List.of("landlord", "amazon com seattle", "coffee bar"),
+            bySpend.stream().map(HeavyHitter::getMerchant).collect(Collectors.toList()));
+        for (HeavyHitter hitter : bySpend) {
+            assertTrue(hitter.getGuaranteed() <= hitter.getEstimate());
+        }
+        assertTrue(bySpend.get(0).getGuaranteed() <= 20 * 90_000L && bySpend.get(0).getEstimate() >= 20 * 90_000L);
+        assertEquals("coffee bar", byCount.get(0).getMerchant());
+        assertTrue(byCount.get(0).getEstimate() >= 500);
+        assertTrue(financeService.getTopMerchantsBySpend(YearMonth.of(2024, 4), 3).isEmpty());
+
+        // When: the landlord payments are deleted, their spend is taken back out of the sketches
+        for (Transaction transaction : batch) {
+            if (transaction.getDescription().equals("Landlord")) {
+                financeService.deleteTransaction(transaction.getId());
+            }
+        }
+
+        // Then
+        assertEquals("amazon com seattle", financeService.getTopMerchantsBySpend(YearMonth.of(2024, 3), 1).get(0).getMerchant());
+
+        // When: a second account's payee leads, then the account is removed
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, BigDecimal.ZERO));
+        for (int i = 0; i < 3; i++) {
+            Transaction transfer = transactionService.createExpenseTransaction(
+                "ACC_002", new BigDecimal("5000.00"), "Broker", Category.SHOPPING);
+            transfer.setDate(march.plusDays(i));
+            financeService.addTransaction(transfer);
+        }
+        assertEquals("broker", financeService.getTopMerchantsBySpend(null, 1).get(0).getMerchant());
+        financeService.removeAccount("ACC_002");
+
+        // Then
+        assertEquals("amazon com seattle", financeService.getTopMerchantsBySpend(null, 1).get(0).getMerchant());
+        assertEquals("amazon com seattle", financeService.getTopMerchantsBySpend(YearMonth.of(2024, 3), 1).get(0).getMerchant());
+    }
+
+    private static String letters(int number) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return name.toString();
+    }
+
+    private Transaction expenseOn(LocalDateTime date, String description, String amount) {
+        Transaction transaction = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal(amount), description, Category.SHOPPING);
+        transaction.setDate(date);
+        return transaction;
+    }
+
+    @Test
+    @DisplayName("Should detect active subscriptions and predict the next charge")
+    void shouldDetectActiveSubscriptionsAndPredictNextCharge() {
+        // Given
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, BigDecimal.ZERO));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 3, 8, 0);
+        List<Transaction> batch = new ArrayList<>();
+        for (int month = 0; month < 12; month++) {
+            // Charged a day or two either side of the 3rd, description varies by reference number
+            batch.add(expenseOn(start.plusMonths(month).plusDays(month % 3 - 1), "NETFLIX.COM " + (1000 + month), "15.99"));
+            batch.add(expenseOn(start.plusMonths(month).plusDays(10), "Grocery run", String.valueOf(40 + month * 7)));
+        }
+        for (int week = 0; week < 6; week++) {
+            // A gym membership that was cancelled in February
+            batch.add(expenseOn(start.plusWeeks(week), "City Gym", "12.00"));
+        }
+        Transaction oneOff = expenseOn(start.plusDays(40), "Netflix.com gift card", "50.00");
+        batch.add(oneOff);
+        financeService.addTransactions(batch);
+
+        // When
+        List<RecurringSeries> active = financeService.getRecurringTransactions(LocalDate.of(2025, 1, 1));
+
+        // Then
+        assertEquals(1, active.size());
+        RecurringSeries netflix = active.get(0);
+        assertEquals("netflix com", netflix.getMerchant());
+        assertEquals(new BigDecimal("15.99"), netflix.getTypicalAmount());
+        assertEquals(12, netflix.getOccurrences());
+        assertTrue(netflix.getPeriodDays() >= 29 && netflix.getPeriodDays() <= 32, "period " + netflix.getPeriodDays());
+        assertTrue(netflix.getNextExpectedDate().isAfter(LocalDate.of(2024, 12, 28)));
+        assertEquals(2, financeService.getRecurringTransactions(LocalDate.of(2024, 2, 14)).size());
+
+        // When: the latest charge is deleted, the prediction moves back a month
+        financeService.deleteTransaction(batch.get(22).getId());
+
+        // Then
+        assertEquals(11, financeService.getRecurringTransactions(LocalDate.of(2024, 12, 1)).get(0).getOccurrences());
+    }
+
+    @Test
+    @DisplayName("Should categorize imported rows with compiled keyword rules and bulk re-categorize")
+    void shouldCategorizeWithCompiledKeywordRules() {
+        // Given
+        CategorizationEngine engine = CategorizationEngine.compile(List.of(
+            new CategoryRule("rent", Category.HOUSING),
+            new CategoryRule("rental car", Category.TRAVEL, 1),
+            new CategoryRule("car", Category.TRANSPORTATION),
+            new CategoryRule("payroll", Category.SALARY),
+            new CategoryRule("she", Category.GIFT),
+            new CategoryRule("hers", Category.SHOPPING)));
+
+        // When & Then: overlapping keywords, priority, length and transaction type
+        assertEquals(Category.TRAVEL, engine.categorize("HERTZ RENTAL CAR #22", TransactionType.EXPENSE));
+        assertEquals(Category.HOUSING, engine.categorize("March rent", TransactionType.EXPENSE));
+        assertEquals(Category.TRANSPORTATION, engine.categorize("Car wash", TransactionType.EXPENSE));
+        assertEquals(Category.SHOPPING, engine.categorize("ushers", TransactionType.EXPENSE));
+        assertEquals(Category.GIFT, engine.categorize("ushers", TransactionType.INCOME));
+        assertNull(engine.categorize("Payroll deposit", TransactionType.EXPENSE));
+        assertEquals(Category.SALARY, engine.categorize("Payroll deposit", TransactionType.INCOME));
+        assertNull(CategorizationEngine.EMPTY.categorize("anything", TransactionType.EXPENSE));
+
+        // Given: uncategorized rows ingested before and after the rules are set
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("5000.00")));
+        Transaction early = transactionService.createExpenseTransaction("ACC_001", new BigDecimal("1200.00"), "Rent May", null);
+        financeService.addTransaction(early);
+        financeService.setCategorizationRules(engine.getRules());
+        Transaction late = transactionService.createExpenseTransaction("ACC_001", new BigDecimal("80.00"), "Rental car", null);
+        financeService.addTransaction(late);
+
+        // Then
+        assertEquals(Category.TRAVEL, late.getCategory());
+        assertNull(financeService.getTransaction(early.getId()).orElseThrow().getCategory());
+
+        // When
+        int changed = financeService.recategorize(false);
+
+        // Then
+        assertEquals(1, changed);
+        assertEquals(Category.HOUSING, financeService.getTransaction(early.getId()).orElseThrow().getCategory());
+        assertEquals(new BigDecimal("1200.00"), financeService.getExpensesByCategory(Month.from(early.getDate()), early.getDate().getYear())
+            .get(Category.HOUSING));
+        assertEquals(0, financeService.recategorize(true));
+        assertEquals(new BigDecimal("3720.00"), financeService.getTotalBalance());
+    }
+
+    @Test
+    @DisplayName("Should accrue month-end interest and fees once per period")
+    void shouldAccrueMonthEndInterestAndFeesOncePerPeriod() {
+        // Given
+        financeService.addAccount(new Account("SAV_001", "Savings", AccountType.SAVINGS, new BigDecimal("10000.00")));
+        financeService.addAccount(new Account("CC_001", "Card", AccountType.CREDIT_CARD, new BigDecimal("-500.00")));
+        financeService.addAccount(new Account("CHK_001", "Checking", AccountType.CHECKING, new BigDecimal("800.00")));
+        // Half the savings are withdrawn for the last 11 days of January
+        Transaction withdrawal = transactionService.createExpenseTransaction(
+            "SAV_001", new BigDecimal("5000.00"), "Withdrawal", Category.OTHER_EXPENSE);
+        withdrawal.setDate(LocalDateTime.of(2024, 1, 21, 10, 0));
+        financeService.addTransaction(withdrawal);
+        Map<AccountType, AccrualPolicy> policies = Map.of(
+            AccountType.SAVINGS, AccrualPolicy.creditInterest(new BigDecimal("0.0365")),
+            AccountType.CREDIT_CARD, AccrualPolicy.debitInterest(new BigDecimal("0.1825"))
+                .withMonthlyFee(new BigDecimal("5.00")));
+
+        // When
+        AccrualResult january = financeService.runAccruals(YearMonth.of(2024, 1), policies);
+
+        // Then: 20 days at $1.00 and 11 at $0.50; 31 days at $0.25 on the card
+        assertEquals(3, january.getPosted());
+        assertEquals(new BigDecimal("25.50"), january.getInterestPaid());
+        assertEquals(new BigDecimal("7.75"), january.getInterestCharged());
+        assertEquals(new BigDecimal("5.00"), january.getFees());
+        assertEquals(new BigDecimal("5025.50"), financeService.getAccount("SAV_001").orElseThrow().getBalance());
+        assertEquals(new BigDecimal("-512.75"), financeService.getAccount("CC_001").orElseThrow().getBalance());
+        assertEquals(new BigDecimal("800.00"), financeService.getAccount("CHK_001").orElseThrow().getBalance());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 23, 59, 59),
+            financeService.getTransactionsForAccount("CC_001").get(0).getDate());
+
+        // When: the same period is run again
+        AccrualResult rerun = financeService.runAccruals(YearMonth.of(2024, 1), policies);
+
+        // Then
+        assertEquals(0, rerun.getPosted());
+        assertEquals(3, rerun.getAlreadyPosted());
+        assertEquals(new BigDecimal("5025.50"), financeService.getAccount("SAV_001").orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should report balance drift and locate differing months between ledger copies")
+    void shouldReportBalanceDriftAndLocateDifferingMonths() {
+        // Given: a live ledger and a backup holding the same three years of transactions
+        FinanceService backup = new FinanceService();
+        Account live = new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("100.00"));
+        financeService.addAccount(live);
+        backup.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("100.00")));
+        List<Transaction> ledger = new ArrayList<>();
+        for (int day = 0; day < 3 * 365; day++) {
+            ledger.add(expenseOn(LocalDateTime.of(2021, 1, 1, 12, 0).plusDays(day), "Daily spend", "1.25"));
+        }
+        financeService.addTransactions(ledger);
+        backup.addTransactions(ledger.stream().map(Transaction::copy).collect(Collectors.toList()));
+
+        // Then
+        assertTrue(financeService.verifyBalances().isEmpty());
+        assertTrue(financeService.getLedgerChecksum().matches(backup.getLedgerChecksum()));
+
+        // When: the live copy has an edit in March 2022 and a deletion in November 2023
+        Transaction edited = ledger.get(430).copy();
+        edited.setDescription("Daily spend (corrected)");
+        financeService.updateTransaction(edited);
+        financeService.deleteTransaction(ledger.get(1040).getId());
+
+        // Then
+        LedgerChecksum liveChecksum = financeService.getLedgerChecksum();
+        assertFalse(liveChecksum.matches(backup.getLedgerChecksum()));
+        assertEquals(List.of(YearMonth.of(2022, 3), YearMonth.of(2023, 11)), liveChecksum.diff(backup.getLedgerChecksum()));
+
+        // When: undoing the edit brings that month's hash back
+        Transaction restored = ledger.get(430).copy();
+        financeService.updateTransaction(restored);
+
+        // Then
+        assertEquals(List.of(YearMonth.of(2023, 11)), financeService.getLedgerChecksum().diff(backup.getLedgerChecksum()));
+
+        // When: a balance is changed behind the service's back
+        live.updateBalance(new BigDecimal("-5.00"));
+
+        // Then
+        List<BalanceDrift> drift = financeService.verifyBalances();
+        assertEquals(1, drift.size());
+        assertEquals(new BigDecimal("-5.00"), drift.get(0).getDrift());
+        assertEquals(drift.get(0).getRecomputedBalance(), drift.get(0).getIndexedBalance());
+    }
+
+    @Test
+    @DisplayName("Should convert totals and monthly reports into the reporting currency")
+    void shouldConvertTotalsIntoReportingCurrency() throws Exception {
+        // Given: euro rates effective from January and February, loaded from a file
+        Currency usd = Currency.getInstance("USD");
+        Currency eur = Currency.getInstance("EUR");
+        Path ratesFile = Files.createTempFile("fx-rates", ".csv");
+        Files.writeString(ratesFile, "# units of USD per unit\n2024-01-01,EUR,1.10\n2024-02-01,EUR,1.20\n");
+        FxRateTable rates = FxRateTable.load(ratesFile, usd);
+        Files.delete(ratesFile);
+        financeService.setFxRates(rates);
+        assertEquals(new BigDecimal("1.10"), rates.rate(eur, usd, LocalDate.of(2024, 1, 31)));
+        assertThrows(IllegalStateException.class, () -> rates.rate(eur, usd, LocalDate.of(2023, 12, 31)));
+
+        // And: a dollar account and a euro account with January and February spending
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("500.00")));
+        financeService.addAccount(new Account("EUR_001", "Euro Checking", AccountType.CHECKING, new BigDecimal("1000.00"), eur));
+        financeService.addTransaction(expenseOn(LocalDateTime.of(2024, 1, 20, 12, 0), "Groceries", "50.00"));
+        Transaction euroJanuary = transactionService.createExpenseTransaction(
+            "EUR_001", new BigDecimal("100.00"), "Train tickets", Category.SHOPPING);
+        euroJanuary.setDate(LocalDateTime.of(2024, 1, 15, 9, 0));
+        financeService.addTransaction(euroJanuary);
+        Transaction euroFebruary = transactionService.createExpenseTransaction(
+            "EUR_001", new BigDecimal("10.00"), "Coffee", Category.SHOPPING);
+        euroFebruary.setDate(LocalDateTime.of(2024, 2, 3, 9, 0));
+        financeService.addTransaction(euroFebruary);
+
+        // Then: each currency group is converted at the rate effective at the end of the period
+        assertEquals(eur, euroJanuary.getCurrency());
+        assertEquals(new BigDecimal("160.00"), financeService.getMonthlyExpenses(Month.JANUARY, 2024));
+        assertEquals(new BigDecimal("12.00"), financeService.getMonthlyExpenses(Month.FEBRUARY, 2024));
+        assertEquals(new BigDecimal("160.00"), financeService.getExpensesByCategory(Month.JANUARY, 2024).get(Category.SHOPPING));
+        assertEquals(new BigDecimal("1440.00"), financeService.getTotalBalanceAsOf(LocalDateTime.of(2024, 1, 31, 23, 59)));
+        assertEquals(new BigDecimal("1518.00"), financeService.getTotalBalance());
+
+        // And: aggregations across accounts are converted per currency group as well
+        AnalyticsReport report = financeService.getAnalyticsReport();
+        assertEquals(new BigDecimal("160.00"), report.getMonth(YearMonth.of(2024, 1)).getExpenses());
+        assertEquals(new BigDecimal("160.00"), report.getMonth(YearMonth.of(2024, 1)).getCategoryTotal(Category.SHOPPING));
+        assertEquals(new BigDecimal("172.00"), report.getYears().get(2024).getExpenses());
+        assertEquals(new BigDecimal("100.00"), report.getMonth(YearMonth.of(2024, 1)).getAccountOutflow("EUR_001"));
+        QueryResult byMonth = financeService.query(TransactionQuery.builder()
+            .groupBy(TransactionQuery.GroupBy.MONTH)
+            .build());
+        assertEquals(2, byMonth.getGroups().get("2024-01").getCount());
+        assertEquals(new BigDecimal("160.00"), byMonth.getGroups().get("2024-01").getExpenses());
+        assertEquals(new BigDecimal("12.00"), byMonth.getGroups().get("2024-02").getExpenses());
+        List<HeavyHitter> merchants = financeService.getTopMerchantsBySpend(YearMonth.of(2024, 1), 2);
+        assertEquals(new BigDecimal("110.00"), merchants.get(0).getEstimatedAmount());
+        assertEquals(new BigDecimal("50.00"), merchants.get(1).getEstimatedAmount());
+        TimeSeries cashFlow = financeService.getCashFlowSeries(100);
+        assertEquals(LocalDate.of(2024, 1, 15), cashFlow.getDate(0));
+        assertEquals(-110.0, cashFlow.getValue(0), 0.001);
+        Budget shopping = Budget.forCategory(Category.SHOPPING, new BigDecimal("200.00"));
+        financeService.setBudget(shopping);
+        assertEquals(new BigDecimal("160.00"), financeService.getBudgetSpent(shopping, YearMonth.of(2024, 1)));
+
+        // When: reporting in euros instead
+        financeService.setReportingCurrency(eur);
+
+        // Then: dollars are converted through the inverse rate, rounded half-even to cents
+        assertEquals(new BigDecimal("145.45"), financeService.getMonthlyExpenses(Month.JANUARY, 2024));
+
+        // And: a transaction in a currency other than its account's is rejected
+        Transaction pounds = transactionService.createExpenseTransaction(
+            "EUR_001", new BigDecimal("5.00"), "Tea", Category.SHOPPING);
+        pounds.setCurrency(Currency.getInstance("GBP"));
+        assertThrows(IllegalArgumentException.class, () -> financeService.addTransaction(pounds));
+    }
+
+    @Test
+    @DisplayName("Should alert once when spending crosses a budget threshold")
+    void shouldAlertWhenSpendingCrossesBudgetThreshold() throws InterruptedException {
+        // Given: January shopping already at 85% of a category budget, plus an account budget
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        financeService.addTransaction(expenseOn(LocalDateTime.of(2024, 1, 5, 12, 0), "Shoes", "85.00"));
+        Budget shopping = Budget.forCategory(Category.SHOPPING, new BigDecimal("100.00"));
+        Budget checking = Budget.forAccount("ACC_001", new BigDecimal("200.00"));
+        financeService.setBudget(shopping);
+        financeService.setBudget(checking);
+        List<BudgetAlert> alerts = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(3);
+        financeService.getChangeFeed().subscribe(new Flow.Subscriber<FinanceEventBatch>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(FinanceEventBatch batch) {
+                batch.getEvents().stream()
+                    .filter(event -> event.getType() == FinanceEvent.Type.BUDGET_ALERT)
+                    .forEach(event -> alerts.add(event.getBudgetAlert()));
+                delivered.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // When: one expense exceeds the category budget, the next passes 80% of the account budget
+        financeService.addTransaction(expenseOn(LocalDateTime.of(2024, 1, 12, 12, 0), "Jacket", "20.00"));
+        Transaction bag = expenseOn(LocalDateTime.of(2024, 1, 20, 12, 0), "Bag", "60.00");
+        financeService.addTransaction(bag);
+        // And: an edit that takes spending down and back up does not repeat the alert
+        Transaction edited = bag.copy();
+        edited.setDescription("Leather bag");
+        financeService.updateTransaction(edited);
+
+        // Then
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(2, alerts.size());
+        assertEquals(shopping, alerts.get(0).getBudget());
+        assertEquals(BudgetAlert.Level.EXCEEDED, alerts.get(0).getLevel());
+        assertEquals(new BigDecimal("105.00"), alerts.get(0).getSpent());
+        assertEquals(YearMonth.of(2024, 1), alerts.get(0).getMonth());
+        assertEquals(checking, alerts.get(1).getBudget());
+        assertEquals(BudgetAlert.Level.WARNING, alerts.get(1).getLevel());
+        assertEquals("Bag", alerts.get(1).getTransaction().getDescription());
+        assertTrue(financeService.getPendingBudgetAlerts().isEmpty());
+        assertEquals(new BigDecimal("165.00"), financeService.getBudgetSpent(shopping, YearMonth.of(2024, 1)));
+        assertEquals(BigDecimal.ZERO.setScale(2), financeService.getBudgetSpent(checking, YearMonth.of(2024, 2)));
+
+        // When: the account is removed
+        financeService.removeAccount("ACC_001");
+
+        // Then: its budget goes with it and the category counter no longer includes its expenses
+        assertEquals(List.of(shopping), financeService.getBudgets());
+        assertEquals(BigDecimal.ZERO.setScale(2), financeService.getBudgetSpent(shopping, YearMonth.of(2024, 1)));
+    }
+
+    @Test
+    @DisplayName("Should keep budget alerts raised while nobody is subscribed")
+    void shouldKeepUndeliveredBudgetAlerts() {
+        // Given: a shopping budget and no change feed subscriber
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        Budget shopping = Budget.forCategory(Category.SHOPPING, new BigDecimal("100.00"));
+        financeService.setBudget(shopping);
+
+        // When: spending crosses both thresholds, the second time in a batch
+        financeService.addTransaction(expenseOn(LocalDateTime.of(2024, 1, 5, 12, 0), "Shoes", "85.00"));
+        financeService.addTransactions(List.of(expenseOn(LocalDateTime.of(2024, 1, 12, 12, 0), "Jacket", "20.00")));
+
+        // Then: both alerts wait to be picked up, oldest first
+        List<BudgetAlert> pending = financeService.getPendingBudgetAlerts();
+        assertEquals(2, pending.size());
+        assertEquals(BudgetAlert.Level.WARNING, pending.get(0).getLevel());
+        assertEquals(BudgetAlert.Level.EXCEEDED, pending.get(1).getLevel());
+        assertEquals(new BigDecimal("105.00"), pending.get(1).getSpent());
+
+        // When
+        financeService.clearPendingBudgetAlerts();
+
+        // Then
+        assertTrue(financeService.getPendingBudgetAlerts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated queries from cache until the data they read changes")
+    void shouldServeRepeatedQueriesFromCacheUntilDataChanges() {
+        // Given: two accounts with January spending
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, new BigDecimal("1000.00")));
+        financeService.addTransaction(expenseOn(LocalDateTime.of(2024, 1, 5, 12, 0), "Groceries", "40.00"));
+
+        // When: the same questions are asked twice
+        financeService.getExpensesByCategory(Month.JANUARY, 2024);
+        financeService.getTransactionsForAccount("ACC_001");
+        financeService.searchTransactions("groceries");
+        Map<Category, BigDecimal> cachedExpenses = financeService.getExpensesByCategory(Month.JANUARY, 2024);
+        financeService.getTransactionsForAccount("ACC_001");
+        financeService.searchTransactions("groceries");
+
+        // Then
+        QueryCacheStats stats = financeService.getQueryCacheStats();
+        assertEquals(3, stats.getMisses());
+        assertEquals(3, stats.getHits());
+        cachedExpenses.clear();
+        assertEquals(new BigDecimal("40.00"), financeService.getExpensesByCategory(Month.JANUARY, 2024).get(Category.SHOPPING));
+
+        // When: a February expense is added to the other account
+        Transaction february = transactionService.createExpenseTransaction(
+            "ACC_002", new BigDecimal("15.00"), "Groceries", Category.SHOPPING);
+        february.setDate(LocalDateTime.of(2024, 2, 2, 12, 0));
+        financeService.addTransaction(february);
+
+        // Then: January and ACC_001 results are still served, the search is recomputed
+        financeService.getExpensesByCategory(Month.JANUARY, 2024);
+        assertEquals(1, financeService.getTransactionsForAccount("ACC_001").size());
+        assertEquals(2, financeService.searchTransactions("groceries").size());
+        stats = financeService.getQueryCacheStats();
+        assertEquals(6, stats.getHits());
+        assertEquals(4, stats.getMisses());
+
+        // When: a January expense is added to ACC_001
+        financeService.addTransaction(expenseOn(LocalDateTime.of(2024, 1, 20, 12, 0), "Books", "10.00"));
+
+        // Then
+        assertEquals(new BigDecimal("50.00"), financeService.getExpensesByCategory(Month.JANUARY, 2024).get(Category.SHOPPING));
+        assertEquals(2, financeService.getTransactionsForAccount("ACC_001").size());
+        assertEquals(6, financeService.getQueryCacheStats().getHits());
+
+        // When: a search matches more rows than are worth caching
+        List<Transaction> coffees = new ArrayList<>();
+        for (int i = 0; i < 1_001; i++) {
+            coffees.add(expenseOn(LocalDateTime.of(2024, 3, 1, 8, 0).plusMinutes(i), "Coffee", "3.00"));
+        }
+        financeService.addTransactions(coffees);
+        int cached = financeService.getQueryCacheStats().getSize();
+        financeService.searchTransactions("coffee");
+
+        // Then: it is computed again on every call rather than pinned in the cache
+        assertEquals(1_001, financeService.searchTransactions("coffee").size());
+        assertEquals(cached, financeService.getQueryCacheStats().getSize());
+        assertEquals(6, financeService.getQueryCacheStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Should undo and redo account and transaction changes one step at a time")
+    void shouldUndoAndRedoChanges() {
+        // Given: history starts after the opening account
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        financeService.enableUndo(10);
+        Transaction groceries = expenseOn(LocalDateTime.of(2024, 1, 5, 12, 0), "Groceries", "40.00");
+        financeService.addTransaction(groceries);
+        Transaction edited = financeService.getTransaction(groceries.getId()).orElseThrow().copy();
+        edited.setAmount(new BigDecimal("45.00"));
+        financeService.updateTransaction(edited);
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, new BigDecimal("500.00")));
+        financeService.deleteTransaction(groceries.getId());
+
+        // When
+        assertEquals("Delete transaction Groceries", financeService.getUndoLabel().orElseThrow());
+        financeService.undo();
+
+        // Then: the transaction is back with its edited amount
+        assertEquals(new BigDecimal("45.00"), financeService.getTransaction(groceries.getId()).orElseThrow().getAmount());
+        assertEquals(new BigDecimal("955.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+
+        // When
+        financeService.undo();
+        financeService.undo();
+
+        // Then: the savings account and the edit are undone
+        assertTrue(financeService.getAccount("ACC_002").isEmpty());
+        assertEquals(new BigDecimal("40.00"), financeService.getTransaction(groceries.getId()).orElseThrow().getAmount());
+        assertEquals(new BigDecimal("960.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+        assertEquals("Edit transaction Groceries", financeService.getRedoLabel().orElseThrow());
+
+        // When
+        financeService.undo();
+
+        // Then
+        assertFalse(financeService.canUndo());
+        assertTrue(financeService.getAllTransactions().isEmpty());
+        assertEquals(new BigDecimal("1000.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+        assertThrows(IllegalStateException.class, () -> financeService.undo());
+
+        // When: everything is redone
+        financeService.redo(4);
+
+        // Then
+        assertFalse(financeService.canRedo());
+        assertTrue(financeService.getAllTransactions().isEmpty());
+        assertEquals(new BigDecimal("500.00"), financeService.getAccount("ACC_002").orElseThrow().getBalance());
+
+        // When: a new change is made after an undo
+        financeService.undo();
+        financeService.removeAccount("ACC_002");
+
+        // Then: the redo branch is discarded
+        assertFalse(financeService.canRedo());
+        assertEquals("Remove account Savings", financeService.getUndoLabel().orElseThrow());
+        financeService.undo();
+        assertEquals(new BigDecimal("500.00"), financeService.getAccount("ACC_002").orElseThrow().getBalance());
+        assertTrue(financeService.verifyBalances().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should undo and redo correctly after deletions have aged out of the history")
+    void shouldUndoAfterHistoryIsCompacted() {
+        // Given: 3,000 transactions, 2,000 of them deleted one step at a time in a 20-step history
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            batch.add(transactionService.createExpenseTransaction("ACC_001", new BigDecimal("0.10"), "Item " + i, Category.SHOPPING));
+        }
+        financeService.addTransactions(batch);
+        financeService.enableUndo(20);
+        for (int i = 0; i < 1_990; i++) {
+            financeService.deleteTransaction(batch.get(i).getId());
+        }
+        LedgerChecksum before = financeService.getLedgerChecksum();
+        BigDecimal beforeBalance = financeService.getTotalBalance();
+        for (int i = 1_990; i < 2_000; i++) {
+            financeService.deleteTransaction(batch.get(i).getId());
+        }
+        Transaction edited = financeService.getTransaction(batch.get(2_500).getId()).orElseThrow().copy();
+        edited.setAmount(new BigDecimal("7.00"));
+        financeService.updateTransaction(edited);
+        LedgerChecksum end = financeService.getLedgerChecksum();
+
+        // When
+        financeService.undo(11);
+
+        // Then
+        assertTrue(financeService.getLedgerChecksum().matches(before));
+        assertEquals(beforeBalance, financeService.getTotalBalance());
+        assertEquals(1_010, financeService.getAllTransactions().size());
+
+        // When
+        financeService.redo(11);
+
+        // Then
+        assertTrue(financeService.getLedgerChecksum().matches(end));
+        assertEquals(1_000, financeService.getAllTransactions().size());
+        assertTrue(financeService.verifyBalances().isEmpty());
+
+        // When: a later deletion is undone
+        financeService.deleteTransaction(batch.get(2_999).getId());
+        financeService.undo();
+
+        // Then
+        assertTrue(financeService.getTransaction(batch.get(2_999).getId()).isPresent());
+        assertTrue(financeService.getLedgerChecksum().matches(end));
+    }
+
+    @Test
+    @DisplayName("Should jump many steps back and forth to ledgers identical to the originals")
+    void shouldJumpAcrossManyUndoSteps() {
+        // Given: a ledger recorded in 600 steps, including an account removal
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        financeService.enableUndo(1000);
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, new BigDecimal("250.00")));
+        for (int i = 0; i < 500; i++) {
+            Transaction transaction = transactionService.createExpenseTransaction(
+                i % 3 == 0 ? "ACC_002" : "ACC_001", new BigDecimal("1.00"), "Item " + i, Category.SHOPPING);
+            transaction.setDate(LocalDateTime.of(2024, 1 + i % 12, 1 + i % 28, 12, 0));
+            financeService.addTransaction(transaction);
+        }
+        LedgerChecksum middle = financeService.getLedgerChecksum();
+        BigDecimal middleBalance = financeService.getTotalBalance();
+        List<Transaction> all = financeService.getAllTransactions();
+        for (int i = 0; i < 98; i++) {
+            Transaction edited = all.get(i * 5).copy();
+            edited.setAmount(new BigDecimal("3.00"));
+            financeService.updateTransaction(edited);
+        }
+        financeService.removeAccount("ACC_002");
+        LedgerChecksum end = financeService.getLedgerChecksum();
+
+        // When
+        financeService.undo(99);
+
+        // Then
+        assertTrue(financeService.getLedgerChecksum().matches(middle));
+        assertEquals(middleBalance, financeService.getTotalBalance());
+        assertEquals(500, financeService.getAllTransactions().size());
+        assertTrue(financeService.verifyBalances().isEmpty());
+
+        // When
+        financeService.undo(501);
+
+        // Then: back to the state history started from
+        assertFalse(financeService.canUndo());
+        assertEquals(1, financeService.getAllAccounts().size());
+        assertEquals(new BigDecimal("1000.00"), financeService.getTotalBalance());
+
+        // When
+        financeService.redo(600);
+
+        // Then
+        assertTrue(financeService.getLedgerChecksum().matches(end));
+        assertTrue(financeService.getAccount("ACC_002").isEmpty());
+        assertEquals(333, financeService.getAllTransactions().size());
+        assertTrue(financeService.verifyBalances().isEmpty());
+    }
 }
@@ -0,0 +1,73 @@
+package com.financemanager;
+
+import com.financemanager.view.LatestRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatestRequest
+ * Checks that superseded background requests are cancelled and their results dropped
+ */
+@DisplayName("Latest Request Tests")
+class LatestRequestTest {
+
+    @Test
+    @DisplayName("Should cancel and interrupt a superseded request")
+    void shouldCancelSupersededRequest() throws Exception {
+        // Given: a request blocked in the background
+        LatestRequest<FutureTask<String>> requests = new LatestRequest<>();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        FutureTask<String> slow = new FutureTask<>(() -> {
+            running.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "slow";
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        requests.start(slow);
+        executor.execute(slow);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // When
+        FutureTask<String> fast = new FutureTask<>(() -> "fast");
+        requests.start(fast);
+
+        // Then
+        assertTrue(slow.isCancelled());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(requests.isCurrent(slow));
+        assertTrue(requests.isCurrent(fast));
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should drop a result that arrives after a newer request started")
+    void shouldDropStaleResult() {
+        // Given: a request that has already finished
+        LatestRequest<FutureTask<String>> requests = new LatestRequest<>();
+        FutureTask<String> first = new FutureTask<>(() -> "first");
+        requests.start(first);
+        first.run();
+
+        // When: a newer request starts before the first result is applied
+        FutureTask<String> second = new FutureTask<>(() -> "second");
+        requests.start(second);
+
+        // Then: a completed request cannot be cancelled, but is no longer current
+        assertFalse(first.isCancelled());
+        assertFalse(requests.isCurrent(first));
+        assertTrue(requests.isCurrent(second));
+    }
+}
@@ -0,0 +1,170 @@
+package com.financemanager;
+
+import com.financemanager.model.*;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.FxRateTable;
+import com.financemanager.service.ReplicationFollower;
+import com.financemanager.service.ReplicationLag;
+import com.financemanager.service.ReplicationLeader;
+import com.financemanager.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReplicationLeader and ReplicationFollower
+ * Runs a leader and followers on localhost and compares the replicas with the leader's ledger
+ */
+@DisplayName("Replication Tests")
+class ReplicationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final TransactionService transactionService = new TransactionService();
+    private final List<ReplicationFollower> followers = new ArrayList<>();
+    private FinanceService leaderService;
+    private ReplicationLeader leader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        leaderService = new FinanceService();
+        leaderService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("5000.00")));
+        leaderService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, new BigDecimal("12000.00")));
+        leaderService.addTransactions(transactions("ACC_001", 1_000, 1));
+        leader = new ReplicationLeader(leaderService, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        followers.forEach(ReplicationFollower::close);
+        leader.close();
+    }
+
+    @Test
+    @DisplayName("Should seed followers from a snapshot and then follow every kind of write")
+    void shouldSeedFromSnapshotAndFollowWrites() throws Exception {
+        // Given: one follower seeded before the writes
+        ReplicationFollower early = follow();
+        assertTrue(early.awaitSequence(leader.getHeadSequence(), TIMEOUT));
+        assertEquals(1_000, early.getReplica().getAllTransactions().size());
+
+        // When: the leader adds, updates and deletes transactions and accounts
+        leaderService.addAccount(new Account("ACC_003", "Travel card", AccountType.CREDIT_CARD, BigDecimal.ZERO));
+        for (int i = 0; i < 200; i++) {
+            leaderService.addTransaction(transactions("ACC_003", 1, 10_000 + i).get(0));
+        }
+        leaderService.addTransactions(transactions("ACC_002", 500, 2));
+        Transaction edited = leaderService.getTransactionsForAccount("ACC_001").get(0).copy();
+        edited.setDescription("Corrected merchant");
+        leaderService.updateTransaction(edited);
+        leaderService.deleteTransaction(leaderService.getTransactionsForAccount("ACC_002").get(0).getId());
+        leaderService.addAccount(new Account("ACC_004", "Old wallet", AccountType.CASH, new BigDecimal("40.00")));
+        leaderService.removeAccount("ACC_004");
+
+        // And: a second follower joins after the writes
+        ReplicationFollower late = follow();
+
+        // Then: both replicas match the leader exactly
+        long head = leader.getHeadSequence();
+        for (ReplicationFollower follower : followers) {
+            assertTrue(follower.awaitSequence(head, TIMEOUT), String.valueOf(follower.getFailure()));
+            FinanceService replica = follower.getReplica();
+            assertTrue(replica.getLedgerChecksum().matches(leaderService.getLedgerChecksum()));
+            assertEquals(leaderService.getAllTransactions().size(), replica.getAllTransactions().size());
+            assertEquals(leaderService.getTotalBalance(), replica.getTotalBalance());
+            assertEquals(leaderService.getAllAccounts().size(), replica.getAllAccounts().size());
+            assertEquals("Corrected merchant", replica.getTransaction(edited.getId()).orElseThrow().getDescription());
+            assertTrue(replica.getAccount("ACC_004").isEmpty());
+            assertTrue(replica.verifyBalances().isEmpty());
+        }
+        assertEquals(2, leader.getFollowerCount());
+        assertEquals(late.getReplica().searchTransactions("Corrected").size(),
+            early.getReplica().searchTransactions("Corrected").size());
+    }
+
+    @Test
+    @DisplayName("Should report lag in transactions and milliseconds and reach zero when caught up")
+    void shouldReportLag() throws Exception {
+        // Given
+        ReplicationFollower follower = follow();
+        assertTrue(follower.awaitSequence(leader.getHeadSequence(), TIMEOUT));
+
+        // When: a burst of single writes
+        for (int i = 0; i < 2_000; i++) {
+            leaderService.addTransaction(transactions("ACC_002", 1, 20_000 + i).get(0));
+        }
+        assertTrue(follower.awaitSequence(leader.getHeadSequence(), TIMEOUT));
+
+        // Then
+        ReplicationLag lag = follower.getLag();
+        assertTrue(lag.isCaughtUp(), lag.toString());
+        assertEquals(0, lag.getTransactions());
+        assertEquals(0, lag.getMillis());
+        assertEquals(leader.getHeadSequence(), lag.getAppliedSequence());
+        assertEquals(3_000, follower.getReplica().getAllTransactions().size());
+    }
+
+    @Test
+    @DisplayName("Should replicate the reporting currency and FX rates and re-seed when they change")
+    void shouldReplicateReportingCurrencyAndRates() throws Exception {
+        // Given: a euro account reported in dollars
+        Currency euro = Currency.getInstance("EUR");
+        leaderService.addAccount(new Account("ACC_EUR", "Euro account", AccountType.CHECKING, new BigDecimal("100.00"), euro));
+        leaderService.setFxRates(FxRateTable.builder(Currency.getInstance("USD"))
+            .rate(LocalDate.of(2020, 1, 1), euro, new BigDecimal("1.10")).build());
+
+        // When
+        ReplicationFollower follower = follow();
+        assertTrue(follower.awaitSequence(leader.getHeadSequence(), TIMEOUT));
+
+        // Then
+        assertEquals(leaderService.getReportingCurrency(), follower.getReplica().getReportingCurrency());
+        assertEquals(leaderService.getTotalBalance(), follower.getReplica().getTotalBalance());
+
+        // When: the leader reports in euros instead
+        leaderService.setReportingCurrency(euro);
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!follower.getReplica().getReportingCurrency().equals(euro) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertEquals(euro, follower.getReplica().getReportingCurrency());
+        assertEquals(leaderService.getTotalBalance(), follower.getReplica().getTotalBalance());
+        assertNull(leader.getFailure());
+    }
+
+    private ReplicationFollower follow() throws Exception {
+        ReplicationFollower follower = new ReplicationFollower("localhost", leader.getPort());
+        follower.start();
+        followers.add(follower);
+        return follower;
+    }
+
+    private List<Transaction> transactions(String accountId, int count, int seed) {
+        Random random = new Random(seed);
+        LocalDateTime date = LocalDateTime.of(2023, 1, 1, 9, 0).plusHours(seed);
+        List<Transaction> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = random.nextInt(10) == 0
+                ? transactionService.createIncomeTransaction(accountId, new BigDecimal("150.00"), "Refund", Category.OTHER_INCOME)
+                : transactionService.createExpenseTransaction(accountId,
+                    BigDecimal.valueOf(100 + random.nextInt(2_000), 2), "Store " + random.nextInt(50), Category.SHOPPING);
+            transaction.setDate(date.plusMinutes(i * 37L));
+            batch.add(transaction);
+        }
+        return batch;
+    }
+}
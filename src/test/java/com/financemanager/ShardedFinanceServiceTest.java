@@ -0,0 +1,211 @@
+package com.financemanager;
+
+import com.financemanager.model.*;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.ShardedFinanceService;
+import com.financemanager.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardedFinanceService
+ * Covers routing by tenant, scatter-gather totals and two-phase transfers between shards
+ */
+@DisplayName("Sharded Finance Service Tests")
+class ShardedFinanceServiceTest {
+
+    private ShardedFinanceService shardedService;
+
+    @BeforeEach
+    void setUp() {
+        shardedService = new ShardedFinanceService(4);
+        List<CompletableFuture<Void>> added = new ArrayList<>();
+        for (int tenant = 0; tenant < 20; tenant++) {
+            added.add(shardedService.addAccount("household-" + tenant,
+                new Account("CHK_" + tenant, "Checking", AccountType.CHECKING, new BigDecimal("100.00"))));
+            added.add(shardedService.addAccount("household-" + tenant,
+                new Account("SAV_" + tenant, "Savings", AccountType.SAVINGS, new BigDecimal("100.00"))));
+        }
+        CompletableFuture.allOf(added.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedService.close();
+    }
+
+    @Test
+    @DisplayName("Should keep a household on one shard and total across all shards")
+    void shouldKeepHouseholdOnOneShardAndTotalAcrossShards() {
+        // When
+        List<Integer> accountsPerShard = shardedService.scatter(service -> service.getAllAccounts().size()).join();
+
+        // Then
+        assertEquals(4, accountsPerShard.size());
+        assertEquals(40, accountsPerShard.stream().mapToInt(Integer::intValue).sum());
+        int shard = shardedService.shardOf("household-3");
+        assertTrue(shardedService.scatter(service -> service.getAccount("SAV_3").isPresent()).join().get(shard));
+        assertEquals(new BigDecimal("4000.00"), shardedService.getTotalBalance().join());
+        assertThrows(CompletionException.class, () -> shardedService.addAccount("household-9",
+            new Account("CHK_3", "Duplicate", AccountType.CHECKING, BigDecimal.ZERO)).join());
+    }
+
+    @Test
+    @DisplayName("Should conserve money under concurrent cross-shard transfers")
+    void shouldConserveMoneyUnderConcurrentTransfers() throws Exception {
+        // Given: eight clients moving money between random households
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<List<CompletableFuture<Void>>>> submitted = new ArrayList<>();
+        for (int client = 0; client < 8; client++) {
+            int seed = client;
+            submitted.add(clients.submit(() -> {
+                Random random = new Random(seed);
+                List<CompletableFuture<Void>> transfers = new ArrayList<>();
+                for (int i = 0; i < 250; i++) {
+                    String from = (random.nextBoolean() ? "CHK_" : "SAV_") + random.nextInt(20);
+                    String to = (random.nextBoolean() ? "CHK_" : "SAV_") + random.nextInt(20);
+                    if (!from.equals(to)) {
+                        transfers.add(shardedService.transfer("TRF_" + seed + "_" + i, from, to,
+                            BigDecimal.valueOf(100 + random.nextInt(4_000), 2), "Shared costs"));
+                    }
+                }
+                return transfers;
+            }));
+        }
+
+        // When
+        int committed = 0;
+        int refused = 0;
+        for (Future<List<CompletableFuture<Void>>> future : submitted) {
+            for (CompletableFuture<Void> transfer : future.get()) {
+                try {
+                    transfer.join();
+                    committed++;
+                } catch (CompletionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+                    refused++;
+                }
+            }
+        }
+        clients.shutdown();
+
+        // Then: every committed transfer posted both legs and no account was overdrawn
+        assertTrue(committed > 0);
+        assertEquals(new BigDecimal("4000.00"), shardedService.getTotalBalance().join());
+        List<Integer> postedLegs = shardedService.scatter(service -> service.getAllTransactions().size()).join();
+        assertEquals(committed * 2, postedLegs.stream().mapToInt(Integer::intValue).sum());
+        for (List<Account> accounts : shardedService.scatter(FinanceService::getAllAccounts).join()) {
+            for (Account account : accounts) {
+                assertTrue(account.getBalance().signum() >= 0, account.toString());
+            }
+        }
+        assertTrue(committed + refused > 1_900);
+    }
+
+    @Test
+    @DisplayName("Should post neither leg when a shard votes no")
+    void shouldPostNeitherLegWhenAShardVotesNo() {
+        // Given: two households on different shards
+        int source = shardedService.shardOf("household-0");
+        int other = 1;
+        while (shardedService.shardOf("household-" + other) == source) {
+            other++;
+        }
+        String target = "CHK_" + other;
+
+        // When: a transfer exceeds the available funds
+        CompletionException refused = assertThrows(CompletionException.class, () ->
+            shardedService.transfer("TRF_BIG", "CHK_0", target, new BigDecimal("150.00"), "Deposit").join());
+
+        // Then
+        assertTrue(refused.getCause() instanceof IllegalStateException);
+        assertTrue(shardedService.withAccount(target, service -> service.getTransactionsForAccount(target).isEmpty()).join());
+
+        // When: the same transfer ID is used twice
+        shardedService.transfer("TRF_1", "CHK_0", target, new BigDecimal("60.00"), "Deposit").join();
+        assertThrows(CompletionException.class, () ->
+            shardedService.transfer("TRF_1", "CHK_0", target, new BigDecimal("10.00"), "Deposit").join());
+
+        // Then: only the first one was posted, and held funds were released
+        assertEquals(new BigDecimal("40.00"),
+            shardedService.withAccount("CHK_0", service -> service.getAccount("CHK_0").orElseThrow().getBalance()).join());
+        shardedService.transfer("TRF_2", "CHK_0", "SAV_0", new BigDecimal("40.00"), "Savings").join();
+        assertEquals(new BigDecimal("140.00"),
+            shardedService.withAccount("SAV_0", service -> service.getAccount("SAV_0").orElseThrow().getBalance()).join());
+    }
+
+    @Test
+    @DisplayName("Should fail the future and keep the shard running when an operation throws an Error")
+    void shouldSurviveAnErrorInAnOperation() throws Exception {
+        // When
+        CompletableFuture<Object> failed = shardedService.withAccount("CHK_0", service -> {
+            throw new AssertionError("Broken invariant");
+        });
+
+        // Then: the caller sees the Error and the shard still answers
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof AssertionError);
+        assertEquals(new BigDecimal("100.00"), shardedService.withAccount("CHK_0",
+            service -> service.getAccount("CHK_0").orElseThrow().getBalance()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should refuse debits that would spend funds held for a transfer in progress")
+    void shouldRefuseDebitsAgainstHeldFunds() throws InterruptedException {
+        // Given: a transfer prepared on the source shard while the target shard is still busy
+        int source = shardedService.shardOf("household-0");
+        int other = 1;
+        while (shardedService.shardOf("household-" + other) == source) {
+            other++;
+        }
+        String target = "CHK_" + other;
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        shardedService.withAccount(target, service -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> transfer =
+            shardedService.transfer("TRF_HELD", "CHK_0", target, new BigDecimal("80.00"), "Deposit");
+        TransactionService transactionService = new TransactionService();
+
+        // When: the source account is debited past what the transfer leaves available
+        CompletionException overdrawn = assertThrows(CompletionException.class, () -> shardedService.addTransaction(
+            transactionService.createExpenseTransaction("CHK_0", new BigDecimal("30.00"), "Groceries", Category.FOOD)).join());
+        CompletionException locked = assertThrows(CompletionException.class, () ->
+            shardedService.withAccount("CHK_0", service -> service.getAccount("CHK_0")).join());
+        shardedService.addTransaction(
+            transactionService.createExpenseTransaction("CHK_0", new BigDecimal("20.00"), "Coffee", Category.FOOD)).join();
+        release.countDown();
+        transfer.join();
+
+        // Then: the transfer and the debit that fit were posted
+        assertTrue(overdrawn.getCause() instanceof IllegalStateException);
+        assertTrue(locked.getCause() instanceof IllegalStateException);
+        assertEquals(BigDecimal.ZERO.setScale(2),
+            shardedService.withAccount("CHK_0", service -> service.getAccount("CHK_0").orElseThrow().getBalance()).join());
+    }
+}
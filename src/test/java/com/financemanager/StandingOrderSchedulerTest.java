@@ -0,0 +1,158 @@
+package com.financemanager;
+
+import com.financemanager.model.*;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.StandingOrder;
+import com.financemanager.service.StandingOrderScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StandingOrderScheduler
+ * Time is driven by a settable clock, so no test waits on the ticker thread
+ */
+@DisplayName("Standing Order Scheduler Tests")
+class StandingOrderSchedulerTest {
+
+    private FinanceService financeService;
+    private SettableClock clock;
+    private StandingOrderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        financeService = new FinanceService();
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("5000.00")));
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, BigDecimal.ZERO));
+        clock = new SettableClock(LocalDateTime.of(2024, 1, 1, 0, 0));
+        scheduler = new StandingOrderScheduler(financeService, clock, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should post occurrences only once they fall due")
+    void shouldPostOccurrencesOnlyOnceTheyFallDue() {
+        // Given
+        scheduler.schedule(StandingOrder.expense("RENT", "ACC_001", new BigDecimal("1200.00"), "Rent",
+            Category.HOUSING, LocalDateTime.of(2024, 1, 1, 9, 0), Period.ofMonths(1)));
+
+        // When & Then
+        clock.set(LocalDateTime.of(2024, 1, 1, 8, 59));
+        assertEquals(0, scheduler.runPending());
+        clock.set(LocalDateTime.of(2024, 1, 1, 9, 0));
+        assertEquals(1, scheduler.runPending());
+        assertEquals(0, scheduler.runPending());
+        clock.set(LocalDateTime.of(2024, 1, 31, 23, 59));
+        assertEquals(0, scheduler.runPending());
+        clock.set(LocalDateTime.of(2024, 2, 1, 9, 0));
+        assertEquals(1, scheduler.runPending());
+
+        Transaction february = financeService.getTransaction("RENT_1").orElseThrow();
+        assertEquals(LocalDateTime.of(2024, 2, 1, 9, 0), february.getDate());
+        assertEquals(Category.HOUSING, february.getCategory());
+        assertEquals(new BigDecimal("2600.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should catch up every missed occurrence exactly once after downtime")
+    void shouldCatchUpMissedOccurrencesExactlyOnce() {
+        // Given: a weekly transfer and a salary, then a year without a run
+        scheduler.schedule(StandingOrder.transfer("SAVE", "ACC_001", "ACC_002", new BigDecimal("10.00"), "Savings",
+            LocalDateTime.of(2024, 1, 5, 6, 0), Period.ofWeeks(1)));
+        scheduler.schedule(StandingOrder.income("PAY", "ACC_001", new BigDecimal("3000.00"), "Payroll",
+            Category.SALARY, LocalDateTime.of(2024, 1, 31, 12, 0), Period.ofMonths(1))
+            .endingAt(LocalDateTime.of(2024, 6, 30, 0, 0)));
+        clock.set(LocalDateTime.of(2024, 12, 31, 0, 0));
+
+        // When
+        int posted = scheduler.runPending();
+
+        // Then: 52 weekly transfers of two legs each, and five salaries before the end date
+        assertEquals(52 * 2 + 5, posted);
+        assertEquals(new BigDecimal("520.00"), financeService.getAccount("ACC_002").orElseThrow().getBalance());
+        assertEquals(LocalDateTime.of(2024, 5, 31, 12, 0), financeService.getTransaction("PAY_4").orElseThrow().getDate());
+        assertEquals(LocalDateTime.of(2024, 2, 29, 12, 0), financeService.getTransaction("PAY_1").orElseThrow().getDate());
+
+        // When: a restarted scheduler replays the same orders from the start
+        StandingOrderScheduler restarted = new StandingOrderScheduler(financeService, clock, Duration.ofMinutes(1));
+        restarted.schedule(StandingOrder.transfer("SAVE", "ACC_001", "ACC_002", new BigDecimal("10.00"), "Savings",
+            LocalDateTime.of(2024, 1, 5, 6, 0), Period.ofWeeks(1)));
+
+        // Then
+        assertEquals(0, restarted.runPending());
+        assertEquals(1, restarted.getOrderCount());
+        assertEquals(1, scheduler.getOrderCount());
+    }
+
+    @Test
+    @DisplayName("Should fire thousands of orders spread over a long horizon")
+    void shouldFireOrdersSpreadOverLongHorizon() {
+        // Given: deadlines from a minute to 95 years ahead, past the top wheel into overflow
+        int orders = 5_000;
+        for (int i = 0; i < orders; i++) {
+            scheduler.schedule(StandingOrder.expense("SO_" + i, "ACC_001", new BigDecimal("0.01"), "Order " + i,
+                Category.OTHER_EXPENSE, LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(1L + (long) i * i * 2),
+                Period.ofYears(100)));
+        }
+
+        // When & Then
+        clock.set(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(1L + 2_500L * 2_500 * 2));
+        assertEquals(2_501, scheduler.runPending());
+        clock.set(LocalDateTime.of(2123, 1, 1, 0, 0));
+        assertEquals(orders - 2_501, scheduler.runPending());
+        assertEquals(orders, financeService.getAllTransactions().size());
+    }
+
+    @Test
+    @DisplayName("Should drop orders whose account was removed")
+    void shouldDropOrdersWhoseAccountWasRemoved() {
+        // Given
+        scheduler.schedule(StandingOrder.transfer("SAVE", "ACC_001", "ACC_002", new BigDecimal("10.00"), "Savings",
+            LocalDateTime.of(2024, 1, 5, 6, 0), Period.ofWeeks(1)));
+        financeService.removeAccount("ACC_002");
+
+        // When
+        clock.set(LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        // Then
+        assertEquals(0, scheduler.runPending());
+        assertEquals(0, scheduler.getOrderCount());
+    }
+
+    private static final class SettableClock extends Clock {
+        private Instant now;
+
+        SettableClock(LocalDateTime start) {
+            set(start);
+        }
+
+        void set(LocalDateTime time) {
+            now = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.financemanager;
+
+import com.financemanager.model.*;
+import com.financemanager.service.FileIngestReport;
+import com.financemanager.service.FinanceService;
+import com.financemanager.service.StatementIngestDaemon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StatementIngestDaemon
+ * Drops statement files into a temporary inbox and checks what reaches the ledger
+ */
+@DisplayName("Statement Ingest Daemon Tests")
+class StatementIngestDaemonTest {
+
+    private FinanceService financeService;
+    private Path inbox;
+    private StatementIngestDaemon daemon;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        financeService = new FinanceService();
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        financeService.addAccount(new Account("ACC_002", "Savings", AccountType.SAVINGS, new BigDecimal("500.00")));
+        inbox = Files.createTempDirectory("statements");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (daemon != null) {
+            daemon.close();
+        }
+        try (Stream<Path> paths = Files.walk(inbox)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should post a dropped statement once and recognise the same export dropped again")
+    void shouldIngestDroppedStatementOnce() throws Exception {
+        // Given
+        daemon = new StatementIngestDaemon(financeService, inbox, 2, 2, 2, Duration.ofMillis(50));
+        daemon.start();
+        String statement = "date,account,description,amount,category\n"
+            + "2024-03-05,ACC_001,\"Corner Grocery, Main St\",-42.50,FOOD\n"
+            + "2024-03-06T09:00,ACC_001,Salary,2500.00,\n"
+            + "2024-03-07,ACC_002,Interest,1.25,OTHER_INCOME\n"
+            + "2024-03-08,ACC_404,Unknown account,-5.00,FOOD\n"
+            + "not a date,ACC_001,Broken row,-1.00,FOOD\n";
+
+        // When
+        drop("march.csv", statement);
+
+        // Then
+        assertTrue(daemon.awaitFinished(1, Duration.ofSeconds(10)));
+        FileIngestReport report = daemon.getReports().get(0);
+        assertEquals(FileIngestReport.Status.COMPLETED, report.getStatus());
+        assertEquals(5, report.getRows());
+        assertEquals(3, report.getAdded());
+        assertEquals(2, report.getRejected());
+        assertNotNull(report.getFirstError());
+        assertEquals(new BigDecimal("3457.50"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+        assertEquals(new BigDecimal("501.25"), financeService.getAccount("ACC_002").orElseThrow().getBalance());
+        assertTrue(financeService.searchTransactions("corner grocery, main st").size() == 1);
+        assertTrue(Files.exists(inbox.resolve("processed").resolve("march.csv")));
+        assertFalse(Files.exists(inbox.resolve("march.csv")));
+
+        // When: the same export arrives under another name
+        drop("march-copy.csv", statement);
+
+        // Then
+        assertTrue(daemon.awaitFinished(2, Duration.ofSeconds(10)));
+        FileIngestReport duplicate = daemon.getReports().get(1);
+        assertEquals(FileIngestReport.Status.DUPLICATE, duplicate.getStatus());
+        assertEquals(report.getContentHash(), duplicate.getContentHash());
+        assertEquals(3, financeService.getAllTransactions().size());
+    }
+
+    @Test
+    @DisplayName("Should stream a large statement through the bounded queue and resume a file claimed before a restart")
+    void shouldStreamLargeStatementAndResumeAfterRestart() throws Exception {
+        // Given: a statement far larger than the queue holds
+        daemon = new StatementIngestDaemon(financeService, inbox, 2, 2, 100, Duration.ofMillis(50));
+        daemon.start();
+        StringBuilder statement = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            statement.append("2024-").append(String.format("%02d", 1 + i % 12)).append("-15,ACC_00")
+                .append(1 + i % 2).append(",Payee ").append(i % 50).append(",-1.00,SHOPPING\n");
+        }
+
+        // When
+        drop("year.csv", statement.toString());
+
+        // Then
+        assertTrue(daemon.awaitFinished(1, Duration.ofSeconds(30)));
+        FileIngestReport report = daemon.getReports().get(0);
+        assertEquals(FileIngestReport.Status.COMPLETED, report.getStatus(), report.toString());
+        assertEquals(20_000, report.getAdded());
+        assertTrue(report.getRowsPerSecond() > 0);
+        assertTrue(daemon.getQueuedBatches() <= 2);
+        assertEquals(new BigDecimal("-9000.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+
+        // When: the file is back in .processing and missing from the journal, as after a crash before journaling
+        daemon.close();
+        Files.move(inbox.resolve("processed").resolve("year.csv"), inbox.resolve(".processing").resolve("year.csv"));
+        Files.delete(inbox.resolve("processed").resolve(".ingested"));
+        daemon = new StatementIngestDaemon(financeService, inbox, 2, 2, 100, Duration.ofMillis(50));
+        daemon.start();
+
+        // Then: it is finished without posting any row twice
+        assertTrue(daemon.awaitFinished(1, Duration.ofSeconds(30)));
+        List<FileIngestReport> reports = daemon.getReports();
+        assertEquals(FileIngestReport.Status.COMPLETED, reports.get(0).getStatus());
+        assertEquals(0, reports.get(0).getAdded());
+        assertEquals(20_000, reports.get(0).getSkipped());
+        assertEquals(20_000, financeService.getAllTransactions().size());
+        assertTrue(financeService.verifyBalances().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should post only the corrected rows when a fixed copy of a partly posted statement is dropped")
+    void shouldPostOnlyCorrectedRowsOfFixedStatement() throws Exception {
+        // Given: a statement with one bad row, posted apart from that row
+        daemon = new StatementIngestDaemon(financeService, inbox, 2, 2, 2, Duration.ofMillis(50));
+        daemon.start();
+        drop("april.csv", "2024-04-02,ACC_001,Coffee,-3.50,FOOD\n"
+            + "2024-04-02,ACC_001,Coffee,-3.50,FOOD\n"
+            + "2024-04-03,ACC_001,Bookshop,-x,SHOPPING\n");
+        assertTrue(daemon.awaitFinished(1, Duration.ofSeconds(10)));
+        assertEquals(2, daemon.getReports().get(0).getAdded());
+        assertEquals(1, daemon.getReports().get(0).getRejected());
+
+        // When: the corrected export arrives, with a header and the rows in another order
+        drop("april-fixed.csv", "date,account,description,amount,category\n"
+            + "2024-04-03,ACC_001,Bookshop,-12.00,SHOPPING\n"
+            + "2024-04-02,ACC_001,Coffee,-3.50,FOOD\n"
+            + "2024-04-02,ACC_001,Coffee,-3.50,FOOD\n");
+
+        // Then: both coffees are recognised as posted and only the bookshop row is added
+        assertTrue(daemon.awaitFinished(2, Duration.ofSeconds(10)));
+        FileIngestReport fixed = daemon.getReports().get(1);
+        assertEquals(FileIngestReport.Status.COMPLETED, fixed.getStatus());
+        assertEquals(1, fixed.getAdded());
+        assertEquals(2, fixed.getSkipped());
+        assertEquals(3, financeService.getAllTransactions().size());
+        assertEquals(new BigDecimal("981.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should fail a statement whose batch throws unexpectedly and accept it when dropped again")
+    void shouldFailStatementWhenPostingThrows() throws Exception {
+        // Given: a ledger whose first batch write fails with something other than a refusal
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        financeService = new FinanceService() {
+            @Override
+            public void addTransactions(Collection<Transaction> batch) {
+                if (failNext.getAndSet(false)) {
+                    throw new IllegalStateException("Disk full");
+                }
+                super.addTransactions(batch);
+            }
+        };
+        financeService.addAccount(new Account("ACC_001", "Checking", AccountType.CHECKING, new BigDecimal("1000.00")));
+        daemon = new StatementIngestDaemon(financeService, inbox, 2, 2, 100, Duration.ofMillis(50));
+        daemon.start();
+        String statement = "2024-05-01,ACC_001,Coffee,-3.50,FOOD\n2024-05-02,ACC_001,Lunch,-9.00,FOOD\n";
+
+        // When
+        drop("may.csv", statement);
+
+        // Then: the file is finished as failed rather than left in processing
+        assertTrue(daemon.awaitFinished(1, Duration.ofSeconds(10)));
+        FileIngestReport failed = daemon.getReports().get(0);
+        assertEquals(FileIngestReport.Status.FAILED, failed.getStatus());
+        assertTrue(failed.getFirstError().contains("Disk full"));
+        assertTrue(Files.exists(inbox.resolve("failed").resolve("may.csv")));
+        assertTrue(financeService.getAllTransactions().isEmpty());
+
+        // When: the same export is dropped again
+        drop("may.csv", statement);
+
+        // Then: it is posted, not reported as a duplicate
+        assertTrue(daemon.awaitFinished(2, Duration.ofSeconds(10)));
+        assertEquals(FileIngestReport.Status.COMPLETED, daemon.getReports().get(1).getStatus());
+        assertEquals(2, financeService.getAllTransactions().size());
+    }
+
+    @Test
+    @DisplayName("Should keep identical rows apart when a statement returns to an earlier date")
+    void shouldNumberIdenticalRowsAcrossDateRuns() throws Exception {
+        // Given
+        daemon = new StatementIngestDaemon(financeService, inbox, 2, 2, 100, Duration.ofMillis(50));
+        daemon.start();
+
+        // When: the same coffee appears twice on one date, with another date's row between them
+        drop("june.csv", "2024-06-01,ACC_001,Coffee,-3.50,FOOD\n"
+            + "2024-06-02,ACC_001,Tea,-2.00,FOOD\n"
+            + "2024-06-01,ACC_001,Coffee,-3.50,FOOD\n");
+
+        // Then: both are posted rather than the second being taken for the first
+        assertTrue(daemon.awaitFinished(1, Duration.ofSeconds(10)));
+        assertEquals(3, daemon.getReports().get(0).getAdded());
+        assertEquals(0, daemon.getReports().get(0).getSkipped());
+        assertEquals(new BigDecimal("991.00"), financeService.getAccount("ACC_001").orElseThrow().getBalance());
+    }
+
+    private void drop(String name, String content) throws IOException {
+        // Written elsewhere and moved in, as a download or export tool would
+        Path staged = Files.createTempFile("statement", ".tmp");
+        Files.writeString(staged, content);
+        Files.move(staged, inbox.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,141 @@
+package com.financemanager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financemanager.model.*;
+import com.financemanager.service.TransactionBatchReader;
+import com.financemanager.service.TransactionCodec;
+import com.financemanager.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TransactionCodec
+ * Round trips batches through the binary format and compares its size with JSON
+ */
+@DisplayName("Transaction Codec Tests")
+class TransactionCodecTest {
+
+    private final TransactionService transactionService = new TransactionService();
+
+    @Test
+    @DisplayName("Should round trip every persistent field, with and without compression")
+    void shouldRoundTripEveryField() {
+        // Given
+        List<Transaction> ledger = ledger(2_000);
+        Transaction precise = transactionService.createIncomeTransaction(
+            "ACC_002", new BigDecimal("1234567.89"), "Bonus \u00e9t\u00e9", null);
+        precise.setDate(LocalDateTime.of(1999, 12, 31, 23, 59, 59, 123_456_789));
+        precise.setCurrency(Currency.getInstance("EUR"));
+        ledger.add(precise);
+
+        for (boolean compress : new boolean[]{false, true}) {
+            // When
+            ByteBuffer buffer = ByteBuffer.wrap(TransactionCodec.encode(ledger, compress));
+            List<Transaction> decoded = TransactionCodec.decode(buffer);
+
+            // Then
+            assertFalse(buffer.hasRemaining());
+            assertEquals(ledger.size(), decoded.size());
+            for (int i = 0; i < ledger.size(); i++) {
+                Transaction expected = ledger.get(i);
+                Transaction actual = decoded.get(i);
+                assertEquals(expected.getId(), actual.getId());
+                assertEquals(expected.getAccountId(), actual.getAccountId());
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getAmount(), actual.getAmount());
+                assertEquals(expected.getDescription(), actual.getDescription());
+                assertEquals(expected.getCategory(), actual.getCategory());
+                assertEquals(expected.getCurrency(), actual.getCurrency());
+                assertEquals(expected.getDate(), actual.getDate());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode at least five times smaller than JSON")
+    void shouldEncodeSmallerThanJson() throws Exception {
+        // Given
+        List<Transaction> ledger = ledger(10_000);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Transaction transaction : ledger) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", transaction.getId());
+            row.put("accountId", transaction.getAccountId());
+            row.put("type", transaction.getType());
+            row.put("amount", transaction.getAmount());
+            row.put("description", transaction.getDescription());
+            row.put("category", transaction.getCategory());
+            row.put("currency", transaction.getCurrency().getCurrencyCode());
+            row.put("date", transaction.getDate().toString());
+            rows.add(row);
+        }
+
+        // When
+        int jsonSize = new ObjectMapper().writeValueAsBytes(rows).length;
+        int binarySize = TransactionCodec.encode(ledger).length;
+        int compressedSize = TransactionCodec.encode(ledger, true).length;
+
+        // Then
+        assertTrue(binarySize * 5 <= jsonSize, "binary " + binarySize + " vs JSON " + jsonSize);
+        assertTrue(compressedSize <= binarySize);
+    }
+
+    @Test
+    @DisplayName("Should total a batch from the buffer without materializing rows")
+    void shouldTotalBatchFromBuffer() {
+        // Given: two batches back to back in one direct buffer
+        List<Transaction> first = ledger(500);
+        List<Transaction> second = ledger(300);
+        byte[] a = TransactionCodec.encode(first);
+        byte[] b = TransactionCodec.encode(second, true);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(a.length + b.length);
+        buffer.put(a).put(b).flip();
+
+        // When
+        long firstNet = 0;
+        TransactionBatchReader reader = TransactionCodec.reader(buffer);
+        while (reader.next()) {
+            firstNet += reader.getSignedAmountCents();
+        }
+        List<Transaction> secondDecoded = TransactionCodec.decode(buffer);
+
+        // Then
+        assertEquals(first.stream().mapToLong(Transaction::getSignedAmountCents).sum(), firstNet);
+        assertEquals(second.size(), secondDecoded.size());
+        assertFalse(buffer.hasRemaining());
+        assertThrows(IllegalArgumentException.class,
+            () -> TransactionCodec.decode(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6})));
+    }
+
+    private List<Transaction> ledger(int size) {
+        String[] merchants = {"Corner Grocery", "City Transit", "Coffee House", "Online Books", "Power Company"};
+        Category[] categories = {Category.FOOD, Category.TRANSPORTATION, Category.FOOD, Category.EDUCATION, Category.UTILITIES};
+        Random random = new Random(42);
+        LocalDateTime date = LocalDateTime.of(2023, 1, 1, 8, 0);
+        List<Transaction> ledger = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            date = date.plusMinutes(random.nextInt(600));
+            int merchant = random.nextInt(merchants.length);
+            Transaction transaction = i % 20 == 0
+                ? transactionService.createIncomeTransaction("ACC_001", new BigDecimal("2500.00"), "Salary", Category.SALARY)
+                : transactionService.createExpenseTransaction("ACC_00" + (1 + random.nextInt(3)),
+                    BigDecimal.valueOf(100 + random.nextInt(20_000), 2), merchants[merchant], categories[merchant]);
+            transaction.setDate(date);
+            transaction.setCurrency(Money.DEFAULT_CURRENCY);
+            ledger.add(transaction);
+        }
+        return ledger;
+    }
+}
@@ -243,4 +243,20 @@ class TransactionServiceTest {
         assertTrue(transaction1.getId().startsWith("TXN_"));
         assertTrue(transaction2.getId().startsWith("TXN_"));
     }
+
+    @Test
+    @DisplayName("Should keep the amount and its cents unchanged when a new amount is rejected")
+    void shouldKeepAmountWhenRejected() {
+        // Given
+        Transaction transaction = transactionService.createExpenseTransaction(
+            "ACC_001", new BigDecimal("12.50"), "Lunch", Category.FOOD);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> transaction.setAmount(new BigDecimal("12.505")));
+        assertThrows(IllegalArgumentException.class, () -> transaction.setAmount(new BigDecimal("-3.00")));
+
+        // Then
+        assertEquals(new BigDecimal("12.50"), transaction.getAmount());
+        assertEquals(1250L, transaction.getAmountCents());
+    }
 }